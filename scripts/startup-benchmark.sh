@@ -0,0 +1,85 @@
+#!/usr/bin/env bash
+#
+# Compares startup time (until /actuator/health reports UP) and resident memory of the
+# packaged variants of the application.
+#
+#   mvn -Pcds package -DskipTests            # target/*.jar, target/cds/ with application.jsa
+#   mvn -Pnative native:compile -DskipTests  # target/json-dataset-api (optional)
+#   scripts/startup-benchmark.sh [runs]
+#
+# Database settings come from the usual SPRING_DATASOURCE_* environment variables.
+# Variants whose artifacts are missing are skipped.
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${BENCH_PORT:-18090}"
+TARGET_DIR="$(cd "$(dirname "$0")/.." && pwd)/target"
+JAR="$(ls "$TARGET_DIR"/json-dataset-api-*.jar 2>/dev/null | grep -v original | head -1 || true)"
+CDS_DIR="$TARGET_DIR/cds"
+NATIVE_BIN="$TARGET_DIR/json-dataset-api"
+HEALTH_URL="http://localhost:$PORT/actuator/health"
+
+now_ms() {
+  date +%s%3N
+}
+
+rss_kb() {
+  awk '/VmRSS/ { print $2 }' "/proc/$1/status" 2>/dev/null || ps -o rss= -p "$1"
+}
+
+# Starts one variant, waits until it is healthy and prints "<startup ms> <rss kb>"
+measure() {
+  local workdir="$1"; shift
+  local start pid elapsed rss
+  start=$(now_ms)
+  (cd "$workdir" && exec "$@" --server.port="$PORT" >/dev/null 2>&1) &
+  pid=$!
+
+  until curl -sf "$HEALTH_URL" 2>/dev/null | grep -q '"UP"'; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "failed to start: $*" >&2
+      return 1
+    fi
+    sleep 0.05
+  done
+  elapsed=$(( $(now_ms) - start ))
+
+  # Let lazy initialisation settle before sampling memory
+  sleep 2
+  rss=$(rss_kb "$pid")
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$elapsed $rss"
+}
+
+run_variant() {
+  local name="$1" workdir="$2"; shift 2
+  local total_ms=0 total_rss=0 result ms rss
+  for _ in $(seq 1 "$RUNS"); do
+    result=$(measure "$workdir" "$@") || return 0
+    read -r ms rss <<< "$result"
+    total_ms=$(( total_ms + ms ))
+    total_rss=$(( total_rss + rss ))
+  done
+  printf "%-10s %12d %12d\n" "$name" $(( total_ms / RUNS )) $(( total_rss / RUNS / 1024 ))
+}
+
+printf "%-10s %12s %12s\n" "variant" "startup ms" "rss MB"
+
+if [[ -n "$JAR" ]]; then
+  run_variant "jvm" "$TARGET_DIR" java -jar "$JAR"
+  if unzip -l "$JAR" 2>/dev/null | grep -q '__ApplicationContextInitializer'; then
+    run_variant "aot" "$TARGET_DIR" java -Dspring.aot.enabled=true -jar "$JAR"
+  fi
+fi
+
+if [[ -f "$CDS_DIR/application.jsa" ]]; then
+  run_variant "aot+cds" "$CDS_DIR" java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+    -jar "$(basename "$JAR")"
+fi
+
+if [[ -x "$NATIVE_BIN" ]]; then
+  run_variant "native" "$TARGET_DIR" "$NATIVE_BIN"
+fi
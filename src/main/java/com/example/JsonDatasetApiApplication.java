@@ -1,10 +1,15 @@
 package com.example;
 
+import com.example.config.DatasetRuntimeHints;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(DatasetRuntimeHints.class)
 @Slf4j
 public class JsonDatasetApiApplication {
 
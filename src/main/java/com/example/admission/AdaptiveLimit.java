@@ -0,0 +1,81 @@
+package com.example.admission;
+
+/**
+ * AIMD concurrency limit steered by latency. The no-load latency is the smallest one seen in the
+ * current window of samples; a sample slower than {@code tolerance} times that (or than the lane's
+ * target, whichever is larger) means requests are queuing downstream, and the limit is cut by
+ * {@code backoffRatio}. Fast samples taken while the lane was at least half busy grow the limit by
+ * one per limit's worth of samples, roughly one slot per round trip.
+ *
+ * <p>Not thread-safe; {@link Bulkhead} calls it under its lock.
+ */
+class AdaptiveLimit {
+
+    // Samples per window; the no-load estimate is re-taken from each window so it can also rise
+    static final int WINDOW = 200;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetNanos;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    private double limit;
+    private long noLoadNanos = Long.MAX_VALUE;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private long lastDecreaseNanos = Long.MIN_VALUE;
+    private double averageNanos;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, long targetMs, double tolerance, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limit bounds: " + minLimit + ".." + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetNanos = targetMs * 1_000_000L;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    int get() {
+        return (int) limit;
+    }
+
+    long getAverageLatencyMs() {
+        return (long) (averageNanos / 1_000_000);
+    }
+
+    /**
+     * @param startNanos  when the request was admitted
+     * @param latency     how long it held its slot
+     * @param inFlight    requests in flight when it was admitted, itself included
+     * @param dropped     whether it failed in a way that signals overload (timeout, 503)
+     */
+    void onSample(long startNanos, long latency, int inFlight, boolean dropped) {
+        averageNanos = averageNanos == 0 ? latency : averageNanos * 0.9 + latency * 0.1;
+
+        windowMinNanos = Math.min(windowMinNanos, latency);
+        noLoadNanos = Math.min(noLoadNanos, latency);
+        if (++windowSamples >= WINDOW) {
+            noLoadNanos = windowMinNanos;
+            windowMinNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+
+        long threshold = Math.max(targetNanos, (long) (noLoadNanos * tolerance));
+        if (dropped || latency > threshold) {
+            // Requests admitted before the last cut already saw the old limit; one cut per round trip
+            if (startNanos > lastDecreaseNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseNanos = System.nanoTime();
+            }
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+}
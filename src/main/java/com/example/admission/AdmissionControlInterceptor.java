@@ -0,0 +1,130 @@
+package com.example.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Admits API requests through the bulkhead of their lane before the handler runs, and hands the
+ * slot back with the observed latency when the response completes. Async bodies keep their slot
+ * until they finish; long-lived emitters (SSE tails) and long polls give it back as soon as the
+ * handler returns, without a latency sample, since the time they then spend waiting is not load.
+ * Nor do {@code 304 Not Modified} answers count as samples: they are a version lookup, and would
+ * make a lane of scans look faster than it is.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".permit";
+
+    private final Map<Lane, Bulkhead> bulkheads;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        // Async redispatches were admitted on the original request
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+
+        Lane lane = laneOf(method, request);
+        String datasetName = datasetOf(request);
+        try {
+            request.setAttribute(PERMIT_ATTRIBUTE, bulkheads.get(lane).acquire(datasetName));
+            return true;
+        } catch (AdmissionRejectedException e) {
+            reject(response, e);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(response, new AdmissionRejectedException(lane, datasetName, false, 1, "Interrupted while queued"));
+            return false;
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method && releasesWhenAsync(method)) {
+            release(request, false, false);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        int status = response.getStatus();
+        boolean dropped = status == HttpStatus.SERVICE_UNAVAILABLE.value() || status == HttpStatus.GATEWAY_TIMEOUT.value();
+        release(request, status != HttpStatus.NOT_MODIFIED.value(), dropped);
+    }
+
+    public static Lane laneOf(HandlerMethod method, HttpServletRequest request) {
+        AdmitAs admitAs = admitAs(method);
+        if (admitAs != null) {
+            return admitAs.value();
+        }
+        String httpMethod = request.getMethod();
+        return "GET".equals(httpMethod) || "HEAD".equals(httpMethod) ? Lane.LIGHT_READ : Lane.WRITE;
+    }
+
+    private static AdmitAs admitAs(HandlerMethod method) {
+        AdmitAs admitAs = method.getMethodAnnotation(AdmitAs.class);
+        return admitAs != null ? admitAs : method.getBeanType().getAnnotation(AdmitAs.class);
+    }
+
+    private static boolean releasesWhenAsync(HandlerMethod method) {
+        Class<?> returnType = method.getReturnType().getParameterType();
+        AdmitAs admitAs = admitAs(method);
+        return ResponseBodyEmitter.class.isAssignableFrom(returnType)
+                || DeferredResult.class.isAssignableFrom(returnType)
+                || (admitAs != null && admitAs.releaseWhenAsync());
+    }
+
+    static String datasetOf(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables instanceof Map<?, ?> map && map.get("datasetName") instanceof String datasetName) {
+            return datasetName.trim().toLowerCase();
+        }
+        return "";
+    }
+
+    private void release(HttpServletRequest request, boolean sample, boolean dropped) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Bulkhead.Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            bulkheads.get(permit.lane()).release(permit, System.nanoTime() - permit.startNanos(), sample, dropped);
+        }
+    }
+
+    private void reject(HttpServletResponse response, AdmissionRejectedException e) throws IOException {
+        HttpStatus status = e.isDatasetLimited() ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+        log.debug("Shed {} request for dataset: {} ({})", e.getLane(), e.getDatasetName(), e.getMessage());
+
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", e.isDatasetLimited() ? "Too many requests" : "Service overloaded");
+        errorResponse.put("message", e.getMessage());
+        errorResponse.put("lane", e.getLane());
+        errorResponse.put("retryAfterSeconds", e.getRetryAfterSeconds());
+        errorResponse.put("timestamp", LocalDateTime.now());
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.admission;
+
+import java.util.Map;
+
+/**
+ * The lane bulkheads, for work admitted below the level of a request: the operations of a batch
+ * each take a slot of their own rather than sharing the one of the request that carried them.
+ */
+public class AdmissionGate {
+
+    private final Map<Lane, Bulkhead> bulkheads;
+
+    public AdmissionGate(Map<Lane, Bulkhead> bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    public Bulkhead.Permit acquire(Lane lane, String datasetName) throws InterruptedException {
+        return bulkheads.get(lane).acquire(datasetName == null ? "" : datasetName.trim().toLowerCase());
+    }
+
+    /** @param dropped whether the work failed in a way that signals overload, such as a timeout */
+    public void release(Bulkhead.Permit permit, boolean dropped) {
+        bulkheads.get(permit.lane()).release(permit, System.nanoTime() - permit.startNanos(), true, dropped);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.admission;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request is shed. A dataset that floods its own share of the queue gets a 429;
+ * a lane that is full for everybody gets a 503.
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final Lane lane;
+    private final String datasetName;
+    private final boolean datasetLimited;
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(Lane lane, String datasetName, boolean datasetLimited,
+                                      long retryAfterSeconds, String message) {
+        super(message);
+        this.lane = lane;
+        this.datasetName = datasetName;
+        this.datasetLimited = datasetLimited;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.admission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a handler in a specific lane. Unannotated handlers go to LIGHT_READ for GET and HEAD and to
+ * WRITE for everything else.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmitAs {
+
+    Lane value();
+
+    /**
+     * Whether the request's slot is handed back as soon as its async body starts, for bodies that
+     * admit their own work through the {@link AdmissionGate}.
+     */
+    boolean releaseWhenAsync() default false;
+}
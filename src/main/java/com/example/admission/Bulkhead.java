@@ -0,0 +1,214 @@
+package com.example.admission;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency gate for one lane. Requests run while fewer than the adaptive limit are in flight;
+ * beyond that they wait in per-dataset queues for a bounded time. Freed slots go round-robin over
+ * the waiting datasets, skipping those already holding more than their share of the limit while
+ * anyone else waits, so one busy dataset cannot starve the rest. Waiting blocks the calling
+ * thread, which is why the queue length is capped as well as the wait.
+ */
+public class Bulkhead {
+
+    private final Lane lane;
+    private final AdaptiveLimit limit;
+    private final double maxDatasetShare;
+    private final int maxQueueLength;
+    private final long maxQueueWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Integer> inFlightByDataset = new HashMap<>();
+    // Datasets with waiters in round-robin order; a dataset moves to the back once served
+    private final LinkedHashMap<String, ArrayDeque<Waiter>> waiting = new LinkedHashMap<>();
+    private int inFlight;
+    private int queued;
+
+    public record Permit(Lane lane, String datasetName, long startNanos, int inFlightAtStart) {
+    }
+
+    private static final class Waiter {
+        private final String datasetName;
+        private final Condition signal;
+        private Permit permit;
+
+        private Waiter(String datasetName, Condition signal) {
+            this.datasetName = datasetName;
+            this.signal = signal;
+        }
+    }
+
+    public Bulkhead(Lane lane, int initialLimit, int minLimit, int maxLimit, long latencyTargetMs,
+                    double latencyTolerance, double backoffRatio, double maxDatasetShare,
+                    int maxQueueLength, long maxQueueWaitMs) {
+        this.lane = lane;
+        this.limit = new AdaptiveLimit(initialLimit, minLimit, maxLimit, latencyTargetMs, latencyTolerance, backoffRatio);
+        this.maxDatasetShare = maxDatasetShare;
+        this.maxQueueLength = maxQueueLength;
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+    }
+
+    public Permit acquire(String datasetName) throws InterruptedException {
+        lock.lock();
+        try {
+            // Waiters only remain while the lane is full, so a free slot means nobody is ahead
+            if (inFlight < limit.get()) {
+                return grant(datasetName);
+            }
+            if (maxQueueWaitNanos <= 0 || queued >= maxQueueLength) {
+                throw reject(datasetName, false, "Lane " + lane + " is at capacity");
+            }
+            ArrayDeque<Waiter> queue = waiting.get(datasetName);
+            if (queue != null && queue.size() >= datasetQueueQuota()) {
+                throw reject(datasetName, true, "Too many queued " + lane + " requests for dataset");
+            }
+
+            Waiter waiter = new Waiter(datasetName, lock.newCondition());
+            waiting.computeIfAbsent(datasetName, k -> new ArrayDeque<>()).add(waiter);
+            queued++;
+
+            long remaining = maxQueueWaitNanos;
+            try {
+                while (waiter.permit == null && remaining > 0) {
+                    remaining = waiter.signal.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.permit != null) {
+                    release(waiter.permit, 0, false, false);
+                } else {
+                    removeWaiter(waiter);
+                }
+                throw e;
+            }
+            if (waiter.permit == null) {
+                removeWaiter(waiter);
+                throw reject(datasetName, false, "Timed out waiting for a " + lane + " slot");
+            }
+            return waiter.permit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param sample   whether the latency reflects the work done; false for permits handed back early
+     * @param dropped  whether the request failed in a way that signals overload
+     */
+    public void release(Permit permit, long latencyNanos, boolean sample, boolean dropped) {
+        lock.lock();
+        try {
+            inFlight--;
+            inFlightByDataset.computeIfPresent(permit.datasetName(), (k, v) -> v > 1 ? v - 1 : null);
+            if (sample) {
+                limit.onSample(permit.startNanos(), latencyNanos, permit.inFlightAtStart(), dropped);
+            }
+            while (queued > 0 && inFlight < limit.get()) {
+                Waiter next = pollNext();
+                next.permit = grant(next.datasetName);
+                next.signal.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Lane getLane() {
+        return lane;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAverageLatencyMs() {
+        lock.lock();
+        try {
+            return limit.getAverageLatencyMs();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Permit grant(String datasetName) {
+        inFlight++;
+        inFlightByDataset.merge(datasetName, 1, Integer::sum);
+        return new Permit(lane, datasetName, System.nanoTime(), inFlight);
+    }
+
+    // First waiting dataset under its share, or the first one at all when every waiter is over
+    private Waiter pollNext() {
+        int share = datasetShare();
+        String chosen = null;
+        for (String datasetName : waiting.keySet()) {
+            if (inFlightByDataset.getOrDefault(datasetName, 0) < share) {
+                chosen = datasetName;
+                break;
+            }
+        }
+        if (chosen == null) {
+            chosen = waiting.keySet().iterator().next();
+        }
+        ArrayDeque<Waiter> queue = waiting.remove(chosen);
+        Waiter next = queue.poll();
+        if (!queue.isEmpty()) {
+            waiting.put(chosen, queue);
+        }
+        queued--;
+        return next;
+    }
+
+    private void removeWaiter(Waiter waiter) {
+        ArrayDeque<Waiter> queue = waiting.get(waiter.datasetName);
+        if (queue != null && queue.remove(waiter)) {
+            queued--;
+            if (queue.isEmpty()) {
+                waiting.remove(waiter.datasetName);
+            }
+        }
+    }
+
+    private int datasetShare() {
+        return Math.max(1, (int) Math.ceil(limit.get() * maxDatasetShare));
+    }
+
+    private int datasetQueueQuota() {
+        return Math.max(1, (int) Math.ceil(maxQueueLength * maxDatasetShare));
+    }
+
+    private AdmissionRejectedException reject(String datasetName, boolean datasetLimited, String message) {
+        // Time for the requests ahead to drain at the current latency, at least a second
+        long ahead = datasetLimited ? waiting.get(datasetName).size() : queued;
+        long drainMs = (ahead + 1) * limit.getAverageLatencyMs() / Math.max(1, limit.get());
+        long retryAfterSeconds = Math.max(1, (drainMs + 999) / 1000);
+        return new AdmissionRejectedException(lane, datasetName, datasetLimited, retryAfterSeconds, message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.admission;
+
+/**
+ * Work classes that get separate concurrency budgets, so a flood of one kind cannot take the
+ * connections and threads another kind needs.
+ */
+public enum Lane {
+    WRITE,
+    LIGHT_READ,
+    HEAVY_SCAN
+}
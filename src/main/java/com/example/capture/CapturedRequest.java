@@ -0,0 +1,17 @@
+package com.example.capture;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * One line of a workload trace: the shape of a request, not its content. {@code route} is the
+ * matched handler pattern, {@code dataset}, field names and free-text values are pseudonymized,
+ * {@code bytes} is the request body size and {@code micros} the time until the response was
+ * complete, streamed bodies included.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record CapturedRequest(long ts, String method, String route, String dataset,
+                              Map<String, String> vars, Map<String, String> params,
+                              Map<String, String> headers, long bytes, int status, long micros) {
+}
@@ -0,0 +1,10 @@
+package com.example.capture;
+
+import java.util.Map;
+
+/**
+ * Trace line with the record count of every (pseudonymized) dataset when capture started, so a
+ * replay can seed a local instance with datasets of production size.
+ */
+public record DatasetSnapshot(long ts, Map<String, Long> datasets) {
+}
@@ -0,0 +1,50 @@
+package com.example.capture;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+/**
+ * Replaces dataset names, field names and free-text values in captured requests with keyed
+ * hashes (HMAC-SHA256, first 48 bits). The same input always maps to the same token under one
+ * key, so a trace keeps its shape (which queries hit which dataset and field) without carrying
+ * the names themselves; without the key the tokens cannot be reversed by guessing names.
+ */
+public class Pseudonymizer {
+
+    private static final int TOKEN_BYTES = 6;
+
+    private final SecretKeySpec key;
+
+    public Pseudonymizer(byte[] key) {
+        if (key == null || key.length == 0) {
+            throw new IllegalArgumentException("Pseudonymization key cannot be empty");
+        }
+        this.key = new SecretKeySpec(key, "HmacSHA256");
+    }
+
+    public String dataset(String name) {
+        return token("ds_", name.trim().toLowerCase());
+    }
+
+    public String field(String name) {
+        return token("f_", name);
+    }
+
+    public String value(String value) {
+        return token("v_", value);
+    }
+
+    private String token(String prefix, String input) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            byte[] digest = mac.doFinal(input.getBytes(StandardCharsets.UTF_8));
+            return prefix + HexFormat.of().formatHex(digest, 0, TOKEN_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.capture;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Stand-in records for replayed inserts and seeding: every field the trace queries on, with small
+ * integer values so grouping and sorting have work to do, padded to the captured body size. The
+ * same random source always produces the same records.
+ */
+final class SyntheticRecords {
+
+    static final int DEFAULT_RECORD_BYTES = 256;
+
+    private static final int FIELD_CARDINALITY = 100;
+    private static final char[] PADDING = "abcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+
+    private SyntheticRecords() {
+    }
+
+    static Map<String, Object> record(Random random, Collection<String> fields, int targetBytes) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        // {"name":NN,...} - name, quotes, colon, comma and up to two digits per field
+        int size = 2;
+        for (String field : fields) {
+            record.put(field, random.nextInt(FIELD_CARDINALITY));
+            size += field.length() + 6;
+        }
+        int padding = targetBytes - size - "\"pad\":\"\",".length();
+        if (padding > 0) {
+            StringBuilder pad = new StringBuilder(padding);
+            for (int i = 0; i < padding; i++) {
+                pad.append(PADDING[random.nextInt(PADDING.length)]);
+            }
+            record.put("pad", pad.toString());
+        }
+        return record;
+    }
+}
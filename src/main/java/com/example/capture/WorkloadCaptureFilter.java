@@ -0,0 +1,146 @@
+package com.example.capture;
+
+import com.example.config.DataSourceRoutingConfig;
+import com.example.deadline.DeadlineInterceptor;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Records the shape of a sample of API requests into the {@link WorkloadCaptureLog}: route
+ * pattern, dataset, parameters, body size, status and latency. Dataset and field names and
+ * free-text values are pseudonymized; only parameters that carry no user data (orders, limits,
+ * modes, numbers, timestamps) and the headers that change how a request is served are kept as is.
+ * Request and response bodies are never read.
+ */
+public class WorkloadCaptureFilter extends OncePerRequestFilter {
+
+    static final String UNMATCHED_ROUTE = "unmatched";
+
+    private static final Set<String> KEPT_PARAMS = Set.of("order", "limit", "raw", "step", "mode", "top",
+            "includeRecords", "timeoutMs", "sinceId", "before", "from", "to");
+    static final Set<String> FIELD_PARAMS = Set.of("groupBy", "sortBy", "field", "fields");
+    private static final Set<String> KEPT_HEADERS = Set.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING,
+            DeadlineInterceptor.TIMEOUT_HEADER, DataSourceRoutingConfig.READ_YOUR_WRITES_HEADER);
+
+    private final WorkloadCaptureLog captureLog;
+    private final Pseudonymizer pseudonymizer;
+    private final double sampleRate;
+
+    public WorkloadCaptureFilter(WorkloadCaptureLog captureLog, Pseudonymizer pseudonymizer, double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("app.capture.sample-rate must be between 0 and 1");
+        }
+        this.captureLog = captureLog;
+        this.pseudonymizer = pseudonymizer;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (captureLog.isFull() || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long ts = System.currentTimeMillis();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streamed bodies: the request is done when the async context completes
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        captureLog.append(describe(request, response, ts, start));
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                captureLog.append(describe(request, response, ts, start));
+            }
+        }
+    }
+
+    CapturedRequest describe(HttpServletRequest request, HttpServletResponse response, long ts, long start) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : UNMATCHED_ROUTE;
+
+        String dataset = null;
+        Map<String, String> vars = new TreeMap<>();
+        if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> uriVariables) {
+            for (Map.Entry<?, ?> variable : uriVariables.entrySet()) {
+                String name = variable.getKey().toString();
+                String value = variable.getValue().toString();
+                if ("datasetName".equals(name)) {
+                    dataset = pseudonymizer.dataset(value);
+                } else if ("fieldName".equals(name)) {
+                    vars.put(name, pseudonymizer.field(value));
+                } else {
+                    vars.put(name, isNumber(value) ? value : pseudonymizer.value(value));
+                }
+            }
+        }
+
+        Map<String, String> params = new TreeMap<>();
+        request.getParameterMap().forEach((name, values) -> params.put(name, Arrays.stream(values)
+                .map(value -> pseudonymize(name, value))
+                .collect(Collectors.joining(","))));
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String header : KEPT_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                headers.put(header, value);
+            }
+        }
+
+        return new CapturedRequest(ts, request.getMethod(), route, dataset, vars, params, headers,
+                Math.max(request.getContentLengthLong(), 0), response.getStatus(),
+                (System.nanoTime() - start) / 1_000);
+    }
+
+    private String pseudonymize(String name, String value) {
+        if (KEPT_PARAMS.contains(name)) {
+            return value;
+        }
+        if (FIELD_PARAMS.contains(name)) {
+            return Arrays.stream(value.split(","))
+                    .map(field -> pseudonymizer.field(field.trim()))
+                    .collect(Collectors.joining(","));
+        }
+        return pseudonymizer.value(value);
+    }
+
+    private static boolean isNumber(String value) {
+        return !value.isEmpty() && value.chars().allMatch(Character::isDigit);
+    }
+}
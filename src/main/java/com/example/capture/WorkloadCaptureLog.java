@@ -0,0 +1,127 @@
+package com.example.capture;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends trace lines (NDJSON) to a local file from a single background thread. Request threads
+ * only serialize and enqueue; when the queue is full the line is dropped and counted instead of
+ * making the request wait. Capture stops for good once the file reaches its size cap.
+ */
+@Slf4j
+public class WorkloadCaptureLog implements AutoCloseable {
+
+    // Compared by identity: serialized lines are never this instance
+    private static final String POISON = new String();
+
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final long maxBytes;
+    private final BlockingQueue<String> queue;
+    private final Thread writerThread;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean full;
+
+    public WorkloadCaptureLog(ObjectMapper objectMapper, Path file, long maxBytes, int queueCapacity)
+            throws IOException {
+        this.objectMapper = objectMapper;
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        long initialSize = Files.size(file);
+        this.writerThread = new Thread(() -> drain(writer, initialSize), "workload-capture");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /** Returns whether the line was queued. */
+    public boolean append(Object line) {
+        if (full) {
+            return false;
+        }
+        try {
+            if (queue.offer(objectMapper.writeValueAsString(line))) {
+                return true;
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize workload trace line", e);
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    private void drain(BufferedWriter writer, long initialSize) {
+        long size = initialSize;
+        try (writer) {
+            while (true) {
+                String line = queue.take();
+                if (line == POISON) {
+                    break;
+                }
+                writer.write(line);
+                writer.write('\n');
+                written.incrementAndGet();
+                size += line.length() + 1;
+                if (size >= maxBytes) {
+                    full = true;
+                    log.warn("Workload capture file {} reached {} bytes, capture stopped", file, size);
+                    break;
+                }
+                if (queue.isEmpty()) {
+                    writer.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            full = true;
+            log.error("Failed to write workload trace to {}, capture stopped", file, e);
+        }
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Writes out what is queued, then stops the writer
+    @Override
+    public void close() throws InterruptedException {
+        full = true;
+        if (!queue.offer(POISON, 1, TimeUnit.SECONDS)) {
+            writerThread.interrupt();
+        }
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
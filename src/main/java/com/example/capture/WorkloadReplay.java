@@ -0,0 +1,406 @@
+package com.example.capture;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-drives a captured workload trace against a running instance and reports per-route latency
+ * and overall throughput, compared with the captured latencies or with the report of an earlier
+ * replay. Requests are sent at their captured offsets divided by the speed factor, in trace order,
+ * with synthetic bodies for inserts; the same trace and options always send the same requests.
+ * Routes whose bodies cannot be synthesized (schemas, rollup definitions, batches) and live tails
+ * are skipped.
+ *
+ * <pre>
+ * java -cp target/json-dataset-api-*.jar -Dloader.main=com.example.capture.WorkloadReplay \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher --trace workload.ndjson --speed 2
+ * </pre>
+ */
+public class WorkloadReplay {
+
+    static final String USAGE = """
+            Usage: WorkloadReplay --trace <file> [options]
+              --target <url>       instance to replay against (default http://localhost:8080)
+              --speed <n|max>      1 keeps the captured pace, 2 doubles it, max sends as fast as allowed (default 1)
+              --concurrency <n>    requests in flight at most (default 64)
+              --timeout-ms <n>     per-request timeout (default 60000)
+              --seed               first insert synthetic records, up to each dataset's captured size
+              --seed-limit <n>     records seeded per dataset at most (default 100000)
+              --report <file>      also write the report as JSON
+              --baseline <file>    compare with an earlier report instead of the captured latencies
+            """;
+
+    private static final int SEED_BATCH = 1_000;
+
+    record Options(Path trace, URI target, double speed, int concurrency, long timeoutMs,
+                   boolean seed, long seedLimit, Path report, Path baseline) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int i = 0; i < args.length; i++) {
+                if (!args[i].startsWith("--")) {
+                    throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                }
+                String name = args[i].substring(2);
+                if ("seed".equals(name)) {
+                    values.put(name, "true");
+                } else if (i + 1 < args.length) {
+                    values.put(name, args[++i]);
+                } else {
+                    throw new IllegalArgumentException("Missing value for --" + name);
+                }
+            }
+            if (!values.containsKey("trace")) {
+                throw new IllegalArgumentException("--trace is required");
+            }
+            String speed = values.getOrDefault("speed", "1");
+            Options options = new Options(Path.of(values.get("trace")),
+                    URI.create(values.getOrDefault("target", "http://localhost:8080").replaceAll("/+$", "")),
+                    "max".equals(speed) ? 0 : Double.parseDouble(speed),
+                    Integer.parseInt(values.getOrDefault("concurrency", "64")),
+                    Long.parseLong(values.getOrDefault("timeout-ms", "60000")),
+                    values.containsKey("seed"),
+                    Long.parseLong(values.getOrDefault("seed-limit", "100000")),
+                    values.containsKey("report") ? Path.of(values.get("report")) : null,
+                    values.containsKey("baseline") ? Path.of(values.get("baseline")) : null);
+            if (options.speed() < 0 || options.concurrency() < 1 || options.timeoutMs() < 1) {
+                throw new IllegalArgumentException("--speed, --concurrency and --timeout-ms must be positive");
+            }
+            return options;
+        }
+    }
+
+    private final Options options;
+    private final WorkloadTrace trace;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Set<String>> fieldsByDataset;
+    private final HttpClient client;
+
+    WorkloadReplay(Options options, WorkloadTrace trace, ObjectMapper objectMapper) {
+        this.options = options;
+        this.trace = trace;
+        this.objectMapper = objectMapper;
+        this.fieldsByDataset = trace.fieldsByDataset();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        WorkloadTrace trace = WorkloadTrace.read(options.trace(), objectMapper);
+        System.out.printf("Read %d requests over %.1f s from %s (%d unreadable lines)%n",
+                trace.requests().size(), trace.spanMillis() / 1000.0, options.trace(), trace.skippedLines());
+
+        WorkloadReplay replay = new WorkloadReplay(options, trace, objectMapper);
+        if (options.seed()) {
+            replay.seed();
+        }
+        Map<String, Object> report = replay.run();
+        Map<String, Object> baseline = options.baseline() != null
+                ? objectMapper.readValue(options.baseline().toFile(), new TypeReference<>() { })
+                : null;
+        System.out.print(format(report, baseline));
+        if (options.report() != null) {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(options.report().toFile(), report);
+        }
+    }
+
+    // Inserts records into every dataset the trace touches, as many as it had at capture time
+    void seed() throws IOException, InterruptedException {
+        long seeded = 0;
+        for (Map.Entry<String, Set<String>> dataset : fieldsByDataset.entrySet()) {
+            long count = Math.min(trace.datasetSizes().getOrDefault(dataset.getKey(), 0L), options.seedLimit());
+            int recordBytes = averageRecordBytes(dataset.getKey());
+            Random random = new Random(dataset.getKey().hashCode());
+            for (long done = 0; done < count; done += SEED_BATCH) {
+                List<Map<String, Object>> batch = new ArrayList<>();
+                for (long i = done; i < Math.min(count, done + SEED_BATCH); i++) {
+                    batch.add(SyntheticRecords.record(random, dataset.getValue(), recordBytes));
+                }
+                HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                                URI.create(options.target() + "/api/dataset/" + dataset.getKey() + "/records"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(batch)))
+                        .build(), HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 201) {
+                    throw new IllegalStateException("Seeding " + dataset.getKey() + " failed with status "
+                            + response.statusCode() + ": " + response.body());
+                }
+                seeded += batch.size();
+            }
+        }
+        System.out.printf("Seeded %d records into %d datasets%n", seeded, fieldsByDataset.size());
+    }
+
+    Map<String, Object> run() throws InterruptedException {
+        List<CapturedRequest> requests = trace.requests();
+        Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+        Semaphore permits = new Semaphore(options.concurrency());
+        long origin = requests.isEmpty() ? 0 : requests.get(0).ts();
+        long start = System.nanoTime();
+        long maxLagNanos = 0;
+        int skipped = 0;
+
+        for (int i = 0; i < requests.size(); i++) {
+            CapturedRequest captured = requests.get(i);
+            HttpRequest request = toHttpRequest(captured, i);
+            if (request == null) {
+                skipped++;
+                continue;
+            }
+            long due = options.speed() > 0
+                    ? start + (long) ((captured.ts() - origin) * 1_000_000L / options.speed())
+                    : System.nanoTime();
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            permits.acquire();
+            maxLagNanos = Math.max(maxLagNanos, System.nanoTime() - due);
+
+            RouteStats stats = routes.computeIfAbsent(captured.method() + " " + captured.route(),
+                    route -> new RouteStats());
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                stats.add(captured, (System.nanoTime() - sent) / 1_000, response != null ? response.statusCode() : 0);
+                permits.release();
+            });
+        }
+        permits.acquire(options.concurrency());
+        long elapsedNanos = System.nanoTime() - start;
+
+        int sent = requests.size() - skipped;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("trace", options.trace().toString());
+        report.put("target", options.target().toString());
+        report.put("speed", options.speed() > 0 ? options.speed() : "max");
+        report.put("requests", sent);
+        report.put("skipped", skipped);
+        report.put("elapsedMs", elapsedNanos / 1_000_000);
+        report.put("throughput", round(sent / (elapsedNanos / 1e9)));
+        if (options.speed() > 0 && trace.spanMillis() > 0) {
+            report.put("capturedThroughput", round(sent * options.speed() / (trace.spanMillis() / 1000.0)));
+            report.put("maxLagMs", maxLagNanos / 1_000_000);
+        }
+        Map<String, Object> routeReports = new TreeMap<>();
+        routes.forEach((route, stats) -> routeReports.put(route, stats.report()));
+        report.put("routes", routeReports);
+        return report;
+    }
+
+    /** Null when the request cannot be replayed. */
+    HttpRequest toHttpRequest(CapturedRequest captured, int index) {
+        String path = captured.route();
+        if (WorkloadCaptureFilter.UNMATCHED_ROUTE.equals(path) || path.endsWith("/tail")) {
+            return null;
+        }
+        if (captured.dataset() != null) {
+            path = path.replace("{datasetName}", captured.dataset());
+        }
+        if (captured.vars() != null) {
+            for (Map.Entry<String, String> variable : captured.vars().entrySet()) {
+                path = path.replace("{" + variable.getKey() + "}", variable.getValue());
+            }
+        }
+        // Unfilled variables, or a catch-all pattern such as the static resource handler's
+        if (path.contains("{") || path.contains("*")) {
+            return null;
+        }
+
+        StringBuilder uri = new StringBuilder(options.target().toString()).append(path);
+        if (captured.params() != null && !captured.params().isEmpty()) {
+            char separator = '?';
+            for (Map.Entry<String, String> param : captured.params().entrySet()) {
+                uri.append(separator)
+                        .append(URLEncoder.encode(param.getKey(), StandardCharsets.UTF_8)).append('=')
+                        .append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+
+        HttpRequest.BodyPublisher body;
+        try {
+            body = body(captured, index);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+        if (body == null) {
+            return null;
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(uri.toString()))
+                .timeout(Duration.ofMillis(options.timeoutMs()))
+                .method(captured.method(), body);
+        if (captured.headers() != null) {
+            captured.headers().forEach(builder::header);
+        }
+        if (captured.bytes() > 0) {
+            builder.header("Content-Type", "application/json");
+        }
+        return builder.build();
+    }
+
+    private HttpRequest.BodyPublisher body(CapturedRequest captured, int index) throws JsonProcessingException {
+        if (captured.bytes() == 0) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        if (!"POST".equals(captured.method())) {
+            return null;
+        }
+        Random random = new Random(index);
+        Collection<String> fields = fieldsByDataset.getOrDefault(captured.dataset(), Set.of());
+        int bytes = (int) Math.min(captured.bytes(), Integer.MAX_VALUE);
+        if (captured.route().endsWith("/{datasetName}/record")) {
+            return HttpRequest.BodyPublishers.ofByteArray(
+                    objectMapper.writeValueAsBytes(SyntheticRecords.record(random, fields, bytes)));
+        }
+        if (captured.route().endsWith("/{datasetName}/records")) {
+            int count = Math.max(1, bytes / SyntheticRecords.DEFAULT_RECORD_BYTES);
+            List<Map<String, Object>> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                records.add(SyntheticRecords.record(random, fields, bytes / count));
+            }
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(records));
+        }
+        return null;
+    }
+
+    private int averageRecordBytes(String dataset) {
+        return (int) trace.requests().stream()
+                .filter(request -> dataset.equals(request.dataset()) && request.bytes() > 0
+                        && request.route().endsWith("/{datasetName}/record"))
+                .mapToLong(CapturedRequest::bytes)
+                .average()
+                .orElse(SyntheticRecords.DEFAULT_RECORD_BYTES);
+    }
+
+    static String format(Map<String, Object> report, Map<String, Object> baseline) {
+        StringBuilder out = new StringBuilder();
+        String reference = baseline != null ? "baseline" : "captured";
+        out.append(String.format("%nReplayed %s requests (%s skipped) in %s ms against %s, speed %s%n",
+                report.get("requests"), report.get("skipped"), report.get("elapsedMs"),
+                report.get("target"), report.get("speed")));
+        Object expected = baseline != null ? baseline.get("throughput") : report.get("capturedThroughput");
+        out.append(String.format("Throughput %s req/s (%s %s req/s, %s)%n", report.get("throughput"),
+                reference, expected != null ? expected : "-", delta(report.get("throughput"), expected)));
+        if (report.containsKey("maxLagMs")) {
+            out.append(String.format("Max schedule lag %s ms%n", report.get("maxLagMs")));
+        }
+
+        out.append(String.format("%n%-60s %7s %6s %8s %16s %16s %16s%n", "route", "count", "errors", "mismatch",
+                "p50 ms", "p95 ms", "p99 ms"));
+        Map<?, ?> routes = (Map<?, ?>) report.get("routes");
+        Map<?, ?> baselineRoutes = baseline != null ? (Map<?, ?>) baseline.get("routes") : null;
+        routes.forEach((route, value) -> {
+            Map<?, ?> stats = (Map<?, ?>) value;
+            Map<?, ?> referenceStats = baselineRoutes != null ? (Map<?, ?>) baselineRoutes.get(route) : null;
+            out.append(String.format("%-60s %7s %6s %8s", route, stats.get("count"), stats.get("errors"),
+                    stats.get("statusMismatches")));
+            for (String percentile : List.of("p50Ms", "p95Ms", "p99Ms")) {
+                Object expectedValue = baselineRoutes == null
+                        ? stats.get("capturedP" + percentile.substring(1))
+                        : referenceStats != null ? referenceStats.get(percentile) : null;
+                out.append(String.format(" %16s", stats.get(percentile) + " " + delta(stats.get(percentile), expectedValue)));
+            }
+            out.append('\n');
+        });
+        out.append(String.format("Deltas are relative to the %s latencies%n", reference));
+        return out.toString();
+    }
+
+    private static String delta(Object actual, Object expected) {
+        if (!(actual instanceof Number a) || !(expected instanceof Number e) || e.doubleValue() == 0) {
+            return "(n/a)";
+        }
+        return String.format("(%+.0f%%)", (a.doubleValue() - e.doubleValue()) * 100 / e.doubleValue());
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    static class RouteStats {
+
+        private final List<Long> capturedMicros = new ArrayList<>();
+        private final List<Long> replayedMicros = new ArrayList<>();
+        private int errors;
+        private int statusMismatches;
+
+        // status 0 when no response arrived
+        synchronized void add(CapturedRequest captured, long micros, int status) {
+            capturedMicros.add(captured.micros());
+            replayedMicros.add(micros);
+            if (status == 0 || status >= 500) {
+                errors++;
+            }
+            if (status / 100 != captured.status() / 100) {
+                statusMismatches++;
+            }
+        }
+
+        synchronized Map<String, Object> report() {
+            long[] replayed = sorted(replayedMicros);
+            long[] captured = sorted(capturedMicros);
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("count", replayed.length);
+            report.put("errors", errors);
+            report.put("statusMismatches", statusMismatches);
+            report.put("p50Ms", percentileMillis(replayed, 0.50));
+            report.put("p95Ms", percentileMillis(replayed, 0.95));
+            report.put("p99Ms", percentileMillis(replayed, 0.99));
+            report.put("capturedP50Ms", percentileMillis(captured, 0.50));
+            report.put("capturedP95Ms", percentileMillis(captured, 0.95));
+            report.put("capturedP99Ms", percentileMillis(captured, 0.99));
+            return report;
+        }
+
+        private static long[] sorted(List<Long> values) {
+            long[] array = values.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(array);
+            return array;
+        }
+
+        // Nearest rank
+        static double percentileMillis(long[] sortedMicros, double percentile) {
+            if (sortedMicros.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile * sortedMicros.length);
+            return round(sortedMicros[Math.max(rank, 1) - 1] / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.capture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A workload trace read back from disk: the captured requests in start order and the dataset
+ * sizes of the first snapshot line. Lines that do not parse (a partly written last line, say)
+ * are skipped and counted.
+ */
+public record WorkloadTrace(List<CapturedRequest> requests, Map<String, Long> datasetSizes, int skippedLines) {
+
+    public static WorkloadTrace read(Path file, ObjectMapper objectMapper) throws IOException {
+        List<CapturedRequest> requests = new ArrayList<>();
+        Map<String, Long> datasetSizes = null;
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    if (node.has("datasets")) {
+                        if (datasetSizes == null) {
+                            datasetSizes = objectMapper.treeToValue(node, DatasetSnapshot.class).datasets();
+                        }
+                    } else {
+                        requests.add(objectMapper.treeToValue(node, CapturedRequest.class));
+                    }
+                } catch (IOException e) {
+                    skipped++;
+                }
+            }
+        }
+        requests.sort(Comparator.comparingLong(CapturedRequest::ts));
+        return new WorkloadTrace(requests, datasetSizes != null ? datasetSizes : Map.of(), skipped);
+    }
+
+    /** Pseudonymized field names the trace groups, sorts or filters on, per dataset. */
+    public Map<String, Set<String>> fieldsByDataset() {
+        Map<String, Set<String>> fields = new LinkedHashMap<>();
+        for (CapturedRequest request : requests) {
+            if (request.dataset() == null) {
+                continue;
+            }
+            Set<String> datasetFields = fields.computeIfAbsent(request.dataset(), name -> new TreeSet<>());
+            if (request.params() != null) {
+                request.params().forEach((name, value) -> {
+                    if (WorkloadCaptureFilter.FIELD_PARAMS.contains(name)) {
+                        datasetFields.addAll(List.of(value.split(",")));
+                    }
+                });
+            }
+            if (request.vars() != null && request.vars().containsKey("fieldName")) {
+                datasetFields.add(request.vars().get("fieldName"));
+            }
+        }
+        return fields;
+    }
+
+    /** Milliseconds between the first and the last request. */
+    public long spanMillis() {
+        return requests.isEmpty() ? 0 : requests.get(requests.size() - 1).ts() - requests.get(0).ts();
+    }
+}
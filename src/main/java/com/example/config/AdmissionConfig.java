@@ -0,0 +1,74 @@
+package com.example.config;
+
+import com.example.admission.AdmissionControlInterceptor;
+import com.example.admission.AdmissionGate;
+import com.example.admission.Bulkhead;
+import com.example.admission.Lane;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Admission control in front of the API: writes, light reads and heavy scans each get their own
+ * bulkhead, so analytic overload sheds scans instead of stretching insert latency.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    private final Map<Lane, Bulkhead> bulkheads = new EnumMap<>(Lane.class);
+    private final AdmissionControlInterceptor interceptor;
+    private final AdmissionGate admissionGate;
+
+    public AdmissionConfig(AdmissionProperties properties, ObjectMapper objectMapper,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        for (Lane lane : Lane.values()) {
+            AdmissionProperties.LaneSettings settings = properties.getLane(lane);
+            Bulkhead bulkhead = new Bulkhead(lane, settings.getInitialLimit(), settings.getMinLimit(),
+                    settings.getMaxLimit(), settings.getLatencyTargetMs(), settings.getLatencyTolerance(),
+                    properties.getBackoffRatio(), properties.getMaxDatasetShare(),
+                    settings.getMaxQueueLength(), settings.getMaxQueueWaitMs());
+            bulkheads.put(lane, bulkhead);
+            meterRegistry.ifAvailable(registry -> registerGauges(registry, bulkhead));
+        }
+        this.interceptor = new AdmissionControlInterceptor(bulkheads, objectMapper);
+        this.admissionGate = new AdmissionGate(bulkheads);
+    }
+
+    @Bean
+    public AdmissionGate admissionGate() {
+        return admissionGate;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor).addPathPatterns("/api/**");
+    }
+
+    private void registerGauges(MeterRegistry registry, Bulkhead bulkhead) {
+        String lane = bulkhead.getLane().name().toLowerCase();
+        Gauge.builder("admission.limit", bulkhead, Bulkhead::getLimit)
+                .description("Current adaptive concurrency limit of the lane")
+                .tag("lane", lane)
+                .register(registry);
+        Gauge.builder("admission.in_flight", bulkhead, Bulkhead::getInFlight)
+                .description("Requests holding a slot in the lane")
+                .tag("lane", lane)
+                .register(registry);
+        Gauge.builder("admission.queued", bulkhead, Bulkhead::getQueued)
+                .description("Requests waiting for a slot in the lane")
+                .tag("lane", lane)
+                .register(registry);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.config;
+
+import com.example.admission.Lane;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    // Largest fraction of a lane's limit one dataset keeps while other datasets are waiting,
+    // and of its queue before that dataset's requests get a 429
+    private double maxDatasetShare = 0.5;
+
+    // Cut applied to a lane's limit when latency says requests are queuing downstream
+    private double backoffRatio = 0.9;
+
+    private LaneSettings write = new LaneSettings(32, 4, 128, 50, 2.0, 500, 1000);
+    private LaneSettings lightRead = new LaneSettings(32, 4, 128, 100, 2.0, 200, 250);
+    // Kept below the connection pool size so scans always leave connections for the other lanes
+    private LaneSettings heavyScan = new LaneSettings(4, 1, 6, 1000, 2.0, 16, 2000);
+
+    public LaneSettings getLane(Lane lane) {
+        return switch (lane) {
+            case WRITE -> write;
+            case LIGHT_READ -> lightRead;
+            case HEAVY_SCAN -> heavyScan;
+        };
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LaneSettings {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        // Latency below which a lane never backs off, however fast its quietest requests were
+        private long latencyTargetMs;
+        // How far above the no-load latency a request may run before the limit is cut
+        private double latencyTolerance;
+        private int maxQueueLength;
+        // 0 rejects as soon as the lane is full instead of queuing
+        private long maxQueueWaitMs;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.config;
+
+import com.example.capture.DatasetSnapshot;
+import com.example.capture.Pseudonymizer;
+import com.example.capture.WorkloadCaptureFilter;
+import com.example.capture.WorkloadCaptureLog;
+import com.example.service.DatasetService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opt-in workload capture: samples API requests into a local NDJSON trace for
+ * {@link com.example.capture.WorkloadReplay}. The filter runs first, so recorded latencies
+ * include admission queueing and everything after it.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.capture", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(CaptureProperties.class)
+@Slf4j
+public class CaptureConfig {
+
+    private final CaptureProperties properties;
+    private final ObjectProvider<DatasetService> datasetService;
+    private final ObjectProvider<WorkloadCaptureLog> captureLog;
+    private final Pseudonymizer pseudonymizer;
+
+    public CaptureConfig(CaptureProperties properties, ObjectProvider<DatasetService> datasetService,
+                         ObjectProvider<WorkloadCaptureLog> captureLog) {
+        this.properties = properties;
+        this.datasetService = datasetService;
+        this.captureLog = captureLog;
+        byte[] key = properties.getHashKey().getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        }
+        this.pseudonymizer = new Pseudonymizer(key);
+    }
+
+    @Bean(destroyMethod = "close")
+    public WorkloadCaptureLog workloadCaptureLog(ObjectMapper objectMapper,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) throws IOException {
+        WorkloadCaptureLog captureLog = new WorkloadCaptureLog(objectMapper, Path.of(properties.getFile()),
+                properties.getMaxFileMb() * 1024 * 1024, properties.getQueueCapacity());
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("capture.lines.written", captureLog, WorkloadCaptureLog::getWritten)
+                    .description("Workload trace lines written")
+                    .register(registry);
+            Gauge.builder("capture.lines.dropped", captureLog, WorkloadCaptureLog::getDropped)
+                    .description("Workload trace lines dropped because the writer fell behind")
+                    .register(registry);
+        });
+        log.info("Capturing {}% of API requests to {}", properties.getSampleRate() * 100, captureLog.getFile());
+        return captureLog;
+    }
+
+    @Bean
+    public FilterRegistrationBean<WorkloadCaptureFilter> workloadCaptureFilter(WorkloadCaptureLog captureLog) {
+        FilterRegistrationBean<WorkloadCaptureFilter> registration = new FilterRegistrationBean<>(
+                new WorkloadCaptureFilter(captureLog, pseudonymizer, properties.getSampleRate()));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // Dataset sizes at the start of the trace, for seeding the replay target
+    @EventListener(ApplicationReadyEvent.class)
+    public void captureDatasetSizes() {
+        try {
+            Map<String, Long> datasets = new LinkedHashMap<>();
+            for (Map<String, Object> dataset : datasetService.getObject().getAllDatasets()) {
+                datasets.merge(pseudonymizer.dataset((String) dataset.get("name")),
+                        ((Number) dataset.get("recordCount")).longValue(), Long::sum);
+            }
+            captureLog.getObject().append(new DatasetSnapshot(System.currentTimeMillis(), datasets));
+        } catch (Exception e) {
+            log.warn("Failed to capture dataset sizes for the workload trace", e);
+        }
+    }
+}
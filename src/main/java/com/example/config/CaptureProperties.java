@@ -0,0 +1,24 @@
+package com.example.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.capture")
+public class CaptureProperties {
+
+    private boolean enabled = false;
+
+    private String file = "./data/capture/workload.ndjson";
+
+    // Share of API requests recorded, 0 to 1
+    private double sampleRate = 0.1;
+
+    // Key of the name hashing; when empty a random key is used, so tokens only match within one run
+    private String hashKey = "";
+
+    private long maxFileMb = 512;
+
+    // Trace lines waiting for the writer; beyond this they are dropped
+    private int queueCapacity = 10_000;
+}
@@ -0,0 +1,116 @@
+package com.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to replica pools and everything else to the primary.
+ * The lazy proxy defers fetching a physical connection until the transaction's
+ * read-only flag is known, then picks the replica router or the primary pool.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+@Slf4j
+public class DataSourceRoutingConfig {
+
+    public static final String READ_YOUR_WRITES_HEADER = "X-Read-Your-Writes";
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             RoutingDataSourceProperties routing) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < routing.getReplicas().size(); i++) {
+            RoutingDataSourceProperties.Replica replica = routing.getReplicas().get(i);
+            String name = replica.getName() != null ? replica.getName() : "replica-" + i;
+
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(name);
+            pool.setJdbcUrl(replica.getUrl());
+            pool.setUsername(replica.getUsername() != null ? replica.getUsername() : properties.getUsername());
+            pool.setPassword(replica.getPassword() != null ? replica.getPassword() : properties.getPassword());
+            pool.setDriverClassName(properties.getDriverClassName());
+            pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            // Let the application start even if a replica is down; the health check decides rotation
+            pool.setInitializationFailTimeout(-1);
+            replicas.put(name, pool);
+        }
+
+        log.info("Read/write routing enabled with {} replica(s): {}", replicas.size(), replicas.keySet());
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, routing.getMaxReplicationLagSeconds());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+        proxy.setReadOnlyDataSource(replicaRoutingDataSource);
+        return proxy;
+    }
+
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new ReplicaHealthMonitor(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public OncePerRequestFilter readYourWritesFilter() {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                RoutingContext.setReadYourWrites(Boolean.parseBoolean(request.getHeader(READ_YOUR_WRITES_HEADER)));
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    RoutingContext.clear();
+                }
+            }
+        };
+    }
+
+    public static class ReplicaHealthMonitor {
+
+        private final ReplicaRoutingDataSource routingDataSource;
+
+        public ReplicaHealthMonitor(ReplicaRoutingDataSource routingDataSource) {
+            this.routingDataSource = routingDataSource;
+        }
+
+        @Scheduled(fixedDelayString = "${app.datasource.routing.health-check-interval-ms:5000}")
+        public void checkReplicas() {
+            routingDataSource.checkHealth();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.config;
+
+import com.example.capture.CapturedRequest;
+import com.example.capture.DatasetSnapshot;
+import com.example.controller.BatchQueryController;
+import com.example.controller.RollupController;
+import com.example.entity.DatasetAccessStat;
+import com.example.entity.DatasetPlacement;
+import com.example.entity.DatasetRecord;
+import com.example.entity.DatasetSchema;
+import com.example.entity.DatasetVersion;
+import com.example.entity.DeleteJob;
+import com.example.entity.FieldSketch;
+import com.example.entity.JournalProgress;
+import com.example.entity.RollupBucket;
+import com.example.entity.RollupDefinition;
+import com.example.entity.SearchToken;
+import com.example.profiling.SlowQuery;
+import com.example.service.BatchOperation;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * Reflection hints for the AOT and native-image builds. Entities are read reflectively by
+ * Hibernate (including the rows mapped from the repository's native queries) and by Jackson
+ * when they are serialised; Lombok only generates ordinary accessors, so covering declared
+ * fields, constructors and public methods is enough.
+ */
+public class DatasetRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> ENTITY_TYPES = List.of(
+            DatasetRecord.class,
+            DatasetSchema.class,
+            DatasetPlacement.class,
+            DatasetAccessStat.class,
+            DatasetVersion.class,
+            DeleteJob.class,
+            DeleteJob.Status.class,
+            FieldSketch.class,
+            JournalProgress.class,
+            RollupBucket.class,
+            RollupDefinition.class,
+            SearchToken.class,
+            SearchToken.Key.class);
+
+    private static final List<Class<?>> PAYLOAD_TYPES = List.of(
+            BatchOperation.class,
+            BatchQueryController.BatchRequest.class,
+            CapturedRequest.class,
+            DatasetSnapshot.class,
+            RollupController.RollupRequest.class,
+            SlowQuery.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type : ENTITY_TYPES) {
+            hints.reflection().registerType(type,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        for (Class<?> type : PAYLOAD_TYPES) {
+            hints.reflection().registerType(type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.config;
+
+import com.example.deadline.DeadlineDataSource;
+import com.example.deadline.DeadlineInterceptor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Per-request deadlines: started by an interceptor ahead of admission control, so time spent
+ * queued counts against them, and enforced on JDBC by wrapping the application's data source.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.deadlines", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(DeadlineProperties.class)
+public class DeadlineConfig implements WebMvcConfigurer {
+
+    private final DeadlineProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public DeadlineConfig(DeadlineProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DeadlineInterceptor(properties::getDefaultTimeoutMs,
+                        properties.getMaxTimeoutMs(), objectMapper))
+                .addPathPatterns("/api/**")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+
+    // Whichever configuration defined it (plain pool, replica routing or sharding), the primary
+    // data source is the one Hibernate and JdbcTemplate use
+    @Bean
+    public static BeanPostProcessor deadlineDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof DeadlineDataSource)) {
+                    return new DeadlineDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.config;
+
+import com.example.admission.Lane;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.deadlines")
+public class DeadlineProperties {
+
+    private boolean enabled = true;
+
+    // Upper bound on any deadline, including one asked for in X-Request-Timeout
+    private long maxTimeoutMs = 300_000;
+
+    // Deadlines of requests that do not send X-Request-Timeout; 0 leaves the lane unbounded
+    private long writeTimeoutMs = 30_000;
+    private long lightReadTimeoutMs = 5_000;
+    private long heavyScanTimeoutMs = 30_000;
+
+    public long getDefaultTimeoutMs(Lane lane) {
+        return switch (lane) {
+            case WRITE -> writeTimeoutMs;
+            case LIGHT_READ -> lightReadTimeoutMs;
+            case HEAVY_SCAN -> heavyScanTimeoutMs;
+        };
+    }
+}
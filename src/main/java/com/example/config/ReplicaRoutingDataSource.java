@@ -0,0 +1,135 @@
+package com.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes read-only connections round-robin across the healthy replica pools. Falls back to the
+ * primary when every replica is down or when the current request asked to read its own writes.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY_KEY = "primary";
+
+    private final List<String> replicaNames;
+    private final Map<String, DataSource> replicas;
+    private final DataSource primary;
+    private final Set<String> unhealthyReplicas = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final long maxReplicationLagSeconds;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long maxReplicationLagSeconds) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.replicaNames = List.copyOf(this.replicas.keySet());
+        this.maxReplicationLagSeconds = maxReplicationLagSeconds;
+
+        Map<Object, Object> targets = new HashMap<>(this.replicas);
+        targets.put(PRIMARY_KEY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (RoutingContext.isReadYourWrites() || replicaNames.isEmpty()) {
+            return PRIMARY_KEY;
+        }
+        for (int attempt = 0; attempt < replicaNames.size(); attempt++) {
+            String candidate = replicaNames.get(Math.floorMod(nextReplica.getAndIncrement(), replicaNames.size()));
+            if (!unhealthyReplicas.contains(candidate)) {
+                return candidate;
+            }
+        }
+        return PRIMARY_KEY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY_KEY.equals(key)) {
+            return primary.getConnection();
+        }
+        try {
+            return replicas.get(key).getConnection();
+        } catch (SQLException e) {
+            markUnhealthy((String) key, e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    // Called periodically; a replica is healthy when it answers and is not lagging too far behind
+    public void checkHealth() {
+        for (String name : replicaNames) {
+            try (Connection connection = replicas.get(name).getConnection()) {
+                if (!connection.isValid(2)) {
+                    markUnhealthy(name, "connection not valid");
+                    continue;
+                }
+                Long lagSeconds = replicationLagSeconds(connection);
+                if (lagSeconds != null && lagSeconds > maxReplicationLagSeconds) {
+                    markUnhealthy(name, "replication lag " + lagSeconds + "s");
+                    continue;
+                }
+                if (unhealthyReplicas.remove(name)) {
+                    log.info("Replica '{}' is healthy again and back in rotation", name);
+                }
+            } catch (SQLException e) {
+                markUnhealthy(name, e.getMessage());
+            }
+        }
+    }
+
+    public Set<String> getUnhealthyReplicas() {
+        return Collections.unmodifiableSet(unhealthyReplicas);
+    }
+
+    // Invoked as the inferred destroy method of the bean; the replica pools are not beans themselves
+    public void close() {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close replica pool", e);
+                }
+            }
+        }
+    }
+
+    private void markUnhealthy(String name, String reason) {
+        if (unhealthyReplicas.add(name)) {
+            log.warn("Replica '{}' taken out of rotation: {}", name, reason);
+        }
+    }
+
+    private Long replicationLagSeconds(Connection connection) {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (resultSet.next()) {
+                long lag = resultSet.getLong("Seconds_Behind_Source");
+                // NULL means the replication threads are stopped
+                return resultSet.wasNull() ? Long.MAX_VALUE : lag;
+            }
+        } catch (SQLException e) {
+            log.debug("Replication status unavailable: {}", e.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.config;
+
+/**
+ * Per-request routing hints for the replica-aware datasource.
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<Boolean> READ_YOUR_WRITES = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private RoutingContext() {
+    }
+
+    public static void setReadYourWrites(boolean enabled) {
+        READ_YOUR_WRITES.set(enabled);
+    }
+
+    public static boolean isReadYourWrites() {
+        return READ_YOUR_WRITES.get();
+    }
+
+    public static void clear() {
+        READ_YOUR_WRITES.remove();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Tracks which shard the current thread talks to. A transaction is pinned to the first shard
+ * it touches, because its connection is fetched once and reused until commit; touching a
+ * second shard inside the same transaction is a programming error and fails fast.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    private static final Object TRANSACTION_KEY = ShardContext.class;
+
+    private ShardContext() {
+    }
+
+    public static String currentShard() {
+        String shard = CURRENT.get();
+        if (shard != null) {
+            return shard;
+        }
+        return TransactionSynchronizationManager.isSynchronizationActive()
+                ? (String) TransactionSynchronizationManager.getResource(TRANSACTION_KEY)
+                : null;
+    }
+
+    public static <T> T callOn(String shard, Supplier<T> action) {
+        bindToTransaction(shard);
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    private static void bindToTransaction(String shard) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        String bound = (String) TransactionSynchronizationManager.getResource(TRANSACTION_KEY);
+        if (bound == null) {
+            TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, shard);
+            TransactionSynchronizationManager.registerSynchronization(new ShardBinding(shard));
+        } else if (!bound.equals(shard)) {
+            throw new IllegalStateException(
+                    "Transaction is bound to shard '" + bound + "' and cannot access shard '" + shard + "'");
+        }
+    }
+
+    // Unbinds on completion and steps aside while the transaction is suspended by REQUIRES_NEW
+    private record ShardBinding(String shard) implements TransactionSynchronization {
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, shard);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+        }
+    }
+}
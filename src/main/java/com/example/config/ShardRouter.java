@@ -0,0 +1,95 @@
+package com.example.config;
+
+import com.example.sketch.Hashing;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps datasets to shards. New datasets are placed by a consistent-hash ring with virtual
+ * nodes, so adding a shard only reassigns about 1/N of the key space; datasets that already
+ * exist are pinned to the shard holding their rows until a migration moves them.
+ */
+public class ShardRouter {
+
+    private final List<String> shards;
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+    private final Map<String, String> placements = new ConcurrentHashMap<>();
+    private final Set<String> frozen = ConcurrentHashMap.newKeySet();
+
+    public ShardRouter(List<String> shards, int virtualNodes) {
+        if (shards == null || shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Virtual nodes must be at least 1");
+        }
+        if (new HashSet<>(shards).size() != shards.size()) {
+            throw new IllegalArgumentException("Shard names must be unique: " + shards);
+        }
+        this.shards = List.copyOf(shards);
+        for (String shard : shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(Hashing.hash64(shard + "#" + i), shard);
+            }
+        }
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    // Holds the small bookkeeping tables (delete jobs, sketches, placements)
+    public String getHomeShard() {
+        return shards.get(0);
+    }
+
+    public String shardFor(String datasetName) {
+        String key = normalize(datasetName);
+        String pinned = placements.get(key);
+        return pinned != null ? pinned : ringOwner(key);
+    }
+
+    // Where the ring alone would put the dataset; differs from shardFor until it is rebalanced
+    public String ringOwner(String datasetName) {
+        Map.Entry<Long, String> owner = ring.ceilingEntry(Hashing.hash64(normalize(datasetName)));
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+
+    public void pin(String datasetName, String shard) {
+        if (!shards.contains(shard)) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        placements.put(normalize(datasetName), shard);
+    }
+
+    public void replacePlacements(Map<String, String> pinned) {
+        placements.keySet().retainAll(pinned.keySet());
+        pinned.forEach(this::pin);
+    }
+
+    public Map<String, String> getPlacements() {
+        return Collections.unmodifiableMap(placements);
+    }
+
+    public void setFrozen(String datasetName, boolean writesFrozen) {
+        if (writesFrozen) {
+            frozen.add(normalize(datasetName));
+        } else {
+            frozen.remove(normalize(datasetName));
+        }
+    }
+
+    public boolean isFrozen(String datasetName) {
+        return frozen.contains(normalize(datasetName));
+    }
+
+    public void replaceFrozen(Set<String> datasetNames) {
+        frozen.retainAll(datasetNames);
+        datasetNames.forEach(name -> frozen.add(normalize(name)));
+    }
+
+    private String normalize(String datasetName) {
+        return datasetName.trim().toLowerCase();
+    }
+}
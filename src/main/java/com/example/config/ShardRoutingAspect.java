@@ -0,0 +1,175 @@
+package com.example.config;
+
+import com.example.entity.DatasetRecord;
+import com.example.entity.SearchToken;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Sends record, search-token, version and journal-progress repository calls to the shard owning
+ * the dataset named in their arguments, pins bookkeeping repositories to the home shard, and fans
+ * the cross-dataset listing queries out to every shard.
+ */
+@Aspect
+@Slf4j
+public class ShardRoutingAspect {
+
+    private static final Set<String> FAN_OUT_METHODS =
+            Set.of("findDistinctDatasetNames", "countRecordsPerDataset", "findAllVersions");
+    private static final long FROZEN_POLL_MS = 50;
+
+    private final ShardRouter router;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private final ObjectProvider<ShardingConfig.ShardPlacementSync> placementSync;
+    private final long maxFrozenWaitMs;
+    private volatile TransactionTemplate fanOutTransaction;
+
+    public ShardRoutingAspect(ShardRouter router, ObjectProvider<PlatformTransactionManager> transactionManager,
+                              ObjectProvider<ShardingConfig.ShardPlacementSync> placementSync, long maxFrozenWaitMs) {
+        this.router = router;
+        this.transactionManager = transactionManager;
+        this.placementSync = placementSync;
+        this.maxFrozenWaitMs = maxFrozenWaitMs;
+    }
+
+    @Around("execution(* com.example.repository.DatasetRecordRepository.*(..))"
+            + " || execution(* com.example.repository.SearchTokenRepository.*(..))"
+            + " || execution(* com.example.repository.RawRecordRepository.*(..))"
+            + " || execution(* com.example.repository.DatasetVersionRepository.*(..))"
+            + " || execution(* com.example.repository.JournalProgressRepository.*(..))")
+    public Object routeByDataset(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        if (FAN_OUT_METHODS.contains(method)) {
+            return fanOut(joinPoint);
+        }
+
+        String dataset = datasetArgument(joinPoint);
+        if (dataset == null) {
+            // e.g. findAllById inside a transaction that already resolved its shard
+            return joinPoint.proceed();
+        }
+        if (isWrite(method)) {
+            if (!method.startsWith("delete")) {
+                placementSync.getObject().ensurePlaced(dataset);
+            }
+            awaitUnfrozen(dataset);
+        }
+        String shard = router.shardFor(dataset);
+        Object result = proceedOn(shard, joinPoint);
+        if ("bump".equals(method)) {
+            // The freeze above only keeps most writers away from a cutover; this check is what makes it safe
+            placementSync.getObject().verifyPlacement(dataset, shard);
+        }
+        return result;
+    }
+
+    @Around("execution(* com.example.repository.DeleteJobRepository.*(..))"
+            + " || execution(* com.example.repository.FieldSketchRepository.*(..))"
+            + " || execution(* com.example.repository.DatasetPlacementRepository.*(..))"
+            + " || execution(* com.example.repository.RollupDefinitionRepository.*(..))"
+            + " || execution(* com.example.repository.RollupBucketRepository.*(..))"
+            + " || execution(* com.example.repository.DatasetSchemaRepository.*(..))"
+            + " || execution(* com.example.repository.DatasetAccessStatRepository.*(..))")
+    public Object routeToHome(ProceedingJoinPoint joinPoint) throws Throwable {
+        return proceedOn(router.getHomeShard(), joinPoint);
+    }
+
+    // Each shard is queried in its own read-only transaction; rows are kept only from the shard
+    // that owns their dataset so a migration in flight is not counted twice
+    private Object fanOut(ProceedingJoinPoint joinPoint) {
+        List<Object> merged = new ArrayList<>();
+        for (String shard : router.getShards()) {
+            List<?> rows = fanOutTransaction().execute(status -> proceedOn(shard, joinPoint));
+            if (rows == null) {
+                continue;
+            }
+            for (Object row : rows) {
+                String dataset = row instanceof Object[] columns ? (String) columns[0] : (String) row;
+                if (shard.equals(router.shardFor(dataset))) {
+                    merged.add(row);
+                }
+            }
+        }
+        merged.sort(Comparator.comparing(row -> row instanceof Object[] columns ? (String) columns[0] : (String) row));
+        return merged;
+    }
+
+    private TransactionTemplate fanOutTransaction() {
+        if (fanOutTransaction == null) {
+            TransactionTemplate template = new TransactionTemplate(transactionManager.getObject());
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            template.setReadOnly(true);
+            fanOutTransaction = template;
+        }
+        return fanOutTransaction;
+    }
+
+    private <T> T proceedOn(String shard, ProceedingJoinPoint joinPoint) {
+        return ShardContext.callOn(shard, () -> {
+            try {
+                @SuppressWarnings("unchecked")
+                T result = (T) joinPoint.proceed();
+                return result;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    // Best effort: another instance may freeze the dataset right after this returns
+    private void awaitUnfrozen(String dataset) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + maxFrozenWaitMs;
+        while (router.isFrozen(dataset)) {
+            if (System.currentTimeMillis() >= deadline) {
+                throw new TransientDataAccessResourceException(
+                        "Dataset '" + dataset + "' is being moved between shards, retry shortly");
+            }
+            Thread.sleep(FROZEN_POLL_MS);
+        }
+    }
+
+    private boolean isWrite(String method) {
+        return method.startsWith("save") || method.startsWith("delete") || method.startsWith("insert");
+    }
+
+    private String datasetArgument(ProceedingJoinPoint joinPoint) {
+        String[] names = ((MethodSignature) joinPoint.getSignature()).getParameterNames();
+        Object[] args = joinPoint.getArgs();
+        for (int i = 0; i < args.length; i++) {
+            if (names != null && "datasetName".equals(names[i]) && args[i] instanceof String name) {
+                return name;
+            }
+            String fromEntity = datasetOf(args[i]);
+            if (fromEntity != null) {
+                return fromEntity;
+            }
+        }
+        return null;
+    }
+
+    private String datasetOf(Object argument) {
+        if (argument instanceof DatasetRecord record) {
+            return record.getDatasetName();
+        }
+        if (argument instanceof SearchToken token) {
+            return token.getDatasetName();
+        }
+        if (argument instanceof Iterable<?> items) {
+            Iterator<?> iterator = items.iterator();
+            return iterator.hasNext() ? datasetOf(iterator.next()) : null;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hands out connections to the shard selected by {@link ShardContext}, or to the home shard
+ * when nothing dataset-specific is in play.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Map<String, DataSource> shards;
+    private final String homeShard;
+
+    public ShardRoutingDataSource(Map<String, DataSource> shards, String homeShard) {
+        this.shards = new LinkedHashMap<>(shards);
+        this.homeShard = homeShard;
+        setTargetDataSources(new HashMap<>(this.shards));
+        setDefaultTargetDataSource(this.shards.get(homeShard));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String shard = ShardContext.currentShard();
+        return shard != null ? shard : homeShard;
+    }
+
+    public Map<String, DataSource> getShards() {
+        return Collections.unmodifiableMap(shards);
+    }
+
+    public DataSource getShard(String name) {
+        DataSource dataSource = shards.get(name);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard: " + name);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.config;
+
+import com.example.entity.DatasetPlacement;
+import com.example.repository.DatasetPlacementRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Spreads datasets over several databases. Record and search-token queries follow the dataset's
+ * placement, bookkeeping tables stay on the home shard, and the lazy proxy defers fetching a
+ * connection until the first statement, when the target shard is known.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+@Slf4j
+public class ShardingConfig {
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties,
+                                   @Value("${app.datasource.routing.enabled:false}") boolean replicaRoutingEnabled,
+                                   @Value("${app.storage.type:jpa}") String storageType) {
+        if (replicaRoutingEnabled) {
+            throw new IllegalStateException("app.sharding and app.datasource.routing cannot be enabled together");
+        }
+        if (!"jpa".equals(storageType)) {
+            throw new IllegalStateException("app.sharding requires app.storage.type=jpa");
+        }
+        List<String> names = properties.getShards().stream()
+                .map(ShardingProperties.Shard::getName)
+                .collect(Collectors.toList());
+        if (names.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalStateException("Every entry in app.sharding.shards needs a name");
+        }
+        return new ShardRouter(names, properties.getVirtualNodes());
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(ShardingProperties properties,
+                                                         DataSourceProperties dataSourceProperties,
+                                                         ShardRouter shardRouter) {
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(shard.getName());
+            pool.setJdbcUrl(shard.getUrl());
+            pool.setUsername(shard.getUsername() != null ? shard.getUsername() : dataSourceProperties.getUsername());
+            pool.setPassword(shard.getPassword() != null ? shard.getPassword() : dataSourceProperties.getPassword());
+            pool.setDriverClassName(dataSourceProperties.getDriverClassName());
+            pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+            pools.put(shard.getName(), pool);
+        }
+
+        log.info("Sharding enabled across {} shard(s): {} (home: {})",
+                pools.size(), pools.keySet(), shardRouter.getHomeShard());
+        return new ShardRoutingDataSource(pools, shardRouter.getHomeShard());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    // Dependencies are resolved lazily: advisors are created before the JPA infrastructure
+    @Bean
+    public ShardRoutingAspect shardRoutingAspect(ShardRouter shardRouter,
+                                                 ObjectProvider<PlatformTransactionManager> transactionManager,
+                                                 ObjectProvider<ShardPlacementSync> shardPlacementSync,
+                                                 ShardingProperties properties) {
+        return new ShardRoutingAspect(shardRouter, transactionManager, shardPlacementSync,
+                properties.getMaxFrozenWaitMs());
+    }
+
+    @Bean
+    public ShardPlacementSync shardPlacementSync(ShardRouter shardRouter,
+                                                 ShardRoutingDataSource shardRoutingDataSource,
+                                                 DatasetPlacementRepository placementRepository,
+                                                 PlatformTransactionManager transactionManager,
+                                                 EntityManagerFactory entityManagerFactory,
+                                                 DataSource dataSource) {
+        return new ShardPlacementSync(shardRouter, shardRoutingDataSource, placementRepository,
+                transactionManager, entityManagerFactory, dataSource);
+    }
+
+    /**
+     * Keeps the router's placements in step with the dataset_placements table. On startup it
+     * creates the schema on shards that lack it and records a placement for every dataset already
+     * present, so datasets stay where their rows are when the shard list changes. Writes check the
+     * committed placement once they hold their dataset's version row, which is what makes a
+     * migration's cutover safe (see {@link #verifyPlacement}).
+     */
+    public static class ShardPlacementSync implements SmartInitializingSingleton {
+
+        private final ShardRouter router;
+        private final ShardRoutingDataSource routingDataSource;
+        private final DatasetPlacementRepository placementRepository;
+        private final TransactionTemplate transactionTemplate;
+        private final EntityManagerFactory entityManagerFactory;
+        private final JdbcTemplate transactionalJdbcTemplate;
+
+        public ShardPlacementSync(ShardRouter router, ShardRoutingDataSource routingDataSource,
+                                  DatasetPlacementRepository placementRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  EntityManagerFactory entityManagerFactory,
+                                  DataSource dataSource) {
+            this.router = router;
+            this.routingDataSource = routingDataSource;
+            this.placementRepository = placementRepository;
+            this.entityManagerFactory = entityManagerFactory;
+            this.transactionalJdbcTemplate = new JdbcTemplate(dataSource);
+            this.transactionTemplate = new TransactionTemplate(transactionManager);
+            this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        }
+
+        @Override
+        public void afterSingletonsInstantiated() {
+            router.getShards().forEach(this::ensureSchema);
+            refresh();
+            backfillPlacements();
+        }
+
+        @Scheduled(fixedDelayString = "${app.sharding.placement-refresh-ms:5000}")
+        public void refresh() {
+            List<DatasetPlacement> placements = placementRepository.findAll();
+            router.replacePlacements(placements.stream()
+                    .collect(Collectors.toMap(DatasetPlacement::getDatasetName, DatasetPlacement::getShardName)));
+            router.replaceFrozen(placements.stream()
+                    .filter(placement -> Boolean.TRUE.equals(placement.getWritesFrozen()))
+                    .map(DatasetPlacement::getDatasetName)
+                    .collect(Collectors.toSet()));
+        }
+
+        // Records where a dataset lives the first time it is written, before the ring can change
+        public void ensurePlaced(String datasetName) {
+            String dataset = datasetName.trim().toLowerCase();
+            if (router.getPlacements().containsKey(dataset)) {
+                return;
+            }
+            String shard = router.ringOwner(dataset);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!placementRepository.existsById(dataset)) {
+                        placementRepository.save(DatasetPlacement.builder()
+                                .datasetName(dataset)
+                                .shardName(shard)
+                                .build());
+                    }
+                });
+                router.pin(dataset, shard);
+            } catch (DataIntegrityViolationException e) {
+                // Another instance placed it first; both used the same ring so the shard agrees
+                placementRepository.findById(dataset).ifPresent(placement -> router.pin(dataset, placement.getShardName()));
+            }
+        }
+
+        /**
+         * Fails the current write transaction if {@code shard} no longer holds the dataset. Called once
+         * the write has bumped the dataset's version row: a migration holds that row's lock from its
+         * final copy until the placement has switched, so a write that gets here either committed
+         * before the final copy read the source or finds the new placement and rolls back. The
+         * cached placement and freeze flag are not enough, since another instance may not have seen
+         * them yet.
+         */
+        public void verifyPlacement(String datasetName, String shard) {
+            String dataset = datasetName.trim().toLowerCase();
+            List<String> committed;
+            if (shard.equals(router.getHomeShard())) {
+                // Same database as the write: a locking read in its own transaction sees the latest commit
+                // without holding a second connection from the pool it is already using
+                committed = transactionalJdbcTemplate.queryForList(
+                        "SELECT shard_name FROM dataset_placements WHERE dataset_name = ? LOCK IN SHARE MODE",
+                        String.class, dataset);
+            } else {
+                committed = new JdbcTemplate(routingDataSource.getShard(router.getHomeShard())).queryForList(
+                        "SELECT shard_name FROM dataset_placements WHERE dataset_name = ?", String.class, dataset);
+            }
+            if (!committed.isEmpty() && !shard.equals(committed.get(0))) {
+                router.pin(dataset, committed.get(0));
+                throw new TransientDataAccessResourceException(
+                        "Dataset '" + dataset + "' was moved to another shard, retry shortly");
+            }
+        }
+
+        private void backfillPlacements() {
+            for (String shard : router.getShards()) {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(routingDataSource.getShard(shard));
+                // Placements are keyed by the lowercased name, as the router and ensurePlaced use it
+                Set<String> datasets = jdbcTemplate.queryForList(
+                                "SELECT DISTINCT dataset_name FROM dataset_records", String.class).stream()
+                        .map(name -> name.trim().toLowerCase())
+                        .collect(Collectors.toCollection(LinkedHashSet::new));
+                for (String dataset : datasets) {
+                    if (router.getPlacements().containsKey(dataset)) {
+                        continue;
+                    }
+                    transactionTemplate.executeWithoutResult(status -> placementRepository.save(DatasetPlacement.builder()
+                            .datasetName(dataset)
+                            .shardName(shard)
+                            .build()));
+                    router.pin(dataset, shard);
+                    log.info("Recorded existing dataset: {} on shard: {}", dataset, shard);
+                }
+            }
+        }
+
+        // Hibernate's ddl-auto only reaches the home shard, so other shards get the mapped schema here
+        private void ensureSchema(String shard) {
+            Set<String> existing = new HashSet<>();
+            try (Connection connection = routingDataSource.getShard(shard).getConnection();
+                 ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), null, "%", new String[]{"TABLE"})) {
+                while (tables.next()) {
+                    existing.add(tables.getString("TABLE_NAME").toLowerCase());
+                }
+                if (existing.contains("dataset_records")) {
+                    // Shards created before dataset versions existed only lack this one table
+                    if (!existing.contains("dataset_versions")) {
+                        log.info("Creating dataset_versions on shard: {}", shard);
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("""
+                                    CREATE TABLE IF NOT EXISTS dataset_versions (
+                                        dataset_name VARCHAR(100) NOT NULL PRIMARY KEY,
+                                        version BIGINT NOT NULL)
+                                    """);
+                        }
+                    }
+                    return;
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("Shard " + shard + " is not reachable", e);
+            }
+
+            log.info("Creating schema on shard: {}", shard);
+            ShardContext.callOn(shard, () -> {
+                entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager().exportMappedObjects(true);
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    // Ring positions per shard; more positions give a more even spread of datasets
+    private int virtualNodes = 128;
+
+    // How often placements are re-read, so moves made by another instance are picked up
+    private long placementRefreshMs = 5000;
+
+    // Longest a write waits for a dataset's migration cutover before failing
+    private long maxFrozenWaitMs = 10000;
+
+    private int migrationChunkSize = 1000;
+
+    // The first shard is the home shard for bookkeeping tables
+    private List<Shard> shards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
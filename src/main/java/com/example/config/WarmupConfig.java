@@ -0,0 +1,37 @@
+package com.example.config;
+
+import com.example.repository.DatasetAccessStatRepository;
+import com.example.service.DatasetSchemaService;
+import com.example.service.DatasetService;
+import com.example.warmup.AccessStatsRecorder;
+import com.example.warmup.CacheWarmer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Access statistics and the startup warm-up they drive. The warm-up bean doubles as the
+ * {@code warmup} health indicator, which is out of service while it runs.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(WarmupProperties.class)
+public class WarmupConfig {
+
+    @Bean
+    public AccessStatsRecorder accessStatsRecorder(DatasetAccessStatRepository repository,
+                                                   PlatformTransactionManager transactionManager,
+                                                   WarmupProperties properties) {
+        return new AccessStatsRecorder(repository, transactionManager, properties.getMaxTrackedShapes());
+    }
+
+    @Bean
+    public CacheWarmer warmup(AccessStatsRecorder accessStats,
+                              @Qualifier("datasetServiceImpl") DatasetService datasetService,
+                              DatasetSchemaService schemaService, WarmupProperties properties) {
+        return new CacheWarmer(accessStats, datasetService, schemaService, properties);
+    }
+}
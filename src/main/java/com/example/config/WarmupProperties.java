@@ -0,0 +1,34 @@
+package com.example.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.warmup")
+public class WarmupProperties {
+
+    private boolean enabled = true;
+
+    // How often counted reads are added to dataset_access_stats
+    private long statsFlushIntervalMs = 60_000;
+
+    // Distinct shapes counted between flushes; further shapes are not counted
+    private int maxTrackedShapes = 10_000;
+
+    // Shapes not used for this long are not warmed
+    private int lookbackDays = 7;
+
+    private int maxDatasets = 5;
+    private int maxQueries = 20;
+
+    // Pace of warm-up queries, so a restart does not hammer the database; 0 runs them back to back
+    private double maxQueriesPerSecond = 2;
+
+    // Readiness is reported once warm-up ends or this budget runs out, whichever comes first
+    private long maxDurationMs = 60_000;
+    private long queryTimeoutMs = 10_000;
+
+    // A shape is re-run until a run is less than min-improvement faster than the one before, at most max-passes times
+    private int maxPasses = 3;
+    private double minImprovement = 0.2;
+}
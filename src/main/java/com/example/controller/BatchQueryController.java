@@ -0,0 +1,129 @@
+package com.example.controller;
+
+import com.example.admission.AdmitAs;
+import com.example.admission.Lane;
+import com.example.deadline.Deadline;
+import com.example.deadline.RequestDeadline;
+import com.example.service.BatchOperation;
+import com.example.service.BatchQueryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RestController
+@RequestMapping("/api/dataset")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+@Slf4j
+public class BatchQueryController {
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final long MAX_TIMEOUT_MS = 120_000;
+
+    private final BatchQueryService batchQueryService;
+    private final ObjectMapper objectMapper;
+
+    public record BatchRequest(List<BatchOperation> operations, Long timeoutMs) {
+    }
+
+    // Streams one NDJSON line per operation in completion order, followed by a summary line.
+    // Each operation takes a heavy-scan slot of its own, so the request's slot goes once streaming starts.
+    @AdmitAs(value = Lane.HEAVY_SCAN, releaseWhenAsync = true)
+    @PostMapping("/_batch")
+    public ResponseEntity<StreamingResponseBody> executeBatch(@RequestBody BatchRequest request) {
+        try {
+            List<BatchOperation> operations = validate(request);
+            long timeoutMs = request.timeoutMs() != null ? request.timeoutMs() : batchQueryService.getDefaultTimeoutMs();
+            // A client-supplied request deadline also bounds the batch
+            Deadline deadline = RequestDeadline.current();
+            if (deadline != null && deadline.isRequested()) {
+                timeoutMs = Math.max(1, Math.min(timeoutMs, deadline.remainingMillis()));
+            }
+            long batchTimeoutMs = timeoutMs;
+
+            StreamingResponseBody body = outputStream -> {
+                AtomicInteger succeeded = new AtomicInteger();
+                try {
+                    batchQueryService.executeBatch(operations, batchTimeoutMs, item -> {
+                        if ("ok".equals(item.get("status"))) {
+                            succeeded.incrementAndGet();
+                        }
+                        try {
+                            outputStream.write(objectMapper.writeValueAsBytes(item));
+                            outputStream.write('\n');
+                            outputStream.flush();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    log.debug("Batch client disconnected before all results were written");
+                    return;
+                }
+
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("total", operations.size());
+                summary.put("succeeded", succeeded.get());
+                summary.put("failed", operations.size() - succeeded.get());
+                outputStream.write(objectMapper.writeValueAsBytes(Map.of("summary", summary)));
+                outputStream.write('\n');
+                outputStream.flush();
+            };
+
+            return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error for batch request", e);
+            return errorResponse(HttpStatus.BAD_REQUEST, "Validation failed", e);
+
+        } catch (Exception e) {
+            log.error("Failed to execute batch request", e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to execute batch", e);
+        }
+    }
+
+    private List<BatchOperation> validate(BatchRequest request) {
+        if (request == null || request.operations() == null || request.operations().isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one operation");
+        }
+        if (request.operations().size() > batchQueryService.getMaxOperations()) {
+            throw new IllegalArgumentException("Batch cannot contain more than "
+                    + batchQueryService.getMaxOperations() + " operations");
+        }
+        if (request.timeoutMs() != null && (request.timeoutMs() <= 0 || request.timeoutMs() > MAX_TIMEOUT_MS)) {
+            throw new IllegalArgumentException("timeoutMs must be between 1 and " + MAX_TIMEOUT_MS);
+        }
+        for (BatchOperation operation : request.operations()) {
+            if (operation == null || operation.dataset() == null || operation.dataset().trim().isEmpty()) {
+                throw new IllegalArgumentException("Every batch operation needs a dataset");
+            }
+            if (operation.timeoutMs() != null && (operation.timeoutMs() <= 0 || operation.timeoutMs() > MAX_TIMEOUT_MS)) {
+                throw new IllegalArgumentException("Operation timeoutMs must be between 1 and " + MAX_TIMEOUT_MS);
+            }
+        }
+        return request.operations();
+    }
+
+    // The handler has to declare StreamingResponseBody for MVC to stream it, so errors are written the same way
+    private ResponseEntity<StreamingResponseBody> errorResponse(HttpStatus status, String error, Exception e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", error);
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, errorResponse));
+    }
+}
@@ -1,14 +1,37 @@
 package com.example.controller;
 
+import com.example.admission.AdmitAs;
+import com.example.admission.Lane;
+import com.example.deadline.Deadline;
+import com.example.deadline.RequestDeadline;
 import com.example.entity.DatasetRecord;
 import com.example.service.DatasetService; // ← Use interface, NOT implementation
+import com.example.service.DatasetVersionTracker;
+import com.example.service.IngestJournalService;
+import com.example.service.IngestResult;
+import com.example.service.RawRecordWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,12 +43,20 @@ import java.util.Map;
 public class DatasetController {
 
     private final DatasetService datasetService; // ← FIXED: Use interface
+    private final DatasetVersionTracker versionTracker;
+    private final ObjectProvider<IngestJournalService> ingestJournal;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/{datasetName}/record")
     public ResponseEntity<Map<String, Object>> insertRecord(
             @PathVariable String datasetName,
             @RequestBody Map<String, Object> recordData) {
 
+        IngestJournalService journal = ingestJournal.getIfAvailable();
+        if (journal != null) {
+            return acceptIntoJournal(journal, datasetName, recordData);
+        }
+
         try {
             DatasetRecord savedRecord = datasetService.insertRecord(datasetName, recordData);
 
@@ -45,6 +76,9 @@ public class DatasetController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
 
         } catch (Exception e) {
+            if (RequestDeadline.isDeadlineFailure(e)) {
+                return deadlineExceeded(datasetName, e);
+            }
             log.error("Failed to insert record for dataset: {}", datasetName, e);
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", "Failed to insert record");
@@ -52,14 +86,108 @@ public class DatasetController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
+
+    // Acknowledged once journaled; the record reaches the dataset when the applier drains the journal
+    private ResponseEntity<Map<String, Object>> acceptIntoJournal(
+            IngestJournalService journal, String datasetName, Map<String, Object> recordData) {
+        try {
+            long sequence = journal.accept(datasetName, recordData);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Record accepted");
+            response.put("dataset", datasetName);
+            response.put("journalSequence", sequence);
+            response.put("timestamp", LocalDateTime.now());
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error for dataset: {}", datasetName, e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Validation failed");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+
+        } catch (IllegalStateException e) {
+            log.warn("Ingest journal rejected record for dataset: {}: {}", datasetName, e.getMessage());
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Ingest journal unavailable");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+
+        } catch (Exception e) {
+            log.error("Failed to journal record for dataset: {}", datasetName, e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to insert record");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    // Records failing validation are reported by position; the rest are stored
+    @PostMapping("/{datasetName}/records")
+    public ResponseEntity<Map<String, Object>> insertRecords(
+            @PathVariable String datasetName,
+            @RequestBody List<Map<String, Object>> recordsData) {
+
+        try {
+            IngestResult result = datasetService.ingestRecords(datasetName, recordsData);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("dataset", datasetName);
+            response.put("inserted", result.inserted().size());
+            response.put("rejected", result.rejected().size());
+            response.put("recordIds", result.inserted().stream().map(DatasetRecord::getId).toList());
+            response.put("errors", result.rejected());
+            response.put("timestamp", LocalDateTime.now());
+
+            if (result.inserted().isEmpty()) {
+                response.put("error", "Validation failed");
+                response.put("message", "No records were valid");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            }
+            response.put("message", result.rejected().isEmpty()
+                    ? "Records added successfully"
+                    : "Records added; some were rejected");
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error for dataset: {}", datasetName, e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Validation failed");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+
+        } catch (Exception e) {
+            if (RequestDeadline.isDeadlineFailure(e)) {
+                return deadlineExceeded(datasetName, e);
+            }
+            log.error("Failed to insert records for dataset: {}", datasetName, e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to insert records");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @AdmitAs(Lane.HEAVY_SCAN)
     @GetMapping("/{datasetName}/query")
     public ResponseEntity<Map<String, Object>> queryRecords(
             @PathVariable String datasetName,
             @RequestParam(required = false) String groupBy,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false, defaultValue = "asc") String order) {
+            @RequestParam(required = false, defaultValue = "asc") String order,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
 
         try {
+            // Answer unchanged polls before touching the repository
+            String etag = etag(versionTracker.getVersion(datasetName), datasetName.trim().toLowerCase(), "query",
+                    groupBy, sortBy, order, limit, request.getHeader(HttpHeaders.ACCEPT));
+            if (request.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+
             Map<String, Object> response = new HashMap<>();
 
             if (groupBy != null && !groupBy.trim().isEmpty()) {
@@ -72,12 +200,16 @@ public class DatasetController {
 
             } else if (sortBy != null && !sortBy.trim().isEmpty()) {
                 // Sort-by operation
-                List<Map<String, Object>> sortedRecords =
-                        datasetService.sortRecordsByField(datasetName, sortBy, order);
+                List<Map<String, Object>> sortedRecords = limit != null
+                        ? datasetService.sortRecordsByField(datasetName, sortBy, order, limit)
+                        : datasetService.sortRecordsByField(datasetName, sortBy, order);
                 response.put("sortedRecords", sortedRecords);
                 response.put("operation", "sortBy");
                 response.put("field", sortBy);
                 response.put("order", order);
+                if (limit != null) {
+                    response.put("limit", limit);
+                }
 
             } else {
                 // Return all records
@@ -88,7 +220,7 @@ public class DatasetController {
             }
 
             response.put("dataset", datasetName);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).body(response);
 
         } catch (IllegalArgumentException e) {
             log.error("Validation error for query on dataset: {}", datasetName, e);
@@ -98,6 +230,9 @@ public class DatasetController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
 
         } catch (Exception e) {
+            if (RequestDeadline.isDeadlineFailure(e)) {
+                return deadlineExceeded(datasetName, e);
+            }
             log.error("Failed to query dataset: {}", datasetName, e);
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", "Failed to query records");
@@ -106,12 +241,84 @@ public class DatasetController {
         }
     }
 
+    // Same envelope as the getAll and sortBy responses, with each stored document copied out unparsed
+    @AdmitAs(Lane.HEAVY_SCAN)
+    @GetMapping(path = "/{datasetName}/query", params = "raw=true")
+    public ResponseEntity<StreamingResponseBody> queryRawRecords(
+            @PathVariable String datasetName,
+            @RequestParam(required = false) String groupBy,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false, defaultValue = "asc") String order,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+
+        try {
+            if (groupBy != null && !groupBy.trim().isEmpty()) {
+                throw new IllegalArgumentException("Raw output is only available for getAll and sortBy");
+            }
+            String etag = etag(versionTracker.getVersion(datasetName), datasetName.trim().toLowerCase(), "query-raw",
+                    sortBy, order, limit);
+            // checkNotModified already set the ETag header, and streamed bodies do not merge it with the entity's
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
+            boolean sorted = sortBy != null && !sortBy.trim().isEmpty();
+            RawRecordWriter records = datasetService.openRawRecords(datasetName, sortBy, order, limit);
+
+            Map<String, Object> envelope = new LinkedHashMap<>();
+            envelope.put("dataset", datasetName);
+            envelope.put("operation", sorted ? "sortBy" : "getAll");
+            if (sorted) {
+                envelope.put("field", sortBy);
+                envelope.put("order", order);
+                if (limit != null) {
+                    envelope.put("limit", limit);
+                }
+            }
+            String recordsField = sorted ? "sortedRecords" : "records";
+
+            // The body is written on another thread: only a client-supplied deadline follows it there,
+            // but a client that goes away mid-stream always cancels the query feeding it
+            Deadline deadline = RequestDeadline.current();
+            Deadline streamDeadline = deadline != null && deadline.isRequested() ? deadline : Deadline.unbounded();
+            StreamingResponseBody body = outputStream -> RequestDeadline.callWith(streamDeadline, () -> {
+                writeRawEnvelope(RequestDeadline.cancelOnDisconnect(outputStream, streamDeadline),
+                        envelope, recordsField, records);
+                return null;
+            });
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error for raw query on dataset: {}", datasetName, e);
+            return rawErrorResponse(HttpStatus.BAD_REQUEST, "Validation failed", e);
+
+        } catch (Exception e) {
+            if (RequestDeadline.isDeadlineFailure(e)) {
+                log.warn("Request deadline exceeded for dataset: {}: {}", datasetName, e.getMessage());
+                return rawErrorResponse(HttpStatus.GATEWAY_TIMEOUT, "Request timed out", e);
+            }
+            log.error("Failed to query raw records for dataset: {}", datasetName, e);
+            return rawErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to query records", e);
+        }
+    }
+
+    @AdmitAs(Lane.HEAVY_SCAN)
     @GetMapping("/{datasetName}/info")
-    public ResponseEntity<Map<String, Object>> getDatasetInfo(@PathVariable String datasetName) {
+    public ResponseEntity<Map<String, Object>> getDatasetInfo(@PathVariable String datasetName, WebRequest request) {
         try {
+            String etag = etag(versionTracker.getVersion(datasetName), datasetName.trim().toLowerCase(), "info",
+                    request.getHeader(HttpHeaders.ACCEPT));
+            if (request.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+
             Map<String, Object> stats = datasetService.getDatasetStats(datasetName);
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok().eTag(etag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).body(stats);
         } catch (Exception e) {
+            if (RequestDeadline.isDeadlineFailure(e)) {
+                return deadlineExceeded(datasetName, e);
+            }
             log.error("Failed to get info for dataset: {}", datasetName, e);
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", "Failed to get dataset info");
@@ -120,15 +327,24 @@ public class DatasetController {
         }
     }
 
+    @AdmitAs(Lane.HEAVY_SCAN)
     @GetMapping("/list")
-    public ResponseEntity<Map<String, Object>> getAllDatasets() {
+    public ResponseEntity<Map<String, Object>> getAllDatasets(WebRequest request) {
         try {
+            String etag = etag(versionTracker.getGlobalVersion(), "list", request.getHeader(HttpHeaders.ACCEPT));
+            if (request.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+
             List<Map<String, Object>> datasets = datasetService.getAllDatasets();
             Map<String, Object> response = new HashMap<>();
             response.put("datasets", datasets);
             response.put("count", datasets.size());
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).body(response);
         } catch (Exception e) {
+            if (RequestDeadline.isDeadlineFailure(e)) {
+                return deadlineExceeded(null, e);
+            }
             log.error("Failed to get datasets list", e);
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", "Failed to get datasets");
@@ -136,4 +352,52 @@ public class DatasetController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
+
+    // The envelope fields, then the records array last so it can be streamed in
+    private void writeRawEnvelope(OutputStream out, Map<String, Object> envelope, String recordsField,
+                                  RawRecordWriter records) throws IOException {
+        byte[] head = objectMapper.writeValueAsBytes(envelope);
+        out.write(head, 0, head.length - 1);
+        out.write(',');
+        out.write(objectMapper.writeValueAsBytes(recordsField));
+        out.write(':');
+        records.writeTo(out);
+        out.write('}');
+    }
+
+    private ResponseEntity<Map<String, Object>> deadlineExceeded(String datasetName, Exception e) {
+        log.warn("Request deadline exceeded for dataset: {}: {}", datasetName, e.getMessage());
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Request timed out");
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(errorResponse);
+    }
+
+    private ResponseEntity<StreamingResponseBody> rawErrorResponse(HttpStatus status, String error, Exception e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", error);
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, errorResponse));
+    }
+
+    // Weak validator, because Tomcat only gzips responses without a strong ETag: the shared dataset
+    // version plus a digest of everything that shapes the representation
+    private String etag(long version, Object... variant) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(Arrays.asList(variant).toString().getBytes(StandardCharsets.UTF_8));
+            return "W/\"" + version + "-" + HexFormat.of().formatHex(digest, 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .build();
+    }
 }
@@ -0,0 +1,90 @@
+package com.example.controller;
+
+import com.example.service.DatasetSchemaService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/dataset")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+@Slf4j
+public class DatasetSchemaController {
+
+    private final DatasetSchemaService schemaService;
+
+    // Applies to records ingested from now on; records already stored are not re-checked
+    @PutMapping("/{datasetName}/schema")
+    public ResponseEntity<Map<String, Object>> putSchema(
+            @PathVariable String datasetName,
+            @RequestBody Map<String, Object> schema) {
+
+        try {
+            Map<String, Object> response = new HashMap<>(schemaService.putSchema(datasetName, schema));
+            response.put("message", "Schema stored");
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error for schema on dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.BAD_REQUEST, "Validation failed", e);
+
+        } catch (Exception e) {
+            log.error("Failed to store schema for dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to store schema", e);
+        }
+    }
+
+    @GetMapping("/{datasetName}/schema")
+    public ResponseEntity<Map<String, Object>> getSchema(@PathVariable String datasetName) {
+        try {
+            Optional<Map<String, Object>> schema = schemaService.getSchema(datasetName);
+            if (schema.isEmpty()) {
+                return errorResponse(HttpStatus.NOT_FOUND, "Schema not found",
+                        new IllegalArgumentException("No schema defined for dataset: " + datasetName));
+            }
+            return ResponseEntity.ok(schema.get());
+
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, "Validation failed", e);
+
+        } catch (Exception e) {
+            log.error("Failed to get schema for dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to get schema", e);
+        }
+    }
+
+    @DeleteMapping("/{datasetName}/schema")
+    public ResponseEntity<Map<String, Object>> deleteSchema(@PathVariable String datasetName) {
+        try {
+            if (!schemaService.deleteSchema(datasetName)) {
+                return errorResponse(HttpStatus.NOT_FOUND, "Schema not found",
+                        new IllegalArgumentException("No schema defined for dataset: " + datasetName));
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("dataset", datasetName);
+            response.put("message", "Schema deleted");
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, "Validation failed", e);
+
+        } catch (Exception e) {
+            log.error("Failed to delete schema for dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete schema", e);
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> errorResponse(HttpStatus status, String error, Exception e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", error);
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+}
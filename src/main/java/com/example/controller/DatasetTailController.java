@@ -0,0 +1,264 @@
+package com.example.controller;
+
+import com.example.admission.AdmissionGate;
+import com.example.admission.AdmissionRejectedException;
+import com.example.admission.Bulkhead;
+import com.example.admission.Lane;
+import com.example.entity.DatasetRecord;
+import com.example.service.DatasetChangeBus;
+import com.example.service.DatasetService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/dataset")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+@Slf4j
+public class DatasetTailController {
+
+    private static final int BACKFILL_PAGE_SIZE = 500;
+    private static final long BACKFILL_RETRY_SECONDS = 1;
+    private static final int MAX_POLL_TIMEOUT_MS = 60_000;
+    private static final int MAX_POLL_LIMIT = 10_000;
+
+    private final DatasetService datasetService;
+    private final DatasetChangeBus changeBus;
+    private final ObjectProvider<AdmissionGate> admissionGate;
+
+    @Value("${app.tail.sse-timeout-ms:1800000}")
+    private long sseTimeoutMs = 1_800_000;
+
+    // Server-sent events: backfills everything after sinceId / Last-Event-ID, then streams new records.
+    // The backfill runs after the handler returns, one page at a time, each page admitted as a heavy scan.
+    @GetMapping(path = "/{datasetName}/tail", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter tail(
+            @PathVariable String datasetName,
+            @RequestParam(required = false) Long sinceId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+
+        String dataset = datasetName.trim().toLowerCase();
+        long afterId = resolveAfterId(sinceId, lastEventId);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+
+        DatasetChangeBus.Subscription subscription = changeBus.subscribe(dataset, afterId, new DatasetChangeBus.Listener() {
+            @Override
+            public void onEvents(List<DatasetChangeBus.ChangeEvent> events) throws IOException {
+                for (DatasetChangeBus.ChangeEvent event : events) {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(event.id()))
+                            .name("record")
+                            .data(toPayload(event.id(), event.createdAt(), event.data()), MediaType.APPLICATION_JSON));
+                }
+            }
+
+            @Override
+            public void onOverflow() {
+                try {
+                    emitter.send(SseEmitter.event().name("overflow").data("Subscriber fell behind, reconnect to resume"));
+                } catch (IOException e) {
+                    log.debug("Could not notify tail subscriber of overflow for dataset: {}", dataset);
+                }
+                emitter.complete();
+            }
+
+            @Override
+            public void onHeartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("keepalive"));
+            }
+        });
+
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+
+        try {
+            changeBus.backfill(() -> backfill(dataset, afterId, emitter, subscription));
+        } catch (RejectedExecutionException e) {
+            log.warn("Tail backfill pool is full, asking subscriber to retry for dataset: {}", dataset);
+            resumeLater(emitter, subscription, afterId, BACKFILL_RETRY_SECONDS, "Too many tail streams are starting");
+        }
+        return emitter;
+    }
+
+    // Sends are written straight to the client once the handler has returned, so only one page is held at a time
+    private void backfill(String dataset, long afterId, SseEmitter emitter, DatasetChangeBus.Subscription subscription) {
+        long lastId = afterId;
+        try {
+            List<DatasetRecord> page;
+            do {
+                page = readPage(dataset, lastId);
+                for (DatasetRecord record : page) {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(record.getId()))
+                            .name("record")
+                            .data(toPayload(record.getId(), record.getCreatedAt(), record.getRecordDataAsMap()),
+                                    MediaType.APPLICATION_JSON));
+                    lastId = record.getId();
+                }
+            } while (page.size() == BACKFILL_PAGE_SIZE && !subscription.isClosed());
+
+            subscription.start(lastId);
+            log.info("Tail stream opened for dataset: {} after id {}", dataset, lastId);
+
+        } catch (AdmissionRejectedException e) {
+            log.debug("Tail backfill shed for dataset: {} at id {}", dataset, lastId);
+            resumeLater(emitter, subscription, lastId, e.getRetryAfterSeconds(), e.getMessage());
+
+        } catch (Exception e) {
+            log.error("Failed to backfill tail stream for dataset: {}", dataset, e);
+            subscription.close();
+            emitter.completeWithError(e);
+        }
+    }
+
+    private List<DatasetRecord> readPage(String dataset, long afterId) throws InterruptedException {
+        AdmissionGate gate = admissionGate.getIfAvailable();
+        if (gate == null) {
+            return datasetService.getRecordsAfterId(dataset, afterId, BACKFILL_PAGE_SIZE);
+        }
+        Bulkhead.Permit permit = gate.acquire(Lane.HEAVY_SCAN, dataset);
+        boolean completed = false;
+        try {
+            List<DatasetRecord> page = datasetService.getRecordsAfterId(dataset, afterId, BACKFILL_PAGE_SIZE);
+            completed = true;
+            return page;
+        } finally {
+            gate.release(permit, !completed);
+        }
+    }
+
+    // Ends the stream with the id to resume from; EventSource clients reconnect on their own after the delay
+    private void resumeLater(SseEmitter emitter, DatasetChangeBus.Subscription subscription, long lastId,
+                             long retryAfterSeconds, String message) {
+        subscription.close();
+        try {
+            Map<String, Object> resume = new LinkedHashMap<>();
+            resume.put("lastId", lastId);
+            resume.put("retryAfterSeconds", retryAfterSeconds);
+            resume.put("message", message);
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(lastId))
+                    .name("resume")
+                    .reconnectTime(TimeUnit.SECONDS.toMillis(Math.max(1, retryAfterSeconds)))
+                    .data(resume, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            log.debug("Could not ask tail subscriber to resume at id {}", lastId);
+        }
+        emitter.complete();
+    }
+
+    // Long-poll: answers immediately if anything newer than sinceId exists, otherwise waits for the next insert
+    @GetMapping("/{datasetName}/tail/poll")
+    public DeferredResult<ResponseEntity<Map<String, Object>>> poll(
+            @PathVariable String datasetName,
+            @RequestParam(required = false, defaultValue = "0") Long sinceId,
+            @RequestParam(required = false, defaultValue = "30000") int timeoutMs,
+            @RequestParam(required = false, defaultValue = "500") int limit) {
+
+        if (timeoutMs <= 0 || limit <= 0 || limit > MAX_POLL_LIMIT) {
+            DeferredResult<ResponseEntity<Map<String, Object>>> rejected = new DeferredResult<>();
+            rejected.setResult(validationError(timeoutMs <= 0
+                    ? "timeoutMs must be positive"
+                    : "limit must be between 1 and " + MAX_POLL_LIMIT));
+            return rejected;
+        }
+
+        String dataset = datasetName.trim().toLowerCase();
+        long timeout = Math.min(timeoutMs, MAX_POLL_TIMEOUT_MS);
+        DeferredResult<ResponseEntity<Map<String, Object>>> result =
+                new DeferredResult<>(timeout, () -> ResponseEntity.ok(toPollResponse(dataset, sinceId, List.of())));
+
+        // Subscribe before querying so a record committed in between is not missed
+        DatasetChangeBus.Subscription subscription = changeBus.subscribe(dataset, sinceId, new DatasetChangeBus.Listener() {
+            @Override
+            public void onEvents(List<DatasetChangeBus.ChangeEvent> events) {
+                List<Map<String, Object>> records = events.stream()
+                        .limit(limit)
+                        .map(event -> toPayload(event.id(), event.createdAt(), event.data()))
+                        .toList();
+                result.setResult(ResponseEntity.ok(toPollResponse(dataset, sinceId, records)));
+            }
+
+            @Override
+            public void onOverflow() {
+                result.setResult(ResponseEntity.ok(toPollResponse(dataset, sinceId, List.of())));
+            }
+        });
+        result.onCompletion(subscription::close);
+
+        try {
+            List<DatasetRecord> pending = datasetService.getRecordsAfterId(dataset, sinceId, limit);
+            if (!pending.isEmpty()) {
+                List<Map<String, Object>> records = pending.stream()
+                        .map(record -> toPayload(record.getId(), record.getCreatedAt(), record.getRecordDataAsMap()))
+                        .toList();
+                subscription.close();
+                result.setResult(ResponseEntity.ok(toPollResponse(dataset, sinceId, records)));
+            } else {
+                subscription.start(sinceId);
+            }
+
+        } catch (IllegalArgumentException e) {
+            subscription.close();
+            result.setResult(validationError(e.getMessage()));
+
+        } catch (Exception e) {
+            log.error("Failed to poll dataset: {}", dataset, e);
+            subscription.close();
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to poll records");
+            errorResponse.put("message", e.getMessage());
+            result.setResult(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
+        }
+        return result;
+    }
+
+    private ResponseEntity<Map<String, Object>> validationError(String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Validation failed");
+        errorResponse.put("message", message);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    private long resolveAfterId(Long sinceId, String lastEventId) {
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                return Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed Last-Event-ID: {}", lastEventId);
+            }
+        }
+        return sinceId != null ? sinceId : 0L;
+    }
+
+    private Map<String, Object> toPayload(Long id, Object createdAt, Map<String, Object> data) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", id);
+        payload.put("createdAt", createdAt);
+        payload.put("data", data);
+        return payload;
+    }
+
+    private Map<String, Object> toPollResponse(String dataset, Long sinceId, List<Map<String, Object>> records) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("dataset", dataset);
+        response.put("records", records);
+        response.put("count", records.size());
+        response.put("lastId", records.isEmpty() ? sinceId : records.get(records.size() - 1).get("id"));
+        return response;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.controller;
+
+import com.example.entity.DeleteJob;
+import com.example.service.DeleteJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/dataset")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+@Slf4j
+public class DeleteJobController {
+
+    private final DeleteJobService deleteJobService;
+
+    @DeleteMapping("/{datasetName}")
+    public ResponseEntity<Map<String, Object>> deleteDataset(@PathVariable String datasetName) {
+        try {
+            DeleteJob job = deleteJobService.submitDatasetDeletion(datasetName);
+            Map<String, Object> response = toResponse(job);
+            response.put("message", "Dataset deletion scheduled");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error for delete on dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.BAD_REQUEST, "Validation failed", e);
+
+        } catch (Exception e) {
+            log.error("Failed to schedule deletion of dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to schedule deletion", e);
+        }
+    }
+
+    @DeleteMapping("/{datasetName}/records")
+    public ResponseEntity<Map<String, Object>> deleteOldRecords(
+            @PathVariable String datasetName,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before) {
+
+        try {
+            DeleteJob job = deleteJobService.submitOldRecordsDeletion(datasetName, before);
+            Map<String, Object> response = toResponse(job);
+            response.put("message", "Record deletion scheduled");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error for delete on dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.BAD_REQUEST, "Validation failed", e);
+
+        } catch (Exception e) {
+            log.error("Failed to schedule record deletion for dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to schedule deletion", e);
+        }
+    }
+
+    @GetMapping("/{datasetName}/delete-jobs")
+    public ResponseEntity<Map<String, Object>> getJobsForDataset(@PathVariable String datasetName) {
+        try {
+            List<Map<String, Object>> jobs = deleteJobService.getJobsForDataset(datasetName).stream()
+                    .map(this::toResponse)
+                    .toList();
+            Map<String, Object> response = new HashMap<>();
+            response.put("dataset", datasetName);
+            response.put("jobs", jobs);
+            response.put("count", jobs.size());
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, "Validation failed", e);
+
+        } catch (Exception e) {
+            log.error("Failed to list delete jobs for dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to get delete jobs", e);
+        }
+    }
+
+    @GetMapping("/delete-jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(toResponse(deleteJobService.getJob(jobId)));
+
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.NOT_FOUND, "Delete job not found", e);
+
+        } catch (Exception e) {
+            log.error("Failed to get delete job: {}", jobId, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to get delete job", e);
+        }
+    }
+
+    @PostMapping("/delete-jobs/{jobId}/cancel")
+    public ResponseEntity<Map<String, Object>> cancelJob(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(toResponse(deleteJobService.cancelJob(jobId)));
+
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.NOT_FOUND, "Delete job not found", e);
+
+        } catch (Exception e) {
+            log.error("Failed to cancel delete job: {}", jobId, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to cancel delete job", e);
+        }
+    }
+
+    private Map<String, Object> toResponse(DeleteJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getId());
+        response.put("dataset", job.getDatasetName());
+        response.put("status", job.getStatus());
+        response.put("deletedCount", job.getDeletedCount());
+        response.put("estimatedTotal", job.getEstimatedTotal());
+        response.put("cutoffDate", job.getCutoffDate());
+        response.put("createdAt", job.getCreatedAt());
+        response.put("updatedAt", job.getUpdatedAt());
+        if (job.getErrorMessage() != null) {
+            response.put("errorMessage", job.getErrorMessage());
+        }
+        return response;
+    }
+
+    private ResponseEntity<Map<String, Object>> errorResponse(HttpStatus status, String error, Exception e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", error);
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+}
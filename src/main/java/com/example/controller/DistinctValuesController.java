@@ -0,0 +1,93 @@
+package com.example.controller;
+
+import com.example.admission.AdmitAs;
+import com.example.admission.Lane;
+import com.example.deadline.RequestDeadline;
+import com.example.service.DatasetService;
+import com.example.service.FieldSketchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/dataset")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+@Slf4j
+public class DistinctValuesController {
+
+    private final DatasetService datasetService;
+    private final FieldSketchService fieldSketchService;
+
+    @AdmitAs(Lane.HEAVY_SCAN)
+    @GetMapping("/{datasetName}/fields/{fieldName}/distinct")
+    public ResponseEntity<Map<String, Object>> getDistinctValues(
+            @PathVariable String datasetName,
+            @PathVariable String fieldName,
+            @RequestParam(required = false, defaultValue = "exact") String mode,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false, defaultValue = "100") int limit,
+            @RequestParam(required = false, defaultValue = "10") int top) {
+
+        try {
+            Map<String, Object> result;
+            if ("approximate".equalsIgnoreCase(mode) || "approx".equalsIgnoreCase(mode)) {
+                result = fieldSketchService.getApproximateDistinct(datasetName, fieldName, top);
+            } else if ("exact".equalsIgnoreCase(mode)) {
+                result = datasetService.getDistinctFieldValues(datasetName, fieldName, after, limit);
+            } else {
+                throw new IllegalArgumentException("Unsupported mode: " + mode + " (expected exact or approximate)");
+            }
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error for distinct values on dataset: {}", datasetName, e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Validation failed");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+
+        } catch (Exception e) {
+            if (RequestDeadline.isDeadlineFailure(e)) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Request timed out");
+                errorResponse.put("message", e.getMessage());
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(errorResponse);
+            }
+            log.error("Failed to get distinct values for dataset: {} field: {}", datasetName, fieldName, e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to get distinct values");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @PostMapping("/{datasetName}/fields/sketches/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSketches(@PathVariable String datasetName) {
+        try {
+            boolean started = fieldSketchService.rebuildSketches(datasetName);
+            Map<String, Object> response = new HashMap<>();
+            response.put("dataset", datasetName);
+            response.put("message", started ? "Field sketch rebuild started" : "Field sketch rebuild already running");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Validation failed");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+
+        } catch (Exception e) {
+            log.error("Failed to rebuild field sketches for dataset: {}", datasetName, e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to rebuild field sketches");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.controller;
+
+import com.example.service.IngestJournalService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/dataset")
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(prefix = "app.journal", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class IngestJournalController {
+
+    private final IngestJournalService journalService;
+
+    @GetMapping("/journal")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        try {
+            Map<String, Object> response = new HashMap<>(journalService.getStatus());
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Failed to read ingest journal status", e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to read ingest journal status");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+}
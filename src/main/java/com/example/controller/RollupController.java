@@ -0,0 +1,144 @@
+package com.example.controller;
+
+import com.example.admission.AdmitAs;
+import com.example.admission.Lane;
+import com.example.deadline.RequestDeadline;
+import com.example.service.RollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/dataset")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+@Slf4j
+public class RollupController {
+
+    private final RollupService rollupService;
+
+    public record RollupRequest(String bucket, String groupBy, List<String> fields) {
+    }
+
+    @PostMapping("/{datasetName}/rollups")
+    public ResponseEntity<Map<String, Object>> createRollup(
+            @PathVariable String datasetName,
+            @RequestBody RollupRequest request) {
+
+        try {
+            Map<String, Object> response = new HashMap<>(
+                    rollupService.createDefinition(datasetName, request.bucket(), request.groupBy(), request.fields()));
+            response.put("message", "Rollup created; existing records are being backfilled");
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error for rollup on dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.BAD_REQUEST, "Validation failed", e);
+
+        } catch (Exception e) {
+            log.error("Failed to create rollup for dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to create rollup", e);
+        }
+    }
+
+    @GetMapping("/{datasetName}/rollups")
+    public ResponseEntity<Map<String, Object>> getRollups(@PathVariable String datasetName) {
+        try {
+            List<Map<String, Object>> rollups = rollupService.getDefinitions(datasetName);
+            Map<String, Object> response = new HashMap<>();
+            response.put("dataset", datasetName);
+            response.put("rollups", rollups);
+            response.put("count", rollups.size());
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, "Validation failed", e);
+
+        } catch (Exception e) {
+            log.error("Failed to list rollups for dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to list rollups", e);
+        }
+    }
+
+    @DeleteMapping("/{datasetName}/rollups/{rollupId}")
+    public ResponseEntity<Map<String, Object>> deleteRollup(@PathVariable String datasetName, @PathVariable Long rollupId) {
+        try {
+            rollupService.deleteDefinition(datasetName, rollupId);
+            Map<String, Object> response = new HashMap<>();
+            response.put("dataset", datasetName);
+            response.put("rollupId", rollupId);
+            response.put("message", "Rollup deleted");
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, "Validation failed", e);
+
+        } catch (Exception e) {
+            log.error("Failed to delete rollup {} for dataset: {}", rollupId, datasetName, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete rollup", e);
+        }
+    }
+
+    @PostMapping("/{datasetName}/rollups/{rollupId}/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRollup(@PathVariable String datasetName, @PathVariable Long rollupId) {
+        try {
+            boolean started = rollupService.rebuild(datasetName, rollupId);
+            Map<String, Object> response = new HashMap<>();
+            response.put("dataset", datasetName);
+            response.put("rollupId", rollupId);
+            response.put("message", started ? "Rollup rebuild started" : "Rollup rebuild already running");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, "Validation failed", e);
+
+        } catch (Exception e) {
+            log.error("Failed to rebuild rollup {} for dataset: {}", rollupId, datasetName, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to rebuild rollup", e);
+        }
+    }
+
+    // step is the widest bucket the caller accepts; the coarsest rollup within it is used
+    @AdmitAs(Lane.HEAVY_SCAN)
+    @GetMapping("/{datasetName}/rollups/query")
+    public ResponseEntity<Map<String, Object>> queryRollup(
+            @PathVariable String datasetName,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String groupBy,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(required = false) String step) {
+
+        try {
+            Map<String, Object> response = new HashMap<>(
+                    rollupService.query(datasetName, from, to, groupBy, fields, step));
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error for rollup query on dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.BAD_REQUEST, "Validation failed", e);
+
+        } catch (Exception e) {
+            if (RequestDeadline.isDeadlineFailure(e)) {
+                return errorResponse(HttpStatus.GATEWAY_TIMEOUT, "Request timed out", e);
+            }
+            log.error("Failed to query rollups for dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to query rollups", e);
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> errorResponse(HttpStatus status, String error, Exception e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", error);
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+}
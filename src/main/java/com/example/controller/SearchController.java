@@ -0,0 +1,107 @@
+package com.example.controller;
+
+import com.example.admission.AdmitAs;
+import com.example.admission.Lane;
+import com.example.deadline.RequestDeadline;
+import com.example.service.SearchIndexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/dataset")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+@Slf4j
+public class SearchController {
+
+    private final SearchIndexService searchIndexService;
+
+    @AdmitAs(Lane.HEAVY_SCAN)
+    @GetMapping("/{datasetName}/search")
+    public ResponseEntity<Map<String, Object>> search(
+            @PathVariable String datasetName,
+            @RequestParam String field,
+            @RequestParam("q") String query,
+            @RequestParam(required = false, defaultValue = "term") String mode,
+            @RequestParam(required = false, defaultValue = "100") int limit,
+            @RequestParam(required = false, defaultValue = "false") boolean includeRecords) {
+
+        try {
+            Map<String, Object> result =
+                    searchIndexService.search(datasetName, field, query, mode, limit, includeRecords);
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error for search on dataset: {}", datasetName, e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Validation failed");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+
+        } catch (UnsupportedOperationException e) {
+            return notImplemented(e);
+
+        } catch (Exception e) {
+            if (RequestDeadline.isDeadlineFailure(e)) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Request timed out");
+                errorResponse.put("message", e.getMessage());
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(errorResponse);
+            }
+            log.error("Failed to search dataset: {}", datasetName, e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to search records");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @PostMapping("/{datasetName}/search/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildIndex(@PathVariable String datasetName) {
+        try {
+            boolean started = searchIndexService.rebuildIndex(datasetName);
+            Map<String, Object> response = new HashMap<>();
+            response.put("dataset", datasetName);
+            response.put("message", started ? "Search index rebuild started" : "Search index rebuild already running");
+            response.put("rebuilding", true);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Validation failed");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+
+        } catch (UnsupportedOperationException e) {
+            return notImplemented(e);
+
+        } catch (Exception e) {
+            log.error("Failed to rebuild search index for dataset: {}", datasetName, e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to rebuild search index");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/{datasetName}/search/status")
+    public ResponseEntity<Map<String, Object>> rebuildStatus(@PathVariable String datasetName) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("dataset", datasetName);
+        response.put("rebuilding", searchIndexService.isRebuilding(datasetName));
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> notImplemented(UnsupportedOperationException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Search unavailable");
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).body(errorResponse);
+    }
+}
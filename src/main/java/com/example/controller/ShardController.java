@@ -0,0 +1,94 @@
+package com.example.controller;
+
+import com.example.service.ShardMigrationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/dataset")
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardController {
+
+    private final ShardMigrationService migrationService;
+
+    @GetMapping("/shards")
+    public ResponseEntity<Map<String, Object>> getTopology() {
+        try {
+            Map<String, Object> response = new HashMap<>(migrationService.getTopology());
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Failed to read shard topology", e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to read shard topology", e);
+        }
+    }
+
+    @GetMapping("/shards/rebalance-plan")
+    public ResponseEntity<Map<String, Object>> getRebalancePlan() {
+        try {
+            List<Map<String, Object>> plan = migrationService.planRebalance();
+            Map<String, Object> response = new HashMap<>();
+            response.put("moves", plan);
+            response.put("count", plan.size());
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Failed to compute rebalance plan", e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to compute rebalance plan", e);
+        }
+    }
+
+    // Target defaults to the dataset's owner on the current hash ring
+    @PostMapping("/{datasetName}/shard/migrate")
+    public ResponseEntity<Map<String, Object>> migrate(
+            @PathVariable String datasetName,
+            @RequestParam(required = false) String target) {
+
+        try {
+            Map<String, Object> response = new HashMap<>(migrationService.startMigration(datasetName, target));
+            response.put("message", "Migration scheduled");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error for migration of dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.BAD_REQUEST, "Validation failed", e);
+
+        } catch (Exception e) {
+            log.error("Failed to schedule migration for dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to schedule migration", e);
+        }
+    }
+
+    @GetMapping("/{datasetName}/shard/migration")
+    public ResponseEntity<Map<String, Object>> getMigration(@PathVariable String datasetName) {
+        try {
+            Map<String, Object> response = new HashMap<>(migrationService.getMigrationStatus(datasetName));
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.NOT_FOUND, "Migration not found", e);
+
+        } catch (Exception e) {
+            log.error("Failed to read migration status for dataset: {}", datasetName, e);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to read migration status", e);
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> errorResponse(HttpStatus status, String error, Exception e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", error);
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.deadline;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The point in time by which one request must finish, plus the JDBC statements it has open.
+ * When the deadline passes at a checkpoint, or the request is abandoned, those statements are
+ * cancelled so the database stops working on them and their connections go back to the pool
+ * without draining the rest of a streamed result.
+ */
+@Slf4j
+public final class Deadline {
+
+    private final long expiresAtNanos;
+    private final long timeoutMillis;
+    private final boolean requested;
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+    private volatile String cancelReason;
+
+    private Deadline(long expiresAtNanos, long timeoutMillis, boolean requested) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.timeoutMillis = timeoutMillis;
+        this.requested = requested;
+    }
+
+    /** {@code requested} is true when the client asked for the timeout rather than getting the default. */
+    public static Deadline after(long timeoutMillis, boolean requested) {
+        return new Deadline(System.nanoTime() + timeoutMillis * 1_000_000L, timeoutMillis, requested);
+    }
+
+    /** Never expires, but can still be cancelled. */
+    public static Deadline unbounded() {
+        return new Deadline(Long.MAX_VALUE, 0, false);
+    }
+
+    public boolean isBounded() {
+        return expiresAtNanos != Long.MAX_VALUE;
+    }
+
+    public boolean isRequested() {
+        return requested;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public long remainingMillis() {
+        if (!isBounded()) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, (expiresAtNanos - System.nanoTime()) / 1_000_000L);
+    }
+
+    public boolean isExpired() {
+        return isBounded() && System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    public boolean isDone() {
+        return cancelReason != null || isExpired();
+    }
+
+    /** Cancels the statements in flight; later checkpoints throw. */
+    public void cancel(String reason) {
+        if (cancelReason != null) {
+            return;
+        }
+        cancelReason = reason;
+        for (Statement statement : statements) {
+            try {
+                statement.cancel();
+            } catch (SQLException | RuntimeException e) {
+                log.debug("Failed to cancel statement after {}", reason, e);
+            }
+        }
+    }
+
+    public void checkpoint() {
+        if (cancelReason == null && isExpired()) {
+            cancel("deadline of " + timeoutMillis + " ms exceeded");
+        }
+        if (cancelReason != null) {
+            throw new DeadlineExceededException("Request abandoned: " + cancelReason);
+        }
+    }
+
+    void register(Statement statement) {
+        statements.add(statement);
+        // Lost the race with cancel(): nobody else will cancel this one
+        if (cancelReason != null) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                log.debug("Failed to cancel statement after {}", cancelReason, e);
+            }
+        }
+    }
+
+    void unregister(Statement statement) {
+        statements.remove(statement);
+    }
+}
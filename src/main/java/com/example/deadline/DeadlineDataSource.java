@@ -0,0 +1,128 @@
+package com.example.deadline;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Carries the request deadline down to JDBC. Every statement executed on behalf of a request with
+ * a deadline gets a query timeout no longer than the time remaining (rounded up to the driver's
+ * one-second resolution), refuses to start once the deadline has passed, and is registered with
+ * the deadline so it can be cancelled mid-flight. Statements outside a request run untouched.
+ */
+public class DeadlineDataSource extends DelegatingDataSource {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    public DeadlineDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(DeadlineDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && STATEMENT_FACTORIES.contains(method.getName())) {
+                        return Proxy.newProxyInstance(DeadlineDataSource.class.getClassLoader(),
+                                new Class<?>[]{method.getReturnType()}, new StatementHandler(statement));
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private Deadline registeredWith;
+
+        StatementHandler(Statement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    if (registeredWith != null) {
+                        registeredWith.unregister(statement);
+                        registeredWith = null;
+                    }
+                    return DeadlineDataSource.invoke(statement, method, args);
+                default:
+                    break;
+            }
+            if (!name.startsWith("execute")) {
+                return DeadlineDataSource.invoke(statement, method, args);
+            }
+
+            Deadline deadline = RequestDeadline.current();
+            if (deadline == null) {
+                return DeadlineDataSource.invoke(statement, method, args);
+            }
+            deadline.checkpoint();
+            if (deadline.isBounded()) {
+                int seconds = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (deadline.remainingMillis() + 999) / 1000));
+                int current = statement.getQueryTimeout();
+                if (current == 0 || current > seconds) {
+                    statement.setQueryTimeout(seconds);
+                }
+            }
+            if (registeredWith != deadline) {
+                if (registeredWith != null) {
+                    registeredWith.unregister(statement);
+                }
+                deadline.register(statement);
+                registeredWith = deadline;
+            }
+            try {
+                return DeadlineDataSource.invoke(statement, method, args);
+            } catch (SQLException e) {
+                // A cancelled statement fails with a driver-specific error; report it as the timeout it is
+                if (deadline.isDone() && !(e instanceof SQLTimeoutException)) {
+                    throw new SQLTimeoutException("Statement cancelled: request deadline exceeded", e.getSQLState(), e);
+                }
+                throw e;
+            }
+        }
+    }
+}
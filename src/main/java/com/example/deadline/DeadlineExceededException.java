@@ -0,0 +1,12 @@
+package com.example.deadline;
+
+/**
+ * Thrown at a checkpoint once the request's deadline has passed or the request was abandoned,
+ * so the work in progress unwinds instead of running to completion for nobody.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
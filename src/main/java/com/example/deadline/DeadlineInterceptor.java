@@ -0,0 +1,98 @@
+package com.example.deadline;
+
+import com.example.admission.AdmissionControlInterceptor;
+import com.example.admission.Lane;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Starts the deadline of each API request: the client's {@code X-Request-Timeout} when given
+ * (milliseconds, or a number with an {@code ms} or {@code s} suffix), otherwise the default of the
+ * request's lane, capped at the configured maximum either way. The deadline is bound to the
+ * handler thread only; async bodies carry it over themselves.
+ */
+@RequiredArgsConstructor
+public class DeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+    public static final String DEADLINE_ATTRIBUTE = DeadlineInterceptor.class.getName() + ".deadline";
+
+    private static final Pattern TIMEOUT = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*(ms|s)?");
+
+    private final ToLongFunction<Lane> defaultTimeoutMs;
+    private final long maxTimeoutMs;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+
+        String header = request.getHeader(TIMEOUT_HEADER);
+        long timeoutMs;
+        if (header != null) {
+            timeoutMs = parseTimeout(header);
+            if (timeoutMs <= 0) {
+                reject(response, "Invalid " + TIMEOUT_HEADER + " header: " + header);
+                return false;
+            }
+        } else {
+            timeoutMs = defaultTimeoutMs.applyAsLong(AdmissionControlInterceptor.laneOf(method, request));
+        }
+
+        Deadline deadline = timeoutMs > 0
+                ? Deadline.after(Math.min(timeoutMs, maxTimeoutMs), header != null)
+                : Deadline.unbounded();
+        request.setAttribute(DEADLINE_ATTRIBUTE, deadline);
+        RequestDeadline.set(deadline);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestDeadline.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestDeadline.clear();
+    }
+
+    // 0 or less when the header is not a positive duration
+    static long parseTimeout(String header) {
+        Matcher matcher = TIMEOUT.matcher(header.trim().toLowerCase());
+        if (!matcher.matches()) {
+            return -1;
+        }
+        double amount = Double.parseDouble(matcher.group(1));
+        return (long) Math.ceil("s".equals(matcher.group(2)) ? amount * 1000 : amount);
+    }
+
+    private void reject(HttpServletResponse response, String message) throws IOException {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Validation failed");
+        errorResponse.put("message", message);
+        errorResponse.put("timestamp", LocalDateTime.now());
+
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.deadline;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLTimeoutException;
+
+/**
+ * Holds the deadline of the request being served on the current thread. Work that hands off to
+ * another thread carries it over with {@link #callWith}. Without a deadline every check is a
+ * no-op, so background jobs and the ingest applier are unaffected.
+ */
+public final class RequestDeadline {
+
+    /** Loops over rows check the deadline once per this many rows. */
+    public static final int CHECKPOINT_INTERVAL = 256;
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    @FunctionalInterface
+    public interface Work<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private RequestDeadline() {
+    }
+
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static void set(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /** Throws {@link DeadlineExceededException} when the current request has run out of time. */
+    public static void checkpoint() {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.checkpoint();
+        }
+    }
+
+    /** For per-row loops: checks only when {@code processed} is a multiple of {@value #CHECKPOINT_INTERVAL}. */
+    public static void checkpoint(long processed) {
+        if (processed % CHECKPOINT_INTERVAL == 0) {
+            checkpoint();
+        }
+    }
+
+    public static <T, E extends Exception> T callWith(Deadline deadline, Work<T, E> work) throws E {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        try {
+            return work.call();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Runs {@code work} without the current deadline, for follow-up writes that must not be
+     * abandoned once the records they describe are committed.
+     */
+    public static void runDetached(Runnable work) {
+        Deadline previous = CURRENT.get();
+        CURRENT.remove();
+        try {
+            work.run();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * True when {@code failure} came from running out of time: a checkpoint, a JDBC query timeout,
+     * or any error raised after the deadline of the current request had passed.
+     */
+    public static boolean isDeadlineFailure(Throwable failure) {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isDone()) {
+            return true;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeadlineExceededException
+                    || cause instanceof SQLTimeoutException
+                    || cause instanceof org.springframework.dao.QueryTimeoutException
+                    || cause instanceof jakarta.persistence.QueryTimeoutException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wraps a response stream so that a failed write (the client went away) cancels the deadline
+     * before the error unwinds, and with it the statement still producing rows.
+     */
+    public static OutputStream cancelOnDisconnect(OutputStream out, Deadline deadline) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                try {
+                    out.write(b);
+                } catch (IOException e) {
+                    deadline.cancel("client disconnected");
+                    throw e;
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                try {
+                    out.write(b, off, len);
+                } catch (IOException e) {
+                    deadline.cancel("client disconnected");
+                    throw e;
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    deadline.cancel("client disconnected");
+                    throw e;
+                }
+            }
+        };
+    }
+}
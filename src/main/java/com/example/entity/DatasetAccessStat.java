@@ -0,0 +1,52 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * How often one read shape (dataset, operation, field, order, limit) was served, accumulated across
+ * restarts on the home shard. Empty strings and a zero limit stand for "not given", so the unique key
+ * also covers shapes without a field or limit.
+ */
+@Entity
+@Table(name = "dataset_access_stats",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_dataset_access_stats_shape",
+                        columnNames = {"dataset_name", "operation", "field_name", "sort_order", "result_limit"})
+        },
+        indexes = {
+                @Index(name = "idx_dataset_access_stats_hits", columnList = "hits")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DatasetAccessStat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "dataset_name", nullable = false, length = 100)
+    private String datasetName;
+
+    @Column(name = "operation", nullable = false, length = 16)
+    private String operation;
+
+    @Column(name = "field_name", nullable = false)
+    private String fieldName;
+
+    @Column(name = "sort_order", nullable = false, length = 10)
+    private String sortOrder;
+
+    @Column(name = "result_limit", nullable = false)
+    private Integer resultLimit;
+
+    @Column(name = "hits", nullable = false)
+    private Long hits;
+
+    @Column(name = "last_accessed_at", nullable = false)
+    private LocalDateTime lastAccessedAt;
+}
@@ -0,0 +1,35 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Which shard holds a dataset's records. Only used when sharding is enabled; the table lives on
+ * the home shard and overrides the hash ring so existing datasets stay put as shards are added.
+ */
+@Entity
+@Table(name = "dataset_placements")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DatasetPlacement {
+
+    @Id
+    @Column(name = "dataset_name", length = 100)
+    private String datasetName;
+
+    @Column(name = "shard_name", nullable = false, length = 100)
+    private String shardName;
+
+    // Set for the short cutover window of a migration; writers wait until it clears
+    @Column(name = "writes_frozen", nullable = false)
+    @Builder.Default
+    private Boolean writesFrozen = false;
+
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
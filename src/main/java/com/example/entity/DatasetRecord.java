@@ -1,5 +1,6 @@
 package com.example.entity;
 
+import com.example.json.FieldPath;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -93,16 +94,15 @@ public class DatasetRecord {
         }
     }
 
+    // fieldName is a field path, so nested values are reachable as "address.city" or "items[0]"
     @JsonIgnore
     public Object getFieldValue(String fieldName) {
-        Map<String, Object> dataMap = getRecordDataAsMap();
-        return dataMap.get(fieldName);
+        return FieldPath.of(fieldName).get(getRecordDataAsMap());
     }
 
     @JsonIgnore
     public boolean hasField(String fieldName) {
-        Map<String, Object> dataMap = getRecordDataAsMap();
-        return dataMap.containsKey(fieldName) && dataMap.get(fieldName) != null;
+        return getFieldValue(fieldName) != null;
     }
 
     @PrePersist
@@ -0,0 +1,38 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * The JSON Schema records of one dataset must satisfy on ingest. Lives on the home shard;
+ * {@code version} grows with every replacement so cached validators can tell they are stale.
+ * Hibernate bumps it with a check on the version read, so a replacement never silently reuses one.
+ */
+@Entity
+@Table(name = "dataset_schemas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DatasetSchema {
+
+    @Id
+    @Column(name = "dataset_name", length = 100)
+    private String datasetName;
+
+    @Column(name = "schema_json", nullable = false)
+    @JdbcTypeCode(SqlTypes.JSON)
+    private String schemaJson;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
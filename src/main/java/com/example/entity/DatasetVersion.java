@@ -0,0 +1,25 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Change counter of a dataset, incremented in the same transaction as every insert or delete of
+ * its records. It lives next to the records (on the dataset's shard when sharding is enabled), so
+ * every instance reading it sees the same value and ETags built from it are valid cluster-wide.
+ */
+@Entity
+@Table(name = "dataset_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DatasetVersion {
+
+    @Id
+    @Column(name = "dataset_name", length = 100)
+    private String datasetName;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
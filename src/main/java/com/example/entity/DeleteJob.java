@@ -0,0 +1,90 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "delete_jobs",
+        indexes = {
+                @Index(name = "idx_delete_jobs_status", columnList = "status")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Slf4j
+public class DeleteJob {
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "dataset_name", nullable = false, length = 100)
+    private String datasetName;
+
+    // Null means the whole dataset is dropped, otherwise only records created before this instant
+    @Column(name = "cutoff_date")
+    private LocalDateTime cutoffDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    // Highest primary key already processed; chunks resume strictly after it
+    @Column(name = "last_deleted_id", nullable = false)
+    @Builder.Default
+    private Long lastDeletedId = 0L;
+
+    @Column(name = "deleted_count", nullable = false)
+    @Builder.Default
+    private Long deletedCount = 0L;
+
+    @Column(name = "estimated_total")
+    private Long estimatedTotal;
+
+    // Instance currently running the job and until when that claim holds; another instance may
+    // take the job over only after the lease lapses without being renewed
+    @Column(name = "owner", length = 100)
+    private String owner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        if (this.createdAt == null) {
+            this.createdAt = now;
+        }
+        this.updatedAt = now;
+        log.debug("Creating delete job for dataset: {}", this.datasetName);
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted approximate statistics for one top-level field of a dataset: HyperLogLog registers
+ * for distinct counts and Space-Saving counters for the most frequent values.
+ */
+@Entity
+@Table(name = "field_sketches",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_field_sketches_field", columnNames = {"dataset_name", "field_name"})
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FieldSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "dataset_name", nullable = false, length = 100)
+    private String datasetName;
+
+    @Column(name = "field_name", nullable = false, length = 100)
+    private String fieldName;
+
+    @Lob
+    @Column(name = "hll_registers", nullable = false)
+    private byte[] hllRegisters;
+
+    // JSON array of [value, count, error] triples
+    @Lob
+    @Column(name = "top_values", nullable = false, columnDefinition = "LONGTEXT")
+    private String topValues;
+
+    @Column(name = "observed_count", nullable = false)
+    private Long observedCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
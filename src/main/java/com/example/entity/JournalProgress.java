@@ -0,0 +1,36 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Highest ingest journal sequence applied to a dataset, written in the same transaction as the
+ * records it covers. It lives next to the records (on the dataset's shard when sharding is
+ * enabled), so after a crash between that commit and the journal checkpoint the replayed entries
+ * are recognised and skipped instead of inserted twice. The journal id keeps sequences of a
+ * recreated journal directory apart from those of the old one.
+ */
+@Entity
+@Table(name = "journal_progress",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_journal_progress_dataset", columnNames = {"journal_id", "dataset_name"})
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JournalProgress {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "journal_id", nullable = false, length = 36)
+    private String journalId;
+
+    @Column(name = "dataset_name", nullable = false, length = 100)
+    private String datasetName;
+
+    @Column(name = "applied_sequence", nullable = false)
+    private Long appliedSequence;
+}
@@ -0,0 +1,52 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregates of one field over one bucket and group of a {@link RollupDefinition}. The field
+ * {@code *} holds the record count of the bucket, with no sum, min or max.
+ */
+@Entity
+@Table(name = "rollup_buckets",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_rollup_buckets_key",
+                        columnNames = {"definition_id", "bucket_start", "group_value", "field_name"})
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RollupBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "definition_id", nullable = false)
+    private Long definitionId;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    // Empty when the definition has no group-by field or the record lacks it
+    @Column(name = "group_value", nullable = false, length = 191)
+    private String groupValue;
+
+    @Column(name = "field_name", nullable = false, length = 100)
+    private String fieldName;
+
+    @Column(name = "value_count", nullable = false)
+    private Long valueCount;
+
+    @Column(name = "value_sum")
+    private Double valueSum;
+
+    @Column(name = "value_min")
+    private Double valueMin;
+
+    @Column(name = "value_max")
+    private Double valueMax;
+}
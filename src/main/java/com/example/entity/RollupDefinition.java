@@ -0,0 +1,53 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A pre-aggregation kept for one dataset: records are counted per {@code created_at} bucket of
+ * {@code bucketSeconds}, optionally split by the value of {@code groupByField}, with count, sum,
+ * min and max of each numeric field in {@code valueFields}.
+ */
+@Entity
+@Table(name = "rollup_definitions",
+        indexes = {
+                @Index(name = "idx_rollup_definitions_dataset", columnList = "dataset_name")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RollupDefinition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "dataset_name", nullable = false, length = 100)
+    private String datasetName;
+
+    @Column(name = "bucket_seconds", nullable = false)
+    private Long bucketSeconds;
+
+    // Null when records are not split into groups
+    @Column(name = "group_by_field", length = 100)
+    private String groupByField;
+
+    // Comma-separated top-level field names
+    @Column(name = "value_fields", nullable = false, length = 1000)
+    private String valueFields;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Records up to this id are counted by the last rebuild and skipped by incremental updates;
+    // Long.MAX_VALUE while a rebuild runs, null before the first one
+    @Column(name = "covered_through_id")
+    private Long coveredThroughId;
+
+    // Refreshed while a rebuild runs, so one abandoned by a stopped instance is noticed and restarted
+    @Column(name = "rebuild_heartbeat_at")
+    private LocalDateTime rebuildHeartbeatAt;
+}
@@ -0,0 +1,59 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * One posting of the JSON field search index: the record {@code recordId} has {@code token} in
+ * {@code fieldName}. Kind 'T' rows hold whole terms (term and prefix queries), kind 'G' rows hold
+ * trigrams of the full value (substring queries).
+ */
+@Entity
+@Table(name = "dataset_search_tokens",
+        indexes = {
+                @Index(name = "idx_search_tokens_lookup", columnList = "dataset_name, field_name, kind, token"),
+                @Index(name = "idx_search_tokens_record", columnList = "dataset_name, record_id")
+        })
+@IdClass(SearchToken.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchToken {
+
+    public static final String KIND_TERM = "T";
+    public static final String KIND_GRAM = "G";
+
+    @Id
+    @Column(name = "dataset_name", nullable = false, length = 100)
+    private String datasetName;
+
+    @Id
+    @Column(name = "field_name", nullable = false, length = 100)
+    private String fieldName;
+
+    @Id
+    @Column(name = "kind", nullable = false, length = 1)
+    private String kind;
+
+    @Id
+    @Column(name = "token", nullable = false, length = 64)
+    private String token;
+
+    @Id
+    @Column(name = "record_id", nullable = false)
+    private Long recordId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String datasetName;
+        private String fieldName;
+        private String kind;
+        private String token;
+        private Long recordId;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.stream.Stream;
+
+/**
+ * Journal entries the applier gave up on, one JSON object per line: the entry's sequence, when
+ * and why it was set aside, and its payload (as JSON when it parses, base64 otherwise). A line is
+ * forced to disk before the journal checkpoint moves past its entry, so a quarantined record is
+ * never lost; whether to fix and re-submit it is left to an operator. After a crash between the
+ * two, the entry is retried and may be written here a second time.
+ */
+public class DeadLetterLog {
+
+    private final Path file;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private long count;
+
+    public DeadLetterLog(Path file) throws IOException {
+        this.file = file;
+        if (Files.exists(file)) {
+            try (Stream<String> lines = Files.lines(file)) {
+                count = lines.filter(line -> !line.isBlank()).count();
+            }
+        }
+    }
+
+    public synchronized void append(JournalEntry entry, String reason) throws IOException {
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("sequence", entry.sequence());
+        line.put("quarantinedAt", Instant.now().toString());
+        line.put("reason", reason);
+        try {
+            line.set("entry", objectMapper.readTree(entry.payload()));
+        } catch (IOException e) {
+            line.put("entryBase64", Base64.getEncoder().encodeToString(entry.payload()));
+        }
+        String json = objectMapper.writeValueAsString(line) + "\n";
+        ByteBuffer buffer = ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        count++;
+    }
+
+    /** Lines in the file, including those left by earlier runs. */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
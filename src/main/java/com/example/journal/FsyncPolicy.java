@@ -0,0 +1,12 @@
+package com.example.journal;
+
+/**
+ * When appended entries are forced to disk. {@code ALWAYS} forces before {@code append} returns, so an
+ * acknowledged entry survives power loss. {@code INTERVAL} leaves it to {@link IngestJournal#sync()},
+ * called periodically; an acknowledged entry then survives a process crash but not an OS crash
+ * inside the interval.
+ */
+public enum FsyncPolicy {
+    ALWAYS,
+    INTERVAL
+}
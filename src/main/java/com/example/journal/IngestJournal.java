@@ -0,0 +1,431 @@
+package com.example.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of fixed-size, memory-mapped segment files. Entries get consecutive sequence
+ * numbers; a single consumer reads them back in order and reports how far it got with
+ * {@link #markApplied(long)}, which is persisted as a checkpoint and lets fully applied segments be
+ * recycled for new appends.
+ *
+ * <p>Segment layout: a 16-byte header (magic, base sequence, CRC) followed by entries of
+ * {@code [payload length][CRC][sequence][payload]}. The CRC covers sequence and payload. Reading a
+ * segment stops at the first entry that is empty, torn, or out of sequence, so stale entries in a
+ * recycled file and a write cut short by a crash are both ignored on replay.
+ */
+@Slf4j
+public class IngestJournal implements Closeable {
+
+    private static final int SEGMENT_MAGIC = 0x4A524E4C;
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_HEADER_SIZE = 16;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String FREE_PREFIX = "free-";
+    private static final String SUFFIX = ".log";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String JOURNAL_ID = "journal-id";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final int maxSegments;
+    private final int maxFreeSegments;
+    private final String journalId;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Deque<Path> freeSegments = new ArrayDeque<>();
+    private final Object appendLock = new Object();
+
+    // Guarded by appendLock
+    private Segment active;
+    private long nextSequence;
+    private boolean dirty;
+    private boolean closed;
+    private long freeCounter;
+
+    private volatile long appliedSequence;
+
+    // Consumer position, so sequential reads do not rescan the segment
+    private Segment cursorSegment;
+    private int cursorOffset;
+    private long cursorSequence = -1;
+
+    public IngestJournal(Path directory, int segmentSize, FsyncPolicy fsyncPolicy, int maxSegments, int maxFreeSegments)
+            throws IOException {
+        if (segmentSize < HEADER_SIZE + ENTRY_HEADER_SIZE + 1) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.maxSegments = Math.max(2, maxSegments);
+        this.maxFreeSegments = Math.max(0, maxFreeSegments);
+        Files.createDirectories(directory);
+        this.journalId = readOrCreateJournalId();
+        recover();
+    }
+
+    /** Appends one entry and returns its sequence number; with {@link FsyncPolicy#ALWAYS} it is on disk. */
+    public long append(byte[] payload) throws IOException {
+        int entrySize = ENTRY_HEADER_SIZE + payload.length;
+        if (entrySize > segmentSize - HEADER_SIZE) {
+            throw new IllegalArgumentException(String.format(
+                    "Entry of %d bytes does not fit in a %d byte journal segment", payload.length, segmentSize));
+        }
+        synchronized (appendLock) {
+            if (closed) {
+                throw new IllegalStateException("Ingest journal is closed");
+            }
+            if (active.limit + entrySize > segmentSize) {
+                roll();
+            }
+            long sequence = nextSequence;
+            int offset = active.limit;
+            MappedByteBuffer buffer = active.buffer;
+            buffer.putLong(offset + 8, sequence);
+            buffer.put(offset + ENTRY_HEADER_SIZE, payload);
+            buffer.putInt(offset + 4, checksum(sequence, payload));
+            buffer.putInt(offset, payload.length);
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                buffer.force(offset, entrySize);
+            } else {
+                dirty = true;
+            }
+            nextSequence++;
+            active.lastSequence = sequence;
+            // Publishes the entry to readers
+            active.limit = offset + entrySize;
+            return sequence;
+        }
+    }
+
+    /** Forces unsynced appends to disk; a no-op under {@link FsyncPolicy#ALWAYS}. */
+    public void sync() {
+        Segment segment;
+        synchronized (appendLock) {
+            if (!dirty || closed) {
+                return;
+            }
+            dirty = false;
+            segment = active;
+        }
+        segment.buffer.force();
+    }
+
+    /**
+     * Returns up to {@code maxEntries} entries starting at {@code fromSequence}, in order. Meant for a
+     * single consumer; concurrent appends are safe.
+     */
+    public List<JournalEntry> read(long fromSequence, int maxEntries) {
+        List<JournalEntry> entries = new ArrayList<>();
+        Map.Entry<Long, Segment> start = segments.floorEntry(fromSequence);
+        if (start == null) {
+            start = segments.firstEntry();
+            if (start == null) {
+                return entries;
+            }
+        }
+        Segment segment = start.getValue();
+        int offset = HEADER_SIZE;
+        if (segment == cursorSegment && fromSequence == cursorSequence) {
+            offset = cursorOffset;
+        }
+        while (entries.size() < maxEntries) {
+            if (offset >= segment.limit) {
+                Map.Entry<Long, Segment> next = segments.higherEntry(segment.baseSequence);
+                if (next == null) {
+                    break;
+                }
+                // A segment is sealed once its successor exists; pick up entries written just before the roll
+                if (offset < segment.limit) {
+                    continue;
+                }
+                segment = next.getValue();
+                offset = HEADER_SIZE;
+                continue;
+            }
+            MappedByteBuffer buffer = segment.buffer;
+            int length = buffer.getInt(offset);
+            long sequence = buffer.getLong(offset + 8);
+            if (sequence >= fromSequence) {
+                byte[] payload = new byte[length];
+                buffer.get(offset + ENTRY_HEADER_SIZE, payload);
+                entries.add(new JournalEntry(sequence, payload));
+            }
+            offset += ENTRY_HEADER_SIZE + length;
+        }
+        cursorSegment = segment;
+        cursorOffset = offset;
+        cursorSequence = entries.isEmpty() ? fromSequence : entries.get(entries.size() - 1).sequence() + 1;
+        return entries;
+    }
+
+    /** Records that every entry up to {@code sequence} is applied and recycles segments no longer needed. */
+    public void markApplied(long sequence) throws IOException {
+        if (sequence <= appliedSequence) {
+            return;
+        }
+        writeCheckpoint(sequence);
+        appliedSequence = sequence;
+        synchronized (appendLock) {
+            recycleApplied();
+        }
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public long getLastSequence() {
+        synchronized (appendLock) {
+            return nextSequence - 1;
+        }
+    }
+
+    /** Random id created with the directory; sequences restart when it is recreated, and so does the id. */
+    public String getJournalId() {
+        return journalId;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            active.buffer.force();
+        }
+    }
+
+    private void roll() throws IOException {
+        if (segments.size() >= maxSegments) {
+            throw new IllegalStateException(String.format(
+                    "Ingest journal is full: %d segments are waiting to be applied", segments.size()));
+        }
+        active.buffer.force();
+        active = createSegment(nextSequence);
+    }
+
+    private Segment createSegment(long baseSequence) throws IOException {
+        Path path = directory.resolve(segmentName(baseSequence));
+        Path recycled = freeSegments.pollFirst();
+        if (recycled != null) {
+            Files.move(recycled, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        MappedByteBuffer buffer = map(path);
+        buffer.putInt(0, SEGMENT_MAGIC);
+        buffer.putLong(4, baseSequence);
+        buffer.putInt(12, checksum(baseSequence, new byte[0]));
+        buffer.force(0, HEADER_SIZE);
+        Segment segment = new Segment(baseSequence, path, buffer);
+        segments.put(baseSequence, segment);
+        return segment;
+    }
+
+    private void recover() throws IOException {
+        appliedSequence = readCheckpoint();
+        List<Path> segmentFiles = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.startsWith(FREE_PREFIX) && name.endsWith(SUFFIX)) {
+                    freeSegments.add(file);
+                } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SUFFIX)) {
+                    segmentFiles.add(file);
+                }
+            });
+        }
+        segmentFiles.sort(Comparator.naturalOrder());
+        freeCounter = freeSegments.size();
+
+        long lastSequence = appliedSequence;
+        for (Path file : segmentFiles) {
+            MappedByteBuffer buffer = map(file);
+            long baseSequence = buffer.getLong(4);
+            if (buffer.getInt(0) != SEGMENT_MAGIC
+                    || buffer.getInt(12) != checksum(baseSequence, new byte[0])
+                    || !file.getFileName().toString().equals(segmentName(baseSequence))) {
+                log.warn("Discarding journal segment with an invalid header: {}", file);
+                release(file);
+                continue;
+            }
+            Segment segment = new Segment(baseSequence, file, buffer);
+            scan(segment);
+            segments.put(baseSequence, segment);
+            lastSequence = Math.max(lastSequence, segment.lastSequence);
+        }
+
+        nextSequence = lastSequence + 1;
+        Map.Entry<Long, Segment> last = segments.lastEntry();
+        if (last != null && last.getValue().lastSequence == lastSequence) {
+            active = last.getValue();
+            clearTail(active);
+        } else {
+            active = createSegment(nextSequence);
+        }
+        recycleApplied();
+
+        long pending = nextSequence - 1 - appliedSequence;
+        log.info("Opened ingest journal at {}: {} segments, {} entries to replay", directory, segments.size(), pending);
+    }
+
+    // Caller holds appendLock (or is still recovering)
+    private void recycleApplied() throws IOException {
+        Iterator<Segment> iterator = segments.values().iterator();
+        while (iterator.hasNext()) {
+            Segment segment = iterator.next();
+            if (segment == active || segment.lastSequence > appliedSequence) {
+                break;
+            }
+            iterator.remove();
+            release(segment.path);
+        }
+    }
+
+    private void scan(Segment segment) {
+        int offset = HEADER_SIZE;
+        long expected = segment.baseSequence;
+        MappedByteBuffer buffer = segment.buffer;
+        while (offset + ENTRY_HEADER_SIZE <= segmentSize) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + ENTRY_HEADER_SIZE + length > segmentSize
+                    || buffer.getLong(offset + 8) != expected) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(offset + ENTRY_HEADER_SIZE, payload);
+            if (buffer.getInt(offset + 4) != checksum(expected, payload)) {
+                log.warn("Journal segment {} ends with a torn entry at sequence {}", segment.path, expected);
+                break;
+            }
+            offset += ENTRY_HEADER_SIZE + length;
+            expected++;
+        }
+        segment.limit = offset;
+        segment.lastSequence = expected - 1;
+    }
+
+    // Zeroes whatever follows the last valid entry, so a torn write can never chain onto new appends
+    private void clearTail(Segment segment) {
+        int offset = segment.limit;
+        if (offset + 4 > segmentSize || segment.buffer.getInt(offset) == 0) {
+            return;
+        }
+        byte[] zeros = new byte[8192];
+        for (int position = offset; position < segmentSize; position += zeros.length) {
+            segment.buffer.put(position, zeros, 0, Math.min(zeros.length, segmentSize - position));
+        }
+        segment.buffer.force();
+    }
+
+    private void release(Path file) throws IOException {
+        if (freeSegments.size() < maxFreeSegments) {
+            Path free = directory.resolve(FREE_PREFIX + String.format("%06d", ++freeCounter) + SUFFIX);
+            Files.move(file, free, StandardCopyOption.REPLACE_EXISTING);
+            freeSegments.addLast(free);
+        } else {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private String readOrCreateJournalId() throws IOException {
+        Path file = directory.resolve(JOURNAL_ID);
+        if (Files.exists(file)) {
+            String id = Files.readString(file).trim();
+            if (!id.isEmpty()) {
+                return id;
+            }
+        }
+        String id = UUID.randomUUID().toString();
+        Path temp = directory.resolve(JOURNAL_ID + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(id.getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return id;
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() != 12) {
+            log.warn("Ignoring malformed journal checkpoint; replaying every retained segment");
+            return 0;
+        }
+        long sequence = buffer.getLong(0);
+        if (buffer.getInt(8) != checksum(sequence, new byte[0])) {
+            log.warn("Ignoring corrupt journal checkpoint; replaying every retained segment");
+            return 0;
+        }
+        return sequence;
+    }
+
+    private void writeCheckpoint(long sequence) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(12).putLong(sequence).putInt(checksum(sequence, new byte[0]));
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int checksum(long sequence, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(8).putLong(0, sequence));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static String segmentName(long baseSequence) {
+        return SEGMENT_PREFIX + String.format("%020d", baseSequence) + SUFFIX;
+    }
+
+    private static final class Segment {
+        final long baseSequence;
+        final Path path;
+        final MappedByteBuffer buffer;
+        volatile int limit = HEADER_SIZE;
+        volatile long lastSequence;
+
+        Segment(long baseSequence, Path path, MappedByteBuffer buffer) {
+            this.baseSequence = baseSequence;
+            this.path = path;
+            this.buffer = buffer;
+            this.lastSequence = baseSequence - 1;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.journal;
+
+public record JournalEntry(long sequence, byte[] payload) {
+}
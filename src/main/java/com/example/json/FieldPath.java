@@ -0,0 +1,235 @@
+package com.example.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compiled path to a value inside a record: member names separated by dots, array positions in
+ * brackets, and member names that contain dots, brackets or quotes written in double quotes, as in
+ * {@code address.city}, {@code items[0].sku} or {@code tags."a.b"}. A path compiles once into its
+ * segments and its MySQL JSON path, with every member quoted, and is then cached. The same path
+ * object walks parsed maps and lists as well as Jackson trees.
+ */
+public final class FieldPath {
+
+    private static final int MAX_LENGTH = 512;
+    private static final int MAX_SEGMENTS = 32;
+    // Paths come from request parameters; the cache starts over rather than grow without bound
+    private static final int MAX_CACHED = 4096;
+    private static final Map<String, FieldPath> CACHE = new ConcurrentHashMap<>();
+
+    private final String path;
+    // A member name, or null where the segment is an array position
+    private final String[] members;
+    private final int[] positions;
+    private final String mysqlPath;
+
+    private FieldPath(String path, List<String> members, List<Integer> positions) {
+        this.path = path;
+        this.members = members.toArray(new String[0]);
+        this.positions = positions.stream().mapToInt(Integer::intValue).toArray();
+        StringBuilder json = new StringBuilder("$");
+        for (int i = 0; i < this.members.length; i++) {
+            if (this.members[i] != null) {
+                json.append(".\"");
+                for (char c : this.members[i].toCharArray()) {
+                    if (c == '"' || c == '\\') {
+                        json.append('\\');
+                    }
+                    json.append(c);
+                }
+                json.append('"');
+            } else {
+                json.append('[').append(this.positions[i]).append(']');
+            }
+        }
+        this.mysqlPath = json.toString();
+    }
+
+    /** Compiles {@code path}, or returns the cached compilation; throws IllegalArgumentException when it is malformed. */
+    public static FieldPath of(String path) {
+        FieldPath compiled = CACHE.get(path);
+        if (compiled == null) {
+            compiled = compile(path);
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear();
+            }
+            CACHE.put(path, compiled);
+        }
+        return compiled;
+    }
+
+    static FieldPath compile(String path) {
+        if (path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("Field path cannot be empty");
+        }
+        if (path.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Field path is longer than " + MAX_LENGTH + " characters");
+        }
+        List<String> members = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        int i = 0;
+        boolean expectMember = path.charAt(0) != '[';
+        while (i < path.length()) {
+            if (expectMember) {
+                int end = path.charAt(i) == '"' ? quotedEnd(path, i) : memberEnd(path, i);
+                members.add(path.charAt(i) == '"' ? unquote(path, i, end) : path.substring(i, end));
+                positions.add(-1);
+                i = end;
+            } else if (path.charAt(i) == '[') {
+                int close = path.indexOf(']', i);
+                if (i + 1 < path.length() && path.charAt(i + 1) == '"') {
+                    int end = quotedEnd(path, i + 1);
+                    if (end >= path.length() || path.charAt(end) != ']') {
+                        throw invalid(path, end, "expected ']'");
+                    }
+                    members.add(unquote(path, i + 1, end));
+                    positions.add(-1);
+                    i = end + 1;
+                } else {
+                    if (close < 0) {
+                        throw invalid(path, i, "unclosed '['");
+                    }
+                    members.add(null);
+                    positions.add(position(path, i + 1, close));
+                    i = close + 1;
+                }
+            } else {
+                throw invalid(path, i, "expected '.' or '['");
+            }
+
+            if (members.size() > MAX_SEGMENTS) {
+                throw new IllegalArgumentException("Field path has more than " + MAX_SEGMENTS + " segments: " + path);
+            }
+            expectMember = false;
+            if (i < path.length() && path.charAt(i) == '.') {
+                i++;
+                if (i == path.length()) {
+                    throw invalid(path, i, "empty member name");
+                }
+                expectMember = true;
+            }
+        }
+        return new FieldPath(path, members, positions);
+    }
+
+    private static int memberEnd(String path, int start) {
+        int i = start;
+        while (i < path.length() && path.charAt(i) != '.' && path.charAt(i) != '[') {
+            char c = path.charAt(i);
+            if (c == ']' || c == '"') {
+                throw invalid(path, i, "unexpected '" + c + "', quote member names that contain it");
+            }
+            i++;
+        }
+        if (i == start) {
+            throw invalid(path, start, "empty member name");
+        }
+        return i;
+    }
+
+    // Index just past the closing quote of the quoted name starting at `start`
+    private static int quotedEnd(String path, int start) {
+        for (int i = start + 1; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i + 1;
+            }
+        }
+        throw invalid(path, start, "unclosed '\"'");
+    }
+
+    private static String unquote(String path, int start, int end) {
+        StringBuilder name = new StringBuilder();
+        for (int i = start + 1; i < end - 1; i++) {
+            char c = path.charAt(i);
+            if (c == '\\') {
+                char escaped = path.charAt(++i);
+                if (escaped != '"' && escaped != '\\') {
+                    throw invalid(path, i, "only \\\" and \\\\ can be escaped");
+                }
+                c = escaped;
+            }
+            name.append(c);
+        }
+        return name.toString();
+    }
+
+    private static int position(String path, int start, int end) {
+        if (start == end || end - start > 9) {
+            throw invalid(path, start, "expected an array position");
+        }
+        for (int i = start; i < end; i++) {
+            if (!Character.isDigit(path.charAt(i))) {
+                throw invalid(path, i, "expected an array position");
+            }
+        }
+        return Integer.parseInt(path, start, end, 10);
+    }
+
+    private static IllegalArgumentException invalid(String path, int index, String problem) {
+        return new IllegalArgumentException("Invalid field path '" + path + "' at position " + index + ": " + problem);
+    }
+
+    /** The path as written. */
+    public String getPath() {
+        return path;
+    }
+
+    /** The equivalent MySQL JSON path, for example {@code $."items"[0]."sku"}. */
+    public String getMysqlPath() {
+        return mysqlPath;
+    }
+
+    public int depth() {
+        return members.length;
+    }
+
+    /** The value at this path in parsed JSON (maps and lists), or null when it is missing. */
+    public Object get(Object root) {
+        return getOrDefault(root, null);
+    }
+
+    /** Like {@link #get}, but tells a missing value ({@code absent}) from a JSON null. */
+    public Object getOrDefault(Object root, Object absent) {
+        Object node = root;
+        for (int i = 0; i < members.length; i++) {
+            if (members[i] != null) {
+                if (!(node instanceof Map<?, ?> object) || !object.containsKey(members[i])) {
+                    return absent;
+                }
+                node = object.get(members[i]);
+            } else {
+                if (!(node instanceof List<?> array) || positions[i] >= array.size()) {
+                    return absent;
+                }
+                node = array.get(positions[i]);
+            }
+        }
+        return node;
+    }
+
+    /** The node at this path in a Jackson tree, or null when it is missing. */
+    public JsonNode get(JsonNode root) {
+        JsonNode node = root;
+        for (int i = 0; i < members.length && node != null; i++) {
+            if (members[i] != null) {
+                node = node.isObject() ? node.get(members[i]) : null;
+            } else {
+                node = node.isArray() ? node.get(positions[i]) : null;
+            }
+        }
+        return node;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.profiling;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rebuilds the JDBC bind values of a repository call from its arguments, so the captured SQL can
+ * be EXPLAINed. Hibernate keeps only the SQL text, so the values are derived from the method:
+ * {@code @Query} methods bind their named parameters in the order they appear in the query, derived
+ * queries bind their arguments in declaration order. Collections expand to one value per element.
+ */
+final class ExplainParameters {
+
+    private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<![:\\w]):([A-Za-z_][A-Za-z0-9_]*)");
+
+    private ExplainParameters() {
+    }
+
+    /** Returns null when the values cannot be matched to the placeholders of {@code sql}. */
+    static List<Object> bind(Method method, Object[] args, String sql) {
+        List<Object> values = new ArrayList<>();
+        Query query = method.getAnnotation(Query.class);
+        if (query != null && !query.value().isEmpty()) {
+            Parameter[] parameters = method.getParameters();
+            Matcher matcher = NAMED_PARAMETER.matcher(query.value());
+            while (matcher.find()) {
+                int index = indexOf(parameters, matcher.group(1));
+                if (index < 0) {
+                    return null;
+                }
+                add(values, args[index]);
+            }
+        } else {
+            for (Object arg : args) {
+                if (!(arg instanceof Sort) && !(arg instanceof Pageable)) {
+                    add(values, arg);
+                }
+            }
+        }
+        return values.size() == countPlaceholders(sql) ? values : null;
+    }
+
+    static int countPlaceholders(String sql) {
+        int count = 0;
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (c == '?' && !quoted) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int indexOf(Parameter[] parameters, String name) {
+        for (int i = 0; i < parameters.length; i++) {
+            Param param = parameters[i].getAnnotation(Param.class);
+            String parameterName = param != null ? param.value() : parameters[i].getName();
+            if (name.equals(parameterName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void add(List<Object> values, Object arg) {
+        if (arg instanceof Collection<?> collection) {
+            collection.forEach(element -> add(values, element));
+        } else if (arg instanceof Limit limit) {
+            if (limit.isLimited()) {
+                values.add(limit.max());
+            }
+        } else if (arg instanceof Enum<?> constant) {
+            values.add(constant.name());
+        } else {
+            values.add(arg);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.profiling;
+
+import com.example.config.ShardContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@code EXPLAIN FORMAT=JSON} for slow statements on a background thread, on the shard the
+ * statement ran on, and attaches the plan to the slow-query entry. Requests are dropped rather
+ * than queued without bound when a burst of slow calls arrives.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.profiler", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class QueryExplainer {
+
+    private static final int MAX_PENDING = 16;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    private final ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_PENDING), runnable -> {
+                Thread thread = new Thread(runnable, "query-explainer");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    public QueryExplainer(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                          @Value("${app.profiler.explain:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    public void explainLater(SlowQuery query, SqlCapture.CapturedStatement statement, List<Object> parameters) {
+        if (!enabled) {
+            return;
+        }
+        if (parameters == null) {
+            query.setPlanError("Could not match the call's arguments to the statement's parameters");
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                String plan = statement.shard() != null
+                        ? ShardContext.callOn(statement.shard(), () -> explain(statement.sql(), parameters))
+                        : explain(statement.sql(), parameters);
+                query.setPlan(plan != null ? objectMapper.readTree(plan) : null);
+            } catch (Exception e) {
+                log.debug("Failed to explain slow {}.{} for dataset: {}",
+                        query.getRepository(), query.getMethod(), query.getDataset(), e);
+                query.setPlanError(e.getMessage());
+            }
+        });
+    }
+
+    private String explain(String sql, List<Object> parameters) {
+        return jdbcTemplate.query("EXPLAIN FORMAT=JSON " + sql, ps -> {
+            for (int i = 0; i < parameters.size(); i++) {
+                ps.setObject(i + 1, parameters.get(i));
+            }
+        }, rs -> rs.next() ? rs.getString(1) : null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.RecordParse")
+@Label("Record Parse")
+@Category({"Dataset API", "Database"})
+@Description("Parsing the JSON of records loaded by one read into maps")
+@StackTrace(false)
+class RecordParseEvent extends Event {
+
+    @Label("Dataset")
+    String dataset;
+
+    @Label("Records")
+    long records;
+
+    @Label("JSON Size")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,43 @@
+package com.example.profiling;
+
+import com.example.deadline.RequestDeadline;
+import com.example.entity.DatasetRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses loaded records into maps and reports the time it took as a {@link RecordParseEvent},
+ * so JSON decoding shows up next to the repository call that loaded the rows. Parsing stops at the
+ * next checkpoint once the request's deadline has passed.
+ */
+public final class RecordParsing {
+
+    private RecordParsing() {
+    }
+
+    /** Records without JSON are skipped. */
+    public static List<Map<String, Object>> toMaps(String datasetName, List<DatasetRecord> records) {
+        RecordParseEvent event = new RecordParseEvent();
+        event.begin();
+        long bytes = 0;
+        List<Map<String, Object>> result = new ArrayList<>(records.size());
+        long parsed = 0;
+        for (DatasetRecord record : records) {
+            RequestDeadline.checkpoint(++parsed);
+            if (record.getRecordData() != null) {
+                bytes += record.getRecordData().length();
+                result.add(record.getRecordDataAsMap());
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.dataset = datasetName;
+            event.records = result.size();
+            event.bytes = bytes;
+            event.commit();
+        }
+        return result;
+    }
+}
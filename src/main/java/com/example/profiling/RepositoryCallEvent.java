@@ -0,0 +1,34 @@
+package com.example.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.RepositoryCall")
+@Label("Repository Call")
+@Category({"Dataset API", "Database"})
+@Description("One Spring Data repository method call, from invocation to return")
+@StackTrace(false)
+class RepositoryCallEvent extends Event {
+
+    @Label("Dataset")
+    String dataset;
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Rows Returned")
+    long rowsReturned;
+
+    @Label("SQL Statements")
+    int statements;
+
+    @Label("Over Slow Threshold")
+    boolean slow;
+}
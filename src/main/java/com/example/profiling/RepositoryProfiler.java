@@ -0,0 +1,133 @@
+package com.example.profiling;
+
+import com.example.entity.DatasetRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Times every repository call and emits a {@link RepositoryCallEvent} to JFR. Calls over the slow
+ * threshold are recorded with the SQL they ran in the {@link SlowQueryLog}, and if they make the
+ * worst-N cut their last statement is EXPLAINed in the background.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "app.profiler", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class RepositoryProfiler {
+
+    private static final String REPOSITORY_PACKAGE = "com.example.repository";
+
+    private final SlowQueryLog slowQueryLog;
+    private final QueryExplainer explainer;
+    private final long slowThresholdNanos;
+
+    public RepositoryProfiler(SlowQueryLog slowQueryLog, QueryExplainer explainer,
+                              @Value("${app.profiler.slow-threshold-ms:500}") long slowThresholdMs) {
+        this.slowQueryLog = slowQueryLog;
+        this.explainer = explainer;
+        this.slowThresholdNanos = slowThresholdMs * 1_000_000L;
+    }
+
+    @Around("execution(* com.example.repository.*.*(..))")
+    public Object profile(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        event.begin();
+        List<SqlCapture.CapturedStatement> enclosing = SqlCapture.begin();
+        long start = System.nanoTime();
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            List<SqlCapture.CapturedStatement> statements = SqlCapture.end(enclosing);
+            event.end();
+
+            boolean slow = elapsed >= slowThresholdNanos;
+            if (slow || event.shouldCommit()) {
+                MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+                String repository = repositoryName(joinPoint.getThis());
+                String dataset = datasetArgument(signature, joinPoint.getArgs());
+                long rows = rowCount(result);
+                if (event.shouldCommit()) {
+                    event.dataset = dataset;
+                    event.repository = repository;
+                    event.method = signature.getName();
+                    event.rowsReturned = rows;
+                    event.statements = statements.size();
+                    event.slow = slow;
+                    event.commit();
+                }
+                if (slow) {
+                    recordSlow(signature, joinPoint.getArgs(), repository, dataset, elapsed, rows, statements);
+                }
+            }
+        }
+    }
+
+    private void recordSlow(MethodSignature signature, Object[] args, String repository, String dataset,
+                            long elapsed, long rows, List<SqlCapture.CapturedStatement> statements) {
+        SlowQuery query = new SlowQuery(Instant.now(), dataset, repository, signature.getName(),
+                elapsed / 1_000_000.0, rows,
+                statements.stream().map(SqlCapture.CapturedStatement::sql).toList());
+        log.warn("Slow repository call {}.{} took {} ms for dataset: {}",
+                repository, signature.getName(), elapsed / 1_000_000, dataset);
+        if (slowQueryLog.offer(query) && !statements.isEmpty()) {
+            SqlCapture.CapturedStatement last = statements.get(statements.size() - 1);
+            explainer.explainLater(query, last, ExplainParameters.bind(signature.getMethod(), args, last.sql()));
+        }
+    }
+
+    // The application's repository interface rather than the Spring Data type declaring the method
+    private static String repositoryName(Object proxy) {
+        for (Class<?> type : ClassUtils.getAllInterfaces(proxy)) {
+            if (type.getPackageName().equals(REPOSITORY_PACKAGE)) {
+                return type.getSimpleName();
+            }
+        }
+        return ClassUtils.getUserClass(proxy).getSimpleName();
+    }
+
+    private static String datasetArgument(MethodSignature signature, Object[] args) {
+        String[] names = signature.getParameterNames();
+        for (int i = 0; i < args.length; i++) {
+            if (names != null && "datasetName".equals(names[i]) && args[i] instanceof String name) {
+                return name;
+            }
+            if (args[i] instanceof DatasetRecord record) {
+                return record.getDatasetName();
+            }
+        }
+        return null;
+    }
+
+    // Rows materialized by the call: elements of a collection or page, one for a single result
+    static long rowCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return 1;
+    }
+}
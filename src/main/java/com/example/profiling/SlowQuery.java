@@ -0,0 +1,41 @@
+package com.example.profiling;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One repository call that went over the slow threshold. The plan is filled in after the call
+ * returns, by a background EXPLAIN of the statement it ran.
+ */
+@Getter
+public class SlowQuery {
+
+    private final Instant timestamp;
+    private final String dataset;
+    private final String repository;
+    private final String method;
+    private final double durationMs;
+    private final long rowsReturned;
+    private final List<String> statements;
+
+    @Setter
+    private volatile JsonNode plan;
+
+    @Setter
+    private volatile String planError;
+
+    public SlowQuery(Instant timestamp, String dataset, String repository, String method, double durationMs,
+                     long rowsReturned, List<String> statements) {
+        this.timestamp = timestamp;
+        this.dataset = dataset;
+        this.repository = repository;
+        this.method = method;
+        this.durationMs = durationMs;
+        this.rowsReturned = rowsReturned;
+        this.statements = statements;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.profiling;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/slowqueries}: the worst repository calls with their SQL and plans.
+ * DELETE clears the log, e.g. after a fix is deployed.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@ConditionalOnProperty(prefix = "app.profiler", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    @Value("${app.profiler.slow-threshold-ms:500}")
+    private long slowThresholdMs;
+
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("slowThresholdMs", slowThresholdMs);
+        response.put("capacity", slowQueryLog.getCapacity());
+        response.put("queries", slowQueryLog.getWorst());
+        return response;
+    }
+
+    @DeleteOperation
+    public Map<String, Object> clear() {
+        slowQueryLog.clear();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("message", "Slow query log cleared");
+        return response;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.profiling;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The worst {@code capacity} slow calls seen since startup (or the last clear), by duration.
+ * A new call displaces the fastest one kept once the log is full.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.profiler", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryLog {
+
+    private static final Comparator<SlowQuery> BY_DURATION = Comparator.comparingDouble(SlowQuery::getDurationMs);
+
+    private final int capacity;
+    // Head is the fastest call kept, the first to go
+    private final PriorityQueue<SlowQuery> worst = new PriorityQueue<>(BY_DURATION);
+
+    public SlowQueryLog(@Value("${app.profiler.worst-n:20}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("app.profiler.worst-n must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /** Returns whether the call made it into the log. */
+    public synchronized boolean offer(SlowQuery query) {
+        if (worst.size() < capacity) {
+            worst.add(query);
+            return true;
+        }
+        if (BY_DURATION.compare(query, worst.peek()) > 0) {
+            worst.poll();
+            worst.add(query);
+            return true;
+        }
+        return false;
+    }
+
+    /** Slowest first. */
+    public synchronized List<SlowQuery> getWorst() {
+        List<SlowQuery> result = new ArrayList<>(worst);
+        result.sort(BY_DURATION.reversed());
+        return result;
+    }
+
+    public synchronized void clear() {
+        worst.clear();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
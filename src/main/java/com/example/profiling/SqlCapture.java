@@ -0,0 +1,134 @@
+package com.example.profiling;
+
+import com.example.config.ShardContext;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL sent to the application's data source while a profiled repository call is
+ * running on the current thread, together with the shard it ran on. Capturing at the connection
+ * rather than in Hibernate covers the JdbcTemplate repositories as well as the JPA ones: prepared
+ * statements are recorded when prepared, plain statements when executed. Outside a profiled call
+ * connections only pass statements through.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.profiler", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlCapture implements BeanPostProcessor {
+
+    private static final int MAX_STATEMENTS_PER_CALL = 20;
+    private static final ThreadLocal<List<CapturedStatement>> CAPTURED = new ThreadLocal<>();
+
+    public record CapturedStatement(String sql, String shard) {
+    }
+
+    // The primary data source is the one Hibernate and JdbcTemplate use, whichever configuration defined it
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                && !(bean instanceof CapturingDataSource)) {
+            return new CapturingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    static void record(String sql) {
+        List<CapturedStatement> statements = CAPTURED.get();
+        if (statements != null && sql != null && statements.size() < MAX_STATEMENTS_PER_CALL) {
+            statements.add(new CapturedStatement(sql, ShardContext.currentShard()));
+        }
+    }
+
+    /** Starts capturing for a call and returns the enclosing call's list, to hand back to {@link #end}. */
+    static List<CapturedStatement> begin() {
+        List<CapturedStatement> enclosing = CAPTURED.get();
+        CAPTURED.set(new ArrayList<>());
+        return enclosing;
+    }
+
+    static List<CapturedStatement> end(List<CapturedStatement> enclosing) {
+        List<CapturedStatement> statements = CAPTURED.get();
+        if (enclosing != null) {
+            enclosing.addAll(statements);
+            CAPTURED.set(enclosing);
+        } else {
+            CAPTURED.remove();
+        }
+        return statements;
+    }
+
+    static final class CapturingDataSource extends DelegatingDataSource {
+
+        CapturingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(super.getConnection(username, password));
+        }
+
+        private static Connection wrap(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(SqlCapture.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "prepareStatement", "prepareCall":
+                                record((String) args[0]);
+                                return invoke(connection, method, args);
+                            case "createStatement":
+                                Object statement = invoke(connection, method, args);
+                                return CAPTURED.get() == null ? statement : wrap((Statement) statement);
+                            default:
+                                return invoke(connection, method, args);
+                        }
+                    });
+        }
+
+        private static Statement wrap(Statement statement) {
+            return (Statement) Proxy.newProxyInstance(SqlCapture.class.getClassLoader(),
+                    new Class<?>[]{Statement.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                break;
+                        }
+                        if ((method.getName().startsWith("execute") || method.getName().equals("addBatch"))
+                                && args != null && args.length > 0 && args[0] instanceof String sql) {
+                            record(sql);
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.repository;
+
+import com.example.entity.DatasetAccessStat;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DatasetAccessStatRepository extends JpaRepository<DatasetAccessStat, Long> {
+
+    // In-place increment, so instances flushing the same shape do not overwrite each other
+    @Modifying
+    @Query("""
+        UPDATE DatasetAccessStat s SET s.hits = s.hits + :hits, s.lastAccessedAt = :accessedAt
+        WHERE s.datasetName = :datasetName AND s.operation = :operation AND s.fieldName = :fieldName
+        AND s.sortOrder = :sortOrder AND s.resultLimit = :resultLimit
+        """)
+    int addHits(
+            @Param("datasetName") String datasetName,
+            @Param("operation") String operation,
+            @Param("fieldName") String fieldName,
+            @Param("sortOrder") String sortOrder,
+            @Param("resultLimit") int resultLimit,
+            @Param("hits") long hits,
+            @Param("accessedAt") LocalDateTime accessedAt
+    );
+
+    List<DatasetAccessStat> findByLastAccessedAtAfterOrderByHitsDesc(LocalDateTime since, Limit limit);
+}
@@ -0,0 +1,9 @@
+package com.example.repository;
+
+import com.example.entity.DatasetPlacement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DatasetPlacementRepository extends JpaRepository<DatasetPlacement, String> {
+}
@@ -1,6 +1,7 @@
 package com.example.repository;
 
 import com.example.entity.DatasetRecord;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -9,6 +10,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,60 +23,184 @@ public interface DatasetRecordRepository extends JpaRepository<DatasetRecord, Lo
 
     long countByDatasetName(String datasetName);
 
+    List<DatasetRecord> findByDatasetNameAndIdGreaterThanOrderByIdAsc(String datasetName, Long id, Limit limit);
+
+    List<DatasetRecord> findByDatasetNameAndIdIn(String datasetName, Collection<Long> ids);
+
     boolean existsByDatasetName(String datasetName);
 
+    // Bulk statement instead of the derived delete, which loads and removes every entity one by one
     @Modifying
     @Transactional
-    void deleteByDatasetName(String datasetName);
+    @Query("DELETE FROM DatasetRecord dr WHERE dr.datasetName = :datasetName")
+    int deleteByDatasetName(@Param("datasetName") String datasetName);
+
+    long countByDatasetNameAndCreatedAtBefore(String datasetName, LocalDateTime cutoffDate);
+
+    @Query(value = """
+        SELECT id FROM dataset_records 
+        WHERE dataset_name = :datasetName 
+        AND id > :afterId
+        ORDER BY id
+        LIMIT :chunkSize
+        """, nativeQuery = true)
+    List<Long> findIdChunk(
+            @Param("datasetName") String datasetName,
+            @Param("afterId") Long afterId,
+            @Param("chunkSize") int chunkSize
+    );
+
+    @Query(value = """
+        SELECT id FROM dataset_records 
+        WHERE dataset_name = :datasetName 
+        AND id > :afterId
+        AND created_at < :cutoffDate
+        ORDER BY id
+        LIMIT :chunkSize
+        """, nativeQuery = true)
+    List<Long> findIdChunkCreatedBefore(
+            @Param("datasetName") String datasetName,
+            @Param("afterId") Long afterId,
+            @Param("cutoffDate") LocalDateTime cutoffDate,
+            @Param("chunkSize") int chunkSize
+    );
 
+    @Modifying
+    @Query(value = """
+        DELETE FROM dataset_records 
+        WHERE dataset_name = :datasetName 
+        AND id BETWEEN :fromId AND :toId
+        """, nativeQuery = true)
+    int deleteIdRange(
+            @Param("datasetName") String datasetName,
+            @Param("fromId") Long fromId,
+            @Param("toId") Long toId
+    );
+
+    @Modifying
+    @Query(value = """
+        DELETE FROM dataset_records 
+        WHERE dataset_name = :datasetName 
+        AND id BETWEEN :fromId AND :toId
+        AND created_at < :cutoffDate
+        """, nativeQuery = true)
+    int deleteIdRangeCreatedBefore(
+            @Param("datasetName") String datasetName,
+            @Param("fromId") Long fromId,
+            @Param("toId") Long toId,
+            @Param("cutoffDate") LocalDateTime cutoffDate
+    );
+
+    // Skips a missing member (SQL NULL, so no JSON type) and a stored JSON null alike, before any LIMIT
     @Query(value = """
         SELECT * FROM dataset_records 
         WHERE dataset_name = :datasetName 
-        AND JSON_EXTRACT(record_data, CONCAT('$.', :sortField)) IS NOT NULL
-        ORDER BY JSON_EXTRACT(record_data, CONCAT('$.', :sortField)) ASC
+        AND JSON_TYPE(JSON_EXTRACT(record_data, :sortPath)) <> 'NULL'
+        ORDER BY JSON_EXTRACT(record_data, :sortPath) ASC
         """, nativeQuery = true)
     List<DatasetRecord> findByDatasetNameSortedByJsonFieldAsc(
             @Param("datasetName") String datasetName,
-            @Param("sortField") String sortField
+            @Param("sortPath") String sortPath
     );
 
     @Query(value = """
         SELECT * FROM dataset_records 
         WHERE dataset_name = :datasetName 
-        AND JSON_EXTRACT(record_data, CONCAT('$.', :sortField)) IS NOT NULL
-        ORDER BY JSON_EXTRACT(record_data, CONCAT('$.', :sortField)) DESC
+        AND JSON_TYPE(JSON_EXTRACT(record_data, :sortPath)) <> 'NULL'
+        ORDER BY JSON_EXTRACT(record_data, :sortPath) DESC
         """, nativeQuery = true)
     List<DatasetRecord> findByDatasetNameSortedByJsonFieldDesc(
             @Param("datasetName") String datasetName,
-            @Param("sortField") String sortField
+            @Param("sortPath") String sortPath
     );
 
     @Query(value = """
         SELECT * FROM dataset_records 
         WHERE dataset_name = :datasetName 
-        AND JSON_EXTRACT(record_data, CONCAT('$.', :fieldName)) = CAST(:fieldValue AS JSON)
+        AND JSON_TYPE(JSON_EXTRACT(record_data, :sortPath)) <> 'NULL'
+        ORDER BY JSON_EXTRACT(record_data, :sortPath) ASC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<DatasetRecord> findTopByDatasetNameSortedByJsonFieldAsc(
+            @Param("datasetName") String datasetName,
+            @Param("sortPath") String sortPath,
+            @Param("limit") int limit
+    );
+
+    @Query(value = """
+        SELECT * FROM dataset_records 
+        WHERE dataset_name = :datasetName 
+        AND JSON_TYPE(JSON_EXTRACT(record_data, :sortPath)) <> 'NULL'
+        ORDER BY JSON_EXTRACT(record_data, :sortPath) DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<DatasetRecord> findTopByDatasetNameSortedByJsonFieldDesc(
+            @Param("datasetName") String datasetName,
+            @Param("sortPath") String sortPath,
+            @Param("limit") int limit
+    );
+
+    @Query(value = """
+        SELECT * FROM dataset_records 
+        WHERE dataset_name = :datasetName 
+        AND JSON_EXTRACT(record_data, :fieldPath) = CAST(:fieldValue AS JSON)
         """, nativeQuery = true)
     List<DatasetRecord> findByDatasetNameAndJsonFieldValue(
             @Param("datasetName") String datasetName,
-            @Param("fieldName") String fieldName,
+            @Param("fieldPath") String fieldPath,
             @Param("fieldValue") String fieldValue
     );
 
     @Query(value = """
-        SELECT DISTINCT JSON_UNQUOTE(JSON_EXTRACT(record_data, CONCAT('$.', :fieldName))) as field_value 
+        SELECT DISTINCT JSON_UNQUOTE(JSON_EXTRACT(record_data, :fieldPath)) as field_value 
         FROM dataset_records 
         WHERE dataset_name = :datasetName 
-        AND JSON_EXTRACT(record_data, CONCAT('$.', :fieldName)) IS NOT NULL
+        AND JSON_EXTRACT(record_data, :fieldPath) IS NOT NULL
         ORDER BY field_value
         """, nativeQuery = true)
     List<String> findDistinctJsonFieldValues(
             @Param("datasetName") String datasetName,
-            @Param("fieldName") String fieldName
+            @Param("fieldPath") String fieldPath
+    );
+
+    @Query(value = """
+        SELECT DISTINCT JSON_UNQUOTE(JSON_EXTRACT(record_data, :fieldPath)) as field_value 
+        FROM dataset_records 
+        WHERE dataset_name = :datasetName 
+        AND JSON_EXTRACT(record_data, :fieldPath) IS NOT NULL
+        ORDER BY field_value
+        LIMIT :pageSize
+        """, nativeQuery = true)
+    List<String> findDistinctJsonFieldValuesFirstPage(
+            @Param("datasetName") String datasetName,
+            @Param("fieldPath") String fieldPath,
+            @Param("pageSize") int pageSize
+    );
+
+    // Keyset pagination: resumes strictly after the last value of the previous page
+    @Query(value = """
+        SELECT DISTINCT JSON_UNQUOTE(JSON_EXTRACT(record_data, :fieldPath)) as field_value 
+        FROM dataset_records 
+        WHERE dataset_name = :datasetName 
+        AND JSON_EXTRACT(record_data, :fieldPath) IS NOT NULL
+        AND JSON_UNQUOTE(JSON_EXTRACT(record_data, :fieldPath)) > :afterValue
+        ORDER BY field_value
+        LIMIT :pageSize
+        """, nativeQuery = true)
+    List<String> findDistinctJsonFieldValuesAfter(
+            @Param("datasetName") String datasetName,
+            @Param("fieldPath") String fieldPath,
+            @Param("afterValue") String afterValue,
+            @Param("pageSize") int pageSize
     );
 
     @Query("SELECT DISTINCT dr.datasetName FROM DatasetRecord dr ORDER BY dr.datasetName")
     List<String> findDistinctDatasetNames();
 
+    // [datasetName, recordCount] rows, one per dataset
+    @Query("SELECT dr.datasetName, COUNT(dr) FROM DatasetRecord dr GROUP BY dr.datasetName ORDER BY dr.datasetName")
+    List<Object[]> countRecordsPerDataset();
+
     @Query(value = """
         SELECT dataset_name, COUNT(*) as record_count,
                MIN(created_at) as first_record,
@@ -119,22 +245,22 @@ public interface DatasetRecordRepository extends JpaRepository<DatasetRecord, Lo
     @Query(value = """
         SELECT * FROM dataset_records 
         WHERE dataset_name = :datasetName 
-        AND JSON_EXTRACT(record_data, CONCAT('$.', :fieldName)) LIKE CONCAT('%', :searchTerm, '%')
+        AND JSON_EXTRACT(record_data, :fieldPath) LIKE CONCAT('%', :searchTerm, '%')
         """, nativeQuery = true)
     List<DatasetRecord> findByDatasetNameAndJsonFieldContains(
             @Param("datasetName") String datasetName,
-            @Param("fieldName") String fieldName,
+            @Param("fieldPath") String fieldPath,
             @Param("searchTerm") String searchTerm
     );
 
     @Query(value = """
         SELECT * FROM dataset_records 
         WHERE dataset_name = :datasetName 
-        AND JSON_EXTRACT(record_data, CONCAT('$.', :fieldName)) BETWEEN :minValue AND :maxValue
+        AND JSON_EXTRACT(record_data, :fieldPath) BETWEEN :minValue AND :maxValue
         """, nativeQuery = true)
     List<DatasetRecord> findByDatasetNameAndJsonFieldInRange(
             @Param("datasetName") String datasetName,
-            @Param("fieldName") String fieldName,
+            @Param("fieldPath") String fieldPath,
             @Param("minValue") Number minValue,
             @Param("maxValue") Number maxValue
     );
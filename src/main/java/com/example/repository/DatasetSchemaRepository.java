@@ -0,0 +1,20 @@
+package com.example.repository;
+
+import com.example.entity.DatasetSchema;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DatasetSchemaRepository extends JpaRepository<DatasetSchema, String> {
+
+    // Held while a replacement bumps the version, so concurrent replacements take turns
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ds FROM DatasetSchema ds WHERE ds.datasetName = :datasetName")
+    Optional<DatasetSchema> lockByDatasetName(@Param("datasetName") String datasetName);
+}
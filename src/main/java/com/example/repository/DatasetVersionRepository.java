@@ -0,0 +1,32 @@
+package com.example.repository;
+
+import com.example.entity.DatasetVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DatasetVersionRepository extends JpaRepository<DatasetVersion, String> {
+
+    // Joins the caller's write transaction, so the new version commits together with the records
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO dataset_versions (dataset_name, version) VALUES (:datasetName, 1)
+        ON DUPLICATE KEY UPDATE version = version + 1
+        """, nativeQuery = true)
+    int bump(@Param("datasetName") String datasetName);
+
+    @Query("SELECT v.version FROM DatasetVersion v WHERE v.datasetName = :datasetName")
+    Optional<Long> findVersion(@Param("datasetName") String datasetName);
+
+    // [datasetName, version] rows ordered by dataset name
+    @Query("SELECT v.datasetName, v.version FROM DatasetVersion v ORDER BY v.datasetName")
+    List<Object[]> findAllVersions();
+}
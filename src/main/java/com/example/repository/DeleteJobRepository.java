@@ -0,0 +1,78 @@
+package com.example.repository;
+
+import com.example.entity.DeleteJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DeleteJobRepository extends JpaRepository<DeleteJob, Long> {
+
+    List<DeleteJob> findByStatusInOrderByIdAsc(Collection<DeleteJob.Status> statuses);
+
+    List<DeleteJob> findByDatasetNameOrderByIdDesc(String datasetName);
+
+    // Every state change below is conditional on the row's current status and owner, so a cancel
+    // is never overwritten by a worker and two instances never run the same job at once.
+    // A claim succeeds on a pending job, on the caller's own job, or on one whose lease lapsed.
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+        UPDATE DeleteJob j SET j.status = com.example.entity.DeleteJob.Status.RUNNING,
+            j.owner = :owner, j.leaseExpiresAt = :leaseExpiresAt, j.updatedAt = :now
+        WHERE j.id = :id
+        AND (j.status = com.example.entity.DeleteJob.Status.PENDING
+            OR (j.status = com.example.entity.DeleteJob.Status.RUNNING
+                AND (j.owner = :owner OR j.owner IS NULL OR j.leaseExpiresAt < :now)))
+        """)
+    int claim(@Param("id") Long id, @Param("owner") String owner,
+              @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt, @Param("now") LocalDateTime now);
+
+    // Zero rows means the job was cancelled or taken over and the caller must stop
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+        UPDATE DeleteJob j SET j.leaseExpiresAt = :leaseExpiresAt, j.updatedAt = :now
+        WHERE j.id = :id AND j.owner = :owner AND j.status = com.example.entity.DeleteJob.Status.RUNNING
+        """)
+    int renewLease(@Param("id") Long id, @Param("owner") String owner,
+                   @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt, @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+        UPDATE DeleteJob j SET j.lastDeletedId = :lastDeletedId, j.deletedCount = j.deletedCount + :deleted,
+            j.leaseExpiresAt = :leaseExpiresAt, j.updatedAt = :now
+        WHERE j.id = :id AND j.owner = :owner AND j.status = com.example.entity.DeleteJob.Status.RUNNING
+        """)
+    int recordProgress(@Param("id") Long id, @Param("owner") String owner,
+                       @Param("lastDeletedId") Long lastDeletedId, @Param("deleted") long deleted,
+                       @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt, @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+        UPDATE DeleteJob j SET j.status = :status, j.errorMessage = :errorMessage,
+            j.leaseExpiresAt = NULL, j.updatedAt = :now
+        WHERE j.id = :id AND j.owner = :owner AND j.status = com.example.entity.DeleteJob.Status.RUNNING
+        """)
+    int finish(@Param("id") Long id, @Param("owner") String owner, @Param("status") DeleteJob.Status status,
+               @Param("errorMessage") String errorMessage, @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+        UPDATE DeleteJob j SET j.status = com.example.entity.DeleteJob.Status.CANCELLED,
+            j.leaseExpiresAt = NULL, j.updatedAt = :now
+        WHERE j.id = :id
+        AND j.status IN (com.example.entity.DeleteJob.Status.PENDING, com.example.entity.DeleteJob.Status.RUNNING)
+        """)
+    int cancel(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,20 @@
+package com.example.repository;
+
+import com.example.entity.FieldSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FieldSketchRepository extends JpaRepository<FieldSketch, Long> {
+
+    Optional<FieldSketch> findByDatasetNameAndFieldName(String datasetName, String fieldName);
+
+    @Modifying
+    @Query("DELETE FROM FieldSketch fs WHERE fs.datasetName = :datasetName")
+    int deleteByDatasetName(@Param("datasetName") String datasetName);
+}
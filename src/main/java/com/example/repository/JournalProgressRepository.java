@@ -0,0 +1,32 @@
+package com.example.repository;
+
+import com.example.entity.JournalProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface JournalProgressRepository extends JpaRepository<JournalProgress, Long> {
+
+    @Query("""
+        SELECT jp.appliedSequence FROM JournalProgress jp
+        WHERE jp.journalId = :journalId AND jp.datasetName = :datasetName
+        """)
+    Optional<Long> findAppliedSequence(@Param("journalId") String journalId, @Param("datasetName") String datasetName);
+
+    // Joins the applier's transaction, so the position commits together with the records
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO journal_progress (journal_id, dataset_name, applied_sequence)
+        VALUES (:journalId, :datasetName, :sequence)
+        ON DUPLICATE KEY UPDATE applied_sequence = GREATEST(applied_sequence, VALUES(applied_sequence))
+        """, nativeQuery = true)
+    int advance(@Param("journalId") String journalId, @Param("datasetName") String datasetName,
+                @Param("sequence") long sequence);
+}
@@ -0,0 +1,56 @@
+package com.example.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Streams {@code record_data} of a dataset row by row for callers that copy the stored JSON out
+ * as-is. The statements mirror the JSON sort queries of {@link DatasetRecordRepository} but select
+ * only the document column and never build entities.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RawRecordRepository {
+
+    // Connector/J only streams a result set row by row with this fetch size; otherwise it buffers it all
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final int DEFAULT_FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Column 1 of each row passed to {@code handler} is {@code record_data}; {@code sortPath} is a MySQL JSON path. */
+    public void streamRecordData(String datasetName, String sortPath, boolean descending, Integer limit,
+                                 RowCallbackHandler handler) {
+        StringBuilder sql = new StringBuilder("SELECT record_data FROM dataset_records WHERE dataset_name = ?");
+        if (sortPath != null) {
+            String direction = descending ? "DESC" : "ASC";
+            sql.append(" AND JSON_TYPE(JSON_EXTRACT(record_data, ?)) <> 'NULL'")
+                    .append(" ORDER BY JSON_EXTRACT(record_data, ?) ").append(direction);
+            if (limit != null) {
+                sql.append(" LIMIT ?");
+            }
+        }
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            boolean mysql = "MySQL".equals(connection.getMetaData().getDatabaseProductName());
+            statement.setFetchSize(mysql ? MYSQL_STREAMING_FETCH_SIZE : DEFAULT_FETCH_SIZE);
+            int index = 1;
+            statement.setString(index++, datasetName);
+            if (sortPath != null) {
+                statement.setString(index++, sortPath);
+                statement.setString(index++, sortPath);
+                if (limit != null) {
+                    statement.setInt(index, limit);
+                }
+            }
+            return statement;
+        }, handler);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.repository;
+
+import com.example.entity.RollupBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RollupBucketRepository extends JpaRepository<RollupBucket, Long> {
+
+    // Adds a partial aggregate to the bucket row, creating it on first use
+    @Modifying
+    @Query(value = """
+        INSERT INTO rollup_buckets
+            (definition_id, bucket_start, group_value, field_name, value_count, value_sum, value_min, value_max)
+        VALUES (:definitionId, :bucketStart, :groupValue, :fieldName, :valueCount, :valueSum, :valueMin, :valueMax)
+        ON DUPLICATE KEY UPDATE
+            value_count = value_count + VALUES(value_count),
+            value_sum = value_sum + VALUES(value_sum),
+            value_min = LEAST(value_min, VALUES(value_min)),
+            value_max = GREATEST(value_max, VALUES(value_max))
+        """, nativeQuery = true)
+    int upsert(
+            @Param("definitionId") Long definitionId,
+            @Param("bucketStart") LocalDateTime bucketStart,
+            @Param("groupValue") String groupValue,
+            @Param("fieldName") String fieldName,
+            @Param("valueCount") long valueCount,
+            @Param("valueSum") Double valueSum,
+            @Param("valueMin") Double valueMin,
+            @Param("valueMax") Double valueMax
+    );
+
+    @Query("""
+        SELECT rb FROM RollupBucket rb
+        WHERE rb.definitionId = :definitionId
+        AND rb.bucketStart >= :fromInclusive
+        AND rb.bucketStart < :toExclusive
+        ORDER BY rb.bucketStart, rb.groupValue, rb.fieldName
+        """)
+    List<RollupBucket> findRange(
+            @Param("definitionId") Long definitionId,
+            @Param("fromInclusive") LocalDateTime fromInclusive,
+            @Param("toExclusive") LocalDateTime toExclusive
+    );
+
+    @Modifying
+    @Query("DELETE FROM RollupBucket rb WHERE rb.definitionId = :definitionId")
+    int deleteByDefinitionId(@Param("definitionId") Long definitionId);
+}
@@ -0,0 +1,38 @@
+package com.example.repository;
+
+import com.example.entity.RollupDefinition;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RollupDefinitionRepository extends JpaRepository<RollupDefinition, Long> {
+
+    List<RollupDefinition> findByDatasetNameOrderByBucketSecondsAsc(String datasetName);
+
+    // Held by incremental updates while they write, so a rebuild's swap and they never interleave
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT rd FROM RollupDefinition rd WHERE rd.datasetName = :datasetName ORDER BY rd.bucketSeconds")
+    List<RollupDefinition> lockByDatasetName(@Param("datasetName") String datasetName);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT rd FROM RollupDefinition rd WHERE rd.id = :id")
+    Optional<RollupDefinition> lockById(@Param("id") Long id);
+
+    List<RollupDefinition> findByRebuildHeartbeatAtBefore(LocalDateTime cutoff);
+
+    @Modifying
+    @Query("""
+        UPDATE RollupDefinition rd SET rd.rebuildHeartbeatAt = :now
+        WHERE rd.id = :id AND rd.rebuildHeartbeatAt IS NOT NULL
+        """)
+    int touchRebuild(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,115 @@
+package com.example.repository;
+
+import com.example.entity.SearchToken;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC access to {@code dataset_search_tokens}. Postings are written with multi-row batches,
+ * which the JPA identity-less composite key would otherwise turn into a SELECT per row.
+ * Every lookup joins back to {@code dataset_records} so postings of deleted records never surface.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SearchTokenRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<SearchToken> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = tokens.stream()
+                .map(token -> new MapSqlParameterSource()
+                        .addValue("datasetName", token.getDatasetName())
+                        .addValue("fieldName", token.getFieldName())
+                        .addValue("kind", token.getKind())
+                        .addValue("token", token.getToken())
+                        .addValue("recordId", token.getRecordId()))
+                .toArray(SqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate("""
+                INSERT IGNORE INTO dataset_search_tokens (dataset_name, field_name, kind, token, record_id)
+                VALUES (:datasetName, :fieldName, :kind, :token, :recordId)
+                """, batch);
+    }
+
+    // Records ranked by how many of the query terms they contain
+    public List<Long> findByTerms(String datasetName, String fieldName, Collection<String> terms, int limit) {
+        return jdbcTemplate.queryForList("""
+                SELECT t.record_id FROM dataset_search_tokens t
+                JOIN dataset_records r ON r.id = t.record_id
+                WHERE t.dataset_name = :datasetName AND t.field_name = :fieldName
+                AND t.kind = 'T' AND t.token IN (:tokens)
+                GROUP BY t.record_id
+                ORDER BY COUNT(*) DESC, t.record_id
+                LIMIT :limit
+                """, params(datasetName, fieldName, limit).addValue("tokens", terms), Long.class);
+    }
+
+    public List<Long> findByTokenPrefix(String datasetName, String fieldName, String kind, String prefix, int limit) {
+        return jdbcTemplate.queryForList("""
+                SELECT DISTINCT t.record_id FROM dataset_search_tokens t
+                JOIN dataset_records r ON r.id = t.record_id
+                WHERE t.dataset_name = :datasetName AND t.field_name = :fieldName
+                AND t.kind = :kind AND t.token LIKE CONCAT(:prefix, '%')
+                ORDER BY t.record_id
+                LIMIT :limit
+                """, params(datasetName, fieldName, limit)
+                .addValue("kind", kind)
+                .addValue("prefix", escapeLike(prefix)), Long.class);
+    }
+
+    // Candidates containing every trigram of the query; callers verify the actual substring
+    public List<Long> findContainingAllGrams(String datasetName, String fieldName, Collection<String> grams,
+                                             long afterId, int limit) {
+        return jdbcTemplate.queryForList("""
+                SELECT t.record_id FROM dataset_search_tokens t
+                JOIN dataset_records r ON r.id = t.record_id
+                WHERE t.dataset_name = :datasetName AND t.field_name = :fieldName
+                AND t.kind = 'G' AND t.token IN (:tokens) AND t.record_id > :afterId
+                GROUP BY t.record_id
+                HAVING COUNT(DISTINCT t.token) = :tokenCount
+                ORDER BY t.record_id
+                LIMIT :limit
+                """, params(datasetName, fieldName, limit)
+                .addValue("tokens", grams)
+                .addValue("tokenCount", grams.size())
+                .addValue("afterId", afterId), Long.class);
+    }
+
+    public int deleteByRecordIdRange(String datasetName, long fromId, long toId) {
+        return jdbcTemplate.update("""
+                DELETE FROM dataset_search_tokens
+                WHERE dataset_name = :datasetName AND record_id BETWEEN :fromId AND :toId
+                """, new MapSqlParameterSource()
+                .addValue("datasetName", datasetName)
+                .addValue("fromId", fromId)
+                .addValue("toId", toId));
+    }
+
+    public int deleteChunkForDataset(String datasetName, int chunkSize) {
+        return jdbcTemplate.update("""
+                DELETE FROM dataset_search_tokens WHERE dataset_name = :datasetName LIMIT :limit
+                """, new MapSqlParameterSource()
+                .addValue("datasetName", datasetName)
+                .addValue("limit", chunkSize));
+    }
+
+    private MapSqlParameterSource params(String datasetName, String fieldName, int limit) {
+        return new MapSqlParameterSource()
+                .addValue("datasetName", datasetName)
+                .addValue("fieldName", fieldName)
+                .addValue("limit", limit);
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,424 @@
+package com.example.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * A JSON Schema compiled once into a tree of checks, so validating a record walks the checks and
+ * the record without consulting the schema document again. Patterns are precompiled and enum and
+ * const values are normalised up front.
+ *
+ * <p>Supports the subset of draft 2020-12 that describes record shapes: {@code type},
+ * {@code enum}, {@code const}, {@code properties}, {@code required}, {@code additionalProperties},
+ * {@code min/maxProperties}, {@code items}, {@code min/maxItems}, {@code min/maxLength},
+ * {@code pattern}, {@code minimum}, {@code maximum} and their exclusive forms. Annotations such as
+ * {@code title} or {@code format} are accepted and ignored; any other keyword is rejected at
+ * compile time rather than silently not enforced.
+ */
+public final class CompiledSchema {
+
+    static final int MAX_ERRORS = 20;
+
+    private static final Set<String> ANNOTATIONS = Set.of(
+            "$schema", "$id", "$comment", "title", "description", "default", "examples",
+            "format", "deprecated", "readOnly", "writeOnly");
+
+    private interface Check {
+        void check(Object value, String path, List<String> errors);
+    }
+
+    private enum JsonType {
+        OBJECT, ARRAY, STRING, NUMBER, INTEGER, BOOLEAN, NULL;
+
+        boolean matches(Object value) {
+            return switch (this) {
+                case OBJECT -> value instanceof Map;
+                case ARRAY -> value instanceof List;
+                case STRING -> value instanceof String;
+                case NUMBER -> value instanceof Number;
+                case INTEGER -> isInteger(value);
+                case BOOLEAN -> value instanceof Boolean;
+                case NULL -> value == null;
+            };
+        }
+    }
+
+    private final Check root;
+
+    private CompiledSchema(Check root) {
+        this.root = root;
+    }
+
+    /** Throws IllegalArgumentException naming the offending location when the schema is invalid. */
+    public static CompiledSchema compile(JsonNode schema) {
+        return new CompiledSchema(compileNode(schema, "$"));
+    }
+
+    /** Returns the violations of {@code value}, at most {@value #MAX_ERRORS}; empty when it conforms. */
+    public List<String> validate(Object value) {
+        List<String> errors = new ArrayList<>(0);
+        root.check(value, "$", errors);
+        return errors;
+    }
+
+    private static Check compileNode(JsonNode node, String at) {
+        if (node.isBoolean()) {
+            return node.booleanValue()
+                    ? (value, path, errors) -> { }
+                    : (value, path, errors) -> report(errors, path, "no value is allowed here");
+        }
+        if (!node.isObject()) {
+            throw invalid(at, "a schema must be an object or a boolean");
+        }
+
+        List<Check> checks = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> field : node.properties()) {
+            String keyword = field.getKey();
+            JsonNode argument = field.getValue();
+            String where = at + "." + keyword;
+            switch (keyword) {
+                case "type" -> checks.add(typeCheck(argument, where));
+                case "enum" -> checks.add(enumCheck(argument, where));
+                case "const" -> {
+                    Object expected = normalize(toJava(argument));
+                    checks.add((value, path, errors) -> {
+                        if (!expected.equals(normalize(value))) {
+                            report(errors, path, "must equal " + argument);
+                        }
+                    });
+                }
+                case "properties", "required", "additionalProperties", "minProperties", "maxProperties" -> {
+                    // compiled together below
+                }
+                case "items" -> {
+                    Check items = compileNode(argument, where);
+                    checks.add((value, path, errors) -> {
+                        if (value instanceof List<?> list) {
+                            for (int i = 0; i < list.size() && errors.size() < MAX_ERRORS; i++) {
+                                items.check(list.get(i), path + "[" + i + "]", errors);
+                            }
+                        }
+                    });
+                }
+                case "minItems" -> {
+                    int min = count(argument, where);
+                    checks.add((value, path, errors) -> {
+                        if (value instanceof List<?> list && list.size() < min) {
+                            report(errors, path, "must have at least " + min + " items");
+                        }
+                    });
+                }
+                case "maxItems" -> {
+                    int max = count(argument, where);
+                    checks.add((value, path, errors) -> {
+                        if (value instanceof List<?> list && list.size() > max) {
+                            report(errors, path, "must have at most " + max + " items");
+                        }
+                    });
+                }
+                case "minLength" -> {
+                    int min = count(argument, where);
+                    checks.add((value, path, errors) -> {
+                        if (value instanceof String text && text.codePointCount(0, text.length()) < min) {
+                            report(errors, path, "must be at least " + min + " characters long");
+                        }
+                    });
+                }
+                case "maxLength" -> {
+                    int max = count(argument, where);
+                    checks.add((value, path, errors) -> {
+                        if (value instanceof String text && text.codePointCount(0, text.length()) > max) {
+                            report(errors, path, "must be at most " + max + " characters long");
+                        }
+                    });
+                }
+                case "pattern" -> {
+                    if (!argument.isTextual()) {
+                        throw invalid(where, "must be a string");
+                    }
+                    Pattern pattern;
+                    try {
+                        pattern = Pattern.compile(argument.textValue());
+                    } catch (RuntimeException e) {
+                        throw invalid(where, "is not a valid regular expression");
+                    }
+                    checks.add((value, path, errors) -> {
+                        if (value instanceof String text && !pattern.matcher(text).find()) {
+                            report(errors, path, "must match pattern " + pattern.pattern());
+                        }
+                    });
+                }
+                case "minimum" -> checks.add(boundCheck(argument, where, 1, false, "must be >= "));
+                case "exclusiveMinimum" -> checks.add(boundCheck(argument, where, 1, true, "must be > "));
+                case "maximum" -> checks.add(boundCheck(argument, where, -1, false, "must be <= "));
+                case "exclusiveMaximum" -> checks.add(boundCheck(argument, where, -1, true, "must be < "));
+                default -> {
+                    if (!ANNOTATIONS.contains(keyword)) {
+                        throw invalid(where, "keyword is not supported");
+                    }
+                }
+            }
+        }
+        Check objectCheck = objectCheck(node, at);
+        if (objectCheck != null) {
+            checks.add(objectCheck);
+        }
+
+        if (checks.size() == 1) {
+            return checks.get(0);
+        }
+        Check[] all = checks.toArray(Check[]::new);
+        return (value, path, errors) -> {
+            for (Check check : all) {
+                if (errors.size() >= MAX_ERRORS) {
+                    return;
+                }
+                check.check(value, path, errors);
+            }
+        };
+    }
+
+    private static Check typeCheck(JsonNode argument, String where) {
+        EnumSet<JsonType> types = EnumSet.noneOf(JsonType.class);
+        List<JsonNode> names = argument.isArray() ? toList(argument) : List.of(argument);
+        for (JsonNode name : names) {
+            if (!name.isTextual()) {
+                throw invalid(where, "must be a type name or an array of type names");
+            }
+            try {
+                types.add(JsonType.valueOf(name.textValue().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw invalid(where, "unknown type '" + name.textValue() + "'");
+            }
+        }
+        if (types.isEmpty()) {
+            throw invalid(where, "must name at least one type");
+        }
+        String expected = argument.isArray() ? "one of " + argument : argument.textValue();
+        JsonType[] allowed = types.toArray(JsonType[]::new);
+        return (value, path, errors) -> {
+            for (JsonType type : allowed) {
+                if (type.matches(value)) {
+                    return;
+                }
+            }
+            report(errors, path, "expected " + expected + " but was " + typeName(value));
+        };
+    }
+
+    private static Check enumCheck(JsonNode argument, String where) {
+        if (!argument.isArray() || argument.isEmpty()) {
+            throw invalid(where, "must be a non-empty array");
+        }
+        Set<Object> allowed = new HashSet<>();
+        for (JsonNode element : argument) {
+            allowed.add(normalize(toJava(element)));
+        }
+        return (value, path, errors) -> {
+            if (!allowed.contains(normalize(value))) {
+                report(errors, path, "must be one of " + argument);
+            }
+        };
+    }
+
+    private static Check boundCheck(JsonNode argument, String where, int side, boolean exclusive, String message) {
+        if (!argument.isNumber()) {
+            throw invalid(where, "must be a number");
+        }
+        BigDecimal bound = argument.decimalValue();
+        return (value, path, errors) -> {
+            if (value instanceof Number number) {
+                int comparison = toDecimal(number).compareTo(bound) * side;
+                if (comparison < 0 || (exclusive && comparison == 0)) {
+                    report(errors, path, message + bound.toPlainString());
+                }
+            }
+        };
+    }
+
+    private static Check objectCheck(JsonNode node, String at) {
+        JsonNode propertiesNode = node.get("properties");
+        JsonNode requiredNode = node.get("required");
+        JsonNode additionalNode = node.get("additionalProperties");
+        JsonNode minNode = node.get("minProperties");
+        JsonNode maxNode = node.get("maxProperties");
+        if (propertiesNode == null && requiredNode == null && additionalNode == null
+                && minNode == null && maxNode == null) {
+            return null;
+        }
+
+        Map<String, Check> properties = new LinkedHashMap<>();
+        if (propertiesNode != null) {
+            if (!propertiesNode.isObject()) {
+                throw invalid(at + ".properties", "must be an object");
+            }
+            for (Map.Entry<String, JsonNode> property : propertiesNode.properties()) {
+                properties.put(property.getKey(),
+                        compileNode(property.getValue(), at + ".properties." + property.getKey()));
+            }
+        }
+        List<String> required = new ArrayList<>();
+        if (requiredNode != null) {
+            if (!requiredNode.isArray()) {
+                throw invalid(at + ".required", "must be an array of property names");
+            }
+            for (JsonNode name : requiredNode) {
+                if (!name.isTextual()) {
+                    throw invalid(at + ".required", "must be an array of property names");
+                }
+                required.add(name.textValue());
+            }
+        }
+        Check additional = additionalNode != null ? compileNode(additionalNode, at + ".additionalProperties") : null;
+        int min = minNode != null ? count(minNode, at + ".minProperties") : 0;
+        int max = maxNode != null ? count(maxNode, at + ".maxProperties") : Integer.MAX_VALUE;
+
+        return (value, path, errors) -> {
+            if (!(value instanceof Map<?, ?> map)) {
+                return;
+            }
+            for (String name : required) {
+                if (!map.containsKey(name)) {
+                    report(errors, path + "." + name, "is required");
+                }
+            }
+            if (map.size() < min) {
+                report(errors, path, "must have at least " + min + " properties");
+            } else if (map.size() > max) {
+                report(errors, path, "must have at most " + max + " properties");
+            }
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (errors.size() >= MAX_ERRORS) {
+                    return;
+                }
+                String name = String.valueOf(entry.getKey());
+                Check property = properties.get(name);
+                if (property == null) {
+                    property = additional;
+                }
+                if (property != null) {
+                    property.check(entry.getValue(), path + "." + name, errors);
+                }
+            }
+        };
+    }
+
+    private static void report(List<String> errors, String path, String message) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(path + ": " + message);
+        }
+    }
+
+    private static int count(JsonNode argument, String where) {
+        if (!argument.canConvertToExactIntegral() || argument.asLong() < 0 || argument.asLong() > Integer.MAX_VALUE) {
+            throw invalid(where, "must be a non-negative integer");
+        }
+        return argument.asInt();
+    }
+
+    private static IllegalArgumentException invalid(String where, String message) {
+        return new IllegalArgumentException("Invalid schema at " + where + ": " + message);
+    }
+
+    private static List<JsonNode> toList(JsonNode array) {
+        List<JsonNode> elements = new ArrayList<>();
+        array.forEach(elements::add);
+        return elements;
+    }
+
+    private static boolean isInteger(Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte || value instanceof BigInteger) {
+            return true;
+        }
+        // JSON does not distinguish 1 from 1.0
+        if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            return !Double.isInfinite(d) && d == Math.rint(d);
+        }
+        return value instanceof BigDecimal decimal && decimal.stripTrailingZeros().scale() <= 0;
+    }
+
+    private static String typeName(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof Map) {
+            return "object";
+        }
+        if (value instanceof List) {
+            return "array";
+        }
+        if (value instanceof String) {
+            return "string";
+        }
+        if (value instanceof Boolean) {
+            return "boolean";
+        }
+        if (value instanceof Number) {
+            return isInteger(value) ? "integer" : "number";
+        }
+        return value.getClass().getSimpleName();
+    }
+
+    private static BigDecimal toDecimal(Number number) {
+        if (number instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        if (number instanceof BigInteger integer) {
+            return new BigDecimal(integer);
+        }
+        return new BigDecimal(number.toString());
+    }
+
+    // Equal JSON values compare equal regardless of the Java types Jackson picked for them
+    private static Object normalize(Object value) {
+        if (value instanceof Number number) {
+            BigDecimal decimal = toDecimal(number).stripTrailingZeros();
+            return decimal.signum() == 0 ? BigDecimal.ZERO : decimal;
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> normalized = new HashMap<>();
+            map.forEach((key, element) -> normalized.put(String.valueOf(key), normalize(element)));
+            return normalized;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(CompiledSchema::normalize).toList();
+        }
+        return value == null ? NullValue.INSTANCE : value;
+    }
+
+    private enum NullValue { INSTANCE }
+
+    private static Object toJava(JsonNode node) {
+        if (node.isNull()) {
+            return null;
+        }
+        if (node.isNumber()) {
+            return node.decimalValue();
+        }
+        if (node.isTextual()) {
+            return node.textValue();
+        }
+        if (node.isBoolean()) {
+            return node.booleanValue();
+        }
+        if (node.isArray()) {
+            List<Object> list = new ArrayList<>();
+            node.forEach(element -> list.add(toJava(element)));
+            return list;
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> field : node.properties()) {
+            map.put(field.getKey(), toJava(field.getValue()));
+        }
+        return map;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.service;
+
+/**
+ * One read inside a batch request. {@code operation} is getAll, sortBy, groupBy or stats;
+ * {@code field}, {@code order} and {@code limit} apply to the operations that take them.
+ * {@code timeoutMs}, when set, bounds this operation more tightly than the batch timeout.
+ */
+public record BatchOperation(String id, String dataset, String operation, String field, String order, Integer limit,
+                             Long timeoutMs) {
+
+    public BatchOperation(String id, String dataset, String operation, String field, String order, Integer limit) {
+        this(id, dataset, operation, field, order, limit, null);
+    }
+}
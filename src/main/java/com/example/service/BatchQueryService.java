@@ -0,0 +1,11 @@
+package com.example.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface BatchQueryService {
+    void executeBatch(List<BatchOperation> operations, long timeoutMs, Consumer<Map<String, Object>> resultSink);
+    long getDefaultTimeoutMs();
+    int getMaxOperations();
+}
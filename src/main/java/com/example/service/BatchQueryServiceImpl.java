@@ -0,0 +1,241 @@
+package com.example.service;
+
+import com.example.admission.AdmissionGate;
+import com.example.admission.AdmissionRejectedException;
+import com.example.admission.Bulkhead;
+import com.example.admission.Lane;
+import com.example.deadline.Deadline;
+import com.example.deadline.RequestDeadline;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs the reads of a batch request concurrently on a bounded pool shared by all batch callers.
+ * Results are handed to the sink on the calling thread as they complete, so the caller can stream
+ * them without synchronisation. Items still running when their timeout expires are cancelled and
+ * reported as timed out; the rest of the batch is unaffected. Each operation runs under its own
+ * deadline, the batch timeout or the operation's {@code timeoutMs} if that is shorter, so cancelling
+ * one stops its JDBC statement rather than only interrupting the thread waiting on it.
+ *
+ * <p>Every operation is a scan of its own, so each takes a HEAVY_SCAN slot for its dataset before
+ * it runs, rather than the batch sharing the one slot of its request. An operation the lane sheds
+ * is reported as rejected; time spent queued for a slot counts against the operation's timeout.
+ */
+@Service
+@Slf4j
+public class BatchQueryServiceImpl implements BatchQueryService {
+
+    private final DatasetService datasetService;
+    private final AdmissionGate admissionGate;
+    private final ThreadPoolExecutor executor;
+    private final long defaultTimeoutMs;
+    private final int maxOperations;
+
+    private record PendingItem(int index, Deadline deadline, long expiresAtNanos, long timeoutMs) {
+    }
+
+    @Autowired
+    public BatchQueryServiceImpl(DatasetService datasetService,
+                                 ObjectProvider<AdmissionGate> admissionGate,
+                                 @Value("${app.batch.threads:8}") int threads,
+                                 @Value("${app.batch.queue-capacity:200}") int queueCapacity,
+                                 @Value("${app.batch.default-timeout-ms:10000}") long defaultTimeoutMs,
+                                 @Value("${app.batch.max-operations:50}") int maxOperations) {
+        this(datasetService, admissionGate.getIfAvailable(), threads, queueCapacity, defaultTimeoutMs, maxOperations);
+    }
+
+    BatchQueryServiceImpl(DatasetService datasetService, AdmissionGate admissionGate, int threads,
+                          int queueCapacity, long defaultTimeoutMs, int maxOperations) {
+        this.datasetService = datasetService;
+        this.admissionGate = admissionGate;
+        this.defaultTimeoutMs = defaultTimeoutMs;
+        this.maxOperations = maxOperations;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "batch-query-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public long getDefaultTimeoutMs() {
+        return defaultTimeoutMs;
+    }
+
+    public int getMaxOperations() {
+        return maxOperations;
+    }
+
+    public void executeBatch(List<BatchOperation> operations, long timeoutMs, Consumer<Map<String, Object>> resultSink) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one operation");
+        }
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("Batch cannot contain more than " + maxOperations + " operations");
+        }
+        log.info("Executing batch of {} operations with {} ms timeout", operations.size(), timeoutMs);
+
+        long startNanos = System.nanoTime();
+        CompletionService<Map<String, Object>> completionService = new ExecutorCompletionService<>(executor);
+        Map<Future<Map<String, Object>>, PendingItem> pending = new HashMap<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            int index = i;
+            BatchOperation operation = operations.get(i);
+            // An item timeout only narrows the batch deadline, both counted from the start of the batch
+            long itemTimeoutMs = operation.timeoutMs() != null ? Math.min(operation.timeoutMs(), timeoutMs) : timeoutMs;
+            Deadline deadline = Deadline.after(itemTimeoutMs, true);
+            try {
+                Future<Map<String, Object>> future = completionService.submit(
+                        () -> RequestDeadline.callWith(deadline, () -> admitted(index, operation, deadline, startNanos)));
+                pending.put(future, new PendingItem(index, deadline,
+                        startNanos + TimeUnit.MILLISECONDS.toNanos(itemTimeoutMs), itemTimeoutMs));
+            } catch (RejectedExecutionException e) {
+                resultSink.accept(failure(index, operation, "rejected", "Batch executor is saturated", startNanos));
+            }
+        }
+
+        try {
+            while (!pending.isEmpty()) {
+                long nextExpiryNanos = pending.values().stream()
+                        .mapToLong(PendingItem::expiresAtNanos).min().orElse(startNanos);
+                long remainingNanos = nextExpiryNanos - System.nanoTime();
+                Future<Map<String, Object>> completed = null;
+                boolean interrupted = false;
+                if (remainingNanos > 0) {
+                    try {
+                        completed = completionService.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        interrupted = true;
+                    }
+                } else {
+                    completed = completionService.poll();
+                }
+
+                if (completed == null) {
+                    // An item deadline was reached (or the caller went away): cancel the items that are due
+                    long now = System.nanoTime();
+                    Iterator<Map.Entry<Future<Map<String, Object>>, PendingItem>> iterator = pending.entrySet().iterator();
+                    while (iterator.hasNext()) {
+                        Map.Entry<Future<Map<String, Object>>, PendingItem> entry = iterator.next();
+                        PendingItem item = entry.getValue();
+                        if (!interrupted && item.expiresAtNanos() - now > 0) {
+                            continue;
+                        }
+                        iterator.remove();
+                        item.deadline().cancel("operation timeout of " + item.timeoutMs() + " ms exceeded");
+                        entry.getKey().cancel(true);
+                        resultSink.accept(failure(item.index(), operations.get(item.index()), "timeout",
+                                "Operation did not finish within " + item.timeoutMs() + " ms", startNanos));
+                    }
+                    continue;
+                }
+
+                PendingItem item = pending.remove(completed);
+                if (item == null) {
+                    // Already reported as timed out just before it completed
+                    continue;
+                }
+                int index = item.index();
+                try {
+                    resultSink.accept(completed.get());
+                } catch (ExecutionException e) {
+                    resultSink.accept(failure(index, operations.get(index), item.deadline().isDone() ? "timeout" : "error",
+                            String.valueOf(e.getCause().getMessage()), startNanos));
+                } catch (InterruptedException | CancellationException e) {
+                    resultSink.accept(failure(index, operations.get(index), "error", "Operation was cancelled", startNanos));
+                }
+            }
+        } finally {
+            // The sink threw (the caller went away): stop the operations nobody will read
+            for (Map.Entry<Future<Map<String, Object>>, PendingItem> entry : pending.entrySet()) {
+                entry.getValue().deadline().cancel("batch abandoned");
+                entry.getKey().cancel(true);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Map<String, Object> admitted(int index, BatchOperation operation, Deadline deadline, long startNanos)
+            throws InterruptedException {
+        if (admissionGate == null) {
+            return run(index, operation, startNanos);
+        }
+        Bulkhead.Permit permit;
+        try {
+            permit = admissionGate.acquire(Lane.HEAVY_SCAN, operation.dataset());
+        } catch (AdmissionRejectedException e) {
+            return failure(index, operation, "rejected", e.getMessage(), startNanos);
+        }
+        boolean completed = false;
+        try {
+            Map<String, Object> item = run(index, operation, startNanos);
+            completed = true;
+            return item;
+        } finally {
+            admissionGate.release(permit, !completed && deadline.isDone());
+        }
+    }
+
+    private Map<String, Object> run(int index, BatchOperation operation, long startNanos) {
+        String name = operation.operation() != null ? operation.operation().trim() : "getAll";
+        Object result;
+        try {
+            result = switch (name) {
+                case "getAll" -> datasetService.getAllRecords(operation.dataset());
+                case "sortBy" -> operation.limit() != null
+                        ? datasetService.sortRecordsByField(operation.dataset(), operation.field(),
+                                orderOrDefault(operation), operation.limit())
+                        : datasetService.sortRecordsByField(operation.dataset(), operation.field(), orderOrDefault(operation));
+                case "groupBy" -> datasetService.groupRecordsByField(operation.dataset(), operation.field());
+                case "stats", "info" -> datasetService.getDatasetStats(operation.dataset());
+                default -> throw new IllegalArgumentException("Unsupported batch operation: " + name);
+            };
+        } catch (IllegalArgumentException e) {
+            return failure(index, operation, "invalid", e.getMessage(), startNanos);
+        }
+
+        Map<String, Object> item = header(index, operation, "ok", startNanos);
+        item.put("result", result);
+        return item;
+    }
+
+    private String orderOrDefault(BatchOperation operation) {
+        return operation.order() != null ? operation.order() : "asc";
+    }
+
+    private Map<String, Object> failure(int index, BatchOperation operation, String status, String message, long startNanos) {
+        Map<String, Object> item = header(index, operation, status, startNanos);
+        item.put("error", message);
+        return item;
+    }
+
+    private Map<String, Object> header(int index, BatchOperation operation, String status, long startNanos) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("index", index);
+        item.put("id", operation.id());
+        item.put("dataset", operation.dataset());
+        item.put("operation", operation.operation());
+        item.put("status", status);
+        item.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        return item;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.service;
+
+import com.example.entity.DatasetRecord;
+import com.example.warmup.AccessStatsRecorder;
+import com.example.warmup.QueryShape;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Front of {@link DatasetServiceImpl} that funnels concurrent identical reads into one execution.
+ * Coalescing happens here, outside the transactional implementation, so waiting callers never hold
+ * a database connection. Writes pass straight through. Reads that succeed are counted per query
+ * shape when access statistics are enabled, coalesced or not, since each was a client asking.
+ */
+@Service
+@Primary
+public class CoalescingDatasetService implements DatasetService {
+
+    private final DatasetService delegate;
+    private final QueryCoalescer coalescer;
+    private final DatasetVersionTracker versionTracker;
+    private final AccessStatsRecorder accessStats;
+
+    public CoalescingDatasetService(@Qualifier("datasetServiceImpl") DatasetService delegate,
+                                    QueryCoalescer coalescer,
+                                    DatasetVersionTracker versionTracker,
+                                    ObjectProvider<AccessStatsRecorder> accessStats) {
+        this.delegate = delegate;
+        this.coalescer = coalescer;
+        this.versionTracker = versionTracker;
+        this.accessStats = accessStats.getIfAvailable();
+    }
+
+    @Override
+    public DatasetRecord insertRecord(String datasetName, Map<String, Object> recordData) {
+        return delegate.insertRecord(datasetName, recordData);
+    }
+
+    @Override
+    public List<DatasetRecord> insertRecords(String datasetName, List<Map<String, Object>> recordsData) {
+        return delegate.insertRecords(datasetName, recordsData);
+    }
+
+    @Override
+    public IngestResult ingestRecords(String datasetName, List<Map<String, Object>> recordsData) {
+        return delegate.ingestRecords(datasetName, recordsData);
+    }
+
+    @Override
+    public Map<String, List<Map<String, Object>>> groupRecordsByField(String datasetName, String groupByField) {
+        Map<String, List<Map<String, Object>>> result = coalescer.execute("groupBy",
+                List.of(key(datasetName), version(datasetName), String.valueOf(groupByField)),
+                () -> delegate.groupRecordsByField(datasetName, groupByField));
+        recordAccess(() -> QueryShape.groupBy(datasetName, groupByField));
+        return result;
+    }
+
+    @Override
+    public List<Map<String, Object>> sortRecordsByField(String datasetName, String sortByField, String order) {
+        List<Map<String, Object>> result = coalescer.execute("sortBy",
+                List.of(key(datasetName), version(datasetName), String.valueOf(sortByField), String.valueOf(order)),
+                () -> delegate.sortRecordsByField(datasetName, sortByField, order));
+        recordAccess(() -> QueryShape.sortBy(datasetName, sortByField, order, null));
+        return result;
+    }
+
+    @Override
+    public List<Map<String, Object>> sortRecordsByField(String datasetName, String sortByField, String order, Integer limit) {
+        List<Map<String, Object>> result = coalescer.execute("sortBy",
+                List.of(key(datasetName), version(datasetName), String.valueOf(sortByField), String.valueOf(order),
+                        String.valueOf(limit)),
+                () -> delegate.sortRecordsByField(datasetName, sortByField, order, limit));
+        recordAccess(() -> QueryShape.sortBy(datasetName, sortByField, order, limit));
+        return result;
+    }
+
+    @Override
+    public List<Map<String, Object>> getAllRecords(String datasetName) {
+        List<Map<String, Object>> result = coalescer.execute("getAll", List.of(key(datasetName), version(datasetName)),
+                () -> delegate.getAllRecords(datasetName));
+        recordAccess(() -> QueryShape.getAll(datasetName));
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> getDatasetStats(String datasetName) {
+        Map<String, Object> result = coalescer.execute("stats", List.of(key(datasetName), version(datasetName)),
+                () -> delegate.getDatasetStats(datasetName));
+        recordAccess(() -> QueryShape.stats(datasetName));
+        return result;
+    }
+
+    @Override
+    public List<Map<String, Object>> getAllDatasets() {
+        return coalescer.execute("list", List.of(versionTracker.getGlobalVersion()),
+                delegate::getAllDatasets);
+    }
+
+    @Override
+    public Map<String, Object> getDistinctFieldValues(String datasetName, String fieldName, String afterValue, int limit) {
+        Map<String, Object> result = coalescer.execute("distinct",
+                List.of(key(datasetName), version(datasetName), String.valueOf(fieldName), String.valueOf(afterValue), limit),
+                () -> delegate.getDistinctFieldValues(datasetName, fieldName, afterValue, limit));
+        recordAccess(() -> QueryShape.distinct(datasetName, fieldName, limit));
+        return result;
+    }
+
+    @Override
+    public List<DatasetRecord> getRecordsAfterId(String datasetName, Long afterId, int limit) {
+        return delegate.getRecordsAfterId(datasetName, afterId, limit);
+    }
+
+    // Null-safe so invalid names still reach the delegate's validation
+    private String key(String datasetName) {
+        return datasetName == null ? "" : datasetName.trim().toLowerCase();
+    }
+
+    private long version(String datasetName) {
+        return versionTracker.getVersion(datasetName);
+    }
+
+    private void recordAccess(Supplier<QueryShape> shape) {
+        if (accessStats != null) {
+            accessStats.record(shape.get());
+        }
+    }
+
+    // A stream cannot be shared between callers
+    @Override
+    public RawRecordWriter openRawRecords(String datasetName, String sortByField, String order, Integer limit) {
+        RawRecordWriter writer = delegate.openRawRecords(datasetName, sortByField, order, limit);
+        recordAccess(() -> sortByField == null || sortByField.isBlank()
+                ? QueryShape.getAll(datasetName)
+                : QueryShape.sortBy(datasetName, sortByField, order, limit));
+        return writer;
+    }
+}
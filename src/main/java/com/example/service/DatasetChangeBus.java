@@ -0,0 +1,240 @@
+package com.example.service;
+
+import com.example.entity.DatasetRecord;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process fan-out of newly committed records to tail subscribers.
+ * Every subscriber owns a bounded buffer; a subscriber that falls behind far enough to overflow it
+ * is closed and expected to reconnect with the last id it saw, which is backfilled from the database.
+ * Ids come from an auto-increment column, so a transaction that commits after a higher id can only be
+ * picked up by a later backfill, not by the live stream.
+ */
+@Component
+@Slf4j
+public class DatasetChangeBus {
+
+    private final Map<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final Executor dispatcher;
+    private final Executor backfiller;
+
+    @Value("${app.tail.buffer-capacity:1000}")
+    private int bufferCapacity = 1000;
+
+    @Autowired
+    public DatasetChangeBus(@Value("${app.tail.dispatch-threads:4}") int dispatchThreads,
+                            @Value("${app.tail.backfill-threads:4}") int backfillThreads,
+                            @Value("${app.tail.backfill-queue-capacity:100}") int backfillQueueCapacity) {
+        this(Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "dataset-tail-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        }), new ThreadPoolExecutor(backfillThreads, backfillThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(backfillQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "dataset-tail-backfill");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy()));
+    }
+
+    DatasetChangeBus(Executor dispatcher) {
+        this(dispatcher, dispatcher);
+    }
+
+    DatasetChangeBus(Executor dispatcher, Executor backfiller) {
+        this.dispatcher = dispatcher;
+        this.backfiller = backfiller;
+    }
+
+    public record ChangeEvent(Long id, String dataset, LocalDateTime createdAt, Map<String, Object> data) {
+    }
+
+    public interface Listener {
+        void onEvents(List<ChangeEvent> events) throws Exception;
+
+        void onOverflow();
+
+        default void onHeartbeat() throws Exception {
+        }
+    }
+
+    /**
+     * Registers a listener for records with an id greater than {@code afterId}. Nothing is delivered
+     * until {@link Subscription#start} is called, so the caller can backfill from the database first
+     * without losing events published meanwhile.
+     */
+    public Subscription subscribe(String datasetName, long afterId, Listener listener) {
+        Subscription subscription = new Subscription(datasetName, afterId, bufferCapacity, listener);
+        subscriptions.computeIfAbsent(datasetName, key -> ConcurrentHashMap.newKeySet()).add(subscription);
+        log.debug("Tail subscriber added for dataset: {} after id {}", datasetName, afterId);
+        return subscription;
+    }
+
+    /**
+     * Runs a subscriber's backfill off the request thread, on a pool of its own so long replays
+     * never hold up live delivery. Throws {@link RejectedExecutionException} when the pool is full.
+     */
+    public void backfill(Runnable task) {
+        backfiller.execute(task);
+    }
+
+    public int getSubscriberCount(String datasetName) {
+        Set<Subscription> set = subscriptions.get(datasetName);
+        return set != null ? set.size() : 0;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecordsInserted(RecordsInsertedEvent event) {
+        Set<Subscription> set = subscriptions.get(event.datasetName());
+        if (set == null || set.isEmpty()) {
+            return;
+        }
+
+        // Parse once per record, not once per subscriber
+        List<ChangeEvent> events = new ArrayList<>(event.records().size());
+        for (DatasetRecord record : event.records()) {
+            if (record.getId() != null && record.getRecordData() != null) {
+                events.add(new ChangeEvent(record.getId(), record.getDatasetName(),
+                        record.getCreatedAt(), record.getRecordDataAsMap()));
+            }
+        }
+
+        for (Subscription subscription : set) {
+            subscription.offer(events);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.tail.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        subscriptions.values().forEach(set -> set.forEach(Subscription::heartbeat));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.values().forEach(set -> set.forEach(Subscription::close));
+        for (Executor executor : List.of(dispatcher, backfiller)) {
+            if (executor instanceof ExecutorService executorService) {
+                executorService.shutdownNow();
+            }
+        }
+    }
+
+    public final class Subscription {
+
+        private final String datasetName;
+        private final BlockingQueue<ChangeEvent> buffer;
+        private final Listener listener;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile long lastDeliveredId;
+        private volatile boolean started;
+        private volatile boolean closed;
+
+        private Subscription(String datasetName, long afterId, int capacity, Listener listener) {
+            this.datasetName = datasetName;
+            this.lastDeliveredId = afterId;
+            this.buffer = new ArrayBlockingQueue<>(capacity);
+            this.listener = listener;
+        }
+
+        // Ends the backfill phase: events up to lastDeliveredId are skipped, everything newer is streamed
+        public void start(long lastDeliveredId) {
+            this.lastDeliveredId = Math.max(this.lastDeliveredId, lastDeliveredId);
+            this.started = true;
+            scheduleDrain();
+        }
+
+        public long getLastDeliveredId() {
+            return lastDeliveredId;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.clear();
+            Set<Subscription> set = subscriptions.get(datasetName);
+            if (set != null) {
+                set.remove(this);
+                if (set.isEmpty()) {
+                    subscriptions.remove(datasetName, set);
+                }
+            }
+        }
+
+        private void offer(List<ChangeEvent> events) {
+            if (closed) {
+                return;
+            }
+            for (ChangeEvent event : events) {
+                if (!buffer.offer(event)) {
+                    log.warn("Tail subscriber for dataset: {} overflowed at id {}, disconnecting",
+                            datasetName, lastDeliveredId);
+                    close();
+                    // Never block the inserting thread on a slow client
+                    dispatcher.execute(listener::onOverflow);
+                    return;
+                }
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (started && !closed && !buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                List<ChangeEvent> batch = new ArrayList<>();
+                while (!closed && buffer.drainTo(batch) > 0) {
+                    List<ChangeEvent> fresh = batch.stream()
+                            .sorted(Comparator.comparing(ChangeEvent::id))
+                            .filter(event -> event.id() > lastDeliveredId)
+                            .toList();
+                    if (!fresh.isEmpty()) {
+                        listener.onEvents(fresh);
+                        lastDeliveredId = fresh.get(fresh.size() - 1).id();
+                    }
+                    batch.clear();
+                }
+            } catch (Exception e) {
+                log.debug("Tail subscriber for dataset: {} failed, closing", datasetName, e);
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // Events may have arrived between the last drain and releasing the flag
+            scheduleDrain();
+        }
+
+        private void heartbeat() {
+            if (!started || closed) {
+                return;
+            }
+            try {
+                listener.onHeartbeat();
+            } catch (Exception e) {
+                log.debug("Tail subscriber for dataset: {} went away, closing", datasetName);
+                close();
+            }
+        }
+    }
+}
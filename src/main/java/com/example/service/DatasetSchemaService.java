@@ -0,0 +1,13 @@
+package com.example.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface DatasetSchemaService {
+    Map<String, Object> putSchema(String datasetName, Map<String, Object> schema);
+    Optional<Map<String, Object>> getSchema(String datasetName);
+    boolean deleteSchema(String datasetName);
+    List<String> validate(String datasetName, Map<String, Object> recordData);
+    void preload(String datasetName);
+}
@@ -0,0 +1,173 @@
+package com.example.service;
+
+import com.example.entity.DatasetSchema;
+import com.example.repository.DatasetSchemaRepository;
+import com.example.schema.CompiledSchema;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the optional JSON Schema of each dataset and validates ingested records against it. A
+ * schema is compiled once and cached with its version; replacing or deleting it here drops the
+ * cached copy at once, and a periodic version check picks up changes made on other instances.
+ * Datasets without a schema are cached as such, so they cost a map lookup per record.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DatasetSchemaServiceImpl implements DatasetSchemaService {
+
+    private static final int MAX_SCHEMA_LENGTH = 64 * 1024;
+    private static final TypeReference<Map<String, Object>> SCHEMA_TYPE = new TypeReference<>() {};
+
+    private final DatasetSchemaRepository schemaRepository;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    record CachedSchema(long version, CompiledSchema schema) {
+    }
+
+    // Empty when the dataset has no schema
+    private final Map<String, Optional<CachedSchema>> schemaCache = new ConcurrentHashMap<>();
+
+    public Map<String, Object> putSchema(String datasetName, Map<String, Object> schema) {
+        String dataset = normalizeDatasetName(datasetName);
+        if (schema == null) {
+            throw new IllegalArgumentException("Schema cannot be null");
+        }
+
+        JsonNode schemaNode = objectMapper.valueToTree(schema);
+        CompiledSchema.compile(schemaNode);
+        String schemaJson = schemaNode.toString();
+        if (schemaJson.length() > MAX_SCHEMA_LENGTH) {
+            throw new IllegalArgumentException("Schema must be at most " + MAX_SCHEMA_LENGTH + " characters");
+        }
+
+        DatasetSchema saved;
+        try {
+            saved = replace(dataset, schemaJson);
+        } catch (DataIntegrityViolationException e) {
+            // Another writer created the first version meanwhile; replace it under the row lock instead
+            saved = replace(dataset, schemaJson);
+        }
+        schemaCache.remove(dataset);
+        log.info("Stored schema version {} for dataset: {}", saved.getVersion(), dataset);
+        return describe(saved);
+    }
+
+    // Replacements take turns on the row lock and Hibernate bumps the version; a first version is
+    // always an insert, so a concurrent first version fails on the key rather than being overwritten
+    private DatasetSchema replace(String dataset, String schemaJson) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            DatasetSchema schema = schemaRepository.lockByDatasetName(dataset)
+                    .orElseGet(() -> DatasetSchema.builder().datasetName(dataset).build());
+            schema.setSchemaJson(schemaJson);
+            schema.setUpdatedAt(LocalDateTime.now());
+            return schemaRepository.saveAndFlush(schema);
+        });
+    }
+
+    public Optional<Map<String, Object>> getSchema(String datasetName) {
+        return schemaRepository.findById(normalizeDatasetName(datasetName)).map(this::describe);
+    }
+
+    public boolean deleteSchema(String datasetName) {
+        String dataset = normalizeDatasetName(datasetName);
+        if (!schemaRepository.existsById(dataset)) {
+            return false;
+        }
+        schemaRepository.deleteById(dataset);
+        schemaCache.remove(dataset);
+        log.info("Deleted schema for dataset: {}", dataset);
+        return true;
+    }
+
+    public List<String> validate(String datasetName, Map<String, Object> recordData) {
+        Optional<CachedSchema> cached = cachedSchema(datasetName.trim().toLowerCase());
+        return cached.isPresent() ? cached.get().schema().validate(recordData) : List.of();
+    }
+
+    // Loads and compiles the schema ahead of the first ingest, e.g. during warm-up
+    public void preload(String datasetName) {
+        cachedSchema(datasetName.trim().toLowerCase());
+    }
+
+    // Drops cached schemas that were replaced or deleted elsewhere; unchanged ones stay compiled
+    @Scheduled(fixedDelayString = "${app.schemas.refresh-ms:30000}")
+    public void refreshSchemas() {
+        if (schemaCache.isEmpty()) {
+            return;
+        }
+        Map<String, Long> versions = new HashMap<>();
+        for (DatasetSchema schema : schemaRepository.findAll()) {
+            versions.put(schema.getDatasetName(), schema.getVersion());
+        }
+        schemaCache.entrySet().removeIf(entry -> !Objects.equals(
+                entry.getValue().map(CachedSchema::version).orElse(null), versions.get(entry.getKey())));
+    }
+
+    private Optional<CachedSchema> cachedSchema(String dataset) {
+        Optional<CachedSchema> cached = schemaCache.get(dataset);
+        if (cached == null) {
+            // Own transaction: the caller's may already be bound to the dataset's shard
+            cached = newTransaction().execute(status -> schemaRepository.findById(dataset)).map(this::compile);
+            schemaCache.put(dataset, cached);
+        }
+        return cached;
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+
+    private CachedSchema compile(DatasetSchema schema) {
+        try {
+            return new CachedSchema(schema.getVersion(),
+                    CompiledSchema.compile(objectMapper.readTree(schema.getSchemaJson())));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored schema is not valid JSON for dataset: " + schema.getDatasetName(), e);
+        }
+    }
+
+    private Map<String, Object> describe(DatasetSchema schema) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("dataset", schema.getDatasetName());
+        description.put("version", schema.getVersion());
+        description.put("updatedAt", schema.getUpdatedAt());
+        try {
+            description.put("schema", objectMapper.readValue(schema.getSchemaJson(), SCHEMA_TYPE));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored schema is not valid JSON for dataset: " + schema.getDatasetName(), e);
+        }
+        return description;
+    }
+
+    private static String normalizeDatasetName(String datasetName) {
+        if (datasetName == null || !StringUtils.hasText(datasetName.trim())) {
+            throw new IllegalArgumentException("Dataset name cannot be null or empty");
+        }
+        if (datasetName.trim().length() > 100) {
+            throw new IllegalArgumentException("Dataset name must be less than 100 characters");
+        }
+        return datasetName.trim().toLowerCase();
+    }
+}
@@ -8,9 +8,14 @@ import java.util.Map;
 public interface DatasetService {
     DatasetRecord insertRecord(String datasetName, Map<String, Object> recordData);
     List<DatasetRecord> insertRecords(String datasetName, List<Map<String, Object>> recordsData);
+    IngestResult ingestRecords(String datasetName, List<Map<String, Object>> recordsData);
     Map<String, List<Map<String, Object>>> groupRecordsByField(String datasetName, String groupByField);
     List<Map<String, Object>> sortRecordsByField(String datasetName, String sortByField, String order);
+    List<Map<String, Object>> sortRecordsByField(String datasetName, String sortByField, String order, Integer limit);
     List<Map<String, Object>> getAllRecords(String datasetName);
     Map<String, Object> getDatasetStats(String datasetName);
     List<Map<String, Object>> getAllDatasets();
+    Map<String, Object> getDistinctFieldValues(String datasetName, String fieldName, String afterValue, int limit);
+    List<DatasetRecord> getRecordsAfterId(String datasetName, Long afterId, int limit);
+    RawRecordWriter openRawRecords(String datasetName, String sortByField, String order, Integer limit);
 }
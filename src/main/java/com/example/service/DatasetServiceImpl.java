@@ -1,9 +1,13 @@
 package com.example.service;
 
 import com.example.entity.DatasetRecord;
-import com.example.repository.DatasetRecordRepository;
+import com.example.json.FieldPath;
+import com.example.profiling.RecordParsing;
+import com.example.storage.DatasetStorage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -18,7 +22,14 @@ import java.util.stream.Collectors;
 @Slf4j
 public class DatasetServiceImpl implements DatasetService{
 
-    private final DatasetRecordRepository repository;
+    private final DatasetStorage storage;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DatasetSchemaService schemaService;
+
+    private static final int MAX_SORT_LIMIT = 10_000;
+    private static final int MAX_INGEST_BATCH = 10_000;
+    // Stands in for a missing field when grouping, so it can be told apart from a JSON null
+    private static final Object MISSING = new Object();
 
     // Insert single record
     public DatasetRecord insertRecord(String datasetName, Map<String, Object> recordData) {
@@ -26,6 +37,11 @@ public class DatasetServiceImpl implements DatasetService{
 
         // Validation
         validateInput(datasetName, recordData);
+        List<String> schemaErrors = schemaService.validate(datasetName, recordData);
+        if (!schemaErrors.isEmpty()) {
+            throw new IllegalArgumentException("Record does not match the schema of dataset " + datasetName
+                    + ": " + String.join("; ", schemaErrors));
+        }
 
         try {
             // Create record using Lombok builder
@@ -37,7 +53,8 @@ public class DatasetServiceImpl implements DatasetService{
 
             record.setRecordDataFromMap(recordData);
 
-            DatasetRecord savedRecord = repository.save(record);
+            DatasetRecord savedRecord = storage.save(record);
+            eventPublisher.publishEvent(new RecordsInsertedEvent(savedRecord.getDatasetName(), List.of(savedRecord)));
 
             log.info("Successfully inserted record ID: {} into dataset: {} with {} fields",
                     savedRecord.getId(), datasetName, recordData.size());
@@ -74,7 +91,8 @@ public class DatasetServiceImpl implements DatasetService{
                     })
                     .collect(Collectors.toList());
 
-            List<DatasetRecord> savedRecords = repository.saveAll(records);
+            List<DatasetRecord> savedRecords = storage.saveAll(records);
+            eventPublisher.publishEvent(new RecordsInsertedEvent(datasetName.trim().toLowerCase(), savedRecords));
 
             log.info("Successfully batch inserted {} records into dataset: {}",
                     savedRecords.size(), datasetName);
@@ -86,7 +104,43 @@ public class DatasetServiceImpl implements DatasetService{
             throw new RuntimeException("Batch insert failed: " + e.getMessage(), e);
         }
     }
+
+    // Checks each record on its own; the ones that pass are stored even when others are rejected
+    public IngestResult ingestRecords(String datasetName, List<Map<String, Object>> recordsData) {
+        validateDatasetName(datasetName);
+        if (datasetName.trim().length() > 100) {
+            throw new IllegalArgumentException("Dataset name must be less than 100 characters");
+        }
+        if (recordsData == null || recordsData.isEmpty()) {
+            throw new IllegalArgumentException("Records data cannot be null or empty");
+        }
+        if (recordsData.size() > MAX_INGEST_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_INGEST_BATCH + " records can be ingested at once");
+        }
+
+        List<Map<String, Object>> accepted = new ArrayList<>(recordsData.size());
+        List<IngestResult.RejectedRecord> rejected = new ArrayList<>();
+        for (int i = 0; i < recordsData.size(); i++) {
+            Map<String, Object> recordData = recordsData.get(i);
+            List<String> errors = recordData == null || recordData.isEmpty()
+                    ? List.of("Record data cannot be null or empty")
+                    : schemaService.validate(datasetName, recordData);
+            if (errors.isEmpty()) {
+                accepted.add(recordData);
+            } else {
+                rejected.add(new IngestResult.RejectedRecord(i, errors));
+            }
+        }
+        if (!rejected.isEmpty()) {
+            log.warn("Rejected {} of {} records for dataset: {}", rejected.size(), recordsData.size(), datasetName);
+        }
+
+        List<DatasetRecord> inserted = accepted.isEmpty() ? List.of() : insertRecords(datasetName, accepted);
+        return new IngestResult(inserted, rejected);
+    }
+
     // Group records by field
+    @Transactional(readOnly = true)
     public Map<String, List<Map<String, Object>>> groupRecordsByField(String datasetName, String groupByField) {
         log.info("Grouping records by field '{}' for dataset: {}", groupByField, datasetName);
 
@@ -94,24 +148,22 @@ public class DatasetServiceImpl implements DatasetService{
         validateFieldName(groupByField);
 
         try {
-            List<DatasetRecord> records = repository.findByDatasetName(datasetName.toLowerCase());
+            List<DatasetRecord> records = storage.findByDatasetName(datasetName.toLowerCase());
 
             if (records.isEmpty()) {
                 log.warn("No records found for dataset: {}", datasetName);
                 return new LinkedHashMap<>();
             }
 
-            Map<String, List<Map<String, Object>>> groupedRecords = records.stream()
-                    .map(DatasetRecord::getRecordDataAsMap)
-                    .filter(data -> data.containsKey(groupByField))
-                    .collect(Collectors.groupingBy(
-                            data -> {
-                                Object value = data.get(groupByField);
-                                return value != null ? String.valueOf(value) : "null";
-                            },
-                            LinkedHashMap::new,
-                            Collectors.toList()
-                    ));
+            FieldPath path = FieldPath.of(groupByField);
+            Map<String, List<Map<String, Object>>> groupedRecords = new LinkedHashMap<>();
+            for (Map<String, Object> data : RecordParsing.toMaps(datasetName, records)) {
+                Object value = path.getOrDefault(data, MISSING);
+                if (value != MISSING) {
+                    groupedRecords.computeIfAbsent(value != null ? String.valueOf(value) : "null",
+                            key -> new ArrayList<>()).add(data);
+                }
+            }
 
             log.info("Successfully grouped {} records into {} groups for dataset: {}",
                     records.size(), groupedRecords.size(), datasetName);
@@ -125,30 +177,43 @@ public class DatasetServiceImpl implements DatasetService{
     }
 
     // Sort records by field
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> sortRecordsByField(String datasetName, String sortByField, String order) {
-        log.info("Sorting records by field '{}' ({}) for dataset: {}", sortByField, order, datasetName);
+        return sortRecordsByField(datasetName, sortByField, order, null);
+    }
+
+    // Sort records by field, keeping only the first `limit` records when a limit is given
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> sortRecordsByField(String datasetName, String sortByField, String order, Integer limit) {
+        log.info("Sorting records by field '{}' ({}, limit {}) for dataset: {}", sortByField, order, limit, datasetName);
 
         validateDatasetName(datasetName);
         validateFieldName(sortByField);
+        if (limit != null && (limit < 1 || limit > MAX_SORT_LIMIT)) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SORT_LIMIT);
+        }
+
+        boolean descending = "desc".equalsIgnoreCase(order) || "descending".equalsIgnoreCase(order);
 
         try {
             List<DatasetRecord> records;
 
-            if ("desc".equalsIgnoreCase(order) || "descending".equalsIgnoreCase(order)) {
-                records = repository.findByDatasetNameSortedByJsonFieldDesc(datasetName.toLowerCase(), sortByField);
+            if (limit != null) {
+                records = descending
+                        ? storage.findTopByDatasetNameSortedByJsonFieldDesc(datasetName.toLowerCase(), sortByField, limit)
+                        : storage.findTopByDatasetNameSortedByJsonFieldAsc(datasetName.toLowerCase(), sortByField, limit);
+            } else if (descending) {
+                records = storage.findByDatasetNameSortedByJsonFieldDesc(datasetName.toLowerCase(), sortByField);
             } else {
-                records = repository.findByDatasetNameSortedByJsonFieldAsc(datasetName.toLowerCase(), sortByField);
+                records = storage.findByDatasetNameSortedByJsonFieldAsc(datasetName.toLowerCase(), sortByField);
             }
 
             if (records == null || records.isEmpty()) { // ← FIXED: Check for empty
                 return Collections.emptyList();
             }
 
-            List<Map<String, Object>> result = records.stream()
-                    .filter(record -> record.getRecordData() != null) // ← FIXED: Filter null JSON
-                    .map(DatasetRecord::getRecordDataAsMap)
-                    .filter(data -> data.containsKey(sortByField))
-                    .collect(Collectors.toList());
+            // Both stores leave out records where the path is missing or JSON null
+            List<Map<String, Object>> result = RecordParsing.toMaps(datasetName, records);
 
             log.info("Successfully sorted {} records by field '{}' for dataset: {}",
                     result.size(), sortByField, datasetName);
@@ -161,22 +226,49 @@ public class DatasetServiceImpl implements DatasetService{
         }
     }
 
+    // Stored documents copied to the output as they are, without building maps; sortBy is optional
+    public RawRecordWriter openRawRecords(String datasetName, String sortByField, String order, Integer limit) {
+        validateDatasetName(datasetName);
+        String sortField = StringUtils.hasText(sortByField) ? sortByField : null;
+        if (sortField != null) {
+            validateFieldName(sortField);
+            if (limit != null && (limit < 1 || limit > MAX_SORT_LIMIT)) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SORT_LIMIT);
+            }
+        }
+        boolean descending = "desc".equalsIgnoreCase(order) || "descending".equalsIgnoreCase(order);
+        Integer sortLimit = sortField != null ? limit : null;
+        String name = datasetName.toLowerCase();
+
+        return out -> {
+            long[] written = {0};
+            out.write('[');
+            storage.streamRecordJson(name, sortField, descending, sortLimit, json -> {
+                if (written[0]++ > 0) {
+                    out.write(',');
+                }
+                json.transferTo(out);
+            });
+            out.write(']');
+            log.info("Streamed {} raw records for dataset: {}", written[0], datasetName);
+            return written[0];
+        };
+    }
+
     // Get all records
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getAllRecords(String datasetName) {
         log.info("Retrieving all records for dataset: {}", datasetName);
 
         validateDatasetName(datasetName);
 
         try {
-            List<DatasetRecord> records = repository.findByDatasetName(datasetName.toLowerCase());
+            List<DatasetRecord> records = storage.findByDatasetName(datasetName.toLowerCase());
             if (records == null || records.isEmpty()) { // ← FIXED: Check for empty
                 return Collections.emptyList();
             }
 
-            List<Map<String, Object>> result = records.stream()
-                    .filter(record -> record.getRecordData() != null) // ← FIXED: Filter null JSON
-                    .map(DatasetRecord::getRecordDataAsMap)
-                    .collect(Collectors.toList());
+            List<Map<String, Object>> result = RecordParsing.toMaps(datasetName, records);
 
             log.info("Retrieved {} records for dataset: {}", result.size(), datasetName);
             return result;
@@ -188,13 +280,14 @@ public class DatasetServiceImpl implements DatasetService{
     }
 
     // Get dataset statistics
+    @Transactional(readOnly = true)
     public Map<String, Object> getDatasetStats(String datasetName) {
         log.info("Generating statistics for dataset: {}", datasetName);
 
         validateDatasetName(datasetName);
 
         try {
-            long totalRecords = repository.countByDatasetName(datasetName.toLowerCase());
+            long totalRecords = storage.countByDatasetName(datasetName.toLowerCase());
             Map<String, Object> stats = new LinkedHashMap<>();
 
             stats.put("dataset", datasetName);
@@ -202,7 +295,7 @@ public class DatasetServiceImpl implements DatasetService{
             stats.put("exists", totalRecords > 0);
 
             if (totalRecords > 0) {
-                List<DatasetRecord> sampleRecords = repository.findByDatasetName(datasetName.toLowerCase())
+                List<DatasetRecord> sampleRecords = storage.findByDatasetName(datasetName.toLowerCase())
                         .stream()
                         .filter(record -> record.getRecordData() != null) // ← FIXED: Filter null JSON
                         .limit(100)
@@ -242,17 +335,16 @@ public class DatasetServiceImpl implements DatasetService{
     }
 
     // Get all datasets
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getAllDatasets() {
         log.info("Retrieving all datasets with metadata");
 
         try {
-            List<String> datasetNames = repository.findDistinctDatasetNames();
-
-            List<Map<String, Object>> datasets = datasetNames.stream()
-                    .map(name -> {
+            List<Map<String, Object>> datasets = storage.countRecordsPerDataset().stream()
+                    .map(row -> {
                         Map<String, Object> info = new LinkedHashMap<>();
-                        info.put("name", name);
-                        info.put("recordCount", repository.countByDatasetName(name));
+                        info.put("name", row[0]);
+                        info.put("recordCount", ((Number) row[1]).longValue());
                         return info;
                     })
                     .collect(Collectors.toList());
@@ -266,6 +358,50 @@ public class DatasetServiceImpl implements DatasetService{
         }
     }
 
+    // Get one page of distinct values of a field, in value order
+    @Transactional(readOnly = true)
+    public Map<String, Object> getDistinctFieldValues(String datasetName, String fieldName, String afterValue, int limit) {
+        log.info("Retrieving distinct values of field '{}' after '{}' for dataset: {}", fieldName, afterValue, datasetName);
+
+        validateDatasetName(datasetName);
+        validateFieldName(fieldName);
+        int pageSize = Math.max(1, Math.min(limit, 1000));
+
+        try {
+            List<String> values = afterValue == null
+                    ? storage.findDistinctJsonFieldValuesFirstPage(datasetName.toLowerCase(), fieldName, pageSize)
+                    : storage.findDistinctJsonFieldValuesAfter(datasetName.toLowerCase(), fieldName, afterValue, pageSize);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("dataset", datasetName);
+            result.put("field", fieldName);
+            result.put("mode", "exact");
+            result.put("values", values);
+            result.put("count", values.size());
+            result.put("nextCursor", values.size() == pageSize ? values.get(values.size() - 1) : null);
+            return result;
+
+        } catch (Exception e) {
+            log.error("Failed to retrieve distinct values for dataset: {} field: {}", datasetName, fieldName, e);
+            throw new RuntimeException("Failed to retrieve distinct values: " + e.getMessage(), e);
+        }
+    }
+
+    // Get records inserted after a given id, oldest first
+    @Transactional(readOnly = true)
+    public List<DatasetRecord> getRecordsAfterId(String datasetName, Long afterId, int limit) {
+        validateDatasetName(datasetName);
+
+        try {
+            return storage.findByDatasetNameAndIdGreaterThanOrderByIdAsc(
+                    datasetName.trim().toLowerCase(), afterId != null ? afterId : 0L, Limit.of(limit));
+
+        } catch (Exception e) {
+            log.error("Failed to retrieve records after id {} for dataset: {}", afterId, datasetName, e);
+            throw new RuntimeException("Failed to retrieve records: " + e.getMessage(), e);
+        }
+    }
+
     // Validation methods
     private void validateInput(String datasetName, Map<String, Object> recordData) {
         if (datasetName == null || !StringUtils.hasText(datasetName.trim())) {
@@ -287,9 +423,11 @@ public class DatasetServiceImpl implements DatasetService{
         }
     }
 
+    // Compiling the path up front rejects malformed paths as validation errors
     private void validateFieldName(String fieldName) {
         if (!StringUtils.hasText(fieldName)) {
             throw new IllegalArgumentException("Field name cannot be null or empty");
         }
+        FieldPath.of(fieldName);
     }
 }
@@ -0,0 +1,31 @@
+package com.example.service;
+
+import com.example.storage.DatasetStorage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-dataset change versions, read from the store where every insert and delete moves them in
+ * the same commit as the records. A read that observed version N of a dataset is guaranteed stale
+ * once the version moves past N, on whichever instance the write went through, so versions can be
+ * handed to clients (such as in ETags) and used as coalescing keys. The global version moves with
+ * any dataset, for cross-dataset reads such as the dataset list.
+ */
+@Component
+@RequiredArgsConstructor
+public class DatasetVersionTracker {
+
+    private final DatasetStorage storage;
+
+    public long getVersion(String datasetName) {
+        return storage.getVersion(normalize(datasetName));
+    }
+
+    public long getGlobalVersion() {
+        return storage.getTotalVersion();
+    }
+
+    private String normalize(String datasetName) {
+        return datasetName == null ? "" : datasetName.trim().toLowerCase();
+    }
+}
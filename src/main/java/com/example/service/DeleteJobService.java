@@ -0,0 +1,14 @@
+package com.example.service;
+
+import com.example.entity.DeleteJob;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DeleteJobService {
+    DeleteJob submitDatasetDeletion(String datasetName);
+    DeleteJob submitOldRecordsDeletion(String datasetName, LocalDateTime cutoffDate);
+    DeleteJob getJob(Long jobId);
+    List<DeleteJob> getJobsForDataset(String datasetName);
+    DeleteJob cancelJob(Long jobId);
+}
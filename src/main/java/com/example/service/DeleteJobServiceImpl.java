@@ -0,0 +1,303 @@
+package com.example.service;
+
+import com.example.entity.DeleteJob;
+import com.example.repository.DeleteJobRepository;
+import com.example.storage.DatasetStorage;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs dataset deletions in the background as a sequence of small primary-key-range chunks.
+ * Progress is recorded after each chunk commits, in its own statement because the job row and
+ * the records may live in different databases; a crash in between only repeats a range that
+ * is already empty. An instance claims a job with a lease it renews on every chunk, and every
+ * status change is a conditional update, so a cancel always wins and a job whose owner died is
+ * taken over by another instance once the lease lapses.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeleteJobServiceImpl implements DeleteJobService {
+
+    private final DeleteJobRepository jobRepository;
+    private final DatasetStorage recordStorage;
+    private final PlatformTransactionManager transactionManager;
+    private final DataSource dataSource;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.delete-jobs.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${app.delete-jobs.max-chunks-per-second:5}")
+    private double maxChunksPerSecond = 5;
+
+    @Value("${app.delete-jobs.busy-backoff-ms:250}")
+    private long busyBackoffMs = 250;
+
+    // Renewed on every chunk; must exceed the longest pause between chunks (foreground backoff is capped at 30s)
+    @Value("${app.delete-jobs.lease-ms:120000}")
+    private long leaseMs = 120000;
+
+    private final String owner = instanceId();
+
+    // Jobs already queued on this instance, so the periodic sweep does not enqueue them twice
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dataset-delete-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DeleteJob submitDatasetDeletion(String datasetName) {
+        validateDatasetName(datasetName);
+        String normalizedName = datasetName.trim().toLowerCase();
+
+        DeleteJob job = jobRepository.save(DeleteJob.builder()
+                .datasetName(normalizedName)
+                .estimatedTotal(recordStorage.countByDatasetName(normalizedName))
+                .build());
+
+        log.info("Submitted delete job ID: {} for dataset: {} (~{} records)",
+                job.getId(), normalizedName, job.getEstimatedTotal());
+        schedule(job.getId());
+        return job;
+    }
+
+    public DeleteJob submitOldRecordsDeletion(String datasetName, LocalDateTime cutoffDate) {
+        validateDatasetName(datasetName);
+        if (cutoffDate == null) {
+            throw new IllegalArgumentException("Cutoff date cannot be null");
+        }
+        String normalizedName = datasetName.trim().toLowerCase();
+
+        DeleteJob job = jobRepository.save(DeleteJob.builder()
+                .datasetName(normalizedName)
+                .cutoffDate(cutoffDate)
+                .estimatedTotal(recordStorage.countByDatasetNameAndCreatedAtBefore(normalizedName, cutoffDate))
+                .build());
+
+        log.info("Submitted delete job ID: {} for records older than {} in dataset: {} (~{} records)",
+                job.getId(), cutoffDate, normalizedName, job.getEstimatedTotal());
+        schedule(job.getId());
+        return job;
+    }
+
+    public DeleteJob getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("Delete job not found: " + jobId));
+    }
+
+    public List<DeleteJob> getJobsForDataset(String datasetName) {
+        validateDatasetName(datasetName);
+        return jobRepository.findByDatasetNameOrderByIdDesc(datasetName.trim().toLowerCase());
+    }
+
+    public DeleteJob cancelJob(Long jobId) {
+        DeleteJob job = getJob(jobId);
+        // Conditional, so a worker's next progress update sees the cancel instead of overwriting it
+        if (!job.isFinished() && jobRepository.cancel(jobId, LocalDateTime.now()) > 0) {
+            log.info("Cancelled delete job ID: {} for dataset: {}", jobId, job.getDatasetName());
+            job = getJob(jobId);
+        }
+        return job;
+    }
+
+    // Pick up jobs interrupted by a shutdown or crash; jobs another live instance holds fail the claim
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        List<DeleteJob> claimable = jobRepository.findByStatusInOrderByIdAsc(
+                        EnumSet.of(DeleteJob.Status.PENDING, DeleteJob.Status.RUNNING)).stream()
+                .filter(job -> job.getStatus() == DeleteJob.Status.PENDING
+                        || owner.equals(job.getOwner())
+                        || job.getLeaseExpiresAt() == null
+                        || job.getLeaseExpiresAt().isBefore(now))
+                .filter(job -> !queued.contains(job.getId()))
+                .toList();
+        if (!claimable.isEmpty()) {
+            log.info("Resuming {} unfinished delete jobs", claimable.size());
+        }
+        claimable.forEach(job -> schedule(job.getId()));
+    }
+
+    // Jobs whose owner died mid-run become claimable once their lease lapses
+    @Scheduled(initialDelayString = "${app.delete-jobs.lease-ms:120000}",
+            fixedDelayString = "${app.delete-jobs.lease-ms:120000}")
+    public void takeOverExpiredJobs() {
+        resumeUnfinishedJobs();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void schedule(Long jobId) {
+        if (queued.add(jobId)) {
+            worker.submit(() -> {
+                try {
+                    runJob(jobId);
+                } finally {
+                    queued.remove(jobId);
+                }
+            });
+        }
+    }
+
+    void runJob(Long jobId) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long minChunkIntervalMs = maxChunksPerSecond > 0 ? (long) (1000 / maxChunksPerSecond) : 0;
+
+        try {
+            if (jobRepository.claim(jobId, owner, leaseExpiry(), LocalDateTime.now()) == 0) {
+                log.debug("Delete job ID: {} is finished or held by another instance", jobId);
+                return;
+            }
+            // Read after the claim so a take-over resumes from the previous owner's last recorded chunk
+            DeleteJob job = getJob(jobId);
+            long lastDeletedId = job.getLastDeletedId();
+            long deletedCount = job.getDeletedCount();
+
+            while (!Thread.currentThread().isInterrupted()) {
+                long chunkStart = System.currentTimeMillis();
+
+                waitForForegroundCapacity();
+
+                // Also observes a cancel, or a take-over after this instance stalled past its lease
+                if (jobRepository.renewLease(jobId, owner, leaseExpiry(), LocalDateTime.now()) == 0) {
+                    log.info("Delete job ID: {} stopped after {} records (cancelled or taken over)",
+                            jobId, deletedCount);
+                    return;
+                }
+
+                List<Long> ids = job.getCutoffDate() == null
+                        ? recordStorage.findIdChunk(job.getDatasetName(), lastDeletedId, chunkSize)
+                        : recordStorage.findIdChunkCreatedBefore(
+                                job.getDatasetName(), lastDeletedId, job.getCutoffDate(), chunkSize);
+
+                if (ids.isEmpty()) {
+                    if (jobRepository.finish(jobId, owner, DeleteJob.Status.COMPLETED, null, LocalDateTime.now()) > 0) {
+                        log.info("Delete job ID: {} completed, {} records removed from dataset: {}",
+                                jobId, deletedCount, job.getDatasetName());
+                    }
+                    return;
+                }
+
+                DeleteJob current = job;
+                Long fromId = ids.get(0);
+                Long toId = ids.get(ids.size() - 1);
+                Integer deleted = transactionTemplate.execute(status -> {
+                    int count = current.getCutoffDate() == null
+                            ? recordStorage.deleteIdRange(current.getDatasetName(), fromId, toId)
+                            : recordStorage.deleteIdRangeCreatedBefore(
+                                    current.getDatasetName(), fromId, toId, current.getCutoffDate());
+                    eventPublisher.publishEvent(new RecordsDeletedEvent(
+                            current.getDatasetName(), fromId, toId, current.getCutoffDate(), count));
+                    return count;
+                });
+
+                int removed = deleted != null ? deleted : 0;
+                lastDeletedId = toId;
+                deletedCount += removed;
+                if (jobRepository.recordProgress(jobId, owner, toId, removed, leaseExpiry(), LocalDateTime.now()) == 0) {
+                    log.info("Delete job ID: {} stopped after {} records (cancelled or taken over)",
+                            jobId, deletedCount);
+                    return;
+                }
+
+                log.debug("Delete job ID: {} removed ids {}..{} ({} total)", jobId, fromId, toId, deletedCount);
+
+                long elapsed = System.currentTimeMillis() - chunkStart;
+                if (elapsed < minChunkIntervalMs) {
+                    Thread.sleep(minChunkIntervalMs - elapsed);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Delete job ID: {} interrupted, it resumes here or elsewhere once its lease lapses", jobId);
+        } catch (Exception e) {
+            log.error("Delete job ID: {} failed", jobId, e);
+            String message = String.valueOf(e.getMessage());
+            try {
+                jobRepository.finish(jobId, owner, DeleteJob.Status.FAILED,
+                        message.length() > 1000 ? message.substring(0, 1000) : message, LocalDateTime.now());
+            } catch (Exception recordFailure) {
+                log.warn("Could not record failure of delete job ID: {}; it is retried once its lease lapses",
+                        jobId, recordFailure);
+            }
+        }
+    }
+
+    private LocalDateTime leaseExpiry() {
+        return LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(leaseMs));
+    }
+
+    private static String instanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        String id = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+        return id.length() > 100 ? id.substring(id.length() - 100) : id;
+    }
+
+    // Back off while request threads are queuing for a connection so deletes never starve foreground traffic
+    private void waitForForegroundCapacity() throws InterruptedException {
+        HikariPoolMXBean pool = hikariPool();
+        if (pool == null) {
+            return;
+        }
+        long waitedMs = 0;
+        while (pool.getThreadsAwaitingConnection() > 0 && waitedMs < TimeUnit.SECONDS.toMillis(30)) {
+            Thread.sleep(busyBackoffMs);
+            waitedMs += busyBackoffMs;
+        }
+        if (waitedMs > 0) {
+            log.debug("Delete worker yielded {} ms to foreground traffic", waitedMs);
+        }
+    }
+
+    private HikariPoolMXBean hikariPool() {
+        try {
+            if (dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            }
+        } catch (Exception e) {
+            log.debug("Connection pool metrics unavailable for delete throttling", e);
+        }
+        return null;
+    }
+
+    private void validateDatasetName(String datasetName) {
+        if (datasetName == null || !StringUtils.hasText(datasetName.trim())) {
+            throw new IllegalArgumentException("Dataset name cannot be null or empty");
+        }
+    }
+}
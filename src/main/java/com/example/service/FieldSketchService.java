@@ -0,0 +1,9 @@
+package com.example.service;
+
+import java.util.Map;
+
+public interface FieldSketchService {
+    Map<String, Object> getApproximateDistinct(String datasetName, String fieldName, int top);
+    boolean rebuildSketches(String datasetName);
+    void flushDirtySketches();
+}
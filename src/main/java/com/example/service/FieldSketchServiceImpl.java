@@ -0,0 +1,434 @@
+package com.example.service;
+
+import com.example.entity.DatasetRecord;
+import com.example.entity.FieldSketch;
+import com.example.repository.FieldSketchRepository;
+import com.example.sketch.HyperLogLog;
+import com.example.sketch.SpaceSavingTopK;
+import com.example.storage.DatasetStorage;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a HyperLogLog and a Space-Saving sketch per (dataset, top-level field), updated from
+ * committed inserts and periodically persisted to {@code field_sketches}. Sketches only grow:
+ * deletes are not subtracted, so a rebuild is the way to re-baseline after large purges.
+ * When several instances write the same sketch, HyperLogLog registers are merged on flush while
+ * top-value counters are last-writer-wins.
+ *
+ * <p>At most {@code app.sketches.max-in-memory} sketches are kept in memory; beyond that the
+ * least recently used ones that are already persisted are evicted and reloaded on demand, so
+ * only sketches changed since the last flush can push past the limit. Inserts committed while a
+ * dataset is rebuilt are buffered and those the rebuild scan did not reach are folded into the
+ * rebuilt sketches before they replace the live ones.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FieldSketchServiceImpl implements FieldSketchService {
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+    private static final TypeReference<List<List<Object>>> TOP_VALUES_TYPE = new TypeReference<>() {
+    };
+
+    private final FieldSketchRepository sketchRepository;
+    private final DatasetStorage recordStorage;
+    private final PlatformTransactionManager transactionManager;
+    private final PostCommitExecutor postCommitExecutor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${app.sketches.top-k-capacity:200}")
+    private int topKCapacity = 200;
+
+    @Value("${app.sketches.max-in-memory:10000}")
+    private int maxInMemory = 10000;
+
+    private final Map<SketchKey, SketchState> states = new ConcurrentHashMap<>();
+    private final Map<String, RebuildBacklog> rebuildBacklogs = new ConcurrentHashMap<>();
+    private final Set<String> rebuilding = ConcurrentHashMap.newKeySet();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "field-sketch-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    record SketchKey(String datasetName, String fieldName) {
+    }
+
+    static final class SketchState {
+        private final HyperLogLog hll;
+        private final SpaceSavingTopK topK;
+        private boolean dirty;
+        private boolean evicted;
+        private LocalDateTime updatedAt;
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        SketchState(HyperLogLog hll, SpaceSavingTopK topK, LocalDateTime updatedAt) {
+            this.hll = hll;
+            this.topK = topK;
+            this.updatedAt = updatedAt;
+        }
+
+        // False once evicted, so the caller loads a fresh copy instead of updating a detached one
+        synchronized boolean add(String value) {
+            if (evicted) {
+                return false;
+            }
+            hll.add(value);
+            topK.add(value);
+            dirty = true;
+            updatedAt = LocalDateTime.now();
+            lastUsedNanos = System.nanoTime();
+            return true;
+        }
+    }
+
+    // Inserts committed while a dataset is rebuilt; closed once the rebuilt sketches are swapped in
+    private static final class RebuildBacklog {
+        private final List<DatasetRecord> records = new ArrayList<>();
+        private boolean closed;
+    }
+
+    public Map<String, Object> getApproximateDistinct(String datasetName, String fieldName, int top) {
+        validateDatasetName(datasetName);
+        if (!StringUtils.hasText(fieldName)) {
+            throw new IllegalArgumentException("Field name cannot be null or empty");
+        }
+
+        SketchKey key = new SketchKey(datasetName.trim().toLowerCase(), fieldName);
+        SketchState state = states.get(key);
+        if (state == null) {
+            state = sketchRepository.findByDatasetNameAndFieldName(key.datasetName(), key.fieldName())
+                    .map(this::fromEntity)
+                    .orElse(null);
+            if (state != null) {
+                // Evict before inserting, so the sketch just loaded is not itself the eviction candidate
+                evictIfOverCapacity();
+                SketchState existing = states.putIfAbsent(key, state);
+                state = existing != null ? existing : state;
+            }
+        }
+        if (state != null) {
+            state.lastUsedNanos = System.nanoTime();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("dataset", key.datasetName());
+        result.put("field", fieldName);
+        result.put("mode", "approximate");
+        if (state == null) {
+            result.put("distinctCount", 0L);
+            result.put("observedValues", 0L);
+            result.put("topValues", Collections.emptyList());
+            result.put("message", "No sketch recorded for this field yet");
+            return result;
+        }
+
+        synchronized (state) {
+            result.put("distinctCount", state.hll.estimate());
+            result.put("relativeError", 1.04 / Math.sqrt(1 << HyperLogLog.DEFAULT_PRECISION));
+            result.put("observedValues", state.topK.getTotal());
+            result.put("topValues", state.topK.top(Math.max(1, top)).stream()
+                    .map(entry -> {
+                        Map<String, Object> value = new LinkedHashMap<>();
+                        value.put("value", entry.value());
+                        value.put("count", entry.count());
+                        value.put("maxError", entry.error());
+                        return value;
+                    })
+                    .toList());
+            result.put("updatedAt", state.updatedAt);
+        }
+        return result;
+    }
+
+    public boolean rebuildSketches(String datasetName) {
+        validateDatasetName(datasetName);
+        String dataset = datasetName.trim().toLowerCase();
+        if (!rebuilding.add(dataset)) {
+            return false;
+        }
+        rebuildExecutor.submit(() -> {
+            try {
+                rebuild(dataset);
+            } catch (Exception e) {
+                log.error("Field sketch rebuild failed for dataset: {}", dataset, e);
+            } finally {
+                rebuilding.remove(dataset);
+            }
+        });
+        return true;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecordsInserted(RecordsInsertedEvent event) {
+        postCommitExecutor.execute(event.datasetName(), "field-sketches", () -> {
+            try {
+                RebuildBacklog backlog = rebuildBacklogs.get(event.datasetName());
+                if (backlog == null) {
+                    apply(event.records());
+                    return;
+                }
+                // Buffer and apply together, so the records land either before the swap (and are
+                // folded into the rebuilt sketches) or after it, never in both
+                synchronized (backlog) {
+                    if (!backlog.closed) {
+                        backlog.records.addAll(event.records());
+                    }
+                    apply(event.records());
+                }
+            } catch (Exception e) {
+                log.error("Failed to update field sketches for dataset: {}", event.datasetName(), e);
+            }
+        }, () -> rebuildSketches(event.datasetName()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.sketches.flush-interval-ms:10000}")
+    public void flushDirtySketches() {
+        TransactionTemplate transactionTemplate = newTransaction();
+        int flushed = 0;
+        for (Map.Entry<SketchKey, SketchState> entry : states.entrySet()) {
+            SketchState state = entry.getValue();
+            byte[] registers;
+            List<SpaceSavingTopK.Entry> topEntries;
+            long total;
+            LocalDateTime updatedAt;
+            synchronized (state) {
+                if (!state.dirty) {
+                    continue;
+                }
+                registers = state.hll.toRegisters();
+                topEntries = state.topK.entries();
+                total = state.topK.getTotal();
+                updatedAt = state.updatedAt;
+                state.dirty = false;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        persist(entry.getKey(), registers, topEntries, total, updatedAt));
+                flushed++;
+            } catch (Exception e) {
+                log.error("Failed to persist field sketch for {}", entry.getKey(), e);
+                synchronized (state) {
+                    state.dirty = true;
+                }
+            }
+        }
+        if (flushed > 0) {
+            log.debug("Persisted {} field sketches", flushed);
+        }
+        evictIfOverCapacity();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+        flushDirtySketches();
+    }
+
+    private void apply(List<DatasetRecord> records) {
+        for (DatasetRecord record : records) {
+            if (record.getRecordData() == null) {
+                continue;
+            }
+            for (Map.Entry<String, Object> entry : record.getRecordDataAsMap().entrySet()) {
+                String value = sketchValue(entry.getValue());
+                if (value != null && entry.getKey().length() <= 100) {
+                    SketchKey key = new SketchKey(record.getDatasetName(), entry.getKey());
+                    while (!stateFor(key).add(value)) {
+                        // Evicted between lookup and update; the next lookup reloads it
+                    }
+                }
+            }
+        }
+    }
+
+    private SketchState stateFor(SketchKey key) {
+        SketchState state = states.get(key);
+        if (state != null) {
+            return state;
+        }
+        // Load outside computeIfAbsent so the database round trip does not hold a map bin lock
+        SketchState loaded = sketchRepository.findByDatasetNameAndFieldName(key.datasetName(), key.fieldName())
+                .map(this::fromEntity)
+                .orElseGet(() -> new SketchState(new HyperLogLog(), new SpaceSavingTopK(topKCapacity), LocalDateTime.now()));
+        evictIfOverCapacity();
+        SketchState existing = states.putIfAbsent(key, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    // Drops the least recently used persisted sketches, a tenth below the limit so this does not run on every new key
+    private void evictIfOverCapacity() {
+        int excess = states.size() - maxInMemory;
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<SketchKey, SketchState>> candidates = states.entrySet().stream()
+                .filter(entry -> !entry.getValue().dirty)
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().lastUsedNanos))
+                .limit(excess + maxInMemory / 10)
+                .toList();
+        int evicted = 0;
+        for (Map.Entry<SketchKey, SketchState> entry : candidates) {
+            SketchState state = entry.getValue();
+            synchronized (state) {
+                if (!state.dirty && states.remove(entry.getKey(), state)) {
+                    state.evicted = true;
+                    evicted++;
+                }
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} persisted field sketches from memory", evicted);
+        }
+    }
+
+    private void persist(SketchKey key, byte[] registers, List<SpaceSavingTopK.Entry> topEntries,
+                         long total, LocalDateTime updatedAt) {
+        FieldSketch sketch = sketchRepository.findByDatasetNameAndFieldName(key.datasetName(), key.fieldName())
+                .orElseGet(() -> FieldSketch.builder()
+                        .datasetName(key.datasetName())
+                        .fieldName(key.fieldName())
+                        .build());
+
+        HyperLogLog merged = HyperLogLog.fromRegisters(registers);
+        if (sketch.getHllRegisters() != null && sketch.getHllRegisters().length == registers.length) {
+            merged.merge(HyperLogLog.fromRegisters(sketch.getHllRegisters()));
+        }
+
+        try {
+            List<List<Object>> encoded = topEntries.stream()
+                    .map(entry -> List.<Object>of(entry.value(), entry.count(), entry.error()))
+                    .toList();
+            sketch.setTopValues(objectMapper.writeValueAsString(encoded));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize top values for " + key, e);
+        }
+        sketch.setHllRegisters(merged.toRegisters());
+        sketch.setObservedCount(total);
+        sketch.setUpdatedAt(updatedAt);
+        sketchRepository.save(sketch);
+    }
+
+    private SketchState fromEntity(FieldSketch sketch) {
+        try {
+            List<SpaceSavingTopK.Entry> entries = objectMapper.readValue(sketch.getTopValues(), TOP_VALUES_TYPE).stream()
+                    .map(triple -> new SpaceSavingTopK.Entry(String.valueOf(triple.get(0)),
+                            ((Number) triple.get(1)).longValue(), ((Number) triple.get(2)).longValue()))
+                    .toList();
+            return new SketchState(
+                    HyperLogLog.fromRegisters(sketch.getHllRegisters()),
+                    SpaceSavingTopK.fromEntries(Math.max(topKCapacity, entries.size()), sketch.getObservedCount(), entries),
+                    sketch.getUpdatedAt());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read field sketch for dataset: " + sketch.getDatasetName()
+                    + ", field: " + sketch.getFieldName(), e);
+        }
+    }
+
+    void rebuild(String dataset) {
+        log.info("Rebuilding field sketches for dataset: {}", dataset);
+        Map<SketchKey, SketchState> rebuilt = new HashMap<>();
+        RebuildBacklog backlog = new RebuildBacklog();
+        rebuildBacklogs.put(dataset, backlog);
+
+        try {
+            long lastId = 0;
+            long scanned = 0;
+            List<DatasetRecord> page;
+            do {
+                page = recordStorage.findByDatasetNameAndIdGreaterThanOrderByIdAsc(dataset, lastId, Limit.of(REBUILD_PAGE_SIZE));
+                for (DatasetRecord record : page) {
+                    fold(dataset, record, rebuilt);
+                    lastId = record.getId();
+                }
+                scanned += page.size();
+            } while (page.size() == REBUILD_PAGE_SIZE);
+
+            synchronized (backlog) {
+                backlog.closed = true;
+                // Inserts the scan already saw are skipped; ids are assigned in insert order
+                long scannedUpTo = lastId;
+                backlog.records.stream()
+                        .filter(record -> record.getId() != null && record.getId() > scannedUpTo)
+                        .forEach(record -> fold(dataset, record, rebuilt));
+                states.entrySet().removeIf(entry -> {
+                    if (!entry.getKey().datasetName().equals(dataset)) {
+                        return false;
+                    }
+                    synchronized (entry.getValue()) {
+                        entry.getValue().evicted = true;
+                    }
+                    return true;
+                });
+                states.putAll(rebuilt);
+            }
+
+            newTransaction().executeWithoutResult(status -> sketchRepository.deleteByDatasetName(dataset));
+            // A flush running since the swap may have persisted and cleared these before the delete
+            for (SketchState state : rebuilt.values()) {
+                synchronized (state) {
+                    state.dirty = true;
+                }
+            }
+            flushDirtySketches();
+
+            log.info("Rebuilt {} field sketches for dataset: {} from {} records", rebuilt.size(), dataset, scanned);
+        } finally {
+            rebuildBacklogs.remove(dataset, backlog);
+        }
+    }
+
+    private void fold(String dataset, DatasetRecord record, Map<SketchKey, SketchState> into) {
+        if (record.getRecordData() == null) {
+            return;
+        }
+        for (Map.Entry<String, Object> entry : record.getRecordDataAsMap().entrySet()) {
+            String value = sketchValue(entry.getValue());
+            if (value != null && entry.getKey().length() <= 100) {
+                into.computeIfAbsent(new SketchKey(dataset, entry.getKey()),
+                        key -> new SketchState(new HyperLogLog(), new SpaceSavingTopK(topKCapacity), LocalDateTime.now()))
+                        .add(value);
+            }
+        }
+    }
+
+    // Scalars are counted by their JSON text; objects and arrays are not sketched
+    private String sketchValue(Object value) {
+        if (value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return String.valueOf(value);
+        }
+        return null;
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate;
+    }
+
+    private void validateDatasetName(String datasetName) {
+        if (datasetName == null || !StringUtils.hasText(datasetName.trim())) {
+            throw new IllegalArgumentException("Dataset name cannot be null or empty");
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.service;
+
+import java.util.Map;
+
+public interface IngestJournalService {
+    long accept(String datasetName, Map<String, Object> recordData);
+    Map<String, Object> getStatus();
+}
@@ -0,0 +1,354 @@
+package com.example.service;
+
+import com.example.journal.DeadLetterLog;
+import com.example.journal.FsyncPolicy;
+import com.example.journal.IngestJournal;
+import com.example.journal.JournalEntry;
+import com.example.repository.JournalProgressRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts records into the {@link IngestJournal} and acknowledges them once journaled; a background
+ * applier drains the journal into the dataset store in order, one dataset run at a time, and
+ * checkpoints after each committed run. Unapplied entries are replayed at the next startup, so a
+ * crash never loses an acknowledged record. Each run also advances the dataset's
+ * {@link com.example.entity.JournalProgress} row in the same transaction, so entries that committed
+ * just before a crash are skipped on replay rather than inserted again. With
+ * {@code app.storage.type=mvstore} the records are not written in that transaction, and the run
+ * that was committing can still be inserted twice.
+ *
+ * <p>A run that fails is retried after a backoff. Failures that mean the store is unreachable are
+ * retried for as long as it takes; any other failure is retried {@code max-attempts} times, after
+ * which the entries are applied one at a time and the one that still fails is moved to the
+ * {@link DeadLetterLog} and checkpointed past, so one bad record does not hold back the rest.
+ * Entries that cannot be parsed are moved there straight away.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.journal", name = "enabled", havingValue = "true")
+@Slf4j
+public class IngestJournalServiceImpl implements IngestJournalService {
+
+    private static final TypeReference<Map<String, Object>> ENTRY_TYPE = new TypeReference<>() {};
+
+    private final DatasetService datasetService;
+    private final DatasetSchemaService schemaService;
+    private final JournalProgressRepository progressRepository;
+    private final TransactionTemplate applyTransaction;
+    private final IngestJournal journal;
+    private final DeadLetterLog deadLetters;
+    private final Counter deadLetteredCounter;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FsyncPolicy fsyncPolicy;
+    private final int applyBatchSize;
+    private final long applyIdleMs;
+    private final long retryBackoffMs;
+    private final int maxAttempts;
+    private final ExecutorService applier = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ingest-journal-applier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean running;
+    private volatile String lastApplyError;
+    private volatile Long lastDeadLetterSequence;
+
+    // Applier thread only, apart from the status read of failedAttempts
+    private long failingSequence;
+    private volatile int failedAttempts;
+    private long isolateThrough;
+
+    private record ParsedEntry(String dataset, Map<String, Object> record) {
+    }
+
+    public IngestJournalServiceImpl(DatasetService datasetService,
+                                    DatasetSchemaService schemaService,
+                                    JournalProgressRepository progressRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.journal.directory:data/journal}") String directory,
+                                    @Value("${app.journal.segment-size-mb:64}") int segmentSizeMb,
+                                    @Value("${app.journal.fsync:always}") String fsync,
+                                    @Value("${app.journal.max-segments:64}") int maxSegments,
+                                    @Value("${app.journal.max-free-segments:2}") int maxFreeSegments,
+                                    @Value("${app.journal.apply-batch-size:500}") int applyBatchSize,
+                                    @Value("${app.journal.apply-idle-ms:20}") long applyIdleMs,
+                                    @Value("${app.journal.retry-backoff-ms:1000}") long retryBackoffMs,
+                                    @Value("${app.journal.max-attempts:5}") int maxAttempts) throws IOException {
+        this.datasetService = datasetService;
+        this.schemaService = schemaService;
+        this.progressRepository = progressRepository;
+        this.applyTransaction = new TransactionTemplate(transactionManager);
+        this.fsyncPolicy = FsyncPolicy.valueOf(fsync.trim().toUpperCase());
+        this.applyBatchSize = applyBatchSize;
+        this.applyIdleMs = applyIdleMs;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.journal = new IngestJournal(Path.of(directory), segmentSizeMb * 1024 * 1024, fsyncPolicy,
+                maxSegments, maxFreeSegments);
+        this.deadLetters = new DeadLetterLog(Path.of(directory).resolve("dead-letter.jsonl"));
+        this.deadLetteredCounter = Counter.builder("journal.dead_lettered")
+                .description("Ingest journal entries moved to the dead-letter log")
+                .register(meterRegistry);
+        Gauge.builder("journal.pending", journal, j -> Math.max(0, j.getLastSequence() - j.getAppliedSequence()))
+                .description("Journaled records not yet applied to the store")
+                .register(meterRegistry);
+    }
+
+    public long accept(String datasetName, Map<String, Object> recordData) {
+        if (datasetName == null || !StringUtils.hasText(datasetName.trim())) {
+            throw new IllegalArgumentException("Dataset name cannot be null or empty");
+        }
+        if (datasetName.trim().length() > 100) {
+            throw new IllegalArgumentException("Dataset name must be less than 100 characters");
+        }
+        if (recordData == null || recordData.isEmpty()) {
+            throw new IllegalArgumentException("Record data cannot be null or empty");
+        }
+        // Checked before journaling: the applier has no caller left to report a rejection to
+        List<String> schemaErrors = schemaService.validate(datasetName, recordData);
+        if (!schemaErrors.isEmpty()) {
+            throw new IllegalArgumentException("Record does not match the schema of dataset " + datasetName
+                    + ": " + String.join("; ", schemaErrors));
+        }
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("dataset", datasetName.trim().toLowerCase());
+        entry.put("record", recordData);
+        try {
+            return journal.append(objectMapper.writeValueAsBytes(entry));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to journal record for dataset: " + datasetName, e);
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        long last = journal.getLastSequence();
+        long applied = journal.getAppliedSequence();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("lastSequence", last);
+        status.put("appliedSequence", applied);
+        status.put("pending", Math.max(0, last - applied));
+        status.put("segments", journal.getSegmentCount());
+        status.put("fsync", fsyncPolicy.name().toLowerCase());
+        status.put("applierRunning", running);
+        if (lastApplyError != null) {
+            status.put("lastApplyError", lastApplyError);
+            status.put("failedAttempts", failedAttempts);
+        }
+        status.put("deadLettered", deadLetters.getCount());
+        if (lastDeadLetterSequence != null) {
+            status.put("lastDeadLetterSequence", lastDeadLetterSequence);
+        }
+        return status;
+    }
+
+    // Replay of entries left by the previous run starts here too, once the store is reachable
+    @EventListener(ApplicationReadyEvent.class)
+    public void startApplier() {
+        running = true;
+        applier.submit(this::applyLoop);
+    }
+
+    @Scheduled(fixedDelayString = "${app.journal.fsync-interval-ms:50}")
+    public void syncJournal() {
+        journal.sync();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        applier.shutdown();
+        if (!applier.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Ingest journal applier did not stop in time; pending entries will be replayed on restart");
+            applier.shutdownNow();
+        }
+        journal.close();
+    }
+
+    void applyLoop() {
+        while (running) {
+            // Resumes after the last checkpoint, so a run that failed part-way is retried from its start
+            long next = journal.getAppliedSequence() + 1;
+            List<JournalEntry> entries = List.of();
+            long backoffMs;
+            try {
+                entries = journal.read(next, next <= isolateThrough ? 1 : applyBatchSize);
+                if (entries.isEmpty()) {
+                    Thread.sleep(applyIdleMs);
+                    continue;
+                }
+                applyEntries(entries);
+                lastApplyError = null;
+                failedAttempts = 0;
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                lastApplyError = e.getMessage();
+                try {
+                    backoffMs = onApplyFailure(entries, e);
+                } catch (IOException deadLetterFailure) {
+                    log.error("Failed to write the ingest journal dead-letter log", deadLetterFailure);
+                    backoffMs = retryBackoffMs;
+                }
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Returns how long to back off before the next attempt
+    private long onApplyFailure(List<JournalEntry> entries, Exception e) throws IOException {
+        // Runs before the failing one may have committed and checkpointed
+        long head = journal.getAppliedSequence() + 1;
+        List<JournalEntry> unapplied = entries.stream().filter(entry -> entry.sequence() >= head).toList();
+        if (unapplied.isEmpty() || isStoreUnavailable(e)) {
+            log.error("Failed to apply ingest journal from sequence: {}, retrying in {} ms", head, retryBackoffMs, e);
+            return retryBackoffMs;
+        }
+        if (failingSequence != head) {
+            failingSequence = head;
+            failedAttempts = 0;
+        }
+        failedAttempts++;
+        if (failedAttempts < maxAttempts) {
+            log.error("Failed to apply ingest journal from sequence: {} (attempt {} of {}), retrying in {} ms",
+                    head, failedAttempts, maxAttempts, retryBackoffMs, e);
+            return retryBackoffMs;
+        }
+        failedAttempts = 0;
+        if (unapplied.size() > 1) {
+            // One of them is bad; applying them one at a time tells which
+            isolateThrough = unapplied.get(unapplied.size() - 1).sequence();
+            log.warn("Applying ingest journal entries {}..{} one at a time after {} failed attempts",
+                    head, isolateThrough, maxAttempts);
+            return 0;
+        }
+        deadLetter(unapplied.get(0), "Failed " + maxAttempts + " times: " + e.getMessage());
+        return 0;
+    }
+
+    // Consecutive entries of one dataset go in as one batch insert, checkpointed as soon as it commits
+    void applyEntries(List<JournalEntry> entries) throws IOException {
+        String runDataset = null;
+        List<JournalEntry> run = new ArrayList<>();
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (JournalEntry entry : entries) {
+            ParsedEntry parsed;
+            try {
+                parsed = parse(entry);
+            } catch (IOException | IllegalArgumentException e) {
+                // No retry can fix the bytes of an entry, so it is set aside right away
+                applyRun(runDataset, run, records);
+                run = new ArrayList<>();
+                records = new ArrayList<>();
+                runDataset = null;
+                deadLetter(entry, "Unreadable entry: " + e.getMessage());
+                continue;
+            }
+            if (runDataset != null && !runDataset.equals(parsed.dataset())) {
+                applyRun(runDataset, run, records);
+                run = new ArrayList<>();
+                records = new ArrayList<>();
+            }
+            runDataset = parsed.dataset();
+            run.add(entry);
+            records.add(parsed.record());
+        }
+        applyRun(runDataset, run, records);
+    }
+
+    private void applyRun(String dataset, List<JournalEntry> run, List<Map<String, Object>> records)
+            throws IOException {
+        if (run.isEmpty()) {
+            return;
+        }
+        String journalId = journal.getJournalId();
+        long firstSequence = run.get(0).sequence();
+        long lastSequence = run.get(run.size() - 1).sequence();
+        Integer skipped = applyTransaction.execute(status -> {
+            // Non-zero only when this run committed but the checkpoint was lost to a crash
+            long applied = progressRepository.findAppliedSequence(journalId, dataset).orElse(0L);
+            int skip = (int) Math.max(0, Math.min(records.size(), applied - firstSequence + 1));
+            if (skip < records.size()) {
+                datasetService.insertRecords(dataset, List.copyOf(records.subList(skip, records.size())));
+                progressRepository.advance(journalId, dataset, lastSequence);
+            }
+            return skip;
+        });
+        journal.markApplied(lastSequence);
+        if (skipped != null && skipped > 0) {
+            log.info("Skipped {} journal entries already applied to dataset: {}", skipped, dataset);
+        }
+        log.debug("Applied journal entries {}..{} to dataset: {}", firstSequence, lastSequence, dataset);
+    }
+
+    private ParsedEntry parse(JournalEntry entry) throws IOException {
+        Map<String, Object> payload = objectMapper.readValue(entry.payload(), ENTRY_TYPE);
+        if (!(payload.get("dataset") instanceof String dataset) || !(payload.get("record") instanceof Map<?, ?>)) {
+            throw new IllegalArgumentException("Journal entry has no dataset or record");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> record = (Map<String, Object>) payload.get("record");
+        return new ParsedEntry(dataset, record);
+    }
+
+    private void deadLetter(JournalEntry entry, String reason) throws IOException {
+        deadLetters.append(entry, reason);
+        journal.markApplied(entry.sequence());
+        deadLetteredCounter.increment();
+        lastDeadLetterSequence = entry.sequence();
+        log.error("Moved ingest journal entry {} to the dead-letter log {}: {}",
+                entry.sequence(), deadLetters.getFile(), reason);
+    }
+
+    // The database being down or busy says nothing about the entries, so it never counts as an attempt
+    private static boolean isStoreUnavailable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.service;
+
+import com.example.entity.DatasetRecord;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch ingest: the records that were stored, and for each one that was not, its
+ * position in the request and why it was turned away.
+ */
+public record IngestResult(List<DatasetRecord> inserted, List<RejectedRecord> rejected) {
+
+    public record RejectedRecord(int index, List<String> errors) {
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.service;
+
+import com.example.deadline.RequestDeadline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Runs the index, sketch and rollup maintenance that follows a committed write. An after-commit
+ * listener still holds the connection of the transaction that just committed, so doing that work
+ * in place takes a second connection per write; once every pooled connection is held by a thread
+ * waiting for another one, writes stall until the pool times out. A few dedicated threads, well
+ * below the pool size, always make progress.
+ *
+ * <p>Each dataset is pinned to one single-threaded lane, so an insert and a later delete of the
+ * same ids are applied in commit order. The committing thread never runs or waits for the work:
+ * when a lane is full the update is dropped, and the feature's repair (a rebuild of that
+ * dataset) runs once the lane has drained. Further updates for that feature and dataset are
+ * dropped until then, since the rebuild covers them.
+ */
+@Component
+@Slf4j
+public class PostCommitExecutor {
+
+    private final List<Executor> lanes;
+    // Keyed by feature and dataset; a pending repair supersedes any update dropped meanwhile
+    private final Map<String, PendingRepair> pendingRepairs = new ConcurrentHashMap<>();
+
+    private record PendingRepair(String datasetName, Runnable repair) {
+    }
+
+    @Autowired
+    public PostCommitExecutor(@Value("${app.post-commit.threads:2}") int threads,
+                              @Value("${app.post-commit.queue-capacity:10000}") int queueCapacity) {
+        this(threads > 0
+                ? IntStream.range(0, threads)
+                        .<Executor>mapToObj(index -> lane(index, Math.max(1, queueCapacity / threads)))
+                        .toList()
+                : List.of(Runnable::run));
+    }
+
+    PostCommitExecutor(Executor delegate) {
+        this(List.of(delegate));
+    }
+
+    PostCommitExecutor(List<Executor> lanes) {
+        this.lanes = lanes;
+    }
+
+    /**
+     * Queues {@code task} on the lane of {@code datasetName}. The work belongs to no request, so it
+     * is never cut short by the writer's deadline. If the lane is full the task is dropped and
+     * {@code repair} runs instead, once, after the lane has drained.
+     */
+    public void execute(String datasetName, String feature, Runnable task, Runnable repair) {
+        String repairKey = feature + ":" + datasetName;
+        if (pendingRepairs.containsKey(repairKey)) {
+            return;
+        }
+        Executor lane = laneFor(datasetName);
+        try {
+            lane.execute(() -> RequestDeadline.runDetached(task));
+        } catch (RejectedExecutionException e) {
+            if (lane instanceof ExecutorService executor && executor.isShutdown()) {
+                log.debug("Dropped {} update for dataset: {} during shutdown", feature, datasetName);
+            } else if (pendingRepairs.putIfAbsent(repairKey, new PendingRepair(datasetName, repair)) == null) {
+                log.warn("Post-commit queue full, dropped {} update for dataset: {}; it is rebuilt once the queue drains",
+                        feature, datasetName);
+            }
+        }
+    }
+
+    public int getPendingRepairCount() {
+        return pendingRepairs.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.post-commit.repair-check-ms:5000}")
+    public void runPendingRepairs() {
+        for (Map.Entry<String, PendingRepair> entry : pendingRepairs.entrySet()) {
+            PendingRepair pending = entry.getValue();
+            if (!isIdle(laneFor(pending.datasetName())) || !pendingRepairs.remove(entry.getKey(), pending)) {
+                continue;
+            }
+            try {
+                pending.repair().run();
+                log.info("Started repair of {} after dropped post-commit updates", entry.getKey());
+            } catch (Exception e) {
+                log.error("Repair of {} failed after dropped post-commit updates", entry.getKey(), e);
+            }
+        }
+    }
+
+    // Before the data source and repositories are torn down, so queued updates are still written
+    @EventListener(ContextClosedEvent.class)
+    public void drain() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (Executor lane : lanes) {
+            if (lane instanceof ExecutorService executor) {
+                executor.shutdown();
+            }
+        }
+        for (Executor lane : lanes) {
+            if (lane instanceof ExecutorService executor
+                    && !executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                log.warn("Abandoned {} post-commit updates on shutdown", executor.shutdownNow().size());
+            }
+        }
+    }
+
+    private Executor laneFor(String datasetName) {
+        return lanes.get(Math.floorMod(String.valueOf(datasetName).hashCode(), lanes.size()));
+    }
+
+    private static boolean isIdle(Executor lane) {
+        return !(lane instanceof ThreadPoolExecutor executor)
+                || (executor.getQueue().isEmpty() && executor.getActiveCount() == 0);
+    }
+
+    private static ThreadPoolExecutor lane(int index, int capacity) {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacity), runnable -> {
+            Thread thread = new Thread(runnable, "post-commit-" + index);
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
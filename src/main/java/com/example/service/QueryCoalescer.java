@@ -0,0 +1,119 @@
+package com.example.service;
+
+import com.example.deadline.Deadline;
+import com.example.deadline.DeadlineExceededException;
+import com.example.deadline.RequestDeadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical reads: while a query for a key is running, further callers
+ * with the same key wait for it and receive the same result instead of running it again.
+ * Nothing is cached after completion, so the key must carry the dataset version for callers
+ * arriving after a write to start a fresh execution.
+ *
+ * <p>Followers wait no longer than their own request deadline. A leader cut short by its own
+ * deadline says nothing about whether the query fits a follower's, so followers then run the
+ * query themselves rather than failing with the leader.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QueryCoalescer {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    record Key(String operation, List<Object> params) {
+    }
+
+    // What followers receive when the leader ran out of its own time
+    private static final class LeaderDeadlineExceeded extends RuntimeException {
+        LeaderDeadlineExceeded(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, List<Object> params, Supplier<T> query) {
+        Key key = new Key(operation, params);
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            counter("coalesced", operation).increment();
+            log.debug("Coalesced {} {} onto in-flight execution", operation, params);
+            try {
+                return (T) await(existing);
+            } catch (LeaderDeadlineExceeded e) {
+                counter("rerun", operation).increment();
+                log.debug("Leader of {} {} ran out of time, running it for this caller", operation, params);
+                return execute(operation, params, query);
+            }
+        }
+
+        counter("executed", operation).increment();
+        try {
+            T result = query.get();
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Errors too, or followers would wait forever on a future nobody completes
+            future.completeExceptionally(RequestDeadline.isDeadlineFailure(e) ? new LeaderDeadlineExceeded(e) : e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private Object await(CompletableFuture<Object> future) {
+        Deadline deadline = RequestDeadline.current();
+        try {
+            if (deadline == null || !deadline.isBounded()) {
+                return future.join();
+            }
+            return future.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (CompletionException | ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            deadline.checkpoint();
+            throw new DeadlineExceededException("Request abandoned: deadline of "
+                    + deadline.getTimeoutMillis() + " ms exceeded waiting for a coalesced query");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceededException("Request abandoned: interrupted waiting for a coalesced query");
+        }
+    }
+
+    private Counter counter(String outcome, String operation) {
+        return Counter.builder("dataset.query.calls")
+                .description("Read calls that ran a query or joined one already in flight")
+                .tag("outcome", outcome)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
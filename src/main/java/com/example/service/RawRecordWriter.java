@@ -0,0 +1,14 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A validated raw read, ready to run: writes the stored JSON documents as one JSON array, copied
+ * byte for byte, and returns how many were written.
+ */
+@FunctionalInterface
+public interface RawRecordWriter {
+
+    long writeTo(OutputStream out) throws IOException;
+}
@@ -0,0 +1,10 @@
+package com.example.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published for every committed delete chunk. A null {@code cutoffDate} means every record of the
+ * dataset with an id in {@code [fromId, toId]} is gone; otherwise only those created before it.
+ */
+public record RecordsDeletedEvent(String datasetName, long fromId, long toId, LocalDateTime cutoffDate, int deletedCount) {
+}
@@ -0,0 +1,12 @@
+package com.example.service;
+
+import com.example.entity.DatasetRecord;
+
+import java.util.List;
+
+/**
+ * Published by the insert paths once records have been saved. Listeners that need the rows
+ * to be visible to other connections should observe it after commit.
+ */
+public record RecordsInsertedEvent(String datasetName, List<DatasetRecord> records) {
+}
@@ -0,0 +1,14 @@
+package com.example.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface RollupService {
+    Map<String, Object> createDefinition(String datasetName, String bucket, String groupByField, List<String> valueFields);
+    List<Map<String, Object>> getDefinitions(String datasetName);
+    void deleteDefinition(String datasetName, Long definitionId);
+    boolean rebuild(String datasetName, Long definitionId);
+    Map<String, Object> query(String datasetName, LocalDateTime from, LocalDateTime to,
+                              String groupByField, List<String> fields, String step);
+}
@@ -0,0 +1,541 @@
+package com.example.service;
+
+import com.example.entity.DatasetRecord;
+import com.example.entity.RollupBucket;
+import com.example.entity.RollupDefinition;
+import com.example.json.FieldPath;
+import com.example.repository.RollupBucketRepository;
+import com.example.repository.RollupDefinitionRepository;
+import com.example.storage.DatasetStorage;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains time-bucket rollups of {@code created_at} from committed inserts. Each insert batch is
+ * folded in memory first, so it costs one upsert per touched (bucket, group, field) rather than
+ * one per record. Deleted records are gone by the time their event arrives, so they cannot be
+ * subtracted; the rollups of that dataset are marked stale and rebuilt from the raw records a
+ * few seconds later, once per burst of delete chunks.
+ *
+ * <p>A rebuild and the incremental updates of every instance are kept apart through the
+ * definition row. Once a rebuild starts, updates skip the rollup; the rebuild then scans the
+ * records, locks the row, reads what was committed during the scan, and replaces the buckets
+ * while updates wait on that lock. Updates resume for the records above the last one it read.
+ * An insert that took a lower id but committed in the moments between that read and the swap is
+ * left out until the next rebuild.
+ *
+ * <p>Queries pick the coarsest matching definition whose bucket is no wider than the requested
+ * step, preferring one the requested range is aligned to; otherwise the range is widened to
+ * bucket boundaries and the response says so.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RollupServiceImpl implements RollupService {
+
+    static final String RECORD_COUNT_FIELD = "*";
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+    private static final int MAX_DEFINITIONS_PER_DATASET = 20;
+    private static final Pattern DURATION = Pattern.compile("(\\d+)([smhd]?)");
+    private static final long DAY_SECONDS = 86_400;
+
+    private final RollupDefinitionRepository definitionRepository;
+    private final RollupBucketRepository bucketRepository;
+    private final DatasetStorage recordStorage;
+    private final PlatformTransactionManager transactionManager;
+    private final PostCommitExecutor postCommitExecutor;
+
+    @Value("${app.rollups.rebuild-stale-ms:300000}")
+    private long rebuildStaleMs = 300_000;
+
+    private final Set<Long> rebuilding = ConcurrentHashMap.newKeySet();
+    // Definitions whose buckets still count deleted records, rebuilt by the next stale check
+    private final Set<Long> staleDefinitions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rollup-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    record BucketKey(Long definitionId, LocalDateTime bucketStart, String groupValue, String fieldName) {
+    }
+
+    static final class Aggregate {
+        long count;
+        Double sum;
+        Double min;
+        Double max;
+
+        void addRecord() {
+            count++;
+        }
+
+        void addValue(double value) {
+            count++;
+            sum = sum == null ? value : sum + value;
+            min = min == null ? value : Math.min(min, value);
+            max = max == null ? value : Math.max(max, value);
+        }
+    }
+
+    public Map<String, Object> createDefinition(String datasetName, String bucket, String groupByField, List<String> valueFields) {
+        validateDatasetName(datasetName);
+        String dataset = datasetName.trim().toLowerCase();
+        long bucketSeconds = parseDuration(bucket, "bucket");
+        if (bucketSeconds < DAY_SECONDS ? DAY_SECONDS % bucketSeconds != 0 : bucketSeconds % DAY_SECONDS != 0) {
+            throw new IllegalArgumentException("Bucket must divide a day or be a whole number of days: " + bucket);
+        }
+        String groupBy = StringUtils.hasText(groupByField) ? groupByField.trim() : null;
+        List<String> fields = normalizeFields(valueFields);
+        if (groupBy != null) {
+            validateFieldName(groupBy);
+        }
+        fields.forEach(this::validateFieldName);
+
+        List<RollupDefinition> existing = definitionRepository.findByDatasetNameOrderByBucketSecondsAsc(dataset);
+        if (existing.size() >= MAX_DEFINITIONS_PER_DATASET) {
+            throw new IllegalArgumentException("Dataset already has " + existing.size() + " rollup definitions");
+        }
+        for (RollupDefinition definition : existing) {
+            if (definition.getBucketSeconds() == bucketSeconds
+                    && Objects.equals(definition.getGroupByField(), groupBy)
+                    && splitFields(definition.getValueFields()).equals(fields)) {
+                throw new IllegalArgumentException("An identical rollup already exists with id " + definition.getId());
+            }
+        }
+
+        RollupDefinition saved = definitionRepository.save(RollupDefinition.builder()
+                .datasetName(dataset)
+                .bucketSeconds(bucketSeconds)
+                .groupByField(groupBy)
+                .valueFields(String.join(",", fields))
+                .createdAt(LocalDateTime.now())
+                .build());
+        log.info("Created rollup {} for dataset: {} ({}, groupBy={}, fields={})",
+                saved.getId(), dataset, formatDuration(bucketSeconds), groupBy, fields);
+
+        // Records inserted before the definition existed are folded in by a backfill
+        startRebuild(saved);
+        return describe(saved);
+    }
+
+    public List<Map<String, Object>> getDefinitions(String datasetName) {
+        validateDatasetName(datasetName);
+        return definitionRepository.findByDatasetNameOrderByBucketSecondsAsc(datasetName.trim().toLowerCase()).stream()
+                .map(this::describe)
+                .toList();
+    }
+
+    public void deleteDefinition(String datasetName, Long definitionId) {
+        RollupDefinition definition = findDefinition(datasetName, definitionId);
+        newTransaction().executeWithoutResult(status -> {
+            bucketRepository.deleteByDefinitionId(definition.getId());
+            definitionRepository.delete(definition);
+        });
+        log.info("Deleted rollup {} of dataset: {}", definitionId, definition.getDatasetName());
+    }
+
+    public boolean rebuild(String datasetName, Long definitionId) {
+        return startRebuild(findDefinition(datasetName, definitionId));
+    }
+
+    private boolean startRebuild(RollupDefinition definition) {
+        if (!rebuilding.add(definition.getId())) {
+            return false;
+        }
+        rebuildExecutor.submit(() -> {
+            try {
+                rebuild(definition);
+            } catch (Exception e) {
+                log.error("Rollup rebuild failed for dataset: {}, rollup: {}", definition.getDatasetName(), definition.getId(), e);
+                staleDefinitions.add(definition.getId());
+            } finally {
+                rebuilding.remove(definition.getId());
+            }
+        });
+        return true;
+    }
+
+    public Map<String, Object> query(String datasetName, LocalDateTime from, LocalDateTime to,
+                                     String groupByField, List<String> fields, String step) {
+        validateDatasetName(datasetName);
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Both from and to are required and from must be before to");
+        }
+        String dataset = datasetName.trim().toLowerCase();
+        String groupBy = StringUtils.hasText(groupByField) ? groupByField.trim() : null;
+        List<String> requestedFields = normalizeFields(fields);
+        long rangeSeconds = toEpoch(to) - toEpoch(from);
+        long maxBucketSeconds = StringUtils.hasText(step) ? parseDuration(step, "step") : rangeSeconds;
+
+        List<RollupDefinition> candidates = definitionsFor(dataset).stream()
+                .filter(definition -> Objects.equals(definition.getGroupByField(), groupBy))
+                .filter(definition -> splitFields(definition.getValueFields()).containsAll(requestedFields))
+                .filter(definition -> definition.getBucketSeconds() <= maxBucketSeconds)
+                .sorted(Comparator.comparing(RollupDefinition::getBucketSeconds).reversed())
+                .toList();
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException(String.format(
+                    "No rollup on dataset %s covers groupBy=%s and fields=%s with a bucket of at most %s",
+                    dataset, groupBy, requestedFields, formatDuration(maxBucketSeconds)));
+        }
+        RollupDefinition chosen = candidates.stream()
+                .filter(definition -> isAligned(from, definition.getBucketSeconds()) && isAligned(to, definition.getBucketSeconds()))
+                .findFirst()
+                .orElse(candidates.get(0));
+
+        long bucketSeconds = chosen.getBucketSeconds();
+        LocalDateTime alignedFrom = bucketStart(from, bucketSeconds);
+        LocalDateTime alignedTo = isAligned(to, bucketSeconds) ? to : bucketStart(to, bucketSeconds).plusSeconds(bucketSeconds);
+        Set<String> selectedFields = new LinkedHashSet<>(
+                requestedFields.isEmpty() ? splitFields(chosen.getValueFields()) : requestedFields);
+
+        // Rows come ordered by bucket, group and field, so each (bucket, group) is contiguous
+        List<Map<String, Object>> rows = new ArrayList<>();
+        Map<String, Object> row = null;
+        LocalDateTime rowBucket = null;
+        String rowGroup = null;
+        for (RollupBucket bucket : bucketRepository.findRange(chosen.getId(), alignedFrom, alignedTo)) {
+            if (row == null || !bucket.getBucketStart().equals(rowBucket) || !bucket.getGroupValue().equals(rowGroup)) {
+                rowBucket = bucket.getBucketStart();
+                rowGroup = bucket.getGroupValue();
+                row = new LinkedHashMap<>();
+                row.put("bucketStart", rowBucket);
+                if (groupBy != null) {
+                    row.put("group", rowGroup.isEmpty() ? null : rowGroup);
+                }
+                rows.add(row);
+            }
+            if (RECORD_COUNT_FIELD.equals(bucket.getFieldName())) {
+                row.put("records", bucket.getValueCount());
+            } else if (selectedFields.contains(bucket.getFieldName())) {
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("count", bucket.getValueCount());
+                stats.put("sum", bucket.getValueSum());
+                stats.put("min", bucket.getValueMin());
+                stats.put("max", bucket.getValueMax());
+                stats.put("avg", bucket.getValueCount() > 0 && bucket.getValueSum() != null
+                        ? bucket.getValueSum() / bucket.getValueCount() : null);
+                row.put(bucket.getFieldName(), stats);
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("dataset", dataset);
+        result.put("rollupId", chosen.getId());
+        result.put("bucket", formatDuration(bucketSeconds));
+        result.put("groupBy", groupBy);
+        result.put("fields", selectedFields);
+        result.put("from", alignedFrom);
+        result.put("to", alignedTo);
+        result.put("widened", !alignedFrom.equals(from) || !alignedTo.equals(to));
+        result.put("rebuilding", isRebuilding(chosen));
+        result.put("rows", rows);
+        result.put("count", rows.size());
+        return result;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecordsInserted(RecordsInsertedEvent event) {
+        postCommitExecutor.execute(event.datasetName(), "rollups", () -> {
+            try {
+                // Definitions are read in the writing transaction, so one created on another
+                // instance a moment ago is already covered
+                newTransaction().executeWithoutResult(status -> {
+                    Map<BucketKey, Aggregate> aggregates = new HashMap<>();
+                    for (RollupDefinition definition : definitionRepository.lockByDatasetName(event.datasetName())) {
+                        fold(definition, uncovered(definition, event.records()), aggregates);
+                    }
+                    write(aggregates);
+                });
+            } catch (Exception e) {
+                log.error("Failed to update rollups for dataset: {}", event.datasetName(), e);
+            }
+        }, () -> definitionsFor(event.datasetName()).forEach(this::startRebuild));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecordsDeleted(RecordsDeletedEvent event) {
+        postCommitExecutor.execute(event.datasetName(), "rollups", () -> {
+            try {
+                definitionsFor(event.datasetName()).forEach(definition -> staleDefinitions.add(definition.getId()));
+            } catch (Exception e) {
+                log.error("Failed to mark rollups stale for dataset: {}", event.datasetName(), e);
+            }
+        }, () -> definitionsFor(event.datasetName()).forEach(this::startRebuild));
+    }
+
+    @Scheduled(fixedDelayString = "${app.rollups.rebuild-check-ms:5000}")
+    public void rebuildStaleRollups() {
+        for (Long definitionId : staleDefinitions) {
+            Optional<RollupDefinition> definition = definitionRepository.findById(definitionId);
+            // A rollup already rebuilding stays marked: its scan may have read the deleted records
+            if (definition.isEmpty() || startRebuild(definition.get())) {
+                staleDefinitions.remove(definitionId);
+            }
+        }
+        // Rebuilds left behind by an instance that stopped, whose rollups no update would touch again
+        for (RollupDefinition definition : definitionRepository.findByRebuildHeartbeatAtBefore(
+                LocalDateTime.now().minusNanos(rebuildStaleMs * 1_000_000))) {
+            log.warn("Restarting abandoned rebuild of rollup {} for dataset: {}", definition.getId(), definition.getDatasetName());
+            startRebuild(definition);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    void fold(RollupDefinition definition, List<DatasetRecord> records, Map<BucketKey, Aggregate> aggregates) {
+        List<String> fields = splitFields(definition.getValueFields());
+        List<FieldPath> paths = fields.stream().map(FieldPath::of).toList();
+        FieldPath groupPath = definition.getGroupByField() == null ? null : FieldPath.of(definition.getGroupByField());
+        for (DatasetRecord record : records) {
+            if (record.getRecordData() == null || record.getCreatedAt() == null) {
+                continue;
+            }
+            Map<String, Object> data = record.getRecordDataAsMap();
+            LocalDateTime bucketStart = bucketStart(record.getCreatedAt(), definition.getBucketSeconds());
+            String group = groupValue(groupPath == null ? null : groupPath.get(data));
+            aggregates.computeIfAbsent(new BucketKey(definition.getId(), bucketStart, group, RECORD_COUNT_FIELD),
+                    key -> new Aggregate()).addRecord();
+            for (int i = 0; i < fields.size(); i++) {
+                String field = fields.get(i);
+                if (paths.get(i).get(data) instanceof Number number) {
+                    aggregates.computeIfAbsent(new BucketKey(definition.getId(), bucketStart, group, field),
+                            key -> new Aggregate()).addValue(number.doubleValue());
+                }
+            }
+        }
+    }
+
+    // Records the last rebuild already counted, or all of them while one runs
+    private static List<DatasetRecord> uncovered(RollupDefinition definition, List<DatasetRecord> records) {
+        Long coveredThroughId = definition.getCoveredThroughId();
+        if (coveredThroughId == null) {
+            return records;
+        }
+        return records.stream()
+                .filter(record -> record.getId() == null || record.getId() > coveredThroughId)
+                .toList();
+    }
+
+    private void write(Map<BucketKey, Aggregate> aggregates) {
+        aggregates.forEach((key, aggregate) -> bucketRepository.upsert(key.definitionId(), key.bucketStart(),
+                key.groupValue(), key.fieldName(), aggregate.count, aggregate.sum, aggregate.min, aggregate.max));
+    }
+
+    void rebuild(RollupDefinition definition) {
+        Long definitionId = definition.getId();
+        String dataset = definition.getDatasetName();
+        log.info("Rebuilding rollup {} for dataset: {}", definitionId, dataset);
+        // From here on incremental updates on every instance leave this rollup to the rebuild
+        Boolean claimed = newTransaction().execute(status -> definitionRepository.lockById(definitionId)
+                .map(locked -> {
+                    locked.setCoveredThroughId(Long.MAX_VALUE);
+                    locked.setRebuildHeartbeatAt(LocalDateTime.now());
+                    return true;
+                })
+                .orElse(false));
+        if (!Boolean.TRUE.equals(claimed)) {
+            return;
+        }
+
+        Map<BucketKey, Aggregate> aggregates = new HashMap<>();
+        long lastId = 0;
+        long scanned = 0;
+        List<DatasetRecord> page;
+        do {
+            page = readPage(dataset, lastId);
+            fold(definition, page, aggregates);
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+            scanned += page.size();
+            newTransaction().executeWithoutResult(status ->
+                    definitionRepository.touchRebuild(definitionId, LocalDateTime.now()));
+        } while (page.size() == REBUILD_PAGE_SIZE);
+
+        long scannedUpTo = lastId;
+        Long coveredThroughId = newTransaction().execute(status -> {
+            Optional<RollupDefinition> locked = definitionRepository.lockById(definitionId);
+            if (locked.isEmpty()) {
+                return null;
+            }
+            // Records committed during the scan; updates for them wait on the lock, and skip them once it is released
+            long caughtUpTo = scannedUpTo;
+            List<DatasetRecord> late;
+            do {
+                late = readPage(dataset, caughtUpTo);
+                fold(definition, late, aggregates);
+                if (!late.isEmpty()) {
+                    caughtUpTo = late.get(late.size() - 1).getId();
+                }
+            } while (late.size() == REBUILD_PAGE_SIZE);
+
+            bucketRepository.deleteByDefinitionId(definitionId);
+            write(aggregates);
+            locked.get().setCoveredThroughId(caughtUpTo);
+            locked.get().setRebuildHeartbeatAt(null);
+            return caughtUpTo;
+        });
+        if (coveredThroughId == null) {
+            log.info("Rollup {} of dataset: {} was deleted during its rebuild", definitionId, dataset);
+            return;
+        }
+        log.info("Rebuilt rollup {} for dataset: {} from {} records into {} bucket rows, through record {}",
+                definitionId, dataset, scanned, aggregates.size(), coveredThroughId);
+    }
+
+    // On its own primary connection, so it sees every committed insert even while the swap holds the lock
+    private List<DatasetRecord> readPage(String dataset, long afterId) {
+        return newTransaction().execute(status ->
+                recordStorage.findByDatasetNameAndIdGreaterThanOrderByIdAsc(dataset, afterId, Limit.of(REBUILD_PAGE_SIZE)));
+    }
+
+    private boolean isRebuilding(RollupDefinition definition) {
+        return rebuilding.contains(definition.getId()) || definition.getRebuildHeartbeatAt() != null;
+    }
+
+    private List<RollupDefinition> definitionsFor(String dataset) {
+        return definitionRepository.findByDatasetNameOrderByBucketSecondsAsc(dataset);
+    }
+
+    private RollupDefinition findDefinition(String datasetName, Long definitionId) {
+        validateDatasetName(datasetName);
+        String dataset = datasetName.trim().toLowerCase();
+        return definitionRepository.findById(definitionId)
+                .filter(definition -> definition.getDatasetName().equals(dataset))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Rollup " + definitionId + " not found for dataset: " + dataset));
+    }
+
+    private Map<String, Object> describe(RollupDefinition definition) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("id", definition.getId());
+        description.put("dataset", definition.getDatasetName());
+        description.put("bucket", formatDuration(definition.getBucketSeconds()));
+        description.put("bucketSeconds", definition.getBucketSeconds());
+        description.put("groupBy", definition.getGroupByField());
+        description.put("fields", splitFields(definition.getValueFields()));
+        description.put("rebuilding", isRebuilding(definition));
+        description.put("createdAt", definition.getCreatedAt());
+        return description;
+    }
+
+    // Scalars group by their text, truncated to the column width; missing values form the empty group
+    private static String groupValue(Object value) {
+        if (value == null || value instanceof Map || value instanceof Collection) {
+            return "";
+        }
+        String text = String.valueOf(value);
+        return text.length() > 191 ? text.substring(0, 191) : text;
+    }
+
+    static LocalDateTime bucketStart(LocalDateTime time, long bucketSeconds) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(toEpoch(time), bucketSeconds) * bucketSeconds, 0, ZoneOffset.UTC);
+    }
+
+    private static boolean isAligned(LocalDateTime time, long bucketSeconds) {
+        return time.getNano() == 0 && Math.floorMod(toEpoch(time), bucketSeconds) == 0;
+    }
+
+    private static long toEpoch(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static long parseDuration(String value, String name) {
+        if (!StringUtils.hasText(value)) {
+            throw new IllegalArgumentException(name + " is required (e.g. 1m, 1h, 1d)");
+        }
+        Matcher matcher = DURATION.matcher(value.trim().toLowerCase());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value + " (expected e.g. 30s, 1m, 1h, 1d)");
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        long seconds = switch (matcher.group(2)) {
+            case "m" -> amount * 60;
+            case "h" -> amount * 3600;
+            case "d" -> amount * DAY_SECONDS;
+            default -> amount;
+        };
+        if (seconds <= 0) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+        return seconds;
+    }
+
+    static String formatDuration(long seconds) {
+        if (seconds % DAY_SECONDS == 0) {
+            return seconds / DAY_SECONDS + "d";
+        }
+        if (seconds % 3600 == 0) {
+            return seconds / 3600 + "h";
+        }
+        if (seconds % 60 == 0) {
+            return seconds / 60 + "m";
+        }
+        return seconds + "s";
+    }
+
+    private static List<String> normalizeFields(List<String> fields) {
+        if (fields == null) {
+            return new ArrayList<>();
+        }
+        return fields.stream()
+                .filter(StringUtils::hasText)
+                .map(String::trim)
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    private static List<String> splitFields(String valueFields) {
+        if (!StringUtils.hasText(valueFields)) {
+            return new ArrayList<>();
+        }
+        return Arrays.stream(valueFields.split(",")).filter(StringUtils::hasText).toList();
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate;
+    }
+
+    // Fields are paths into the record, as for sortBy and groupBy; compiling one rejects it if malformed
+    private void validateFieldName(String fieldName) {
+        if (fieldName.length() > 100 || fieldName.contains(",") || RECORD_COUNT_FIELD.equals(fieldName)) {
+            throw new IllegalArgumentException("Invalid field name: " + fieldName);
+        }
+        FieldPath.of(fieldName);
+    }
+
+    private void validateDatasetName(String datasetName) {
+        if (datasetName == null || !StringUtils.hasText(datasetName.trim())) {
+            throw new IllegalArgumentException("Dataset name cannot be null or empty");
+        }
+    }
+}
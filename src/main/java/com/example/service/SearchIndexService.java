@@ -0,0 +1,9 @@
+package com.example.service;
+
+import java.util.Map;
+
+public interface SearchIndexService {
+    Map<String, Object> search(String datasetName, String fieldName, String query, String mode, int limit, boolean includeRecords);
+    boolean rebuildIndex(String datasetName);
+    boolean isRebuilding(String datasetName);
+}
@@ -0,0 +1,294 @@
+package com.example.service;
+
+import com.example.entity.DatasetRecord;
+import com.example.entity.SearchToken;
+import com.example.repository.SearchTokenRepository;
+import com.example.storage.DatasetStorage;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index over top-level JSON field values, stored in {@code dataset_search_tokens}.
+ * Lookups touch only the postings of the query tokens, so their cost follows the number of
+ * matches rather than the size of the dataset. Postings are checked against {@code dataset_records}
+ * in SQL, so the index is only kept with the {@code jpa} storage backend.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexServiceImpl implements SearchIndexService {
+
+    private static final int MAX_LIMIT = 1000;
+    private static final int REBUILD_PAGE_SIZE = 500;
+    private static final int PURGE_CHUNK_SIZE = 10_000;
+
+    private final SearchTokenRepository tokenRepository;
+    private final DatasetStorage recordStorage;
+    private final PlatformTransactionManager transactionManager;
+    private final PostCommitExecutor postCommitExecutor;
+
+    @Value("${app.storage.type:jpa}")
+    private String storageType = "jpa";
+
+    private final Set<String> rebuilding = ConcurrentHashMap.newKeySet();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> search(String datasetName, String fieldName, String query, String mode,
+                                      int limit, boolean includeRecords) {
+        requireSupportedStorage();
+        validateDatasetName(datasetName);
+        if (!StringUtils.hasText(fieldName)) {
+            throw new IllegalArgumentException("Field name cannot be null or empty");
+        }
+        if (!StringUtils.hasText(query)) {
+            throw new IllegalArgumentException("Search query cannot be null or empty");
+        }
+
+        String dataset = datasetName.trim().toLowerCase();
+        String searchMode = mode != null ? mode.trim().toLowerCase() : "term";
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        log.info("Searching field '{}' ({}) for '{}' in dataset: {}", fieldName, searchMode, query, dataset);
+
+        List<Long> recordIds = switch (searchMode) {
+            case "term" -> {
+                Set<String> terms = SearchTokenizer.terms(query);
+                yield terms.isEmpty()
+                        ? Collections.emptyList()
+                        : tokenRepository.findByTerms(dataset, fieldName, terms, boundedLimit);
+            }
+            case "prefix" -> tokenRepository.findByTokenPrefix(
+                    dataset, fieldName, SearchToken.KIND_TERM, SearchTokenizer.normalize(query), boundedLimit);
+            case "substring" -> searchSubstring(dataset, fieldName, query, boundedLimit);
+            default -> throw new IllegalArgumentException(
+                    "Unsupported search mode: " + mode + " (expected term, prefix or substring)");
+        };
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("dataset", dataset);
+        result.put("field", fieldName);
+        result.put("mode", searchMode);
+        result.put("query", query);
+        result.put("recordIds", recordIds);
+        result.put("count", recordIds.size());
+        if (includeRecords) {
+            Map<Long, DatasetRecord> byId = recordStorage.findByDatasetNameAndIdIn(dataset, recordIds).stream()
+                    .collect(Collectors.toMap(DatasetRecord::getId, Function.identity()));
+            result.put("records", recordIds.stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .map(DatasetRecord::getRecordDataAsMap)
+                    .collect(Collectors.toList()));
+        }
+        return result;
+    }
+
+    public boolean rebuildIndex(String datasetName) {
+        requireSupportedStorage();
+        validateDatasetName(datasetName);
+        String dataset = datasetName.trim().toLowerCase();
+        if (!rebuilding.add(dataset)) {
+            return false;
+        }
+        rebuildExecutor.submit(() -> {
+            try {
+                rebuild(dataset);
+            } catch (Exception e) {
+                log.error("Search index rebuild failed for dataset: {}", dataset, e);
+            } finally {
+                rebuilding.remove(dataset);
+            }
+        });
+        return true;
+    }
+
+    public boolean isRebuilding(String datasetName) {
+        return datasetName != null && rebuilding.contains(datasetName.trim().toLowerCase());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecordsInserted(RecordsInsertedEvent event) {
+        if (!isSupportedStorage()) {
+            return;
+        }
+        postCommitExecutor.execute(event.datasetName(), "search-index", () -> {
+            try {
+                newTransaction().executeWithoutResult(status -> indexRecords(event.records()));
+            } catch (Exception e) {
+                // The records are committed; a rebuild repairs the index
+                log.error("Failed to index {} records for dataset: {}", event.records().size(), event.datasetName(), e);
+            }
+        }, () -> rebuildIndex(event.datasetName()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecordsDeleted(RecordsDeletedEvent event) {
+        // Partial (cutoff) deletes leave postings behind; lookups join to dataset_records and skip them
+        if (event.cutoffDate() == null && isSupportedStorage()) {
+            postCommitExecutor.execute(event.datasetName(), "search-index", () -> {
+                try {
+                    newTransaction().executeWithoutResult(status ->
+                            tokenRepository.deleteByRecordIdRange(event.datasetName(), event.fromId(), event.toId()));
+                } catch (Exception e) {
+                    log.error("Failed to purge postings of deleted records for dataset: {}", event.datasetName(), e);
+                }
+            }, () -> rebuildIndex(event.datasetName()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    void indexRecords(List<DatasetRecord> records) {
+        List<SearchToken> tokens = new ArrayList<>();
+        for (DatasetRecord record : records) {
+            if (record.getId() == null || record.getRecordData() == null) {
+                continue;
+            }
+            for (Map.Entry<String, Object> entry : record.getRecordDataAsMap().entrySet()) {
+                if (entry.getKey().length() > 100) {
+                    continue;
+                }
+                for (String value : scalarValues(entry.getValue())) {
+                    for (String term : SearchTokenizer.terms(value)) {
+                        tokens.add(new SearchToken(record.getDatasetName(), entry.getKey(),
+                                SearchToken.KIND_TERM, term, record.getId()));
+                    }
+                    for (String gram : SearchTokenizer.indexGrams(value)) {
+                        tokens.add(new SearchToken(record.getDatasetName(), entry.getKey(),
+                                SearchToken.KIND_GRAM, gram, record.getId()));
+                    }
+                }
+            }
+        }
+        tokenRepository.insertAll(tokens);
+        log.debug("Indexed {} records with {} postings", records.size(), tokens.size());
+    }
+
+    private List<Long> searchSubstring(String dataset, String fieldName, String query, int limit) {
+        String needle = SearchTokenizer.normalize(query);
+        Set<String> grams = SearchTokenizer.queryGrams(needle);
+
+        // One- and two-character needles are prefixes of some indexed gram, no verification needed
+        if (grams.isEmpty()) {
+            return tokenRepository.findByTokenPrefix(dataset, fieldName, SearchToken.KIND_GRAM, needle, limit);
+        }
+
+        // Containing every trigram is necessary but not sufficient, so check candidates page by page
+        List<Long> matches = new ArrayList<>();
+        long afterId = 0;
+        while (matches.size() < limit) {
+            List<Long> candidates = tokenRepository.findContainingAllGrams(dataset, fieldName, grams, afterId, limit);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            Map<Long, DatasetRecord> byId = recordStorage.findByDatasetNameAndIdIn(dataset, candidates).stream()
+                    .collect(Collectors.toMap(DatasetRecord::getId, Function.identity()));
+            for (Long id : candidates) {
+                DatasetRecord record = byId.get(id);
+                if (record != null && containsSubstring(record.getRecordDataAsMap().get(fieldName), needle)) {
+                    matches.add(id);
+                    if (matches.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            afterId = candidates.get(candidates.size() - 1);
+        }
+        return matches;
+    }
+
+    private boolean containsSubstring(Object value, String needle) {
+        return scalarValues(value).stream()
+                .anyMatch(scalar -> SearchTokenizer.normalize(scalar).contains(needle));
+    }
+
+    private List<String> scalarValues(Object value) {
+        if (value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return List.of(String.valueOf(value));
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.stream()
+                    .filter(item -> item instanceof String || item instanceof Number || item instanceof Boolean)
+                    .map(String::valueOf)
+                    .collect(Collectors.toList());
+        }
+        return Collections.emptyList();
+    }
+
+    private void rebuild(String dataset) {
+        log.info("Rebuilding search index for dataset: {}", dataset);
+        TransactionTemplate transactionTemplate = newTransaction();
+
+        int purged;
+        do {
+            purged = Objects.requireNonNull(transactionTemplate.execute(status ->
+                    tokenRepository.deleteChunkForDataset(dataset, PURGE_CHUNK_SIZE)));
+        } while (purged == PURGE_CHUNK_SIZE);
+
+        long lastId = 0;
+        long indexed = 0;
+        List<DatasetRecord> page;
+        do {
+            long afterId = lastId;
+            page = Objects.requireNonNull(transactionTemplate.execute(status -> {
+                List<DatasetRecord> records = recordStorage.findByDatasetNameAndIdGreaterThanOrderByIdAsc(
+                        dataset, afterId, Limit.of(REBUILD_PAGE_SIZE));
+                indexRecords(records);
+                return records;
+            }));
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+                indexed += page.size();
+            }
+        } while (page.size() == REBUILD_PAGE_SIZE);
+
+        log.info("Rebuilt search index for dataset: {} ({} records)", dataset, indexed);
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate;
+    }
+
+    private boolean isSupportedStorage() {
+        return "jpa".equals(storageType);
+    }
+
+    private void requireSupportedStorage() {
+        if (!isSupportedStorage()) {
+            throw new UnsupportedOperationException("Search is only available with app.storage.type=jpa");
+        }
+    }
+
+    private void validateDatasetName(String datasetName) {
+        if (datasetName == null || !StringUtils.hasText(datasetName.trim())) {
+            throw new IllegalArgumentException("Dataset name cannot be null or empty");
+        }
+    }
+}
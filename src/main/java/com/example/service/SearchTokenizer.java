@@ -0,0 +1,73 @@
+package com.example.service;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns JSON field values into search index tokens. Terms are runs of letters and digits;
+ * grams are every trigram of the normalized value plus its one- and two-character tail, so that
+ * any substring of length one or two is a prefix of at least one gram.
+ */
+final class SearchTokenizer {
+
+    static final int MAX_TOKEN_LENGTH = 64;
+    static final int GRAM_SIZE = 3;
+
+    // Longer values are still term-indexed, but only their head is gram-indexed
+    private static final int MAX_GRAM_SOURCE_LENGTH = 256;
+
+    private SearchTokenizer() {
+    }
+
+    static String normalize(String value) {
+        return Normalizer.normalize(value, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).trim();
+    }
+
+    static Set<String> terms(String value) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String term : normalize(value).split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(truncate(term));
+            }
+        }
+        return terms;
+    }
+
+    static Set<String> indexGrams(String value) {
+        String normalized = normalize(value);
+        if (normalized.length() > MAX_GRAM_SOURCE_LENGTH) {
+            normalized = normalized.substring(0, MAX_GRAM_SOURCE_LENGTH);
+        }
+        Set<String> grams = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return grams;
+        }
+        if (normalized.length() < GRAM_SIZE) {
+            grams.add(normalized);
+        } else {
+            for (int i = 0; i + GRAM_SIZE <= normalized.length(); i++) {
+                grams.add(normalized.substring(i, i + GRAM_SIZE));
+            }
+        }
+        for (int tail = 1; tail < GRAM_SIZE && tail <= normalized.length(); tail++) {
+            grams.add(normalized.substring(normalized.length() - tail));
+        }
+        return grams;
+    }
+
+    // Trigrams a value must contain for the query to be a substring of it
+    static Set<String> queryGrams(String query) {
+        String normalized = normalize(query);
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static String truncate(String token) {
+        return token.length() > MAX_TOKEN_LENGTH ? token.substring(0, MAX_TOKEN_LENGTH) : token;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.service;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ShardMigrationService {
+    Map<String, Object> getTopology();
+    List<Map<String, Object>> planRebalance();
+    Map<String, Object> startMigration(String datasetName, String targetShard);
+    Map<String, Object> getMigrationStatus(String datasetName);
+}
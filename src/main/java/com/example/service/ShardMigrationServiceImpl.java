@@ -0,0 +1,491 @@
+package com.example.service;
+
+import com.example.config.ShardRouter;
+import com.example.config.ShardRoutingDataSource;
+import com.example.config.ShardingProperties;
+import com.example.entity.DatasetPlacement;
+import com.example.repository.DatasetPlacementRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Moves a dataset from one shard to another while it stays readable and writable:
+ * <ol>
+ *     <li>copy its records to the target in id order, keeping their ids;</li>
+ *     <li>repeat for rows inserted meanwhile until a pass comes back short;</li>
+ *     <li>freeze writes, then lock the dataset's version row on the source so writes in flight
+ *         finish and later ones wait; copy the last rows, including ones that committed late with
+ *         lower ids, and drop target rows that were deleted on the source during the copy;</li>
+ *     <li>switch the placement and unfreeze before releasing the lock, so the waiting writes find
+ *         the new placement and roll back;</li>
+ *     <li>rebuild the search index, check that the source did not change after the switch, and
+ *         purge it.</li>
+ * </ol>
+ * Shards must hand out disjoint ids (for MySQL, distinct auto_increment_offset values with a
+ * shared auto_increment_increment); an id already used by another dataset aborts the move.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardMigrationServiceImpl implements ShardMigrationService {
+
+    private static final int MAX_CATCH_UP_PASSES = 10;
+
+    private final ShardRouter router;
+    private final ShardRoutingDataSource routingDataSource;
+    private final DatasetPlacementRepository placementRepository;
+    private final SearchIndexService searchIndexService;
+    private final ShardingProperties properties;
+
+    private final Map<String, Map<String, Object>> migrations = new ConcurrentHashMap<>();
+    // The source's version and highest id as the switch committed
+    private record Cutover(long version, long maxId) {
+    }
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shard-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public Map<String, Object> getTopology() {
+        Map<String, Object> topology = new LinkedHashMap<>();
+        topology.put("shards", router.getShards());
+        topology.put("homeShard", router.getHomeShard());
+        Map<String, Long> datasetsPerShard = new LinkedHashMap<>();
+        router.getShards().forEach(shard -> datasetsPerShard.put(shard, 0L));
+        router.getPlacements().values().forEach(shard -> datasetsPerShard.merge(shard, 1L, Long::sum));
+        topology.put("datasetsPerShard", datasetsPerShard);
+        topology.put("pendingMoves", planRebalance().size());
+        return topology;
+    }
+
+    // Datasets whose placement differs from where the ring would put them today
+    public List<Map<String, Object>> planRebalance() {
+        List<Map<String, Object>> plan = new ArrayList<>();
+        new TreeMap<>(router.getPlacements()).forEach((dataset, shard) -> {
+            String owner = router.ringOwner(dataset);
+            if (!owner.equals(shard)) {
+                Map<String, Object> move = new LinkedHashMap<>();
+                move.put("dataset", dataset);
+                move.put("from", shard);
+                move.put("to", owner);
+                plan.add(move);
+            }
+        });
+        return plan;
+    }
+
+    public Map<String, Object> startMigration(String datasetName, String targetShard) {
+        if (datasetName == null || datasetName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Dataset name cannot be null or empty");
+        }
+        String dataset = datasetName.trim().toLowerCase();
+        String target = targetShard != null && !targetShard.isBlank() ? targetShard : router.ringOwner(dataset);
+        if (!router.getShards().contains(target)) {
+            throw new IllegalArgumentException("Unknown shard: " + target);
+        }
+        String source = router.getPlacements().get(dataset);
+        if (source == null) {
+            throw new IllegalArgumentException("Dataset not found: " + dataset);
+        }
+        if (source.equals(target)) {
+            throw new IllegalArgumentException("Dataset " + dataset + " is already on shard " + target);
+        }
+
+        Map<String, Object> status = new ConcurrentHashMap<>();
+        status.put("dataset", dataset);
+        status.put("from", source);
+        status.put("to", target);
+        status.put("state", "QUEUED");
+        status.put("copiedRecords", 0L);
+        status.put("startedAt", LocalDateTime.now().toString());
+        Map<String, Object> existing = migrations.putIfAbsent(dataset, status);
+        if (existing != null && !isFinished(existing)) {
+            throw new IllegalArgumentException("Dataset " + dataset + " is already being migrated");
+        }
+        migrations.put(dataset, status);
+
+        log.info("Queued migration of dataset: {} from shard {} to {}", dataset, source, target);
+        worker.submit(() -> migrate(dataset, source, target, status));
+        return new LinkedHashMap<>(status);
+    }
+
+    public Map<String, Object> getMigrationStatus(String datasetName) {
+        Map<String, Object> status = migrations.get(datasetName.trim().toLowerCase());
+        if (status == null) {
+            throw new IllegalArgumentException("No migration found for dataset: " + datasetName);
+        }
+        return new LinkedHashMap<>(status);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void migrate(String dataset, String source, String target, Map<String, Object> status) {
+        DataSource sourceDataSource = routingDataSource.getShard(source);
+        NamedParameterJdbcTemplate from = new NamedParameterJdbcTemplate(sourceDataSource);
+        NamedParameterJdbcTemplate to = new NamedParameterJdbcTemplate(routingDataSource.getShard(target));
+        boolean frozen = false;
+        Cutover cutover;
+        try {
+            status.put("state", "COPYING");
+            long lastId = copyAfter(dataset, from, to, 0, status);
+            // Catch up with rows inserted during the bulk copy; a busy dataset gets a bounded number of passes
+            for (int pass = 0; pass < MAX_CATCH_UP_PASSES; pass++) {
+                long previous = lastId;
+                lastId = copyAfter(dataset, from, to, lastId, status);
+                if (lastId == previous) {
+                    break;
+                }
+            }
+
+            status.put("state", "CUTOVER");
+            saveAndPin(dataset, source, true);
+            frozen = true;
+            // Not relied on: instances that have refreshed by now wait at the freeze instead of on the fence below
+            Thread.sleep(properties.getPlacementRefreshMs());
+            cutover = cutover(dataset, target, sourceDataSource, to, lastId, status);
+            frozen = false;
+            log.info("Dataset: {} now served from shard {}", dataset, target);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(dataset, source, to, frozen, status, "Interrupted");
+            return;
+        } catch (Exception e) {
+            log.error("Failed to migrate dataset: {} from shard {} to {}", dataset, source, target, e);
+            abort(dataset, source, to, frozen, status, String.valueOf(e.getMessage()));
+            return;
+        }
+
+        // The target is live from here on; cleanup failures leave stale rows on the source, never data loss
+        try {
+            status.put("state", "CLEANUP");
+            searchIndexService.rebuildIndex(dataset);
+            if (reconcileSource(dataset, from, to, cutover, status)) {
+                status.put("purgedSourceRecords", purge(dataset, from));
+                status.put("state", "COMPLETED");
+            } else {
+                status.put("state", "COMPLETED_WITH_ERRORS");
+                status.put("error", "Writes reached shard " + source + " after the switch; its rows were kept");
+            }
+        } catch (Exception e) {
+            log.error("Failed to clean up shard {} after moving dataset: {}", source, dataset, e);
+            status.put("state", "COMPLETED_WITH_ERRORS");
+            status.put("error", String.valueOf(e.getMessage()));
+        }
+        status.put("finishedAt", LocalDateTime.now().toString());
+    }
+
+    /**
+     * Every write bumps the dataset's version row on its shard before it commits, then checks the
+     * committed placement. Taking that row's lock on the source therefore waits for the writes in
+     * flight to commit, and holding it until the placement has switched makes every later write
+     * find the new placement and roll back. In between, the source cannot change, so the last rows
+     * are copied, rows that committed late with lower ids are filled in, and deletes are replayed.
+     */
+    private Cutover cutover(String dataset, String target, DataSource sourceDataSource,
+                            NamedParameterJdbcTemplate to, long lastId, Map<String, Object> status) throws SQLException {
+        boolean sourceIsHome = sourceDataSource == routingDataSource.getShard(router.getHomeShard());
+        try (Connection connection = sourceDataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            NamedParameterJdbcTemplate fenced =
+                    new NamedParameterJdbcTemplate(new SingleConnectionDataSource(connection, true));
+            Cutover cutover;
+            try {
+                fenced.update("""
+                        INSERT INTO dataset_versions (dataset_name, version) VALUES (:datasetName, 1)
+                        ON DUPLICATE KEY UPDATE version = version + 1
+                        """, new MapSqlParameterSource("datasetName", dataset));
+
+                copyAfter(dataset, fenced, to, lastId, status);
+                status.put("copiedLateCommits", copyMissing(dataset, fenced, to, status));
+                status.put("reconciledDeletes", removeDeletedOnSource(dataset, fenced, to));
+                long version = copyVersion(dataset, fenced, to);
+                Long maxId = fenced.queryForObject("SELECT MAX(id) FROM dataset_records WHERE dataset_name = :datasetName",
+                        new MapSqlParameterSource("datasetName", dataset), Long.class);
+                cutover = new Cutover(version, maxId != null ? maxId : 0L);
+
+                if (sourceIsHome) {
+                    // Writers queued on the fence may hold every pooled connection to this database,
+                    // so the switch goes through the fence's own connection and commits with it
+                    fenced.update("""
+                            UPDATE dataset_placements SET shard_name = :shardName, writes_frozen = FALSE, updated_at = :now
+                            WHERE dataset_name = :datasetName
+                            """, new MapSqlParameterSource()
+                            .addValue("shardName", target)
+                            .addValue("now", LocalDateTime.now())
+                            .addValue("datasetName", dataset));
+                } else {
+                    saveAndPin(dataset, target, false);
+                }
+            } catch (RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+
+            if (sourceIsHome) {
+                connection.commit();
+                router.pin(dataset, target);
+                router.setFrozen(dataset, false);
+                return cutover;
+            }
+            try {
+                connection.commit();
+            } catch (SQLException e) {
+                // Only the fence's own version bump is lost; the switch has committed and the target has the version
+                log.warn("Could not commit the cutover fence for dataset: {}", dataset, e);
+            }
+            return cutover;
+        }
+    }
+
+    // Before the purge: an unchanged source version proves no write reached the source after the switch
+    private boolean reconcileSource(String dataset, NamedParameterJdbcTemplate from, NamedParameterJdbcTemplate to,
+                                    Cutover cutover, Map<String, Object> status) {
+        List<Long> versions = from.queryForList("SELECT version FROM dataset_versions WHERE dataset_name = :datasetName",
+                new MapSqlParameterSource("datasetName", dataset), Long.class);
+        if (versions.isEmpty() || versions.get(0) <= cutover.version()) {
+            return true;
+        }
+        long copied = (Long) status.getOrDefault("copiedRecords", 0L);
+        copyAfter(dataset, from, to, cutover.maxId(), status);
+        status.put("copiedAfterSwitch", (Long) status.get("copiedRecords") - copied);
+        log.error("Dataset: {} changed on its old shard after the switch; copied new rows and kept the old shard's rows",
+                dataset);
+        return false;
+    }
+
+    // Copies rows with id > afterId, chunk by chunk, and returns the highest id copied
+    private long copyAfter(String dataset, NamedParameterJdbcTemplate from, NamedParameterJdbcTemplate to,
+                           long afterId, Map<String, Object> status) {
+        int chunkSize = properties.getMigrationChunkSize();
+        long lastId = afterId;
+        List<Map<String, Object>> rows;
+        do {
+            rows = from.queryForList("""
+                    SELECT id, dataset_name, record_data, created_at, updated_at
+                    FROM dataset_records
+                    WHERE dataset_name = :datasetName AND id > :afterId
+                    ORDER BY id
+                    LIMIT :limit
+                    """, new MapSqlParameterSource()
+                    .addValue("datasetName", dataset)
+                    .addValue("afterId", lastId)
+                    .addValue("limit", chunkSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            insertRows(dataset, to, rows, status);
+            lastId = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+        } while (rows.size() == chunkSize);
+        return lastId;
+    }
+
+    // Ids are handed out before commit, so a row can commit after a higher id was already copied
+    private long copyMissing(String dataset, NamedParameterJdbcTemplate from, NamedParameterJdbcTemplate to,
+                             Map<String, Object> status) {
+        int chunkSize = properties.getMigrationChunkSize();
+        long copied = 0;
+        long lastId = 0;
+        List<Long> sourceIds;
+        do {
+            sourceIds = idChunk(from, dataset, lastId, chunkSize);
+            if (sourceIds.isEmpty()) {
+                break;
+            }
+            Set<Long> present = new HashSet<>(to.queryForList("""
+                    SELECT id FROM dataset_records WHERE dataset_name = :datasetName AND id IN (:ids)
+                    """, new MapSqlParameterSource()
+                    .addValue("datasetName", dataset)
+                    .addValue("ids", sourceIds), Long.class));
+            List<Long> missing = sourceIds.stream().filter(id -> !present.contains(id)).toList();
+            if (!missing.isEmpty()) {
+                List<Map<String, Object>> rows = from.queryForList("""
+                        SELECT id, dataset_name, record_data, created_at, updated_at
+                        FROM dataset_records
+                        WHERE dataset_name = :datasetName AND id IN (:ids)
+                        """, new MapSqlParameterSource()
+                        .addValue("datasetName", dataset)
+                        .addValue("ids", missing));
+                insertRows(dataset, to, rows, status);
+                copied += rows.size();
+            }
+            lastId = sourceIds.get(sourceIds.size() - 1);
+        } while (sourceIds.size() == chunkSize);
+        return copied;
+    }
+
+    private void insertRows(String dataset, NamedParameterJdbcTemplate to, List<Map<String, Object>> rows,
+                            Map<String, Object> status) {
+        MapSqlParameterSource[] batch = rows.stream()
+                .map(row -> new MapSqlParameterSource()
+                        .addValue("id", row.get("id"))
+                        .addValue("dataset_name", row.get("dataset_name"))
+                        .addValue("record_data", row.get("record_data"))
+                        .addValue("created_at", row.get("created_at"))
+                        .addValue("updated_at", row.get("updated_at")))
+                .toArray(MapSqlParameterSource[]::new);
+        int[] inserted = to.batchUpdate("""
+                INSERT IGNORE INTO dataset_records (id, dataset_name, record_data, created_at, updated_at)
+                VALUES (:id, :dataset_name, :record_data, :created_at, :updated_at)
+                """, batch);
+        verifyNoIdCollision(dataset, to, rows, inserted);
+        status.merge("copiedRecords", (long) rows.size(), (a, b) -> (Long) a + (Long) b);
+    }
+
+    // Rows skipped by INSERT IGNORE are fine when a retried move already copied them, fatal otherwise
+    private void verifyNoIdCollision(String dataset, NamedParameterJdbcTemplate to,
+                                     List<Map<String, Object>> rows, int[] inserted) {
+        List<Object> skipped = new ArrayList<>();
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i] == 0) {
+                skipped.add(rows.get(i).get("id"));
+            }
+        }
+        if (skipped.isEmpty()) {
+            return;
+        }
+        List<Long> clashing = to.queryForList("""
+                SELECT id FROM dataset_records WHERE id IN (:ids) AND dataset_name <> :datasetName
+                """, new MapSqlParameterSource()
+                .addValue("ids", skipped)
+                .addValue("datasetName", dataset), Long.class);
+        if (!clashing.isEmpty()) {
+            throw new IllegalStateException("Record ids " + clashing
+                    + " already exist on the target shard; configure disjoint auto_increment offsets per shard");
+        }
+    }
+
+    // The version moves with the records so ETags handed out before the move never match again by accident
+    private long copyVersion(String dataset, NamedParameterJdbcTemplate from, NamedParameterJdbcTemplate to) {
+        List<Long> versions = from.queryForList("SELECT version FROM dataset_versions WHERE dataset_name = :datasetName",
+                new MapSqlParameterSource("datasetName", dataset), Long.class);
+        if (versions.isEmpty()) {
+            return 0;
+        }
+        to.update("""
+                INSERT INTO dataset_versions (dataset_name, version) VALUES (:datasetName, :version)
+                ON DUPLICATE KEY UPDATE version = GREATEST(version, VALUES(version))
+                """, new MapSqlParameterSource()
+                .addValue("datasetName", dataset)
+                .addValue("version", versions.get(0)));
+        return versions.get(0);
+    }
+
+    // Anything on the target that is gone from the source was deleted while the copy ran
+    private long removeDeletedOnSource(String dataset, NamedParameterJdbcTemplate from, NamedParameterJdbcTemplate to) {
+        int chunkSize = properties.getMigrationChunkSize();
+        long removed = 0;
+        long lastId = 0;
+        List<Long> targetIds;
+        do {
+            targetIds = idChunk(to, dataset, lastId, chunkSize);
+            if (targetIds.isEmpty()) {
+                break;
+            }
+            Set<Long> present = new HashSet<>(from.queryForList("""
+                    SELECT id FROM dataset_records WHERE dataset_name = :datasetName AND id IN (:ids)
+                    """, new MapSqlParameterSource()
+                    .addValue("datasetName", dataset)
+                    .addValue("ids", targetIds), Long.class));
+            List<Long> gone = targetIds.stream().filter(id -> !present.contains(id)).toList();
+            if (!gone.isEmpty()) {
+                removed += to.update("DELETE FROM dataset_records WHERE id IN (:ids)",
+                        new MapSqlParameterSource("ids", gone));
+            }
+            lastId = targetIds.get(targetIds.size() - 1);
+        } while (targetIds.size() == chunkSize);
+        return removed;
+    }
+
+    private long purge(String dataset, NamedParameterJdbcTemplate shard) {
+        int chunkSize = properties.getMigrationChunkSize();
+        long purged = 0;
+        List<Long> ids;
+        do {
+            ids = idChunk(shard, dataset, 0, chunkSize);
+            if (!ids.isEmpty()) {
+                MapSqlParameterSource range = new MapSqlParameterSource()
+                        .addValue("datasetName", dataset)
+                        .addValue("fromId", ids.get(0))
+                        .addValue("toId", ids.get(ids.size() - 1));
+                shard.update("""
+                        DELETE FROM dataset_search_tokens
+                        WHERE dataset_name = :datasetName AND record_id BETWEEN :fromId AND :toId
+                        """, range);
+                purged += shard.update("""
+                        DELETE FROM dataset_records
+                        WHERE dataset_name = :datasetName AND id BETWEEN :fromId AND :toId
+                        """, range);
+            }
+        } while (ids.size() == chunkSize);
+        shard.update("DELETE FROM dataset_versions WHERE dataset_name = :datasetName",
+                new MapSqlParameterSource("datasetName", dataset));
+        return purged;
+    }
+
+    private List<Long> idChunk(NamedParameterJdbcTemplate shard, String dataset, long afterId, int limit) {
+        return shard.queryForList("""
+                SELECT id FROM dataset_records
+                WHERE dataset_name = :datasetName AND id > :afterId
+                ORDER BY id
+                LIMIT :limit
+                """, new MapSqlParameterSource()
+                .addValue("datasetName", dataset)
+                .addValue("afterId", afterId)
+                .addValue("limit", limit), Long.class);
+    }
+
+    private void abort(String dataset, String source, NamedParameterJdbcTemplate target, boolean frozen,
+                      Map<String, Object> status, String message) {
+        if (frozen) {
+            saveAndPin(dataset, source, false);
+        }
+        try {
+            // The partial copy is invisible (the placement still points at the source) but would waste space
+            purge(dataset, target);
+        } catch (Exception e) {
+            log.warn("Could not remove partial copy of dataset: {} after failed migration", dataset, e);
+        }
+        status.put("state", "FAILED");
+        status.put("error", message);
+        status.put("finishedAt", LocalDateTime.now().toString());
+    }
+
+    private void saveAndPin(String dataset, String shard, boolean frozen) {
+        placementRepository.save(DatasetPlacement.builder()
+                .datasetName(dataset)
+                .shardName(shard)
+                .writesFrozen(frozen)
+                .updatedAt(LocalDateTime.now())
+                .build());
+        router.pin(dataset, shard);
+        router.setFrozen(dataset, frozen);
+    }
+
+    private boolean isFinished(Map<String, Object> status) {
+        Object state = status.get("state");
+        return "COMPLETED".equals(state) || "COMPLETED_WITH_ERRORS".equals(state) || "FAILED".equals(state);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.sketch;
+
+import java.util.*;
+
+/**
+ * Space-Saving heavy-hitters sketch. Keeps at most {@code capacity} counters; when a new value
+ * arrives with every counter taken, it replaces the smallest one and inherits its count as error.
+ * Any value with a true frequency above {@code total / capacity} is guaranteed to be tracked.
+ */
+public class SpaceSavingTopK {
+
+    public record Entry(String value, long count, long error) {
+    }
+
+    private final int capacity;
+    private final Map<String, long[]> counters;
+    private long total;
+
+    public SpaceSavingTopK(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public static SpaceSavingTopK fromEntries(int capacity, long total, Collection<Entry> entries) {
+        SpaceSavingTopK sketch = new SpaceSavingTopK(capacity);
+        for (Entry entry : entries) {
+            sketch.counters.put(entry.value(), new long[]{entry.count(), entry.error()});
+        }
+        sketch.total = total;
+        return sketch;
+    }
+
+    public void add(String value) {
+        total++;
+        long[] counter = counters.get(value);
+        if (counter != null) {
+            counter[0]++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(value, new long[]{1, 0});
+            return;
+        }
+        // Linear scan for the minimum keeps the sketch compact; capacities here are a few hundred
+        String minValue = null;
+        long minCount = Long.MAX_VALUE;
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            if (entry.getValue()[0] < minCount) {
+                minCount = entry.getValue()[0];
+                minValue = entry.getKey();
+            }
+        }
+        counters.remove(minValue);
+        counters.put(value, new long[]{minCount + 1, minCount});
+    }
+
+    public List<Entry> top(int k) {
+        return counters.entrySet().stream()
+                .map(entry -> new Entry(entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+                .sorted(Comparator.comparingLong(Entry::count).reversed().thenComparing(Entry::value))
+                .limit(k)
+                .toList();
+    }
+
+    public List<Entry> entries() {
+        return top(counters.size());
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.storage;
+
+import java.util.*;
+
+/**
+ * Keeps the first {@code k} elements of a stream under a comparator in a size-k heap:
+ * O(n log k) time and O(k) memory instead of sorting all n elements. Ties keep arrival order.
+ */
+final class BoundedTopN<T> {
+
+    private record Ranked<T>(T value, long sequence) {
+    }
+
+    private final int k;
+    private final Comparator<Ranked<T>> order;
+    private final PriorityQueue<Ranked<T>> heap;
+    private long sequence;
+
+    BoundedTopN(int k, Comparator<? super T> comparator) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        this.k = k;
+        this.order = Comparator.<Ranked<T>, T>comparing(Ranked::value, comparator)
+                .thenComparingLong(Ranked::sequence);
+        // Head of the heap is the worst element kept so far
+        this.heap = new PriorityQueue<>(Math.min(k, 1024) + 1, order.reversed());
+    }
+
+    void offer(T value) {
+        Ranked<T> ranked = new Ranked<>(value, sequence++);
+        if (heap.size() < k) {
+            heap.add(ranked);
+        } else if (order.compare(ranked, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(ranked);
+        }
+    }
+
+    List<T> toSortedList() {
+        List<Ranked<T>> ranked = new ArrayList<>(heap);
+        ranked.sort(order);
+        List<T> result = new ArrayList<>(ranked.size());
+        for (Ranked<T> entry : ranked) {
+            result.add(entry.value());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.storage;
+
+import com.example.deadline.RequestDeadline;
+import com.example.entity.DatasetRecord;
+import org.springframework.data.domain.Limit;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Where dataset records are kept. Method names and semantics follow {@code DatasetRecordRepository}
+ * so the JPA backend is a straight delegation. Field names are {@link com.example.json.FieldPath}
+ * paths: dotted members and bracketed array positions, such as {@code address.city} or
+ * {@code items[0].sku}, with a plain name being a top-level member. Sorted results skip records
+ * where the path resolves to null or to nothing: a member of a value that is not an object, or a
+ * position in a value that is not an array or past its end.
+ */
+public interface DatasetStorage {
+
+    DatasetRecord save(DatasetRecord record);
+
+    List<DatasetRecord> saveAll(List<DatasetRecord> records);
+
+    List<DatasetRecord> findByDatasetName(String datasetName);
+
+    long countByDatasetName(String datasetName);
+
+    long countByDatasetNameAndCreatedAtBefore(String datasetName, LocalDateTime cutoffDate);
+
+    // [datasetName, recordCount] rows ordered by dataset name
+    List<Object[]> countRecordsPerDataset();
+
+    List<DatasetRecord> findByDatasetNameAndIdGreaterThanOrderByIdAsc(String datasetName, Long id, Limit limit);
+
+    // In no particular order; ids that are missing or belong to another dataset are skipped
+    List<DatasetRecord> findByDatasetNameAndIdIn(String datasetName, Collection<Long> ids);
+
+    List<DatasetRecord> findByDatasetNameSortedByJsonFieldAsc(String datasetName, String sortField);
+
+    List<DatasetRecord> findByDatasetNameSortedByJsonFieldDesc(String datasetName, String sortField);
+
+    List<DatasetRecord> findTopByDatasetNameSortedByJsonFieldAsc(String datasetName, String sortField, int limit);
+
+    List<DatasetRecord> findTopByDatasetNameSortedByJsonFieldDesc(String datasetName, String sortField, int limit);
+
+    List<String> findDistinctJsonFieldValuesFirstPage(String datasetName, String fieldName, int pageSize);
+
+    List<String> findDistinctJsonFieldValuesAfter(String datasetName, String fieldName, String afterValue, int pageSize);
+
+    List<Long> findIdChunk(String datasetName, Long afterId, int chunkSize);
+
+    List<Long> findIdChunkCreatedBefore(String datasetName, Long afterId, LocalDateTime cutoffDate, int chunkSize);
+
+    int deleteIdRange(String datasetName, Long fromId, Long toId);
+
+    int deleteIdRangeCreatedBefore(String datasetName, Long fromId, Long toId, LocalDateTime cutoffDate);
+
+    /**
+     * Change counter of the dataset, 0 before its first write. Saves and non-empty deletes move it
+     * in the same commit as the records, and it is read from the store itself, so it is the same
+     * on every instance sharing the store.
+     */
+    long getVersion(String datasetName);
+
+    /** Sum of the versions of all datasets; moves whenever any dataset changes. */
+    long getTotalVersion();
+
+    /**
+     * Hands the stored JSON of each record to {@code sink} without parsing it, in the order the
+     * matching list method returns (sorted when {@code sortField} is given, first {@code limit} only
+     * when a limit is given as well). The default goes through those list methods; backends that can
+     * stream straight from their store override it.
+     */
+    default void streamRecordJson(String datasetName, String sortField, boolean descending, Integer limit,
+                                  RecordJsonSink sink) throws IOException {
+        List<DatasetRecord> records;
+        if (sortField == null) {
+            records = findByDatasetName(datasetName);
+        } else if (limit != null) {
+            records = descending
+                    ? findTopByDatasetNameSortedByJsonFieldDesc(datasetName, sortField, limit)
+                    : findTopByDatasetNameSortedByJsonFieldAsc(datasetName, sortField, limit);
+        } else {
+            records = descending
+                    ? findByDatasetNameSortedByJsonFieldDesc(datasetName, sortField)
+                    : findByDatasetNameSortedByJsonFieldAsc(datasetName, sortField);
+        }
+        long written = 0;
+        for (DatasetRecord record : records) {
+            RequestDeadline.checkpoint(++written);
+            if (record.getRecordData() != null) {
+                sink.accept(new ByteArrayInputStream(record.getRecordData().getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.storage;
+
+import com.example.deadline.RequestDeadline;
+import com.example.entity.DatasetRecord;
+import com.example.json.FieldPath;
+import com.example.repository.DatasetRecordRepository;
+import com.example.repository.DatasetVersionRepository;
+import com.example.repository.RawRecordRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * The default backend: records live in the MySQL {@code dataset_records} table and JSON
+ * sorting and distinct values run as native JSON SQL, with field paths bound as compiled JSON paths.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.storage", name = "type", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaDatasetStorage implements DatasetStorage {
+
+    private final DatasetRecordRepository repository;
+    private final RawRecordRepository rawRepository;
+    private final DatasetVersionRepository versionRepository;
+
+    // The version row is written last, so its lock is held only until the caller's commit
+    public DatasetRecord save(DatasetRecord record) {
+        DatasetRecord saved = repository.save(record);
+        versionRepository.bump(saved.getDatasetName());
+        return saved;
+    }
+
+    public List<DatasetRecord> saveAll(List<DatasetRecord> records) {
+        List<DatasetRecord> saved = repository.saveAll(records);
+        saved.stream()
+                .map(DatasetRecord::getDatasetName)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new))
+                .forEach(versionRepository::bump);
+        return saved;
+    }
+
+    public List<DatasetRecord> findByDatasetName(String datasetName) {
+        return repository.findByDatasetName(datasetName);
+    }
+
+    public long countByDatasetName(String datasetName) {
+        return repository.countByDatasetName(datasetName);
+    }
+
+    public long countByDatasetNameAndCreatedAtBefore(String datasetName, LocalDateTime cutoffDate) {
+        return repository.countByDatasetNameAndCreatedAtBefore(datasetName, cutoffDate);
+    }
+
+    public List<Object[]> countRecordsPerDataset() {
+        return repository.countRecordsPerDataset();
+    }
+
+    public List<DatasetRecord> findByDatasetNameAndIdGreaterThanOrderByIdAsc(String datasetName, Long id, Limit limit) {
+        return repository.findByDatasetNameAndIdGreaterThanOrderByIdAsc(datasetName, id, limit);
+    }
+
+    public List<DatasetRecord> findByDatasetNameAndIdIn(String datasetName, Collection<Long> ids) {
+        return ids.isEmpty() ? new ArrayList<>() : repository.findByDatasetNameAndIdIn(datasetName, ids);
+    }
+
+    public List<DatasetRecord> findByDatasetNameSortedByJsonFieldAsc(String datasetName, String sortField) {
+        return repository.findByDatasetNameSortedByJsonFieldAsc(datasetName, jsonPath(sortField));
+    }
+
+    public List<DatasetRecord> findByDatasetNameSortedByJsonFieldDesc(String datasetName, String sortField) {
+        return repository.findByDatasetNameSortedByJsonFieldDesc(datasetName, jsonPath(sortField));
+    }
+
+    public List<DatasetRecord> findTopByDatasetNameSortedByJsonFieldAsc(String datasetName, String sortField, int limit) {
+        return repository.findTopByDatasetNameSortedByJsonFieldAsc(datasetName, jsonPath(sortField), limit);
+    }
+
+    public List<DatasetRecord> findTopByDatasetNameSortedByJsonFieldDesc(String datasetName, String sortField, int limit) {
+        return repository.findTopByDatasetNameSortedByJsonFieldDesc(datasetName, jsonPath(sortField), limit);
+    }
+
+    public List<String> findDistinctJsonFieldValuesFirstPage(String datasetName, String fieldName, int pageSize) {
+        return repository.findDistinctJsonFieldValuesFirstPage(datasetName, jsonPath(fieldName), pageSize);
+    }
+
+    public List<String> findDistinctJsonFieldValuesAfter(String datasetName, String fieldName, String afterValue, int pageSize) {
+        return repository.findDistinctJsonFieldValuesAfter(datasetName, jsonPath(fieldName), afterValue, pageSize);
+    }
+
+    public List<Long> findIdChunk(String datasetName, Long afterId, int chunkSize) {
+        return repository.findIdChunk(datasetName, afterId, chunkSize);
+    }
+
+    public List<Long> findIdChunkCreatedBefore(String datasetName, Long afterId, LocalDateTime cutoffDate, int chunkSize) {
+        return repository.findIdChunkCreatedBefore(datasetName, afterId, cutoffDate, chunkSize);
+    }
+
+    public int deleteIdRange(String datasetName, Long fromId, Long toId) {
+        return bumpIfDeleted(datasetName, repository.deleteIdRange(datasetName, fromId, toId));
+    }
+
+    public int deleteIdRangeCreatedBefore(String datasetName, Long fromId, Long toId, LocalDateTime cutoffDate) {
+        return bumpIfDeleted(datasetName, repository.deleteIdRangeCreatedBefore(datasetName, fromId, toId, cutoffDate));
+    }
+
+    public long getVersion(String datasetName) {
+        return versionRepository.findVersion(datasetName).orElse(0L);
+    }
+
+    public long getTotalVersion() {
+        return versionRepository.findAllVersions().stream()
+                .mapToLong(row -> ((Number) row[1]).longValue())
+                .sum();
+    }
+
+    private int bumpIfDeleted(String datasetName, int deleted) {
+        if (deleted > 0) {
+            versionRepository.bump(datasetName);
+        }
+        return deleted;
+    }
+
+    // Copies record_data straight from the JDBC stream while the result set is open
+    public void streamRecordJson(String datasetName, String sortField, boolean descending, Integer limit,
+                                 RecordJsonSink sink) throws IOException {
+        try {
+            long[] rows = {0};
+            rawRepository.streamRecordData(datasetName,
+                    sortField != null ? jsonPath(sortField) : null, descending, limit, rs -> {
+                // Throwing here cancels the streaming statement first, so closing it does not drain the rows
+                RequestDeadline.checkpoint(++rows[0]);
+                try {
+                    sink.accept(rs.getBinaryStream(1));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Field paths are compiled and cached once, so each query binds a ready JSON path
+    private static String jsonPath(String fieldPath) {
+        return FieldPath.of(fieldPath).getMysqlPath();
+    }
+}
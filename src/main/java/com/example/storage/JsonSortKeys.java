@@ -0,0 +1,77 @@
+package com.example.storage;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+
+/**
+ * Encodes JSON values as strings whose plain {@code String} order matches MySQL's JSON comparison:
+ * numbers before strings before objects before arrays before booleans, numbers by value and strings
+ * by code unit. Index keys are built from these so a range scan over the index map is already sorted.
+ */
+final class JsonSortKeys {
+
+    // Separates the value from the record id suffix; sorts below every character a value can contain
+    static final char TERMINATOR = '\u0000';
+
+    private static final int EXPONENT_BIAS = 5000;
+
+    private JsonSortKeys() {
+    }
+
+    /** Returns null for missing and JSON null values, which sorted reads skip. */
+    static String encode(JsonNode value) {
+        if (value == null || value.isNull() || value.isMissingNode()) {
+            return null;
+        }
+        if (value.isNumber()) {
+            return "1" + encodeNumber(value.decimalValue());
+        }
+        if (value.isTextual()) {
+            return "3" + value.textValue();
+        }
+        if (value.isObject()) {
+            return "4" + value;
+        }
+        if (value.isArray()) {
+            return "5" + value;
+        }
+        if (value.isBoolean()) {
+            return value.booleanValue() ? "61" : "60";
+        }
+        return "7" + value;
+    }
+
+    static String indexKey(String sortKey, long id) {
+        return sortKey + TERMINATOR + String.format("%019d", id);
+    }
+
+    static long idOf(String indexKey) {
+        return Long.parseLong(indexKey.substring(indexKey.lastIndexOf(TERMINATOR) + 1));
+    }
+
+    /**
+     * Zero is 'M'. Positive values are 'Z', a biased decimal exponent and the significant digits.
+     * Negative values are 'A' followed by the nines' complement of the same, closed with '~' so that
+     * a longer (more negative) digit run sorts first.
+     */
+    static String encodeNumber(BigDecimal number) {
+        if (number.signum() == 0) {
+            return "M";
+        }
+        BigDecimal magnitude = number.abs().stripTrailingZeros();
+        String digits = magnitude.unscaledValue().toString();
+        int exponent = digits.length() - magnitude.scale() + EXPONENT_BIAS;
+        if (exponent < 0 || exponent > 9999) {
+            throw new IllegalArgumentException("Number out of sortable range: " + number);
+        }
+        if (number.signum() > 0) {
+            return "Z" + String.format("%04d", exponent) + digits;
+        }
+        StringBuilder key = new StringBuilder("A").append(String.format("%04d", 9999 - exponent));
+        for (int i = 0; i < digits.length(); i++) {
+            key.append((char) ('9' - digits.charAt(i) + '0'));
+        }
+        return key.append('~').toString();
+    }
+}
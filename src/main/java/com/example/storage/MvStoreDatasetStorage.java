@@ -0,0 +1,522 @@
+package com.example.storage;
+
+import com.example.deadline.RequestDeadline;
+import com.example.entity.DatasetRecord;
+import com.example.json.FieldPath;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.mvstore.Cursor;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Embedded backend on an H2 MVStore file. Each dataset is an ordered map of id to record, so id
+ * range scans (pagination, delete chunks) are cursor walks. Configured JSON paths get a local
+ * secondary index per dataset, keyed by {@link JsonSortKeys} plus the record id, which turns sorted
+ * reads into index range scans; other paths fall back to scanning the dataset, extracting each
+ * row's value once and sorting primitive (all-numeric) or {@link JsonSortKeys} keys.
+ *
+ * <p>Writes are serialised and each call is committed as one store version, so a crash never
+ * leaves half a batch on disk; there is no transaction spanning several calls. Readers never block.
+ * Dataset names are matched without regard to case, like the {@code dataset_name} column.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.storage", name = "type", havingValue = "mvstore")
+@Slf4j
+public class MvStoreDatasetStorage implements DatasetStorage {
+
+    private static final String RECORDS_PREFIX = "records/";
+    private static final String INDEX_PREFIX = "index/";
+    private static final String NEXT_ID = "next-id";
+    private static final String INDEX_BUILT = "index-built:";
+    private static final String VERSION = "version:";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final MVStore store;
+    private final MVMap<String, Object> meta;
+    private final Set<String> indexedPaths;
+    private final Object writeLock = new Object();
+
+    public MvStoreDatasetStorage(@Value("${app.storage.mvstore.file:data/records.mv.db}") String file,
+                                 @Value("${app.storage.mvstore.cache-size-mb:64}") int cacheSizeMb,
+                                 @Value("${app.storage.mvstore.indexed-paths:}") List<String> indexedPaths) {
+        File parent = new File(file).getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IllegalStateException("Cannot create storage directory: " + parent);
+        }
+        this.store = new MVStore.Builder()
+                .fileName(file)
+                .cacheSize(cacheSizeMb)
+                .compress()
+                .autoCommitDisabled()
+                .open();
+        this.meta = store.openMap("meta");
+        this.indexedPaths = new LinkedHashSet<>();
+        for (String path : indexedPaths) {
+            if (path != null && !path.isBlank()) {
+                this.indexedPaths.add(FieldPath.of(path.trim()).getPath());
+            }
+        }
+        log.info("Opened MVStore dataset storage at {} with indexed paths {}", file, this.indexedPaths);
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (writeLock) {
+            store.close();
+        }
+    }
+
+    public DatasetRecord save(DatasetRecord record) {
+        synchronized (writeLock) {
+            put(record);
+            bumpVersion(record.getDatasetName());
+            store.commit();
+        }
+        return record;
+    }
+
+    public List<DatasetRecord> saveAll(List<DatasetRecord> records) {
+        synchronized (writeLock) {
+            Set<String> datasets = new LinkedHashSet<>();
+            for (DatasetRecord record : records) {
+                put(record);
+                datasets.add(key(record.getDatasetName()));
+            }
+            datasets.forEach(this::bumpVersion);
+            store.commit();
+        }
+        return records;
+    }
+
+    public long getVersion(String datasetName) {
+        return (Long) meta.getOrDefault(VERSION + key(datasetName), 0L);
+    }
+
+    public long getTotalVersion() {
+        long total = 0;
+        for (Map.Entry<String, Object> entry : meta.entrySet()) {
+            if (entry.getKey().startsWith(VERSION)) {
+                total += (Long) entry.getValue();
+            }
+        }
+        return total;
+    }
+
+    public List<DatasetRecord> findByDatasetName(String datasetName) {
+        MVMap<Long, Object[]> records = recordsIfPresent(datasetName);
+        if (records == null) {
+            return new ArrayList<>();
+        }
+        List<DatasetRecord> result = new ArrayList<>();
+        Cursor<Long, Object[]> cursor = records.cursor(null);
+        while (cursor.hasNext()) {
+            RequestDeadline.checkpoint(result.size() + 1);
+            Long id = cursor.next();
+            result.add(toRecord(datasetName, id, cursor.getValue()));
+        }
+        return result;
+    }
+
+    public long countByDatasetName(String datasetName) {
+        MVMap<Long, Object[]> records = recordsIfPresent(datasetName);
+        return records == null ? 0 : records.sizeAsLong();
+    }
+
+    public long countByDatasetNameAndCreatedAtBefore(String datasetName, LocalDateTime cutoffDate) {
+        MVMap<Long, Object[]> records = recordsIfPresent(datasetName);
+        if (records == null) {
+            return 0;
+        }
+        long count = 0;
+        for (Object[] value : records.values()) {
+            if (createdAt(value).isBefore(cutoffDate)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public List<Object[]> countRecordsPerDataset() {
+        List<Object[]> rows = new ArrayList<>();
+        for (String mapName : new TreeSet<>(store.getMapNames())) {
+            if (mapName.startsWith(RECORDS_PREFIX)) {
+                long count = store.<Long, Object[]>openMap(mapName).sizeAsLong();
+                if (count > 0) {
+                    rows.add(new Object[]{mapName.substring(RECORDS_PREFIX.length()), count});
+                }
+            }
+        }
+        return rows;
+    }
+
+    public List<DatasetRecord> findByDatasetNameAndIdGreaterThanOrderByIdAsc(String datasetName, Long id, Limit limit) {
+        MVMap<Long, Object[]> records = recordsIfPresent(datasetName);
+        List<DatasetRecord> result = new ArrayList<>();
+        if (records == null) {
+            return result;
+        }
+        int max = limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+        Long key = records.higherKey(id);
+        while (key != null && result.size() < max) {
+            Object[] value = records.get(key);
+            if (value != null) {
+                result.add(toRecord(datasetName, key, value));
+            }
+            key = records.higherKey(key);
+        }
+        return result;
+    }
+
+    public List<DatasetRecord> findByDatasetNameAndIdIn(String datasetName, Collection<Long> ids) {
+        MVMap<Long, Object[]> records = recordsIfPresent(datasetName);
+        List<DatasetRecord> result = new ArrayList<>();
+        if (records == null) {
+            return result;
+        }
+        for (Long id : ids) {
+            Object[] value = id != null ? records.get(id) : null;
+            if (value != null) {
+                result.add(toRecord(datasetName, id, value));
+            }
+        }
+        return result;
+    }
+
+    public List<DatasetRecord> findByDatasetNameSortedByJsonFieldAsc(String datasetName, String sortField) {
+        return sorted(datasetName, sortField, false, Integer.MAX_VALUE);
+    }
+
+    public List<DatasetRecord> findByDatasetNameSortedByJsonFieldDesc(String datasetName, String sortField) {
+        return sorted(datasetName, sortField, true, Integer.MAX_VALUE);
+    }
+
+    public List<DatasetRecord> findTopByDatasetNameSortedByJsonFieldAsc(String datasetName, String sortField, int limit) {
+        return sorted(datasetName, sortField, false, limit);
+    }
+
+    public List<DatasetRecord> findTopByDatasetNameSortedByJsonFieldDesc(String datasetName, String sortField, int limit) {
+        return sorted(datasetName, sortField, true, limit);
+    }
+
+    public List<String> findDistinctJsonFieldValuesFirstPage(String datasetName, String fieldName, int pageSize) {
+        return distinctValues(datasetName, fieldName, null, pageSize);
+    }
+
+    public List<String> findDistinctJsonFieldValuesAfter(String datasetName, String fieldName, String afterValue, int pageSize) {
+        return distinctValues(datasetName, fieldName, afterValue, pageSize);
+    }
+
+    public List<Long> findIdChunk(String datasetName, Long afterId, int chunkSize) {
+        return idChunk(datasetName, afterId, null, chunkSize);
+    }
+
+    public List<Long> findIdChunkCreatedBefore(String datasetName, Long afterId, LocalDateTime cutoffDate, int chunkSize) {
+        return idChunk(datasetName, afterId, cutoffDate, chunkSize);
+    }
+
+    public int deleteIdRange(String datasetName, Long fromId, Long toId) {
+        return deleteRange(datasetName, fromId, toId, null);
+    }
+
+    public int deleteIdRangeCreatedBefore(String datasetName, Long fromId, Long toId, LocalDateTime cutoffDate) {
+        return deleteRange(datasetName, fromId, toId, cutoffDate);
+    }
+
+    private void put(DatasetRecord record) {
+        String dataset = record.getDatasetName();
+        LocalDateTime now = LocalDateTime.now();
+        if (record.getId() == null) {
+            long nextId = (Long) meta.getOrDefault(NEXT_ID, 1L);
+            meta.put(NEXT_ID, nextId + 1);
+            record.setId(nextId);
+        }
+        if (record.getCreatedAt() == null) {
+            record.setCreatedAt(now);
+        }
+        record.setUpdatedAt(now);
+
+        MVMap<Long, Object[]> records = records(dataset);
+        JsonNode newRoot = parse(record.getRecordData());
+        Object[] previous = records.put(record.getId(), new Object[]{
+                record.getRecordData(), record.getCreatedAt().toString(), record.getUpdatedAt().toString()});
+        JsonNode oldRoot = previous == null ? null : parse((String) previous[0]);
+        for (String path : indexedPaths) {
+            if (!ensureIndex(dataset, path)) {
+                // Freshly built from the map, which already holds the new value
+                continue;
+            }
+            MVMap<String, Long> index = index(dataset, path);
+            if (oldRoot != null) {
+                String oldKey = JsonSortKeys.encode(FieldPath.of(path).get(oldRoot));
+                if (oldKey != null) {
+                    index.remove(JsonSortKeys.indexKey(oldKey, record.getId()));
+                }
+            }
+            String newKey = JsonSortKeys.encode(FieldPath.of(path).get(newRoot));
+            if (newKey != null) {
+                index.put(JsonSortKeys.indexKey(newKey, record.getId()), record.getId());
+            }
+        }
+    }
+
+    private int deleteRange(String datasetName, Long fromId, Long toId, LocalDateTime cutoffDate) {
+        synchronized (writeLock) {
+            MVMap<Long, Object[]> records = recordsIfPresent(datasetName);
+            if (records == null) {
+                return 0;
+            }
+            List<Long> ids = new ArrayList<>();
+            Cursor<Long, Object[]> cursor = records.cursor(fromId, toId, false);
+            while (cursor.hasNext()) {
+                Long id = cursor.next();
+                if (cutoffDate == null || createdAt(cursor.getValue()).isBefore(cutoffDate)) {
+                    ids.add(id);
+                }
+            }
+            for (Long id : ids) {
+                Object[] removed = records.remove(id);
+                if (removed != null) {
+                    removeIndexEntries(datasetName, id, parse((String) removed[0]));
+                }
+            }
+            if (!ids.isEmpty()) {
+                bumpVersion(datasetName);
+            }
+            store.commit();
+            return ids.size();
+        }
+    }
+
+    // Caller holds the write lock and commits, so the version moves in the same store version as the records
+    private void bumpVersion(String datasetName) {
+        meta.put(VERSION + key(datasetName), getVersion(datasetName) + 1);
+    }
+
+    private void removeIndexEntries(String datasetName, long id, JsonNode root) {
+        for (String path : indexedPaths) {
+            if (isIndexBuilt(datasetName, path)) {
+                String key = JsonSortKeys.encode(FieldPath.of(path).get(root));
+                if (key != null) {
+                    index(datasetName, path).remove(JsonSortKeys.indexKey(key, id));
+                }
+            }
+        }
+    }
+
+    private List<Long> idChunk(String datasetName, Long afterId, LocalDateTime cutoffDate, int chunkSize) {
+        MVMap<Long, Object[]> records = recordsIfPresent(datasetName);
+        List<Long> ids = new ArrayList<>();
+        if (records == null) {
+            return ids;
+        }
+        Long key = records.higherKey(afterId);
+        while (key != null && ids.size() < chunkSize) {
+            Object[] value = records.get(key);
+            if (value != null && (cutoffDate == null || createdAt(value).isBefore(cutoffDate))) {
+                ids.add(key);
+            }
+            key = records.higherKey(key);
+        }
+        return ids;
+    }
+
+    private List<DatasetRecord> sorted(String datasetName, String sortField, boolean descending, int limit) {
+        MVMap<Long, Object[]> records = recordsIfPresent(datasetName);
+        List<DatasetRecord> result = new ArrayList<>();
+        if (records == null || limit <= 0) {
+            return result;
+        }
+        if (indexedPaths.contains(sortField)) {
+            synchronized (writeLock) {
+                if (!ensureIndex(datasetName, sortField)) {
+                    store.commit();
+                }
+            }
+            MVMap<String, Long> index = index(datasetName, sortField);
+            Iterator<String> keys = descending ? index.keyIteratorReverse(null) : index.keyIterator(null);
+            while (keys.hasNext() && result.size() < limit) {
+                long id = JsonSortKeys.idOf(keys.next());
+                Object[] value = records.get(id);
+                // A concurrent delete can leave the index momentarily ahead of the records map
+                if (value != null) {
+                    result.add(toRecord(datasetName, id, value));
+                }
+            }
+            return result;
+        }
+
+        // Extract each row's value once, then sort compact keys and build records for the kept rows only
+        FieldPath path = FieldPath.of(sortField);
+        List<JsonNode> values = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        boolean numeric = true;
+        Cursor<Long, Object[]> cursor = records.cursor(null);
+        long scanned = 0;
+        while (cursor.hasNext()) {
+            RequestDeadline.checkpoint(++scanned);
+            Long id = cursor.next();
+            JsonNode value = path.get(parse((String) cursor.getValue()[0]));
+            if (value != null && !value.isNull() && !value.isMissingNode()) {
+                values.add(value);
+                ids.add(id);
+                numeric &= isExactDouble(value);
+            }
+        }
+
+        if (numeric) {
+            NumericKey[] keys = new NumericKey[values.size()];
+            for (int i = 0; i < keys.length; i++) {
+                // Adding zero folds -0.0 into 0.0, which MySQL and JsonSortKeys treat as equal
+                keys[i] = new NumericKey(values.get(i).doubleValue() + 0.0, ids.get(i));
+            }
+            for (NumericKey key : firstKeys(keys, descending, limit)) {
+                result.add(toRecord(datasetName, key.id(), records.get(key.id())));
+            }
+        } else {
+            String[] keys = new String[values.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = JsonSortKeys.indexKey(JsonSortKeys.encode(values.get(i)), ids.get(i));
+            }
+            for (String key : firstKeys(keys, descending, limit)) {
+                long id = JsonSortKeys.idOf(key);
+                result.add(toRecord(datasetName, id, records.get(id)));
+            }
+        }
+        return result;
+    }
+
+    // Keys are unique (they end in the record id), so a full sort and a bounded heap agree
+    private static <K extends Comparable<K>> List<K> firstKeys(K[] keys, boolean descending, int limit) {
+        Comparator<K> order = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        if (limit >= keys.length) {
+            Arrays.sort(keys, order);
+            return Arrays.asList(keys);
+        }
+        BoundedTopN<K> topN = new BoundedTopN<>(limit, order);
+        for (K key : keys) {
+            topN.offer(key);
+        }
+        return topN.toSortedList();
+    }
+
+    // Sort key for fields holding only numbers: compared as primitives, ties broken by id like index keys
+    private record NumericKey(double value, long id) implements Comparable<NumericKey> {
+        @Override
+        public int compareTo(NumericKey other) {
+            int byValue = Double.compare(value, other.value);
+            return byValue != 0 ? byValue : Long.compare(id, other.id);
+        }
+    }
+
+    // Numbers whose double form orders exactly like their decimal value
+    private static boolean isExactDouble(JsonNode value) {
+        if (value.isInt() || value.isDouble() || value.isFloat()) {
+            return true;
+        }
+        return value.isLong() && Math.abs(value.longValue()) <= (1L << 53);
+    }
+
+    private List<String> distinctValues(String datasetName, String fieldName, String afterValue, int pageSize) {
+        MVMap<Long, Object[]> records = recordsIfPresent(datasetName);
+        if (records == null) {
+            return new ArrayList<>();
+        }
+        // Same ordering as the SQL version: the unquoted text of each value, compared as strings
+        FieldPath path = FieldPath.of(fieldName);
+        TreeSet<String> values = new TreeSet<>();
+        long scanned = 0;
+        for (Object[] value : records.values()) {
+            RequestDeadline.checkpoint(++scanned);
+            JsonNode node = path.get(parse((String) value[0]));
+            if (node == null || node.isNull() || node.isMissingNode()) {
+                continue;
+            }
+            String text = node.isTextual() ? node.textValue() : node.toString();
+            if (afterValue != null && text.compareTo(afterValue) <= 0) {
+                continue;
+            }
+            values.add(text);
+            if (values.size() > pageSize) {
+                values.pollLast();
+            }
+        }
+        return new ArrayList<>(values);
+    }
+
+    /** Builds the index for the dataset if it was never built; returns whether it already existed. */
+    private boolean ensureIndex(String datasetName, String path) {
+        if (isIndexBuilt(datasetName, path)) {
+            return true;
+        }
+        MVMap<String, Long> index = index(datasetName, path);
+        index.clear();
+        MVMap<Long, Object[]> records = records(datasetName);
+        Cursor<Long, Object[]> cursor = records.cursor(null);
+        while (cursor.hasNext()) {
+            Long id = cursor.next();
+            String key = JsonSortKeys.encode(FieldPath.of(path).get(parse((String) cursor.getValue()[0])));
+            if (key != null) {
+                index.put(JsonSortKeys.indexKey(key, id), id);
+            }
+        }
+        meta.put(INDEX_BUILT + key(datasetName) + "/" + path, Boolean.TRUE);
+        log.info("Built index on {} for dataset: {} ({} entries)", path, datasetName, index.sizeAsLong());
+        return false;
+    }
+
+    private boolean isIndexBuilt(String datasetName, String path) {
+        return Boolean.TRUE.equals(meta.get(INDEX_BUILT + key(datasetName) + "/" + path));
+    }
+
+    private MVMap<Long, Object[]> records(String datasetName) {
+        return store.openMap(RECORDS_PREFIX + key(datasetName));
+    }
+
+    private MVMap<Long, Object[]> recordsIfPresent(String datasetName) {
+        return store.hasMap(RECORDS_PREFIX + key(datasetName)) ? records(datasetName) : null;
+    }
+
+    private MVMap<String, Long> index(String datasetName, String path) {
+        return store.openMap(INDEX_PREFIX + key(datasetName) + "/" + path);
+    }
+
+    // Map and meta keys ignore case and surrounding blanks, as MySQL's default collation does for dataset_name
+    private static String key(String datasetName) {
+        return datasetName.trim().toLowerCase();
+    }
+
+    private static DatasetRecord toRecord(String datasetName, Long id, Object[] value) {
+        return DatasetRecord.builder()
+                .id(id)
+                .datasetName(datasetName)
+                .recordData((String) value[0])
+                .createdAt(LocalDateTime.parse((String) value[1]))
+                .updatedAt(LocalDateTime.parse((String) value[2]))
+                .build();
+    }
+
+    private static LocalDateTime createdAt(Object[] value) {
+        return LocalDateTime.parse((String) value[1]);
+    }
+
+    private static JsonNode parse(String json) {
+        try {
+            return MAPPER.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Stored record is not valid JSON: " + e.getMessage(), e);
+        }
+    }
+}
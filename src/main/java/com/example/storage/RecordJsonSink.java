@@ -0,0 +1,14 @@
+package com.example.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Receives the stored JSON document of each record as UTF-8 bytes. The stream is only valid
+ * during the call; it may be backed by the open JDBC result set.
+ */
+@FunctionalInterface
+public interface RecordJsonSink {
+
+    void accept(InputStream json) throws IOException;
+}
@@ -0,0 +1,122 @@
+package com.example.warmup;
+
+import com.example.entity.DatasetAccessStat;
+import com.example.repository.DatasetAccessStatRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts served reads per {@link QueryShape} in memory and adds the counts to
+ * {@code dataset_access_stats} on every flush, so the hottest shapes survive restarts and can be
+ * warmed up before the next instance takes traffic. Counting is a map lookup and an increment;
+ * shapes beyond the tracking cap are not counted until the next flush clears the map.
+ */
+@Slf4j
+public class AccessStatsRecorder {
+
+    private final DatasetAccessStatRepository repository;
+    private final PlatformTransactionManager transactionManager;
+    private final int maxTrackedShapes;
+
+    private final Map<QueryShape, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public AccessStatsRecorder(DatasetAccessStatRepository repository, PlatformTransactionManager transactionManager,
+                               int maxTrackedShapes) {
+        this.repository = repository;
+        this.transactionManager = transactionManager;
+        this.maxTrackedShapes = maxTrackedShapes;
+    }
+
+    public void record(QueryShape shape) {
+        LongAdder hits = pending.get(shape);
+        if (hits == null) {
+            if (pending.size() >= maxTrackedShapes || !shape.isStorable()) {
+                return;
+            }
+            hits = pending.computeIfAbsent(shape, key -> new LongAdder());
+        }
+        hits.increment();
+    }
+
+    // A hit counted between sumThenReset and remove can be lost; the counts only need to rank shapes
+    @Scheduled(fixedDelayString = "${app.warmup.stats-flush-interval-ms:60000}")
+    public void flush() {
+        TransactionTemplate transactionTemplate = newTransaction();
+        LocalDateTime now = LocalDateTime.now();
+        int flushed = 0;
+        for (Map.Entry<QueryShape, LongAdder> entry : pending.entrySet()) {
+            long hits = entry.getValue().sumThenReset();
+            pending.remove(entry.getKey(), entry.getValue());
+            if (hits == 0) {
+                continue;
+            }
+            try {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(entry.getKey(), hits, now));
+                } catch (DataIntegrityViolationException e) {
+                    // Another instance inserted the shape first; now the increment finds its row
+                    transactionTemplate.executeWithoutResult(status -> persist(entry.getKey(), hits, now));
+                }
+                flushed++;
+            } catch (Exception e) {
+                log.warn("Failed to persist access stats for dataset: {}", entry.getKey().datasetName(), e);
+            }
+        }
+        if (flushed > 0) {
+            log.debug("Persisted access stats for {} query shapes", flushed);
+        }
+    }
+
+    /** The most served shapes that were last used after {@code since}, most served first. */
+    public List<QueryShape> hottest(LocalDateTime since, int limit) {
+        TransactionTemplate transactionTemplate = newTransaction();
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status ->
+                repository.findByLastAccessedAtAfterOrderByHitsDesc(since, Limit.of(limit)).stream()
+                        .map(QueryShape::of)
+                        .toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    int getPendingShapes() {
+        return pending.size();
+    }
+
+    private void persist(QueryShape shape, long hits, LocalDateTime now) {
+        int updated = repository.addHits(shape.datasetName(), shape.operation(), shape.fieldName(),
+                shape.sortOrder(), shape.limit(), hits, now);
+        if (updated == 0) {
+            repository.saveAndFlush(DatasetAccessStat.builder()
+                    .datasetName(shape.datasetName())
+                    .operation(shape.operation())
+                    .fieldName(shape.fieldName())
+                    .sortOrder(shape.sortOrder())
+                    .resultLimit(shape.limit())
+                    .hits(hits)
+                    .lastAccessedAt(now)
+                    .build());
+        }
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate;
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.warmup;
+
+import com.example.config.WarmupProperties;
+import com.example.deadline.Deadline;
+import com.example.deadline.RequestDeadline;
+import com.example.service.DatasetSchemaService;
+import com.example.service.DatasetService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Replays the most served read shapes before the instance reports ready. Spring Boot moves the
+ * readiness probe to ACCEPTING_TRAFFIC only after application runners return, so the probe stays
+ * down until the hot datasets' pages sit in the database buffer pool (or the MVStore cache, with
+ * their indexes built), their schemas are compiled, and the read paths are JIT-compiled.
+ *
+ * <p>Each shape is re-run until a run is no longer clearly faster than the one before, so readiness
+ * follows the latency the queries settle at rather than a fixed number of passes. Queries are paced
+ * and each has its own deadline, and the whole warm-up has a time budget after which the instance
+ * reports ready regardless. Warm-up reads go to the service implementation, so they are neither
+ * coalesced with client reads nor counted as accesses.
+ */
+@Slf4j
+public class CacheWarmer implements ApplicationRunner, HealthIndicator {
+
+    // Candidate shapes read from the stats table before the per-dataset cut
+    private static final int MAX_CANDIDATES = 500;
+
+    private final AccessStatsRecorder accessStats;
+    private final DatasetService datasetService;
+    private final DatasetSchemaService schemaService;
+    private final WarmupProperties properties;
+    private final LongSupplier nanoTime;
+
+    private volatile boolean running;
+    private volatile Map<String, Object> report = Map.of("state", "pending");
+
+    public CacheWarmer(AccessStatsRecorder accessStats, DatasetService datasetService,
+                       DatasetSchemaService schemaService, WarmupProperties properties) {
+        this(accessStats, datasetService, schemaService, properties, System::nanoTime);
+    }
+
+    CacheWarmer(AccessStatsRecorder accessStats, DatasetService datasetService, DatasetSchemaService schemaService,
+                WarmupProperties properties, LongSupplier nanoTime) {
+        this.accessStats = accessStats;
+        this.datasetService = datasetService;
+        this.schemaService = schemaService;
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        running = true;
+        try {
+            report = warmUp();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report = Map.of("state", "interrupted");
+        } catch (Exception e) {
+            log.warn("Warm-up failed; reporting ready with cold caches", e);
+            report = Map.of("state", "failed", "error", String.valueOf(e.getMessage()));
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = running ? Health.outOfService() : Health.up();
+        return health.withDetails(report).build();
+    }
+
+    Map<String, Object> warmUp() throws InterruptedException {
+        long start = nanoTime.getAsLong();
+        long budgetEnd = start + properties.getMaxDurationMs() * 1_000_000L;
+        long minIntervalNanos = properties.getMaxQueriesPerSecond() > 0
+                ? (long) (1_000_000_000L / properties.getMaxQueriesPerSecond()) : 0;
+
+        List<QueryShape> shapes = selectShapes(accessStats.hottest(
+                LocalDateTime.now().minusDays(properties.getLookbackDays()), MAX_CANDIDATES));
+        if (shapes.isEmpty()) {
+            log.info("No recent access stats, skipping warm-up");
+            return Map.of("state", "done", "queries", 0);
+        }
+        log.info("Warming up {} query shapes over {} datasets", shapes.size(),
+                shapes.stream().map(QueryShape::datasetName).distinct().count());
+
+        for (String dataset : new LinkedHashSet<>(shapes.stream().map(QueryShape::datasetName).toList())) {
+            try {
+                schemaService.preload(dataset);
+            } catch (Exception e) {
+                log.warn("Failed to preload schema for dataset: {}", dataset, e);
+            }
+        }
+
+        List<Map<String, Object>> warmed = new ArrayList<>();
+        int queries = 0;
+        int failed = 0;
+        boolean outOfTime = false;
+        long lastQueryAt = Long.MIN_VALUE;
+        for (QueryShape shape : shapes) {
+            long coldMs = -1;
+            long previousMs = -1;
+            int passes = 0;
+            while (passes < properties.getMaxPasses()) {
+                long now = nanoTime.getAsLong();
+                if (lastQueryAt != Long.MIN_VALUE && now - lastQueryAt < minIntervalNanos) {
+                    Thread.sleep((minIntervalNanos - (now - lastQueryAt)) / 1_000_000L);
+                    now = nanoTime.getAsLong();
+                }
+                long remainingMs = (budgetEnd - now) / 1_000_000L;
+                if (remainingMs <= 0) {
+                    outOfTime = true;
+                    break;
+                }
+                lastQueryAt = now;
+                queries++;
+                try {
+                    Deadline deadline = Deadline.after(Math.min(properties.getQueryTimeoutMs(), remainingMs), false);
+                    RequestDeadline.callWith(deadline, () -> execute(shape));
+                } catch (Exception e) {
+                    log.warn("Warm-up query {} failed for dataset: {}", shape.operation(), shape.datasetName(), e);
+                    failed++;
+                    break;
+                }
+                long elapsedMs = (nanoTime.getAsLong() - now) / 1_000_000L;
+                passes++;
+                if (coldMs < 0) {
+                    coldMs = elapsedMs;
+                }
+                boolean settled = previousMs >= 0 && elapsedMs > previousMs * (1 - properties.getMinImprovement());
+                previousMs = elapsedMs;
+                if (settled) {
+                    break;
+                }
+            }
+            if (passes > 0) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("dataset", shape.datasetName());
+                entry.put("operation", shape.operation());
+                entry.put("field", shape.fieldName());
+                entry.put("order", shape.sortOrder());
+                entry.put("limit", shape.limit());
+                entry.put("passes", passes);
+                entry.put("coldMs", coldMs);
+                entry.put("warmMs", previousMs);
+                warmed.add(entry);
+            }
+            if (outOfTime) {
+                break;
+            }
+        }
+
+        long tookMs = (nanoTime.getAsLong() - start) / 1_000_000L;
+        if (outOfTime) {
+            log.warn("Warm-up ran out of its {} ms budget after {} queries", properties.getMaxDurationMs(), queries);
+        }
+        log.info("Warm-up ran {} queries ({} failed) over {} shapes in {} ms", queries, failed, warmed.size(), tookMs);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("state", outOfTime ? "budget-exhausted" : "done");
+        result.put("queries", queries);
+        result.put("failed", failed);
+        result.put("tookMs", tookMs);
+        result.put("shapes", warmed);
+        return result;
+    }
+
+    // Hottest shapes first, from at most max-datasets datasets
+    List<QueryShape> selectShapes(List<QueryShape> candidates) {
+        Set<String> datasets = new HashSet<>();
+        List<QueryShape> selected = new ArrayList<>();
+        for (QueryShape shape : candidates) {
+            if (selected.size() >= properties.getMaxQueries()) {
+                break;
+            }
+            if (datasets.contains(shape.datasetName()) || datasets.size() < properties.getMaxDatasets()) {
+                datasets.add(shape.datasetName());
+                selected.add(shape);
+            }
+        }
+        return selected;
+    }
+
+    private Object execute(QueryShape shape) {
+        String dataset = shape.datasetName();
+        return switch (shape.operation()) {
+            case QueryShape.GET_ALL -> datasetService.getAllRecords(dataset);
+            case QueryShape.SORT_BY -> datasetService.sortRecordsByField(dataset, shape.fieldName(),
+                    shape.sortOrder(), shape.limitOrNull());
+            case QueryShape.GROUP_BY -> datasetService.groupRecordsByField(dataset, shape.fieldName());
+            case QueryShape.STATS -> datasetService.getDatasetStats(dataset);
+            case QueryShape.DISTINCT -> datasetService.getDistinctFieldValues(dataset, shape.fieldName(), null,
+                    shape.limit() > 0 ? shape.limit() : 100);
+            default -> throw new IllegalArgumentException("Unknown operation: " + shape.operation());
+        };
+    }
+}
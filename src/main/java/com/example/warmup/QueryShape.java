@@ -0,0 +1,59 @@
+package com.example.warmup;
+
+import com.example.entity.DatasetAccessStat;
+
+/**
+ * One kind of read a client makes: the operation and the arguments that decide which rows and index
+ * entries it touches. Cursors and other per-call values are left out, so repeated reads share a shape.
+ * Empty strings and a zero limit stand for arguments that were not given.
+ */
+public record QueryShape(String datasetName, String operation, String fieldName, String sortOrder, int limit) {
+
+    public static final String GET_ALL = "getAll";
+    public static final String SORT_BY = "sortBy";
+    public static final String GROUP_BY = "groupBy";
+    public static final String STATS = "stats";
+    public static final String DISTINCT = "distinct";
+
+    // Longest field path kept; longer ones are not worth a column that wide
+    static final int MAX_FIELD_LENGTH = 255;
+
+    public static QueryShape getAll(String datasetName) {
+        return of(datasetName, GET_ALL, null, null, null);
+    }
+
+    public static QueryShape sortBy(String datasetName, String sortByField, String order, Integer limit) {
+        boolean descending = "desc".equalsIgnoreCase(order) || "descending".equalsIgnoreCase(order);
+        return of(datasetName, SORT_BY, sortByField, descending ? "desc" : "asc", limit);
+    }
+
+    public static QueryShape groupBy(String datasetName, String groupByField) {
+        return of(datasetName, GROUP_BY, groupByField, null, null);
+    }
+
+    public static QueryShape stats(String datasetName) {
+        return of(datasetName, STATS, null, null, null);
+    }
+
+    public static QueryShape distinct(String datasetName, String fieldName, int limit) {
+        return of(datasetName, DISTINCT, fieldName, null, limit);
+    }
+
+    static QueryShape of(DatasetAccessStat stat) {
+        return new QueryShape(stat.getDatasetName(), stat.getOperation(), stat.getFieldName(),
+                stat.getSortOrder(), stat.getResultLimit());
+    }
+
+    private static QueryShape of(String datasetName, String operation, String fieldName, String sortOrder, Integer limit) {
+        return new QueryShape(datasetName.trim().toLowerCase(), operation, fieldName != null ? fieldName : "",
+                sortOrder != null ? sortOrder : "", limit != null ? limit : 0);
+    }
+
+    public boolean isStorable() {
+        return !datasetName.isEmpty() && datasetName.length() <= 100 && fieldName.length() <= MAX_FIELD_LENGTH;
+    }
+
+    public Integer limitOrNull() {
+        return limit > 0 ? limit : null;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BulkheadTest {
+
+    private static final long MS = 1_000_000L;
+
+    private Bulkhead bulkhead(int limit, int maxQueueLength, long maxQueueWaitMs) {
+        return new Bulkhead(Lane.HEAVY_SCAN, limit, 1, 16, 100, 2.0, 0.5, 0.5, maxQueueLength, maxQueueWaitMs);
+    }
+
+    @Test
+    void acquire_WhenLaneFullAndNoQueue_ShouldRejectWith503Semantics() throws Exception {
+        // Given
+        Bulkhead bulkhead = bulkhead(2, 10, 0);
+        bulkhead.acquire("a");
+        bulkhead.acquire("b");
+
+        // When & Then
+        assertThatThrownBy(() -> bulkhead.acquire("c"))
+                .isInstanceOfSatisfying(AdmissionRejectedException.class, e -> {
+                    assertThat(e.isDatasetLimited()).isFalse();
+                    assertThat(e.getRetryAfterSeconds()).isPositive();
+                });
+        assertThat(bulkhead.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void acquire_WhenDatasetFloodsQueue_ShouldRejectThatDatasetOnly() throws Exception {
+        // Given: one slot held, queue of 4 of which one dataset may take 2
+        Bulkhead bulkhead = bulkhead(1, 4, 5_000);
+        Bulkhead.Permit held = bulkhead.acquire("other");
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<Future<Bulkhead.Permit>> queued = new ArrayList<>();
+        queued.add(executor.submit(() -> bulkhead.acquire("busy")));
+        queued.add(executor.submit(() -> bulkhead.acquire("busy")));
+        awaitQueued(bulkhead, 2);
+
+        // When & Then
+        assertThatThrownBy(() -> bulkhead.acquire("busy"))
+                .isInstanceOfSatisfying(AdmissionRejectedException.class, e -> assertThat(e.isDatasetLimited()).isTrue());
+        queued.add(executor.submit(() -> bulkhead.acquire("quiet")));
+        awaitQueued(bulkhead, 3);
+
+        bulkhead.release(held, MS, false, false);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void release_WithSeveralWaitingDatasets_ShouldServeThemRoundRobin() throws Exception {
+        // Given: "busy" queues three requests before "quiet" queues one
+        Bulkhead bulkhead = bulkhead(1, 10, 5_000);
+        Bulkhead.Permit held = bulkhead.acquire("busy");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<String> order = new CopyOnWriteArrayList<>();
+        List<Future<?>> waiters = new ArrayList<>();
+        for (String datasetName : List.of("busy", "busy", "busy", "quiet")) {
+            int position = waiters.size() + 1;
+            waiters.add(executor.submit(() -> {
+                Bulkhead.Permit permit = bulkhead.acquire(datasetName);
+                order.add(datasetName);
+                bulkhead.release(permit, MS, false, false);
+                return null;
+            }));
+            awaitQueued(bulkhead, position);
+        }
+
+        // When
+        bulkhead.release(held, MS, false, false);
+        for (Future<?> waiter : waiters) {
+            waiter.get(5, TimeUnit.SECONDS);
+        }
+
+        // Then: "quiet" goes second, not behind all of "busy"
+        assertThat(order).containsExactly("busy", "quiet", "busy", "busy");
+        assertThat(bulkhead.getInFlight()).isZero();
+        assertThat(bulkhead.getQueued()).isZero();
+        executor.shutdown();
+    }
+
+    @Test
+    void acquire_WhenWaitExpires_ShouldRejectAndLeaveQueue() throws Exception {
+        // Given
+        Bulkhead bulkhead = bulkhead(1, 10, 20);
+        bulkhead.acquire("a");
+
+        // When & Then
+        assertThatThrownBy(() -> bulkhead.acquire("b")).isInstanceOf(AdmissionRejectedException.class);
+        assertThat(bulkhead.getQueued()).isZero();
+    }
+
+    @Test
+    void release_WithSlowSamples_ShouldShrinkLimitOncePerRoundTrip() throws Exception {
+        // Given: a fast request sets the no-load latency, four more are admitted under a limit of 8
+        Bulkhead bulkhead = bulkhead(8, 10, 0);
+        bulkhead.release(bulkhead.acquire("a"), 5 * MS, true, false);
+        List<Bulkhead.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            permits.add(bulkhead.acquire("a"));
+        }
+
+        // When: all of them come back far over the 100ms target
+        for (Bulkhead.Permit permit : permits) {
+            bulkhead.release(permit, 500 * MS, true, false);
+        }
+
+        // Then: one cut, not four
+        assertThat(bulkhead.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void release_WithFastSamplesUnderLoad_ShouldGrowLimit() throws Exception {
+        // Given
+        Bulkhead bulkhead = bulkhead(2, 10, 0);
+
+        // When: each round keeps the lane full and finishes well within the target
+        for (int round = 0; round < 20; round++) {
+            List<Bulkhead.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < bulkhead.getLimit(); i++) {
+                permits.add(bulkhead.acquire("a"));
+            }
+            for (Bulkhead.Permit permit : permits) {
+                bulkhead.release(permit, 5 * MS, true, false);
+            }
+        }
+
+        // Then
+        assertThat(bulkhead.getLimit()).isGreaterThan(2).isLessThanOrEqualTo(16);
+    }
+
+    private static void awaitQueued(Bulkhead bulkhead, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (bulkhead.getQueued() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(bulkhead.getQueued()).isEqualTo(expected);
+    }
+}
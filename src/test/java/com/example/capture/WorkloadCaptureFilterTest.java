@@ -0,0 +1,95 @@
+package com.example.capture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class WorkloadCaptureFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Pseudonymizer pseudonymizer = new Pseudonymizer("test-key".getBytes(StandardCharsets.UTF_8));
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void doFilter_WithQuery_ShouldRecordShapeWithoutNames() throws Exception {
+        // Given
+        Path file = tempDir.resolve("trace.ndjson");
+        WorkloadCaptureLog captureLog = new WorkloadCaptureLog(objectMapper, file, 1 << 20, 100);
+        WorkloadCaptureFilter filter = new WorkloadCaptureFilter(captureLog, pseudonymizer, 1.0);
+        MockHttpServletRequest request = queryRequest("Customers");
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        captureLog.close();
+
+        // Then
+        String line = Files.readString(file);
+        assertThat(line).doesNotContain("Customers", "customers", "country", "revenue");
+        CapturedRequest captured = objectMapper.readValue(line, CapturedRequest.class);
+        assertThat(captured.method()).isEqualTo("GET");
+        assertThat(captured.route()).isEqualTo("/api/dataset/{datasetName}/query");
+        assertThat(captured.dataset()).isEqualTo(pseudonymizer.dataset("customers"));
+        assertThat(captured.params()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "groupBy", pseudonymizer.field("country"),
+                "sortBy", pseudonymizer.field("revenue"),
+                "order", "desc",
+                "limit", "10"));
+        assertThat(captured.headers()).containsEntry("X-Request-Timeout", "2s");
+        assertThat(captured.status()).isEqualTo(200);
+    }
+
+    @Test
+    void doFilter_WithZeroSampleRate_ShouldRecordNothing() throws Exception {
+        // Given
+        Path file = tempDir.resolve("trace.ndjson");
+        WorkloadCaptureLog captureLog = new WorkloadCaptureLog(objectMapper, file, 1 << 20, 100);
+        WorkloadCaptureFilter filter = new WorkloadCaptureFilter(captureLog, pseudonymizer, 0.0);
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(queryRequest("customers"), new MockHttpServletResponse(), chain);
+        captureLog.close();
+
+        // Then
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(Files.readString(file)).isEmpty();
+        assertThat(captureLog.getWritten()).isZero();
+    }
+
+    @Test
+    void pseudonymizer_WithDifferentKeys_ShouldProduceUnrelatedTokens() {
+        // Given
+        Pseudonymizer other = new Pseudonymizer("other-key".getBytes(StandardCharsets.UTF_8));
+
+        // When & Then
+        assertThat(pseudonymizer.dataset(" Customers ")).isEqualTo(pseudonymizer.dataset("customers"))
+                .startsWith("ds_").hasSize(15)
+                .isNotEqualTo(other.dataset("customers"));
+        assertThat(pseudonymizer.field("country")).isNotEqualTo(pseudonymizer.field("Country"));
+    }
+
+    private static MockHttpServletRequest queryRequest(String datasetName) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/dataset/" + datasetName + "/query");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/dataset/{datasetName}/query");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("datasetName", datasetName));
+        request.addParameter("groupBy", "country");
+        request.addParameter("sortBy", "revenue");
+        request.addParameter("order", "desc");
+        request.addParameter("limit", "10");
+        request.addHeader("X-Request-Timeout", "2s");
+        return request;
+    }
+}
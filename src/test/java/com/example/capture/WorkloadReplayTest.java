@@ -0,0 +1,147 @@
+package com.example.capture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+
+import static org.assertj.core.api.Assertions.*;
+
+class WorkloadReplayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void read_WithSnapshotAndPartialLine_ShouldSortRequestsAndSkipBrokenLine() throws Exception {
+        // Given
+        Path file = writeTrace(
+                "{\"ts\":1000,\"datasets\":{\"ds_a\":42}}",
+                "{\"ts\":1500,\"method\":\"GET\",\"route\":\"/api/dataset/{datasetName}/query\",\"dataset\":\"ds_a\","
+                        + "\"params\":{\"groupBy\":\"f_x\",\"sortBy\":\"f_y\"},\"status\":200,\"micros\":900}",
+                "{\"ts\":1200,\"method\":\"GET\",\"route\":\"/api/dataset/{datasetName}/info\",\"dataset\":\"ds_a\","
+                        + "\"status\":200,\"micros\":100}",
+                "{\"ts\":1600,\"method\":\"GE");
+
+        // When
+        WorkloadTrace trace = WorkloadTrace.read(file, objectMapper);
+
+        // Then
+        assertThat(trace.requests()).extracting(CapturedRequest::ts).containsExactly(1200L, 1500L);
+        assertThat(trace.datasetSizes()).containsEntry("ds_a", 42L);
+        assertThat(trace.skippedLines()).isEqualTo(1);
+        assertThat(trace.spanMillis()).isEqualTo(300);
+        assertThat(trace.fieldsByDataset().get("ds_a")).containsExactly("f_x", "f_y");
+    }
+
+    @Test
+    void toHttpRequest_WithQuery_ShouldRebuildUrlAndHeaders() throws Exception {
+        // Given
+        CapturedRequest captured = new CapturedRequest(0, "GET", "/api/dataset/{datasetName}/fields/{fieldName}/distinct",
+                "ds_a", Map.of("fieldName", "f_x"), Map.of("limit", "50"), Map.of("Accept", "application/cbor"),
+                0, 200, 1000);
+        WorkloadReplay replay = replay(new WorkloadTrace(List.of(captured), Map.of(), 0));
+
+        // When
+        HttpRequest request = replay.toHttpRequest(captured, 0);
+
+        // Then
+        assertThat(request.uri()).isEqualTo(URI.create("http://localhost:9/api/dataset/ds_a/fields/f_x/distinct?limit=50"));
+        assertThat(request.headers().firstValue("Accept")).hasValue("application/cbor");
+    }
+
+    @Test
+    void toHttpRequest_WithInsert_ShouldSynthesizeSameBodyEveryTime() throws Exception {
+        // Given
+        CapturedRequest insert = new CapturedRequest(0, "POST", "/api/dataset/{datasetName}/record", "ds_a",
+                Map.of(), Map.of(), Map.of(), 300, 201, 1000);
+        CapturedRequest query = new CapturedRequest(1, "GET", "/api/dataset/{datasetName}/query", "ds_a",
+                Map.of(), Map.of("sortBy", "f_x"), Map.of(), 0, 200, 1000);
+        WorkloadReplay replay = replay(new WorkloadTrace(List.of(insert, query), Map.of(), 0));
+
+        // When
+        String first = body(replay.toHttpRequest(insert, 0));
+        String second = body(replay.toHttpRequest(insert, 0));
+
+        // Then
+        assertThat(first).isEqualTo(second);
+        assertThat(objectMapper.readTree(first).has("f_x")).isTrue();
+        assertThat(first.length()).isBetween(280, 320);
+    }
+
+    @Test
+    void toHttpRequest_WithUnsynthesizableBody_ShouldSkip() {
+        // Given
+        CapturedRequest schema = new CapturedRequest(0, "PUT", "/api/dataset/{datasetName}/schema", "ds_a",
+                Map.of(), Map.of(), Map.of(), 120, 200, 1000);
+        WorkloadReplay replay = replay(new WorkloadTrace(List.of(schema), Map.of(), 0));
+
+        // When & Then
+        assertThat(replay.toHttpRequest(schema, 0)).isNull();
+    }
+
+    @Test
+    void percentileMillis_ShouldUseNearestRank() {
+        // Given
+        long[] micros = new long[100];
+        for (int i = 0; i < micros.length; i++) {
+            micros[i] = (i + 1) * 1000L;
+        }
+
+        // When & Then
+        assertThat(WorkloadReplay.RouteStats.percentileMillis(micros, 0.50)).isEqualTo(50.0);
+        assertThat(WorkloadReplay.RouteStats.percentileMillis(micros, 0.99)).isEqualTo(99.0);
+        assertThat(WorkloadReplay.RouteStats.percentileMillis(new long[0], 0.99)).isZero();
+    }
+
+    private WorkloadReplay replay(WorkloadTrace trace) {
+        WorkloadReplay.Options options = WorkloadReplay.Options.parse(new String[]{
+                "--trace", tempDir.resolve("unused").toString(), "--target", "http://localhost:9/"});
+        return new WorkloadReplay(options, trace, objectMapper);
+    }
+
+    private Path writeTrace(String... lines) throws Exception {
+        Path file = tempDir.resolve("trace.ndjson");
+        Files.write(file, List.of(lines));
+        return file;
+    }
+
+    // Drains a body publisher synchronously; the byte-array publisher completes on subscribe
+    private static String body(HttpRequest request) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        request.bodyPublisher().orElseThrow().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                while (item.hasRemaining()) {
+                    bytes.write(item.get());
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
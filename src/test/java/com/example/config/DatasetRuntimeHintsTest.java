@@ -0,0 +1,32 @@
+package com.example.config;
+
+import com.example.entity.DatasetRecord;
+import com.example.entity.SearchToken;
+import com.example.service.BatchOperation;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DatasetRuntimeHintsTest {
+
+    @Test
+    void registerHints_ShouldCoverEntitiesAndPayloads() {
+        // Given
+        RuntimeHints hints = new RuntimeHints();
+
+        // When
+        new DatasetRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // Then
+        assertThat(RuntimeHintsPredicates.reflection().onType(DatasetRecord.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(SearchToken.Key.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(BatchOperation.class)
+                .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+                .accepts(hints);
+    }
+}
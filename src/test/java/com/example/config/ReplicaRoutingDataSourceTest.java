@@ -0,0 +1,105 @@
+package com.example.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replicaA;
+    private DataSource replicaB;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        primary = mock(DataSource.class);
+        replicaA = mock(DataSource.class);
+        replicaB = mock(DataSource.class);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("a", replicaA);
+        replicas.put("b", replicaB);
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, 30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RoutingContext.clear();
+    }
+
+    @Test
+    void getConnection_ShouldRoundRobinAcrossReplicas() throws SQLException {
+        // When
+        routingDataSource.getConnection();
+        routingDataSource.getConnection();
+        routingDataSource.getConnection();
+
+        // Then
+        verify(replicaA, times(2)).getConnection();
+        verify(replicaB, times(1)).getConnection();
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void getConnection_WithReadYourWrites_ShouldUsePrimary() throws SQLException {
+        // Given
+        RoutingContext.setReadYourWrites(true);
+
+        // When
+        routingDataSource.getConnection();
+
+        // Then
+        verify(primary).getConnection();
+        verifyNoInteractions(replicaA, replicaB);
+    }
+
+    @Test
+    void getConnection_WhenReplicaFails_ShouldFailOverAndSkipIt() throws SQLException {
+        // Given
+        when(replicaA.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        // When
+        routingDataSource.getConnection();
+        routingDataSource.getConnection();
+        routingDataSource.getConnection();
+
+        // Then
+        assertThat(routingDataSource.getUnhealthyReplicas()).containsExactly("a");
+        verify(primary, times(1)).getConnection();
+        verify(replicaA, times(1)).getConnection();
+        verify(replicaB, times(2)).getConnection();
+    }
+
+    @Test
+    void checkHealth_WhenReplicaRecovers_ShouldReturnItToRotation() throws SQLException {
+        // Given
+        Connection healthy = mock(Connection.class);
+        when(healthy.isValid(anyInt())).thenReturn(true);
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenReturn(mock(ResultSet.class));
+        when(healthy.createStatement()).thenReturn(statement);
+        when(replicaA.getConnection()).thenThrow(new SQLException("down")).thenReturn(healthy);
+        when(replicaB.getConnection()).thenReturn(healthy);
+
+        // When
+        routingDataSource.checkHealth();
+        assertThat(routingDataSource.getUnhealthyReplicas()).containsExactly("a");
+        routingDataSource.checkHealth();
+
+        // Then
+        assertThat(routingDataSource.getUnhealthyReplicas()).isEmpty();
+    }
+}
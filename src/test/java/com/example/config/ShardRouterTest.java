@@ -0,0 +1,85 @@
+package com.example.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ShardRouterTest {
+
+    @Test
+    void shardFor_ShouldBeStableAndCaseInsensitive() {
+        // Given
+        ShardRouter router = new ShardRouter(List.of("a", "b", "c"), 64);
+
+        // When
+        String first = router.shardFor("Orders");
+        String second = new ShardRouter(List.of("a", "b", "c"), 64).shardFor(" orders ");
+
+        // Then
+        assertThat(first).isEqualTo(second);
+    }
+
+    @Test
+    void shardFor_ShouldSpreadDatasetsAcrossShards() {
+        // Given
+        ShardRouter router = new ShardRouter(List.of("a", "b", "c", "d"), 128);
+        Map<String, Integer> counts = new HashMap<>();
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            counts.merge(router.shardFor("dataset-" + i), 1, Integer::sum);
+        }
+
+        // Then
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(1_800, 3_200));
+    }
+
+    @Test
+    void ringOwner_WhenShardAdded_ShouldOnlyMoveItsShareOfDatasets() {
+        // Given
+        ShardRouter before = new ShardRouter(List.of("a", "b", "c"), 128);
+        ShardRouter after = new ShardRouter(List.of("a", "b", "c", "d"), 128);
+        int moved = 0;
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            String dataset = "dataset-" + i;
+            String newOwner = after.ringOwner(dataset);
+            if (!newOwner.equals(before.ringOwner(dataset))) {
+                moved++;
+                assertThat(newOwner).isEqualTo("d");
+            }
+        }
+
+        // Then
+        assertThat(moved).isBetween(1_800, 3_200);
+    }
+
+    @Test
+    void shardFor_WithPlacement_ShouldOverrideRing() {
+        // Given
+        ShardRouter router = new ShardRouter(List.of("a", "b"), 16);
+        String other = router.ringOwner("orders").equals("a") ? "b" : "a";
+
+        // When
+        router.pin("Orders", other);
+
+        // Then
+        assertThat(router.shardFor("orders")).isEqualTo(other);
+        assertThatThrownBy(() -> router.pin("orders", "zz"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unknown shard");
+    }
+
+    @Test
+    void constructor_WithDuplicateShards_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> new ShardRouter(List.of("a", "a"), 8))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
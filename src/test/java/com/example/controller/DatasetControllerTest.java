@@ -2,17 +2,25 @@ package com.example.controller;
 
 import com.example.entity.DatasetRecord;
 import com.example.service.DatasetService;
+import com.example.service.DatasetVersionTracker;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.*;
 
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -27,6 +35,9 @@ class DatasetControllerTest {
     @MockitoBean  // ← CHANGED: Use @MockitoBean instead of @MockBean
     private DatasetService datasetService;
 
+    @MockitoBean
+    private DatasetVersionTracker versionTracker;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -92,6 +103,24 @@ class DatasetControllerTest {
                 .andExpect(jsonPath("$.operation").value("sortBy"));
     }
 
+    @Test
+    void queryRecords_WithSortByAndLimit_ShouldReturnTopRecords() throws Exception {
+        // Given
+        List<Map<String, Object>> topRecords = List.of(Map.of("name", "Jane", "score", 99));
+
+        when(datasetService.sortRecordsByField("test_dataset", "score", "desc", 1))
+                .thenReturn(topRecords);
+
+        // When & Then
+        mockMvc.perform(get("/api/dataset/test_dataset/query")
+                        .param("sortBy", "score")
+                        .param("order", "desc")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sortedRecords.length()").value(1))
+                .andExpect(jsonPath("$.limit").value(1));
+    }
+
     @Test
     void queryRecords_WithNoParams_ShouldReturnAllRecords() throws Exception {
         // Given
@@ -158,4 +187,130 @@ class DatasetControllerTest {
                 .andExpect(status().isInternalServerError())
                 .andExpect(jsonPath("$.error").value("Failed to insert record"));
     }
+
+    @Test
+    void queryRecords_WithBinaryAcceptHeaders_ShouldNegotiateEncoding() throws Exception {
+        // Given
+        when(datasetService.getAllRecords("test_dataset")).thenReturn(List.of(Map.of("name", "John", "age", 30)));
+
+        Map<String, ObjectMapper> decoders = Map.of(
+                "application/x-jackson-smile", new ObjectMapper(new SmileFactory()),
+                "application/cbor", new ObjectMapper(new CBORFactory()),
+                "application/x-msgpack", new ObjectMapper(new MessagePackFactory()));
+
+        for (Map.Entry<String, ObjectMapper> decoder : decoders.entrySet()) {
+            // When
+            MvcResult result = mockMvc.perform(get("/api/dataset/test_dataset/query")
+                            .accept(MediaType.parseMediaType(decoder.getKey())))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(decoder.getKey()))
+                    .andReturn();
+
+            // Then
+            Map<?, ?> body = decoder.getValue().readValue(result.getResponse().getContentAsByteArray(), Map.class);
+            assertThat(body.get("operation")).isEqualTo("getAll");
+            assertThat(body.get("dataset")).isEqualTo("test_dataset");
+        }
+    }
+
+    @Test
+    void queryRecords_WithoutAcceptHeader_ShouldDefaultToJson() throws Exception {
+        // Given
+        when(datasetService.getAllRecords("test_dataset")).thenReturn(List.of(Map.of("name", "John")));
+
+        // When & Then
+        mockMvc.perform(get("/api/dataset/test_dataset/query"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void queryRecords_WithMatchingIfNoneMatch_ShouldReturn304WithoutQuerying() throws Exception {
+        // Given
+        when(versionTracker.getVersion("test_dataset")).thenReturn(3L);
+        when(datasetService.getAllRecords("test_dataset")).thenReturn(List.of(Map.of("name", "John")));
+
+        String etag = mockMvc.perform(get("/api/dataset/test_dataset/query"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("W/\"3-")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/dataset/test_dataset/query").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(datasetService, times(1)).getAllRecords("test_dataset");
+    }
+
+    @Test
+    void queryRecords_AfterDatasetVersionChanges_ShouldReturnFreshBody() throws Exception {
+        // Given
+        when(versionTracker.getVersion("test_dataset")).thenReturn(3L, 4L);
+        when(datasetService.getAllRecords("test_dataset")).thenReturn(List.of(Map.of("name", "John")));
+
+        String etag = mockMvc.perform(get("/api/dataset/test_dataset/query"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/dataset/test_dataset/query").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+
+    @Test
+    void getAllDatasets_WithMatchingIfNoneMatch_ShouldReturn304() throws Exception {
+        // Given
+        when(versionTracker.getGlobalVersion()).thenReturn(10L);
+        when(datasetService.getAllDatasets()).thenReturn(List.of());
+
+        String etag = mockMvc.perform(get("/api/dataset/list"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/dataset/list").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(datasetService, times(1)).getAllDatasets();
+    }
+
+    @Test
+    void queryRecords_WithRawSortBy_ShouldStreamStoredJsonInEnvelope() throws Exception {
+        // Given
+        byte[] stored = "[{\"age\":25},{\"age\":30}]".getBytes();
+        when(datasetService.openRawRecords("test_dataset", "age", "asc", 2)).thenReturn(out -> {
+            out.write(stored);
+            return 2;
+        });
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/dataset/test_dataset/query")
+                        .param("raw", "true")
+                        .param("sortBy", "age")
+                        .param("limit", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.operation").value("sortBy"))
+                .andExpect(jsonPath("$.limit").value(2))
+                .andExpect(jsonPath("$.sortedRecords[1].age").value(30));
+        verify(datasetService, never()).sortRecordsByField(any(), any(), any(), any());
+    }
+
+    @Test
+    void queryRecords_WithRawGroupBy_ShouldReturn400() throws Exception {
+        // When
+        MvcResult result = mockMvc.perform(get("/api/dataset/test_dataset/query")
+                        .param("raw", "true")
+                        .param("groupBy", "department"))
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Validation failed"));
+    }
 }
@@ -0,0 +1,100 @@
+package com.example.controller;
+
+import com.example.entity.DatasetRecord;
+import com.example.service.DatasetChangeBus;
+import com.example.service.DatasetService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(DatasetTailController.class)
+class DatasetTailControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private DatasetService datasetService;
+
+    @MockitoBean
+    private DatasetChangeBus changeBus;
+
+    @Test
+    void poll_WithNonPositiveTimeout_ShouldReturn400() throws Exception {
+        // When
+        MvcResult result = mockMvc.perform(get("/api/dataset/test_dataset/tail/poll")
+                        .param("timeoutMs", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Validation failed"))
+                .andExpect(jsonPath("$.message").value("timeoutMs must be positive"));
+        verifyNoInteractions(changeBus, datasetService);
+    }
+
+    @Test
+    void poll_WithNonPositiveLimit_ShouldReturn400() throws Exception {
+        // When
+        MvcResult result = mockMvc.perform(get("/api/dataset/test_dataset/tail/poll")
+                        .param("limit", "-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("limit must be between 1 and 10000"));
+        verify(changeBus, never()).subscribe(any(), anyLong(), any());
+    }
+
+    @Test
+    void tail_WithMoreThanOnePageToBackfill_ShouldStreamEveryPageAfterReturningThenStart() throws Exception {
+        // Given: 503 records after id 0, read in pages of 500 on another thread
+        DatasetChangeBus.Subscription subscription = mock(DatasetChangeBus.Subscription.class);
+        when(changeBus.subscribe(eq("test_dataset"), eq(0L), any())).thenReturn(subscription);
+        doAnswer(invocation -> {
+            new Thread(invocation.<Runnable>getArgument(0)).start();
+            return null;
+        }).when(changeBus).backfill(any());
+        when(datasetService.getRecordsAfterId("test_dataset", 0L, 500)).thenReturn(records(1, 500));
+        when(datasetService.getRecordsAfterId("test_dataset", 500L, 500)).thenReturn(records(501, 3));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/dataset/test_dataset/tail"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        verify(subscription, timeout(5000)).start(503L);
+        String body = result.getResponse().getContentAsString();
+        assertThat(body.split("event:record", -1)).hasSize(504);
+        assertThat(body).contains("id:1\n", "id:500\n", "id:501\n", "id:503\n");
+        verify(datasetService, times(2)).getRecordsAfterId(eq("test_dataset"), anyLong(), eq(500));
+    }
+
+    private static List<DatasetRecord> records(long firstId, int count) {
+        List<DatasetRecord> records = new ArrayList<>();
+        for (long id = firstId; id < firstId + count; id++) {
+            DatasetRecord record = new DatasetRecord("test_dataset", Map.of("n", id));
+            record.setId(id);
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.deadline;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DeadlineDataSourceTest {
+
+    // Far too slow to finish: the only way out is a timeout or a cancel
+    private static final String ENDLESS_QUERY =
+            "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 1000000) a, SYSTEM_RANGE(1, 1000000) b WHERE a.X + b.X < 0";
+
+    private DeadlineDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:deadline;DB_CLOSE_DELAY=-1");
+        dataSource = new DeadlineDataSource(h2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void execute_WithoutDeadline_ShouldLeaveQueryTimeoutAlone() throws Exception {
+        // Given
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+
+            // When
+            statement.executeQuery().close();
+
+            // Then
+            assertThat(statement.getQueryTimeout()).isZero();
+        }
+    }
+
+    @Test
+    void execute_WithDeadline_ShouldSetQueryTimeoutToRemainingSeconds() throws Exception {
+        // Given: started once the connection is open, so opening it does not eat into the margin
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+            RequestDeadline.set(Deadline.after(2_500, true));
+
+            // When
+            statement.executeQuery().close();
+
+            // Then: rounded up to the driver's one-second resolution
+            assertThat(statement.getQueryTimeout()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void execute_AfterDeadlinePassed_ShouldNotReachTheDatabase() throws Exception {
+        // Given
+        Deadline deadline = Deadline.after(10_000, true);
+        deadline.cancel("client disconnected");
+        RequestDeadline.set(deadline);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            // When & Then
+            assertThatThrownBy(() -> statement.executeQuery("SELECT 1"))
+                    .isInstanceOf(DeadlineExceededException.class)
+                    .hasMessageContaining("client disconnected");
+        }
+    }
+
+    @Test
+    void cancel_WhileStatementRuns_ShouldAbortItWithTimeout() throws Exception {
+        // Given: no time limit, so only the cancel can stop the query
+        Deadline deadline = Deadline.unbounded();
+        RequestDeadline.set(deadline);
+        ScheduledExecutorService canceller = Executors.newSingleThreadScheduledExecutor();
+        canceller.schedule(() -> deadline.cancel("client disconnected"), 200, TimeUnit.MILLISECONDS);
+        long start = System.nanoTime();
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            // When & Then
+            assertThatThrownBy(() -> statement.executeQuery(ENDLESS_QUERY)).isInstanceOf(SQLTimeoutException.class);
+            assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(10);
+        } finally {
+            canceller.shutdownNow();
+        }
+    }
+}
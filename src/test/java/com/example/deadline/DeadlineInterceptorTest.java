@@ -0,0 +1,24 @@
+package com.example.deadline;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DeadlineInterceptorTest {
+
+    @Test
+    void parseTimeout_ShouldAcceptMillisecondsAndSeconds() {
+        // When & Then
+        assertThat(DeadlineInterceptor.parseTimeout("1500")).isEqualTo(1500);
+        assertThat(DeadlineInterceptor.parseTimeout("250ms")).isEqualTo(250);
+        assertThat(DeadlineInterceptor.parseTimeout(" 2.5s ")).isEqualTo(2500);
+    }
+
+    @Test
+    void parseTimeout_WithInvalidValue_ShouldReturnNonPositive() {
+        // When & Then
+        assertThat(DeadlineInterceptor.parseTimeout("soon")).isNegative();
+        assertThat(DeadlineInterceptor.parseTimeout("-5")).isNegative();
+        assertThat(DeadlineInterceptor.parseTimeout("0")).isZero();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IngestJournalTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    Path dir;
+
+    private IngestJournal open() throws IOException {
+        return new IngestJournal(dir, SEGMENT_SIZE, FsyncPolicy.ALWAYS, 8, 1);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> payloads(List<JournalEntry> entries) {
+        return entries.stream().map(e -> new String(e.payload(), StandardCharsets.UTF_8)).toList();
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+
+    @Test
+    void read_ShouldReturnEntriesInOrderAcrossSegments() throws Exception {
+        // Given
+        IngestJournal journal = open();
+        for (int i = 1; i <= 20; i++) {
+            assertThat(journal.append(bytes("record-" + i))).isEqualTo(i);
+        }
+
+        // When
+        List<JournalEntry> first = journal.read(1, 15);
+        List<JournalEntry> rest = journal.read(16, 100);
+
+        // Then
+        assertThat(journal.getSegmentCount()).isGreaterThan(1);
+        assertThat(payloads(first)).hasSize(15).startsWith("record-1").endsWith("record-15");
+        assertThat(payloads(rest)).containsExactly("record-16", "record-17", "record-18", "record-19", "record-20");
+        journal.close();
+    }
+
+    @Test
+    void reopen_ShouldReplayOnlyEntriesAfterCheckpoint() throws Exception {
+        // Given
+        IngestJournal journal = open();
+        for (int i = 1; i <= 5; i++) {
+            journal.append(bytes("record-" + i));
+        }
+        journal.markApplied(3);
+        journal.close();
+
+        // When
+        IngestJournal reopened = open();
+
+        // Then
+        assertThat(reopened.getAppliedSequence()).isEqualTo(3);
+        assertThat(payloads(reopened.read(reopened.getAppliedSequence() + 1, 100))).containsExactly("record-4", "record-5");
+        assertThat(reopened.append(bytes("record-6"))).isEqualTo(6);
+        reopened.close();
+    }
+
+    @Test
+    void reopen_WithTornLastEntry_ShouldDropItAndContinueSequence() throws Exception {
+        // Given
+        IngestJournal journal = open();
+        journal.append(bytes("intact"));
+        journal.append(bytes("torn-entry"));
+        journal.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.filter(f -> f.getFileName().toString().startsWith("segment-")).findFirst().orElseThrow();
+        }
+        // Second entry starts after the 16-byte header and the first entry (16 + 6 bytes); flip a payload byte
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(16 + 22 + 16 + 2);
+            file.write('X');
+        }
+
+        // When
+        IngestJournal reopened = open();
+        long next = reopened.append(bytes("after-crash"));
+
+        // Then
+        assertThat(next).isEqualTo(2);
+        assertThat(payloads(reopened.read(1, 100))).containsExactly("intact", "after-crash");
+        reopened.close();
+    }
+
+    @Test
+    void markApplied_ShouldRecycleSealedSegmentsAndKeepSequenceMonotonic() throws Exception {
+        // Given
+        IngestJournal journal = open();
+        long last = 0;
+        for (int i = 0; i < 30; i++) {
+            last = journal.append(bytes("record-" + i));
+        }
+        long before = segmentFiles();
+
+        // When
+        journal.markApplied(last);
+        journal.close();
+        IngestJournal reopened = open();
+
+        // Then
+        assertThat(before).isGreaterThan(1);
+        assertThat(segmentFiles()).isEqualTo(1);
+        assertThat(reopened.read(last + 1, 100)).isEmpty();
+        assertThat(reopened.append(bytes("next"))).isEqualTo(last + 1);
+        reopened.close();
+    }
+
+    @Test
+    void append_WhenUnappliedSegmentsReachLimit_ShouldRejectWithIllegalState() throws Exception {
+        // Given
+        IngestJournal journal = new IngestJournal(dir, SEGMENT_SIZE, FsyncPolicy.INTERVAL, 2, 0);
+
+        // When & Then
+        assertThatThrownBy(() -> {
+            for (int i = 0; i < 100; i++) {
+                journal.append(bytes("record-" + i));
+            }
+        }).isInstanceOf(IllegalStateException.class).hasMessageContaining("full");
+        assertThatThrownBy(() -> journal.append(new byte[SEGMENT_SIZE]))
+                .isInstanceOf(IllegalArgumentException.class);
+        journal.close();
+    }
+}
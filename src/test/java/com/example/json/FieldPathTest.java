@@ -0,0 +1,71 @@
+package com.example.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FieldPathTest {
+
+    @Test
+    void of_WithMembersPositionsAndQuotes_ShouldRenderQuotedMysqlPath() {
+        // When & Then
+        assertThat(FieldPath.of("age").getMysqlPath()).isEqualTo("$.\"age\"");
+        assertThat(FieldPath.of("items[0].sku").getMysqlPath()).isEqualTo("$.\"items\"[0].\"sku\"");
+        assertThat(FieldPath.of("tags.\"a.b\"").getMysqlPath()).isEqualTo("$.\"tags\".\"a.b\"");
+        assertThat(FieldPath.of("[\"say \\\"hi\\\"\"][2]").getMysqlPath()).isEqualTo("$.\"say \\\"hi\\\"\"[2]");
+        assertThat(FieldPath.of("total score").getMysqlPath()).isEqualTo("$.\"total score\"");
+    }
+
+    @Test
+    void of_WithSamePath_ShouldReturnCachedCompilation() {
+        // When & Then
+        assertThat(FieldPath.of("a.b[1]")).isSameAs(FieldPath.of("a.b[1]"));
+        assertThat(FieldPath.of("a.b[1]").depth()).isEqualTo(3);
+    }
+
+    @Test
+    void of_WithMalformedPath_ShouldThrowWithPosition() {
+        // When & Then
+        assertThatThrownBy(() -> FieldPath.of("a..b"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at position 2");
+        assertThatThrownBy(() -> FieldPath.of("a[x]")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FieldPath.of("a[1")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FieldPath.of("a.")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FieldPath.of("\"open")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FieldPath.of("a]b")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FieldPath.of("a" + ".b".repeat(40))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void get_OnMapsAndLists_ShouldWalkNestedValuesAndTellMissingFromNull() {
+        // Given
+        Map<String, Object> address = new HashMap<>();
+        address.put("zip", null);
+        Map<String, Object> data = Map.of("items", List.of(Map.of("sku", "A-1")), "address", address, "a.b", 7);
+
+        // When & Then
+        assertThat(FieldPath.of("items[0].sku").get(data)).isEqualTo("A-1");
+        assertThat(FieldPath.of("\"a.b\"").get(data)).isEqualTo(7);
+        assertThat(FieldPath.of("items[3].sku").get(data)).isNull();
+        assertThat(FieldPath.of("items.sku").get(data)).isNull();
+        assertThat(FieldPath.of("address.zip").getOrDefault(data, "missing")).isNull();
+        assertThat(FieldPath.of("address.city").getOrDefault(data, "missing")).isEqualTo("missing");
+    }
+
+    @Test
+    void get_OnJsonTree_ShouldWalkNestedValues() throws Exception {
+        // Given
+        var root = new ObjectMapper().readTree("{\"items\":[{\"sku\":\"A-1\"},{\"sku\":\"B-2\"}],\"n\":1}");
+
+        // When & Then
+        assertThat(FieldPath.of("items[1].sku").get(root).textValue()).isEqualTo("B-2");
+        assertThat(FieldPath.of("n.x").get(root)).isNull();
+        assertThat(FieldPath.of("items[2]").get(root)).isNull();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.profiling;
+
+import com.example.repository.DatasetRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ExplainParametersTest {
+
+    @Test
+    void bind_WithNativeQuery_ShouldFollowParameterOrderInQuery() throws Exception {
+        // Given: sortPath appears twice in the statement
+        Method method = DatasetRecordRepository.class.getMethod(
+                "findByDatasetNameSortedByJsonFieldAsc", String.class, String.class);
+        String sql = "select * from dataset_records where dataset_name = ? "
+                + "and JSON_EXTRACT(record_data, ?) IS NOT NULL "
+                + "order by JSON_EXTRACT(record_data, ?) ASC";
+
+        // When
+        List<Object> values = ExplainParameters.bind(method, new Object[]{"users", "$.\"age\""}, sql);
+
+        // Then
+        assertThat(values).containsExactly("users", "$.\"age\"", "$.\"age\"");
+    }
+
+    @Test
+    void bind_WithDerivedQuery_ShouldUseArgumentOrderAndLimit() throws Exception {
+        // Given
+        Method method = DatasetRecordRepository.class.getMethod(
+                "findByDatasetNameAndIdGreaterThanOrderByIdAsc", String.class, Long.class, Limit.class);
+        String sql = "select dr1_0.id from dataset_records dr1_0 where dr1_0.dataset_name=? and dr1_0.id>? "
+                + "order by dr1_0.id limit ?";
+
+        // When
+        List<Object> values = ExplainParameters.bind(method, new Object[]{"users", 42L, Limit.of(500)}, sql);
+
+        // Then
+        assertThat(values).containsExactly("users", 42L, 500);
+    }
+
+    @Test
+    void bind_WhenPlaceholderCountDiffers_ShouldReturnNull() throws Exception {
+        // Given
+        Method method = DatasetRecordRepository.class.getMethod("countByDatasetName", String.class);
+
+        // When & Then
+        assertThat(ExplainParameters.bind(method, new Object[]{"users"}, "select count(*) from t where a=? and b=?"))
+                .isNull();
+    }
+
+    @Test
+    void countPlaceholders_ShouldIgnoreQuestionMarksInLiterals() {
+        assertThat(ExplainParameters.countPlaceholders("select '?' from t where a = ? and b = 'x?y'")).isEqualTo(1);
+    }
+}
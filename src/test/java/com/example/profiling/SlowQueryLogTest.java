@@ -0,0 +1,44 @@
+package com.example.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SlowQueryLogTest {
+
+    private static SlowQuery slowQuery(String method, double durationMs) {
+        return new SlowQuery(Instant.now(), "users", "DatasetRecordRepository", method, durationMs, 10, List.of());
+    }
+
+    @Test
+    void offer_WhenFull_ShouldKeepWorstCallsSlowestFirst() {
+        // Given
+        SlowQueryLog log = new SlowQueryLog(2);
+
+        // When
+        boolean first = log.offer(slowQuery("a", 600));
+        boolean second = log.offer(slowQuery("b", 900));
+        boolean faster = log.offer(slowQuery("c", 550));
+        boolean slower = log.offer(slowQuery("d", 1200));
+
+        // Then
+        assertThat(List.of(first, second, faster, slower)).containsExactly(true, true, false, true);
+        assertThat(log.getWorst()).extracting(SlowQuery::getMethod).containsExactly("d", "b");
+    }
+
+    @Test
+    void clear_ShouldEmptyLog() {
+        // Given
+        SlowQueryLog log = new SlowQueryLog(5);
+        log.offer(slowQuery("a", 600));
+
+        // When
+        log.clear();
+
+        // Then
+        assertThat(log.getWorst()).isEmpty();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.profiling;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SqlCaptureTest {
+
+    private static JdbcTemplate jdbcTemplate() {
+        JdbcDataSource target = new JdbcDataSource();
+        target.setURL("jdbc:h2:mem:sql-capture;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        DataSource dataSource = (DataSource) new SqlCapture().postProcessAfterInitialization(target, "dataSource");
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void end_AfterJdbcTemplateCalls_ShouldHoldPreparedAndPlainStatements() {
+        // Given
+        JdbcTemplate jdbcTemplate = jdbcTemplate();
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS tokens (token VARCHAR(20))");
+
+        // When
+        List<SqlCapture.CapturedStatement> enclosing = SqlCapture.begin();
+        jdbcTemplate.update("INSERT INTO tokens VALUES (?)", "alice");
+        jdbcTemplate.queryForList("SELECT token FROM tokens", String.class);
+        List<SqlCapture.CapturedStatement> statements = SqlCapture.end(enclosing);
+
+        // Then
+        assertThat(enclosing).isNull();
+        assertThat(statements).extracting(SqlCapture.CapturedStatement::sql)
+                .containsExactly("INSERT INTO tokens VALUES (?)", "SELECT token FROM tokens");
+    }
+
+    @Test
+    void end_WithNestedCall_ShouldAddItsStatementsToTheEnclosingCall() {
+        // Given
+        JdbcTemplate jdbcTemplate = jdbcTemplate();
+        List<SqlCapture.CapturedStatement> outer = SqlCapture.begin();
+
+        // When
+        List<SqlCapture.CapturedStatement> enclosing = SqlCapture.begin();
+        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+        List<SqlCapture.CapturedStatement> inner = SqlCapture.end(enclosing);
+        List<SqlCapture.CapturedStatement> all = SqlCapture.end(outer);
+
+        // Then
+        assertThat(inner).extracting(SqlCapture.CapturedStatement::sql).containsExactly("SELECT 1");
+        assertThat(all).isEqualTo(inner);
+    }
+}
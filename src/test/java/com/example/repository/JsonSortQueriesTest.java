@@ -0,0 +1,130 @@
+package com.example.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs the JSON sort statements against H2, with MySQL's {@code JSON_EXTRACT} and
+ * {@code JSON_TYPE} stood in for by {@link MySqlJson}, to check which rows reach the LIMIT.
+ */
+class JsonSortQueriesTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:json-sort;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE ALIAS JSON_EXTRACT FOR \"" + MySqlJson.class.getName() + ".extract\"");
+        jdbcTemplate.execute("CREATE ALIAS JSON_TYPE FOR \"" + MySqlJson.class.getName() + ".type\"");
+        jdbcTemplate.execute("""
+                CREATE TABLE dataset_records (id BIGINT PRIMARY KEY, dataset_name VARCHAR(100) NOT NULL,
+                    record_data VARCHAR(1000), created_at TIMESTAMP, updated_at TIMESTAMP)""");
+        // The stand-ins compare JSON text, so "null" sorts above the numbers and record 2 would take the first
+        // descending slot (in MySQL a JSON null sorts below them and takes the first ascending one)
+        insert(1, "{\"score\": 5}");
+        insert(2, "{\"score\": null}");
+        insert(3, "{\"other\": 1}");
+        insert(4, "{\"score\": 3}");
+        insert(5, "{\"score\": 7}");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void findTopSortedByJsonFieldDesc_WithJsonNullInTopN_ShouldSkipItBeforeTheLimit() throws Exception {
+        // When
+        List<Long> ids = run("findTopByDatasetNameSortedByJsonFieldDesc", 2);
+
+        // Then
+        assertThat(ids).containsExactly(5L, 1L);
+    }
+
+    @Test
+    void sortQueries_ShouldAllSkipMissingAndJsonNullValues() throws Exception {
+        // When
+        List<Long> ascending = run("findByDatasetNameSortedByJsonFieldAsc", null);
+        List<Long> descending = run("findByDatasetNameSortedByJsonFieldDesc", null);
+        List<Long> topAscending = run("findTopByDatasetNameSortedByJsonFieldAsc", 3);
+
+        // Then
+        assertThat(ascending).containsExactly(4L, 1L, 5L);
+        assertThat(descending).containsExactly(5L, 1L, 4L);
+        assertThat(topAscending).containsExactly(4L, 1L, 5L);
+    }
+
+    @Test
+    void streamRecordData_WithJsonNullInTopN_ShouldSkipItBeforeTheLimit() {
+        // Given
+        RawRecordRepository repository = new RawRecordRepository(jdbcTemplate);
+        List<String> documents = new ArrayList<>();
+
+        // When
+        repository.streamRecordData("users", "$.\"score\"", true, 2, row -> documents.add(row.getString(1)));
+
+        // Then
+        assertThat(documents).containsExactly("{\"score\": 7}", "{\"score\": 5}");
+    }
+
+    private List<Long> run(String method, Integer limit) throws Exception {
+        String sql = DatasetRecordRepository.class.getMethod(method, limit != null
+                        ? new Class<?>[]{String.class, String.class, int.class}
+                        : new Class<?>[]{String.class, String.class})
+                .getAnnotation(Query.class).value()
+                .replace("SELECT *", "SELECT id");
+        Map<String, Object> parameters = limit != null
+                ? Map.of("datasetName", "users", "sortPath", "$.\"score\"", "limit", limit)
+                : Map.of("datasetName", "users", "sortPath", "$.\"score\"");
+        return new NamedParameterJdbcTemplate(jdbcTemplate).queryForList(sql, parameters, Long.class);
+    }
+
+    private void insert(long id, String json) {
+        jdbcTemplate.update("INSERT INTO dataset_records (id, dataset_name, record_data) VALUES (?, 'users', ?)", id, json);
+    }
+
+    /** Just enough of MySQL's JSON functions for single-member paths such as {@code $."score"}. */
+    public static final class MySqlJson {
+
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+        private static final Pattern MEMBER = Pattern.compile("^\\$\\.\"([^\"]*)\"$");
+
+        private MySqlJson() {
+        }
+
+        public static String extract(String document, String path) throws Exception {
+            Matcher member = MEMBER.matcher(path);
+            if (document == null || !member.matches()) {
+                return null;
+            }
+            JsonNode value = MAPPER.readTree(document).get(member.group(1));
+            return value == null ? null : value.toString();
+        }
+
+        public static String type(String json) throws Exception {
+            if (json == null) {
+                return null;
+            }
+            JsonNode value = MAPPER.readTree(json);
+            return value.isNull() ? "NULL" : value.getNodeType().name();
+        }
+    }
+}
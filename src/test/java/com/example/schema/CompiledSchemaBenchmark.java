@@ -0,0 +1,82 @@
+package com.example.schema;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Validation cost of a typical six-field record, to run by hand (JMH is not on the build path, and
+ * surefire skips this class). Each round times a fixed number of validations after a warm-up long
+ * enough for the JIT to compile the check tree; the median round is reported.
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.schema.CompiledSchemaBenchmark
+ * </pre>
+ */
+public final class CompiledSchemaBenchmark {
+
+    private static final String SCHEMA = """
+            {
+              "type": "object",
+              "required": ["id", "status", "email"],
+              "properties": {
+                "id": {"type": "integer", "minimum": 1},
+                "status": {"enum": ["open", "closed", "pending"]},
+                "email": {"type": "string", "pattern": "^[^@]+@[^@]+$", "maxLength": 254},
+                "total": {"type": "number", "minimum": 0, "maximum": 1000000},
+                "quantity": {"type": "integer", "minimum": 1, "maximum": 1000},
+                "note": {"type": ["string", "null"], "maxLength": 500}
+              }
+            }
+            """;
+
+    private static final String RECORD = """
+            {"id": 42, "status": "open", "email": "alice@example.com", "total": 129.95, "quantity": 3,
+             "note": "leave at the door"}
+            """;
+
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int MEASURED_ROUNDS = 15;
+    private static final int VALIDATIONS_PER_ROUND = 200_000;
+
+    private CompiledSchemaBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        CompiledSchema schema = CompiledSchema.compile(mapper.readTree(SCHEMA));
+        Map<String, Object> record = mapper.readValue(RECORD, new TypeReference<>() {
+        });
+        if (!schema.validate(record).isEmpty()) {
+            throw new IllegalStateException("Benchmark record must be valid: " + schema.validate(record));
+        }
+
+        long errors = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            errors += run(schema, record);
+        }
+        double[] nanosPerValidation = new double[MEASURED_ROUNDS];
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            errors += run(schema, record);
+            nanosPerValidation[round] = (double) (System.nanoTime() - start) / VALIDATIONS_PER_ROUND;
+        }
+        Arrays.sort(nanosPerValidation);
+
+        System.out.printf("validate: median %.0f ns, min %.0f ns, max %.0f ns per record over %d rounds of %d (%d errors)%n",
+                nanosPerValidation[MEASURED_ROUNDS / 2], nanosPerValidation[0],
+                nanosPerValidation[MEASURED_ROUNDS - 1], MEASURED_ROUNDS, VALIDATIONS_PER_ROUND, errors);
+    }
+
+    // Summing the error counts keeps the JIT from discarding the validations as dead code
+    private static long run(CompiledSchema schema, Map<String, Object> record) {
+        long errors = 0;
+        for (int i = 0; i < VALIDATIONS_PER_ROUND; i++) {
+            errors += schema.validate(record).size();
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.schema;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CompiledSchemaTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String ORDER_SCHEMA = """
+            {
+              "type": "object",
+              "required": ["id", "status"],
+              "additionalProperties": false,
+              "properties": {
+                "id": {"type": "integer", "minimum": 1},
+                "status": {"enum": ["open", "closed"]},
+                "email": {"type": "string", "pattern": "^[^@]+@[^@]+$", "format": "email"},
+                "total": {"type": "number", "exclusiveMinimum": 0},
+                "tags": {"type": "array", "maxItems": 2, "items": {"type": "string", "minLength": 1}},
+                "address": {"type": "object", "required": ["zip"], "properties": {"zip": {"type": ["string", "null"]}}}
+              }
+            }
+            """;
+
+    @Test
+    void validate_WithConformingRecord_ShouldReturnNoErrors() throws Exception {
+        // Given
+        CompiledSchema schema = CompiledSchema.compile(MAPPER.readTree(ORDER_SCHEMA));
+
+        // When
+        List<String> errors = schema.validate(record("""
+                {"id": 7, "status": "open", "email": "a@b.c", "total": 9.5, "tags": ["x"], "address": {"zip": null}}
+                """));
+
+        // Then
+        assertThat(errors).isEmpty();
+    }
+
+    @Test
+    void validate_WithViolations_ShouldReportEachWithItsPath() throws Exception {
+        // Given
+        CompiledSchema schema = CompiledSchema.compile(MAPPER.readTree(ORDER_SCHEMA));
+
+        // When
+        List<String> errors = schema.validate(record("""
+                {"id": 0, "email": "nope", "total": 0, "tags": ["", "b", "c"], "address": {}, "extra": true}
+                """));
+
+        // Then
+        assertThat(errors).containsExactlyInAnyOrder(
+                "$.status: is required",
+                "$.id: must be >= 1",
+                "$.email: must match pattern ^[^@]+@[^@]+$",
+                "$.total: must be > 0",
+                "$.tags: must have at most 2 items",
+                "$.tags[0]: must be at least 1 characters long",
+                "$.address.zip: is required",
+                "$.extra: no value is allowed here");
+    }
+
+    @Test
+    void validate_ShouldTreatWholeDecimalsAsIntegersAndCompareEnumNumbersByValue() throws Exception {
+        // Given
+        CompiledSchema schema = CompiledSchema.compile(MAPPER.readTree("""
+                {"properties": {"n": {"type": "integer"}, "level": {"enum": [1, 2.5]}}}
+                """));
+
+        // When & Then
+        assertThat(schema.validate(record("{\"n\": 3.0, \"level\": 1.0}"))).isEmpty();
+        assertThat(schema.validate(record("{\"n\": 3.5, \"level\": 2}")))
+                .containsExactly("$.n: expected integer but was number", "$.level: must be one of [1,2.5]");
+    }
+
+    @Test
+    void compile_WithUnsupportedKeywordOrBadArgument_ShouldThrowIllegalArgumentException() {
+        // When & Then
+        assertThatThrownBy(() -> CompiledSchema.compile(MAPPER.readTree("{\"properties\": {\"a\": {\"oneOf\": []}}}")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("$.properties.a.oneOf");
+        assertThatThrownBy(() -> CompiledSchema.compile(MAPPER.readTree("{\"type\": \"decimal\"}")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unknown type");
+        assertThatThrownBy(() -> CompiledSchema.compile(MAPPER.readTree("{\"pattern\": \"[\"}")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Map<String, Object> record(String json) throws Exception {
+        return MAPPER.readValue(json, new TypeReference<>() {});
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.service;
+
+import com.example.admission.AdmissionGate;
+import com.example.admission.Bulkhead;
+import com.example.admission.Lane;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchQueryServiceTest {
+
+    @Mock
+    private DatasetService datasetService;
+
+    private BatchQueryServiceImpl batchQueryService;
+
+    @BeforeEach
+    void setUp() {
+        batchQueryService = new BatchQueryServiceImpl(datasetService, (AdmissionGate) null, 4, 10, 1000, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchQueryService.shutdown();
+    }
+
+    @Test
+    void executeBatch_WithMixedOperations_ShouldReportEachResult() {
+        // Given
+        when(datasetService.getDatasetStats("a")).thenReturn(Map.of("recordCount", 2L));
+        when(datasetService.sortRecordsByField("b", "age", "desc", 1)).thenReturn(List.of(Map.of("age", 30)));
+        List<BatchOperation> operations = List.of(
+                new BatchOperation("s", "a", "stats", null, null, null),
+                new BatchOperation("t", "b", "sortBy", "age", "desc", 1));
+        List<Map<String, Object>> results = new ArrayList<>();
+
+        // When
+        batchQueryService.executeBatch(operations, 1000, results::add);
+
+        // Then
+        assertThat(results).hasSize(2);
+        assertThat(results).allSatisfy(item -> assertThat(item.get("status")).isEqualTo("ok"));
+        assertThat(results).extracting(item -> item.get("id")).containsExactlyInAnyOrder("s", "t");
+    }
+
+    @Test
+    void executeBatch_WithFailingOperation_ShouldReportPartialFailure() {
+        // Given
+        when(datasetService.getAllRecords("good")).thenReturn(List.of());
+        when(datasetService.groupRecordsByField("bad", "x")).thenThrow(new RuntimeException("boom"));
+        List<BatchOperation> operations = List.of(
+                new BatchOperation("1", "good", "getAll", null, null, null),
+                new BatchOperation("2", "bad", "groupBy", "x", null, null),
+                new BatchOperation("3", "good", "explode", null, null, null));
+        List<Map<String, Object>> results = new ArrayList<>();
+
+        // When
+        batchQueryService.executeBatch(operations, 1000, results::add);
+
+        // Then
+        assertThat(results).hasSize(3);
+        Map<Object, Object> statusById = new HashMap<>();
+        results.forEach(item -> statusById.put(item.get("id"), item.get("status")));
+        assertThat(statusById).containsEntry("1", "ok").containsEntry("2", "error").containsEntry("3", "invalid");
+    }
+
+    @Test
+    void executeBatch_WithSlowOperation_ShouldTimeOutOnlyThatItem() {
+        // Given
+        when(datasetService.getAllRecords("slow")).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return List.of();
+        });
+        when(datasetService.getAllRecords("fast")).thenReturn(List.of());
+        List<BatchOperation> operations = List.of(
+                new BatchOperation("slow", "slow", "getAll", null, null, null),
+                new BatchOperation("fast", "fast", "getAll", null, null, null));
+        List<Map<String, Object>> results = new ArrayList<>();
+
+        // When
+        long start = System.currentTimeMillis();
+        batchQueryService.executeBatch(operations, 200, results::add);
+
+        // Then
+        assertThat(System.currentTimeMillis() - start).isLessThan(2_000);
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0)).containsEntry("id", "fast").containsEntry("status", "ok");
+        assertThat(results.get(1)).containsEntry("id", "slow").containsEntry("status", "timeout");
+    }
+
+    @Test
+    void executeBatch_WithItemTimeout_ShouldTimeOutThatItemBeforeTheBatchDeadline() {
+        // Given
+        when(datasetService.getAllRecords("slow")).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return List.of();
+        });
+        when(datasetService.getDatasetStats("fast")).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return Map.of("recordCount", 1L);
+        });
+        List<BatchOperation> operations = List.of(
+                new BatchOperation("slow", "slow", "getAll", null, null, null, 100L),
+                new BatchOperation("fast", "fast", "stats", null, null, null, 60_000L));
+        List<Map<String, Object>> results = new ArrayList<>();
+
+        // When
+        long start = System.currentTimeMillis();
+        batchQueryService.executeBatch(operations, 2_000, results::add);
+
+        // Then
+        assertThat(System.currentTimeMillis() - start).isLessThan(1_500);
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0)).containsEntry("id", "slow").containsEntry("status", "timeout")
+                .containsEntry("error", "Operation did not finish within 100 ms");
+        assertThat(results.get(1)).containsEntry("id", "fast").containsEntry("status", "ok");
+    }
+
+    @Test
+    void executeBatch_WithTooManyOperations_ShouldThrowException() {
+        // Given
+        List<BatchOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            operations.add(new BatchOperation(null, "a", "stats", null, null, null));
+        }
+
+        // When & Then
+        assertThatThrownBy(() -> batchQueryService.executeBatch(operations, 1000, item -> { }))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("more than 5");
+    }
+
+    @Test
+    void executeBatch_WithAdmissionGate_ShouldRunNoMoreOperationsThanTheLaneAdmits() {
+        // Given: a heavy lane of one slot that queues the rest
+        batchQueryService.shutdown();
+        Bulkhead heavy = new Bulkhead(Lane.HEAVY_SCAN, 1, 1, 1, 10_000, 2.0, 0.5, 1.0, 10, 1000);
+        batchQueryService = new BatchQueryServiceImpl(datasetService,
+                new AdmissionGate(Map.of(Lane.HEAVY_SCAN, heavy)), 4, 10, 1000, 5);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(datasetService.getDatasetStats(anyString())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return Map.of("recordCount", 0L);
+        });
+        List<BatchOperation> operations = List.of(
+                new BatchOperation("a", "a", "stats", null, null, null),
+                new BatchOperation("b", "b", "stats", null, null, null),
+                new BatchOperation("c", "c", "stats", null, null, null),
+                new BatchOperation("d", "d", "stats", null, null, null));
+        List<Map<String, Object>> results = new ArrayList<>();
+
+        // When
+        batchQueryService.executeBatch(operations, 1000, results::add);
+
+        // Then
+        assertThat(results).hasSize(4).allSatisfy(item -> assertThat(item.get("status")).isEqualTo("ok"));
+        assertThat(maxRunning.get()).isEqualTo(1);
+        assertThat(heavy.getInFlight()).isZero();
+    }
+}
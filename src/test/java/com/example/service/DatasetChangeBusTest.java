@@ -0,0 +1,109 @@
+package com.example.service;
+
+import com.example.entity.DatasetRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DatasetChangeBusTest {
+
+    private DatasetChangeBus changeBus;
+
+    @BeforeEach
+    void setUp() {
+        // Direct executor keeps delivery on the publishing thread
+        changeBus = new DatasetChangeBus(Runnable::run);
+    }
+
+    @Test
+    void onRecordsInserted_ShouldDeliverOnlyAfterStartAndSkipBackfilledIds() {
+        // Given
+        List<Long> delivered = new ArrayList<>();
+        DatasetChangeBus.Subscription subscription = changeBus.subscribe("test", 0L, listener(delivered, new AtomicBoolean()));
+
+        // When
+        changeBus.onRecordsInserted(event(1L, 2L));
+        assertThat(delivered).isEmpty();
+        subscription.start(1L);
+        changeBus.onRecordsInserted(event(3L));
+
+        // Then
+        assertThat(delivered).containsExactly(2L, 3L);
+        assertThat(subscription.getLastDeliveredId()).isEqualTo(3L);
+    }
+
+    @Test
+    void onRecordsInserted_ShouldOnlyReachSubscribersOfThatDataset() {
+        // Given
+        List<Long> delivered = new ArrayList<>();
+        changeBus.subscribe("other", 0L, listener(delivered, new AtomicBoolean())).start(0L);
+
+        // When
+        changeBus.onRecordsInserted(event(1L));
+
+        // Then
+        assertThat(delivered).isEmpty();
+    }
+
+    @Test
+    void onRecordsInserted_WhenBufferOverflows_ShouldCloseSubscriber() {
+        // Given
+        ReflectionTestUtils.setField(changeBus, "bufferCapacity", 2);
+        AtomicBoolean overflowed = new AtomicBoolean();
+        DatasetChangeBus.Subscription subscription =
+                changeBus.subscribe("test", 0L, listener(new ArrayList<>(), overflowed));
+
+        // When
+        changeBus.onRecordsInserted(event(1L, 2L, 3L));
+
+        // Then
+        assertThat(overflowed).isTrue();
+        assertThat(subscription.isClosed()).isTrue();
+        assertThat(changeBus.getSubscriberCount("test")).isZero();
+    }
+
+    @Test
+    void close_ShouldRemoveSubscriber() {
+        // Given
+        DatasetChangeBus.Subscription subscription =
+                changeBus.subscribe("test", 0L, listener(new ArrayList<>(), new AtomicBoolean()));
+        assertThat(changeBus.getSubscriberCount("test")).isEqualTo(1);
+
+        // When
+        subscription.close();
+
+        // Then
+        assertThat(changeBus.getSubscriberCount("test")).isZero();
+    }
+
+    // HELPER METHODS
+
+    private DatasetChangeBus.Listener listener(List<Long> delivered, AtomicBoolean overflowed) {
+        return new DatasetChangeBus.Listener() {
+            @Override
+            public void onEvents(List<DatasetChangeBus.ChangeEvent> events) {
+                events.forEach(event -> delivered.add(event.id()));
+            }
+
+            @Override
+            public void onOverflow() {
+                overflowed.set(true);
+            }
+        };
+    }
+
+    private RecordsInsertedEvent event(Long... ids) {
+        List<DatasetRecord> records = new ArrayList<>();
+        for (Long id : ids) {
+            DatasetRecord record = new DatasetRecord("test", Map.of("value", id));
+            record.setId(id);
+            records.add(record);
+        }
+        return new RecordsInsertedEvent("test", records);
+    }
+}
@@ -1,14 +1,18 @@
 package com.example.service;
 
 import com.example.entity.DatasetRecord;
-import com.example.repository.DatasetRecordRepository;
+import com.example.storage.DatasetStorage;
+import com.example.storage.RecordJsonSink;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -20,7 +24,13 @@ import static org.mockito.Mockito.*;
 class DatasetServiceTest {
 
     @Mock
-    private DatasetRecordRepository repository;
+    private DatasetStorage storage;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DatasetSchemaService schemaService;
 
     @InjectMocks
     private DatasetServiceImpl datasetService;
@@ -49,7 +59,7 @@ class DatasetServiceTest {
     @Test
     void insertRecord_WithValidData_ShouldReturnSavedRecord() {
         // Given
-        when(repository.save(any(DatasetRecord.class))).thenReturn(sampleRecord);
+        when(storage.save(any(DatasetRecord.class))).thenReturn(sampleRecord);
 
         // When
         DatasetRecord result = datasetService.insertRecord("test_dataset", sampleData);
@@ -57,7 +67,7 @@ class DatasetServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(1L);
-        verify(repository).save(any(DatasetRecord.class));
+        verify(storage).save(any(DatasetRecord.class));
     }
 
     @Test
@@ -68,7 +78,7 @@ class DatasetServiceTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Dataset name cannot be null or empty");
 
-        verify(repository, never()).save(any());
+        verify(storage, never()).save(any());
     }
 
     @Test
@@ -107,14 +117,14 @@ class DatasetServiceTest {
         );
 
         List<DatasetRecord> savedRecords = Arrays.asList(sampleRecord, sampleRecord);
-        when(repository.saveAll(any())).thenReturn(savedRecords);
+        when(storage.saveAll(any())).thenReturn(savedRecords);
 
         // When
         List<DatasetRecord> result = datasetService.insertRecords("test", recordsData);
 
         // Then
         assertThat(result).hasSize(2);
-        verify(repository).saveAll(any());
+        verify(storage).saveAll(any());
     }
 
     @Test
@@ -134,6 +144,50 @@ class DatasetServiceTest {
                 .hasMessageContaining("Records data cannot be null or empty");
     }
 
+    @Test
+    void insertRecord_WhenSchemaRejectsRecord_ShouldThrowWithoutSaving() {
+        // Given
+        when(schemaService.validate("test", sampleData)).thenReturn(List.of("$.age: must be >= 40"));
+
+        // When & Then
+        assertThatThrownBy(() -> datasetService.insertRecord("test", sampleData))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("$.age: must be >= 40");
+        verify(storage, never()).save(any());
+    }
+
+    @Test
+    void ingestRecords_WithSomeInvalidRecords_ShouldStoreTheRestAndReportByIndex() {
+        // Given
+        Map<String, Object> valid = Map.of("name", "John", "age", 30);
+        Map<String, Object> invalid = Map.of("name", "Jane", "age", "old");
+        when(schemaService.validate("test", valid)).thenReturn(List.of());
+        when(schemaService.validate("test", invalid)).thenReturn(List.of("$.age: expected integer but was string"));
+        when(storage.saveAll(any())).thenReturn(List.of(sampleRecord, sampleRecord));
+
+        // When
+        IngestResult result = datasetService.ingestRecords("test", Arrays.asList(valid, invalid, Map.of(), valid));
+
+        // Then
+        assertThat(result.inserted()).hasSize(2);
+        assertThat(result.rejected()).extracting(IngestResult.RejectedRecord::index).containsExactly(1, 2);
+        assertThat(result.rejected().get(0).errors()).containsExactly("$.age: expected integer but was string");
+        verify(storage).saveAll(argThat(records -> ((Collection<?>) records).size() == 2));
+    }
+
+    @Test
+    void ingestRecords_WhenNoRecordIsValid_ShouldNotTouchStorage() {
+        // Given
+        when(schemaService.validate(eq("test"), any())).thenReturn(List.of("$: no value is allowed here"));
+
+        // When
+        IngestResult result = datasetService.ingestRecords("test", List.of(Map.of("a", 1)));
+
+        // Then
+        assertThat(result.inserted()).isEmpty();
+        assertThat(result.rejected()).hasSize(1);
+        verifyNoInteractions(storage);
+    }
 
     // QUERY TESTS
     @Test
@@ -142,7 +196,7 @@ class DatasetServiceTest {
         DatasetRecord record1 = createRecordWithData(Map.of("department", "Engineering", "name", "John"));
         DatasetRecord record2 = createRecordWithData(Map.of("department", "Marketing", "name", "Jane"));
 
-        when(repository.findByDatasetName("test")).thenReturn(Arrays.asList(record1, record2));
+        when(storage.findByDatasetName("test")).thenReturn(Arrays.asList(record1, record2));
 
         // When
         Map<String, List<Map<String, Object>>> result =
@@ -154,6 +208,27 @@ class DatasetServiceTest {
         assertThat(result.get("Marketing")).hasSize(1);
     }
 
+    @Test
+    void groupRecordsByField_WithNestedPath_ShouldSkipRecordsWithoutIt() {
+        // Given
+        Map<String, Object> withNullCity = new HashMap<>();
+        withNullCity.put("city", null);
+        when(storage.findByDatasetName("test")).thenReturn(Arrays.asList(
+                createRecordWithData(Map.of("address", Map.of("city", "Oslo"))),
+                createRecordWithData(Map.of("address", Map.of("city", "Oslo"))),
+                createRecordWithData(Map.of("address", withNullCity)),
+                createRecordWithData(Map.of("address", "unknown"))
+        ));
+
+        // When
+        Map<String, List<Map<String, Object>>> result =
+                datasetService.groupRecordsByField("test", "address.city");
+
+        // Then
+        assertThat(result).containsOnlyKeys("Oslo", "null");
+        assertThat(result.get("Oslo")).hasSize(2);
+    }
+
     @Test
         // Suppress null parameter warning
     void groupRecordsByField_WithNullDataset_ShouldThrowException() {
@@ -175,7 +250,7 @@ class DatasetServiceTest {
     @Test
     void sortRecordsByField_WithValidField_ShouldReturnSortedRecords() {
         // Given
-        when(repository.findByDatasetNameSortedByJsonFieldAsc("test", "age"))
+        when(storage.findByDatasetNameSortedByJsonFieldAsc("test", "age"))
                 .thenReturn(Collections.singletonList(sampleRecord));
 
         // When
@@ -184,27 +259,93 @@ class DatasetServiceTest {
 
         // Then
         assertThat(result).isNotNull();
-        verify(repository).findByDatasetNameSortedByJsonFieldAsc("test", "age");
+        verify(storage).findByDatasetNameSortedByJsonFieldAsc("test", "age");
+    }
+
+    @Test
+    void sortRecordsByField_WithLimit_ShouldPushLimitIntoQuery() {
+        // Given
+        DatasetRecord record = createRecordWithData(Map.of("score", 99, "name", "John"));
+        when(storage.findTopByDatasetNameSortedByJsonFieldDesc("test", "score", 1))
+                .thenReturn(Collections.singletonList(record));
+
+        // When
+        List<Map<String, Object>> result =
+                datasetService.sortRecordsByField("test", "score", "desc", 1);
+
+        // Then
+        assertThat(result).hasSize(1);
+        verify(storage, never()).findByDatasetNameSortedByJsonFieldDesc(any(), any());
+    }
+
+    @Test
+    void sortRecordsByField_WithNestedPathAndLimit_ShouldPushPathIntoQuery() {
+        // Given
+        when(storage.findTopByDatasetNameSortedByJsonFieldDesc("test", "stats.total", 2)).thenReturn(Arrays.asList(
+                createRecordWithData(Map.of("stats", Map.of("total", 40))),
+                createRecordWithData(Map.of("stats", Map.of("total", 10)))
+        ));
+
+        // When
+        List<Map<String, Object>> result =
+                datasetService.sortRecordsByField("test", "stats.total", "desc", 2);
+
+        // Then
+        assertThat(result).extracting(data -> (Object) ((Map<?, ?>) data.get("stats")).get("total")).containsExactly(40, 10);
+        verify(storage, never()).findByDatasetName(any());
+    }
+
+    @Test
+    void sortRecordsByField_WithMalformedPath_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> datasetService.sortRecordsByField("test", "stats..total", "asc"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid field path");
+        verifyNoInteractions(storage);
+    }
+
+    @Test
+    void sortRecordsByField_WithInvalidLimit_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> datasetService.sortRecordsByField("test", "age", "asc", 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Limit must be between");
     }
 
     @Test
     void getAllRecords_WithValidDataset_ShouldReturnAllRecords() {
         // Given
-        when(repository.findByDatasetName("test")).thenReturn(Collections.singletonList(sampleRecord));
+        when(storage.findByDatasetName("test")).thenReturn(Collections.singletonList(sampleRecord));
 
         // When
         List<Map<String, Object>> result = datasetService.getAllRecords("test");
 
         // Then
         assertThat(result).isNotNull();
-        verify(repository).findByDatasetName("test");
+        verify(storage).findByDatasetName("test");
+    }
+
+    @Test
+    void getAllDatasets_ShouldUseOneGroupedCount() {
+        // Given
+        when(storage.countRecordsPerDataset()).thenReturn(List.of(
+                new Object[]{"alpha", 3L},
+                new Object[]{"beta", 5L}));
+
+        // When
+        List<Map<String, Object>> result = datasetService.getAllDatasets();
+
+        // Then
+        assertThat(result).hasSize(2);
+        assertThat(result.get(1)).containsEntry("name", "beta").containsEntry("recordCount", 5L);
+        verify(storage, never()).countByDatasetName(any());
     }
 
     @Test
     void getDatasetStats_WithValidDataset_ShouldReturnStats() {
         // Given
-        when(repository.countByDatasetName("test")).thenReturn(5L);
-        when(repository.findByDatasetName("test")).thenReturn(Collections.singletonList(sampleRecord));
+        when(storage.countByDatasetName("test")).thenReturn(5L);
+        when(storage.findByDatasetName("test")).thenReturn(Collections.singletonList(sampleRecord));
 
         // When
         Map<String, Object> result = datasetService.getDatasetStats("test");
@@ -224,4 +365,31 @@ class DatasetServiceTest {
         record.setRecordDataFromMap(data);
         return record;
     }
+
+    @Test
+    void openRawRecords_ShouldCopyStoredJsonIntoArray() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            RecordJsonSink sink = invocation.getArgument(4);
+            sink.accept(new ByteArrayInputStream("{\"age\": 30}".getBytes()));
+            sink.accept(new ByteArrayInputStream("{\"age\": 25}".getBytes()));
+            return null;
+        }).when(storage).streamRecordJson(eq("test_dataset"), eq("age"), eq(true), eq(10), any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long written = datasetService.openRawRecords("Test_Dataset", "age", "desc", 10).writeTo(out);
+
+        // Then
+        assertThat(written).isEqualTo(2);
+        assertThat(out.toString()).isEqualTo("[{\"age\": 30},{\"age\": 25}]");
+    }
+
+    @Test
+    void openRawRecords_WithMalformedSortPath_ShouldThrowBeforeStreaming() {
+        // When & Then
+        assertThatThrownBy(() -> datasetService.openRawRecords("test_dataset", "address[city]", "asc", null))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(storage);
+    }
 }
@@ -0,0 +1,189 @@
+package com.example.service;
+
+import com.example.entity.DeleteJob;
+import com.example.repository.DeleteJobRepository;
+import com.example.storage.DatasetStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeleteJobServiceTest {
+
+    @Mock
+    private DeleteJobRepository jobRepository;
+
+    @Mock
+    private DatasetStorage recordStorage;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private DeleteJobServiceImpl deleteJobService;
+
+    @Test
+    void runJob_ShouldDeleteInIdRangeChunksAndComplete() {
+        // Given
+        DeleteJob job = DeleteJob.builder().id(7L).datasetName("test").build();
+        claimSucceeds(job);
+        when(jobRepository.recordProgress(eq(7L), anyString(), anyLong(), anyLong(), any(), any())).thenReturn(1);
+        when(jobRepository.finish(eq(7L), anyString(), any(), any(), any())).thenReturn(1);
+        when(recordStorage.findIdChunk(eq("test"), anyLong(), anyInt()))
+                .thenReturn(List.of(1L, 2L, 5L), List.of(9L), Collections.emptyList());
+        when(recordStorage.deleteIdRange("test", 1L, 5L)).thenReturn(3);
+        when(recordStorage.deleteIdRange("test", 9L, 9L)).thenReturn(1);
+
+        // When
+        deleteJobService.runJob(7L);
+
+        // Then
+        verify(jobRepository).recordProgress(eq(7L), anyString(), eq(5L), eq(3L), any(), any());
+        verify(jobRepository).recordProgress(eq(7L), anyString(), eq(9L), eq(1L), any(), any());
+        verify(jobRepository).finish(eq(7L), anyString(), eq(DeleteJob.Status.COMPLETED), isNull(), any());
+        verify(recordStorage).findIdChunk(eq("test"), eq(5L), anyInt());
+        verify(eventPublisher).publishEvent(new RecordsDeletedEvent("test", 1L, 5L, null, 3));
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    void runJob_WithCutoffDate_ShouldOnlyDeleteOlderRecords() {
+        // Given
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+        DeleteJob job = DeleteJob.builder().id(8L).datasetName("test").cutoffDate(cutoff).build();
+        claimSucceeds(job);
+        when(jobRepository.recordProgress(eq(8L), anyString(), anyLong(), anyLong(), any(), any())).thenReturn(1);
+        when(recordStorage.findIdChunkCreatedBefore(eq("test"), anyLong(), eq(cutoff), anyInt()))
+                .thenReturn(List.of(3L, 4L), Collections.emptyList());
+        when(recordStorage.deleteIdRangeCreatedBefore("test", 3L, 4L, cutoff)).thenReturn(2);
+
+        // When
+        deleteJobService.runJob(8L);
+
+        // Then
+        verify(jobRepository).recordProgress(eq(8L), anyString(), eq(4L), eq(2L), any(), any());
+        verify(jobRepository).finish(eq(8L), anyString(), eq(DeleteJob.Status.COMPLETED), isNull(), any());
+        verify(recordStorage, never()).deleteIdRange(any(), any(), any());
+    }
+
+    @Test
+    void runJob_WithPreviousProgress_ShouldResumeAfterLastDeletedId() {
+        // Given
+        DeleteJob job = DeleteJob.builder().id(10L).datasetName("test").lastDeletedId(500L).deletedCount(40L).build();
+        claimSucceeds(job);
+        when(recordStorage.findIdChunk(eq("test"), anyLong(), anyInt())).thenReturn(Collections.emptyList());
+
+        // When
+        deleteJobService.runJob(10L);
+
+        // Then
+        verify(recordStorage).findIdChunk(eq("test"), eq(500L), anyInt());
+    }
+
+    @Test
+    void runJob_WhenCancelled_ShouldStopWithoutDeleting() {
+        // Given
+        DeleteJob job = DeleteJob.builder().id(9L).datasetName("test").build();
+        when(jobRepository.claim(eq(9L), anyString(), any(), any())).thenReturn(1);
+        when(jobRepository.findById(9L)).thenReturn(Optional.of(job));
+        when(jobRepository.renewLease(eq(9L), anyString(), any(), any())).thenReturn(0);
+
+        // When
+        deleteJobService.runJob(9L);
+
+        // Then
+        verify(recordStorage, never()).findIdChunk(any(), any(), anyInt());
+        verify(recordStorage, never()).deleteIdRange(any(), any(), any());
+        verify(jobRepository, never()).finish(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void runJob_WhenCancelledDuringChunk_ShouldNotOverwriteCancellation() {
+        // Given
+        DeleteJob job = DeleteJob.builder().id(11L).datasetName("test").build();
+        claimSucceeds(job);
+        when(recordStorage.findIdChunk(eq("test"), anyLong(), anyInt())).thenReturn(List.of(1L, 2L));
+        when(recordStorage.deleteIdRange("test", 1L, 2L)).thenReturn(2);
+        // The conditional progress update finds the row no longer RUNNING
+        when(jobRepository.recordProgress(eq(11L), anyString(), anyLong(), anyLong(), any(), any())).thenReturn(0);
+
+        // When
+        deleteJobService.runJob(11L);
+
+        // Then
+        verify(recordStorage, times(1)).deleteIdRange(any(), any(), any());
+        verify(jobRepository, never()).finish(any(), any(), any(), any(), any());
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    void runJob_WhenHeldByAnotherInstance_ShouldNotTouchRecords() {
+        // Given
+        when(jobRepository.claim(eq(12L), anyString(), any(), any())).thenReturn(0);
+
+        // When
+        deleteJobService.runJob(12L);
+
+        // Then
+        verify(jobRepository, never()).findById(any());
+        verifyNoInteractions(recordStorage);
+    }
+
+    @Test
+    void cancelJob_WithRunningJob_ShouldCancelConditionally() {
+        // Given
+        DeleteJob running = DeleteJob.builder().id(13L).datasetName("test").status(DeleteJob.Status.RUNNING).build();
+        DeleteJob cancelled = DeleteJob.builder().id(13L).datasetName("test").status(DeleteJob.Status.CANCELLED).build();
+        when(jobRepository.findById(13L)).thenReturn(Optional.of(running), Optional.of(cancelled));
+        when(jobRepository.cancel(eq(13L), any())).thenReturn(1);
+
+        // When
+        DeleteJob result = deleteJobService.cancelJob(13L);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(DeleteJob.Status.CANCELLED);
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    void resumeUnfinishedJobs_ShouldSkipJobsLeasedByAnotherInstance() {
+        // Given
+        DeleteJob leased = DeleteJob.builder().id(14L).datasetName("test").status(DeleteJob.Status.RUNNING)
+                .owner("other-host").leaseExpiresAt(LocalDateTime.now().plusMinutes(5)).build();
+        when(jobRepository.findByStatusInOrderByIdAsc(any())).thenReturn(List.of(leased));
+
+        // When
+        deleteJobService.resumeUnfinishedJobs();
+
+        // Then
+        verify(jobRepository, after(200).never()).claim(any(), any(), any(), any());
+    }
+
+    @Test
+    void submitOldRecordsDeletion_WithNullCutoff_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> deleteJobService.submitOldRecordsDeletion("test", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Cutoff date cannot be null");
+    }
+
+    private void claimSucceeds(DeleteJob job) {
+        when(jobRepository.claim(eq(job.getId()), anyString(), any(), any())).thenReturn(1);
+        when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        when(jobRepository.renewLease(eq(job.getId()), anyString(), any(), any())).thenReturn(1);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.service;
+
+import com.example.entity.DatasetRecord;
+import com.example.repository.FieldSketchRepository;
+import com.example.storage.DatasetStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FieldSketchServiceTest {
+
+    @Mock
+    private FieldSketchRepository sketchRepository;
+
+    @Mock
+    private DatasetStorage recordStorage;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private PostCommitExecutor postCommitExecutor = new PostCommitExecutor(Runnable::run);
+
+    @InjectMocks
+    private FieldSketchServiceImpl sketchService;
+
+    private DatasetRecord record(long id, Map<String, Object> data) {
+        DatasetRecord record = new DatasetRecord("users", data);
+        record.setId(id);
+        return record;
+    }
+
+    @Test
+    void rebuild_WithInsertsDuringScan_ShouldFoldOnlyRecordsTheScanMissed() {
+        // Given
+        when(sketchRepository.findByDatasetNameAndFieldName(any(), any())).thenReturn(Optional.empty());
+        when(recordStorage.findByDatasetNameAndIdGreaterThanOrderByIdAsc(eq("users"), eq(0L), any()))
+                .thenAnswer(invocation -> {
+                    // Record 2 commits before the scan reads it, record 3 after
+                    sketchService.onRecordsInserted(new RecordsInsertedEvent("users", List.of(
+                            record(2, Map.of("name", "bob")), record(3, Map.of("name", "carol")))));
+                    return List.of(record(1, Map.of("name", "alice")), record(2, Map.of("name", "bob")));
+                });
+
+        // When
+        sketchService.rebuild("users");
+        Map<String, Object> result = sketchService.getApproximateDistinct("users", "name", 10);
+
+        // Then
+        assertThat(result.get("observedValues")).isEqualTo(3L);
+        assertThat(result.get("distinctCount")).isEqualTo(3L);
+        verify(sketchRepository).deleteByDatasetName("users");
+    }
+
+    @Test
+    void flushDirtySketches_OverCapacity_ShouldEvictPersistedSketches() {
+        // Given
+        ReflectionTestUtils.setField(sketchService, "maxInMemory", 2);
+        when(sketchRepository.findByDatasetNameAndFieldName(any(), any())).thenReturn(Optional.empty());
+        for (int i = 0; i < 5; i++) {
+            sketchService.onRecordsInserted(new RecordsInsertedEvent("users",
+                    List.of(record(i + 1, Map.of("field" + i, "value")))));
+        }
+
+        // When
+        sketchService.flushDirtySketches();
+
+        // Then
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(sketchService, "states")).hasSizeLessThanOrEqualTo(2);
+        verify(sketchRepository, times(5)).save(any());
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.service;
+
+import com.example.journal.JournalEntry;
+import com.example.repository.JournalProgressRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestJournalServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private DatasetService datasetService;
+
+    @Mock
+    private DatasetSchemaService schemaService;
+
+    @Mock
+    private JournalProgressRepository progressRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private IngestJournalServiceImpl journalService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        journalService = new IngestJournalServiceImpl(datasetService, schemaService, progressRepository,
+                transactionManager, meterRegistry, dir.toString(), 1, "always", 8, 1, 100, 5, 20, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journalService.shutdown();
+    }
+
+    @Test
+    void accept_WithEmptyRecord_ShouldThrowIllegalArgumentException() {
+        // When & Then
+        assertThatThrownBy(() -> journalService.accept("test", Map.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void applier_ShouldInsertConsecutiveRunsPerDatasetInOrder() throws Exception {
+        // Given
+        journalService.accept("Orders", Map.of("n", 1));
+        journalService.accept("orders", Map.of("n", 2));
+        journalService.accept("users", Map.of("n", 3));
+
+        // When
+        journalService.startApplier();
+
+        // Then
+        InOrder inOrder = inOrder(datasetService);
+        inOrder.verify(datasetService, timeout(2000)).insertRecords("orders", List.of(Map.of("n", 1), Map.of("n", 2)));
+        inOrder.verify(datasetService, timeout(2000)).insertRecords("users", List.of(Map.of("n", 3)));
+        journalService.shutdown();
+        assertThat(journalService.getStatus()).containsEntry("pending", 0L).containsEntry("appliedSequence", 3L);
+    }
+
+    @Test
+    void applier_WhenInsertFails_ShouldRetryWithoutAdvancingCheckpoint() throws Exception {
+        // Given
+        when(datasetService.insertRecords(eq("orders"), anyList()))
+                .thenThrow(new RuntimeException("database unavailable"))
+                .thenReturn(List.of());
+        journalService.accept("orders", Map.of("n", 1));
+
+        // When
+        journalService.startApplier();
+
+        // Then
+        verify(datasetService, timeout(2000).times(2)).insertRecords(eq("orders"), anyList());
+        journalService.shutdown();
+        assertThat(journalService.getStatus()).containsEntry("appliedSequence", 1L);
+    }
+
+    @Test
+    void applier_WhenOneEntryKeepsFailing_ShouldDeadLetterItAndApplyTheRest() throws Exception {
+        // Given
+        when(datasetService.insertRecords(eq("orders"), anyList())).thenAnswer(invocation -> {
+            List<?> records = invocation.getArgument(1);
+            if (records.contains(Map.of("n", 2))) {
+                throw new RuntimeException("Batch insert failed: value too long");
+            }
+            return List.of();
+        });
+        journalService.accept("orders", Map.of("n", 1));
+        journalService.accept("orders", Map.of("n", 2));
+        journalService.accept("orders", Map.of("n", 3));
+
+        // When
+        journalService.startApplier();
+
+        // Then
+        verify(datasetService, timeout(2000)).insertRecords("orders", List.of(Map.of("n", 3)));
+        journalService.shutdown();
+        verify(datasetService).insertRecords("orders", List.of(Map.of("n", 1)));
+        assertThat(journalService.getStatus())
+                .containsEntry("appliedSequence", 3L)
+                .containsEntry("deadLettered", 1L)
+                .containsEntry("lastDeadLetterSequence", 2L);
+        assertThat(Files.readAllLines(dir.resolve("dead-letter.jsonl")))
+                .singleElement().asString().contains("\"sequence\":2").contains("{\"n\":2}");
+        assertThat(meterRegistry.counter("journal.dead_lettered").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void applyEntries_WithUnreadablePayload_ShouldDeadLetterItWithoutRetrying() throws Exception {
+        // When
+        journalService.applyEntries(List.of(new JournalEntry(1, "not json".getBytes(StandardCharsets.UTF_8))));
+
+        // Then
+        verifyNoInteractions(datasetService);
+        assertThat(journalService.getStatus()).containsEntry("appliedSequence", 1L).containsEntry("deadLettered", 1L);
+        assertThat(Files.readString(dir.resolve("dead-letter.jsonl"))).contains("entryBase64");
+    }
+
+    @Test
+    void applier_AfterCrashBeforeCheckpoint_ShouldSkipEntriesTheStoreAlreadyHas() throws Exception {
+        // Given: entries 1 and 2 committed with their progress row, but the checkpoint was not written
+        when(progressRepository.findAppliedSequence(anyString(), eq("orders"))).thenReturn(Optional.of(2L));
+        journalService.accept("orders", Map.of("n", 1));
+        journalService.accept("orders", Map.of("n", 2));
+        journalService.accept("orders", Map.of("n", 3));
+
+        // When
+        journalService.startApplier();
+
+        // Then
+        verify(datasetService, timeout(2000)).insertRecords("orders", List.of(Map.of("n", 3)));
+        verify(progressRepository, timeout(2000)).advance(anyString(), eq("orders"), eq(3L));
+        journalService.shutdown();
+        verify(datasetService, times(1)).insertRecords(anyString(), anyList());
+        assertThat(journalService.getStatus()).containsEntry("appliedSequence", 3L);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PostCommitExecutorTest {
+
+    private PostCommitExecutor executor;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (executor != null) {
+            executor.drain();
+        }
+    }
+
+    @Test
+    void execute_ForSameDataset_ShouldRunTasksInSubmissionOrderOnOneThread() throws Exception {
+        // Given
+        executor = new PostCommitExecutor(4, 400);
+        List<String> applied = new CopyOnWriteArrayList<>();
+        List<String> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(50);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            String step = "step-" + i;
+            executor.execute("orders", "test", () -> {
+                applied.add(step);
+                threads.add(Thread.currentThread().getName());
+                done.countDown();
+            }, () -> fail("No repair expected"));
+        }
+
+        // Then
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(applied).isEqualTo(IntStream.range(0, 50).mapToObj(i -> "step-" + i).toList());
+        assertThat(threads).containsOnly(threads.get(0));
+    }
+
+    @Test
+    void execute_WhenLaneIsFull_ShouldDropWithoutBlockingAndRepairOnceDrained() throws Exception {
+        // Given
+        executor = new PostCommitExecutor(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger repairs = new AtomicInteger();
+        Runnable task = () -> {
+            awaitQuietly(release);
+            applied.incrementAndGet();
+        };
+
+        // When: one running, one queued, the rest overflow
+        for (int i = 0; i < 5; i++) {
+            executor.execute("orders", "test", task, repairs::incrementAndGet);
+        }
+        executor.runPendingRepairs();
+        int repairsWhileBusy = repairs.get();
+        release.countDown();
+        runRepairsUntilNonePending();
+        executor.runPendingRepairs();
+
+        // Then
+        assertThat(repairsWhileBusy).isZero();
+        assertThat(applied.get()).isEqualTo(2);
+        assertThat(repairs.get()).isEqualTo(1);
+        assertThat(executor.getPendingRepairCount()).isZero();
+    }
+
+    private void runRepairsUntilNonePending() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getPendingRepairCount() > 0 && System.currentTimeMillis() < deadline) {
+            executor.runPendingRepairs();
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.service;
+
+import com.example.deadline.Deadline;
+import com.example.deadline.DeadlineExceededException;
+import com.example.deadline.RequestDeadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class QueryCoalescerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private QueryCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new QueryCoalescer(meterRegistry);
+    }
+
+    @Test
+    void execute_WithConcurrentIdenticalCalls_ShouldRunQueryOnce() throws Exception {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> coalescer.execute("sortBy", List.of("test", 1L, "ts"), () -> {
+                executions.incrementAndGet();
+                awaitQuietly(release);
+                return "result";
+            })));
+        }
+        while (coalescer.getInFlightCount() == 0 || coalescedCount() < 7) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        // Then
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(coalescer.getInFlightCount()).isZero();
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_WithDifferentParams_ShouldNotShareExecution() {
+        // When
+        String first = coalescer.execute("sortBy", List.of("test", 1L, "ts"), () -> "v1");
+        String second = coalescer.execute("sortBy", List.of("test", 2L, "ts"), () -> "v2");
+
+        // Then
+        assertThat(first).isEqualTo("v1");
+        assertThat(second).isEqualTo("v2");
+        assertThat(coalescedCount()).isZero();
+    }
+
+    @Test
+    void execute_WhenQueryFails_ShouldPropagateAndForgetKey() {
+        // When & Then
+        assertThatThrownBy(() -> coalescer.execute("getAll", List.of("test", 1L), () -> {
+            throw new IllegalArgumentException("Dataset name cannot be null or empty");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(coalescer.getInFlightCount()).isZero();
+        assertThat(coalescer.<String>execute("getAll", List.of("test", 1L), () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void execute_WhenLeaderThrowsError_ShouldReleaseFollowers() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<String> leader = executor.submit(() -> coalescer.execute("stats", List.of("test", 1L), () -> {
+            awaitQuietly(release);
+            throw new OutOfMemoryError("simulated");
+        }));
+        while (coalescer.getInFlightCount() == 0) {
+            Thread.sleep(5);
+        }
+        Future<String> follower = executor.submit(() -> coalescer.execute("stats", List.of("test", 1L), () -> "unused"));
+        while (coalescedCount() < 1) {
+            Thread.sleep(5);
+        }
+
+        // When
+        release.countDown();
+
+        // Then
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(OutOfMemoryError.class);
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(OutOfMemoryError.class);
+        assertThat(coalescer.getInFlightCount()).isZero();
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_WhenFollowerDeadlinePasses_ShouldStopWaitingForLeader() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<String> leader = executor.submit(() -> coalescer.execute("groupBy", List.of("test", 1L), () -> {
+            awaitQuietly(release);
+            return "slow";
+        }));
+        while (coalescer.getInFlightCount() == 0) {
+            Thread.sleep(5);
+        }
+
+        // When & Then
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> RequestDeadline.callWith(Deadline.after(100, true),
+                () -> coalescer.execute("groupBy", List.of("test", 1L), () -> "unused")))
+                .isInstanceOf(DeadlineExceededException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2000);
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_WhenLeaderRunsOutOfItsOwnTime_ShouldRerunForFollower() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<String> leader = executor.submit(() -> coalescer.execute("groupBy", List.of("test", 1L), () -> {
+            awaitQuietly(release);
+            throw new DeadlineExceededException("Request abandoned: deadline of 50 ms exceeded");
+        }));
+        while (coalescer.getInFlightCount() == 0) {
+            Thread.sleep(5);
+        }
+        ExecutorService followers = Executors.newSingleThreadExecutor();
+        Future<String> follower = followers.submit(() -> RequestDeadline.callWith(Deadline.after(5000, true),
+                () -> coalescer.execute("groupBy", List.of("test", 1L), () -> "fresh")));
+        while (coalescedCount() < 1) {
+            Thread.sleep(5);
+        }
+
+        // When
+        release.countDown();
+
+        // Then
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("fresh");
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(DeadlineExceededException.class);
+        executor.shutdown();
+        followers.shutdown();
+    }
+
+    // HELPER METHODS
+
+    private double coalescedCount() {
+        var counter = meterRegistry.find("dataset.query.calls").tag("outcome", "coalesced").counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.service;
+
+import com.example.entity.DatasetRecord;
+import com.example.entity.RollupBucket;
+import com.example.entity.RollupDefinition;
+import com.example.repository.RollupBucketRepository;
+import com.example.repository.RollupDefinitionRepository;
+import com.example.storage.DatasetStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RollupServiceTest {
+
+    @Mock
+    private RollupDefinitionRepository definitionRepository;
+
+    @Mock
+    private RollupBucketRepository bucketRepository;
+
+    @Mock
+    private DatasetStorage recordStorage;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private PostCommitExecutor postCommitExecutor = new PostCommitExecutor(Runnable::run);
+
+    @InjectMocks
+    private RollupServiceImpl rollupService;
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    private RollupDefinition definition(long id, long bucketSeconds, String groupBy, String fields) {
+        return RollupDefinition.builder()
+                .id(id).datasetName("metrics").bucketSeconds(bucketSeconds)
+                .groupByField(groupBy).valueFields(fields).createdAt(HOUR)
+                .build();
+    }
+
+    private DatasetRecord record(LocalDateTime createdAt, Map<String, Object> data) {
+        DatasetRecord record = new DatasetRecord("metrics", data);
+        record.setCreatedAt(createdAt);
+        return record;
+    }
+
+    private DatasetRecord record(long id, LocalDateTime createdAt, Map<String, Object> data) {
+        DatasetRecord record = record(createdAt, data);
+        record.setId(id);
+        return record;
+    }
+
+    @Test
+    void onRecordsInserted_ShouldUpsertOneRowPerBucketGroupAndField() {
+        // Given
+        when(definitionRepository.lockByDatasetName("metrics"))
+                .thenReturn(List.of(definition(1L, 60, "host", "cpu")));
+        List<DatasetRecord> records = List.of(
+                record(HOUR.plusSeconds(5), Map.of("host", "a", "cpu", 10)),
+                record(HOUR.plusSeconds(50), Map.of("host", "a", "cpu", 30)),
+                record(HOUR.plusSeconds(65), Map.of("host", "a", "cpu", "n/a")));
+
+        // When
+        rollupService.onRecordsInserted(new RecordsInsertedEvent("metrics", records));
+
+        // Then
+        verify(bucketRepository).upsert(1L, HOUR, "a", "cpu", 2L, 40.0, 10.0, 30.0);
+        verify(bucketRepository).upsert(1L, HOUR, "a", "*", 2L, null, null, null);
+        verify(bucketRepository).upsert(1L, HOUR.plusMinutes(1), "a", "*", 1L, null, null, null);
+        verifyNoMoreInteractions(bucketRepository);
+    }
+
+    @Test
+    void onRecordsInserted_WithNestedPaths_ShouldGroupAndAggregateNestedValues() {
+        // Given
+        when(definitionRepository.lockByDatasetName("metrics"))
+                .thenReturn(List.of(definition(1L, 3600, "host.region", "load[0]")));
+        List<DatasetRecord> records = List.of(
+                record(HOUR.plusSeconds(5), Map.of("host", Map.of("region", "eu"), "load", List.of(2, 4))),
+                record(HOUR.plusSeconds(50), Map.of("host", Map.of("region", "eu"), "load", List.of(6))));
+
+        // When
+        rollupService.onRecordsInserted(new RecordsInsertedEvent("metrics", records));
+
+        // Then
+        verify(bucketRepository).upsert(1L, HOUR, "eu", "load[0]", 2L, 8.0, 2.0, 6.0);
+        verify(bucketRepository).upsert(1L, HOUR, "eu", "*", 2L, null, null, null);
+        verifyNoMoreInteractions(bucketRepository);
+    }
+
+    @Test
+    void createDefinition_WithMalformedPath_ShouldThrowIllegalArgumentException() {
+        // When & Then
+        assertThatThrownBy(() -> rollupService.createDefinition("metrics", "1h", "host..region", List.of("cpu")))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(definitionRepository, never()).save(any());
+    }
+
+    @Test
+    void query_ShouldPickCoarsestBucketAlignedToRange() {
+        // Given
+        when(definitionRepository.findByDatasetNameOrderByBucketSecondsAsc("metrics"))
+                .thenReturn(List.of(definition(1L, 60, null, "cpu"), definition(2L, 3600, null, "cpu")));
+        when(bucketRepository.findRange(anyLong(), any(), any())).thenReturn(List.of());
+
+        // When
+        Map<String, Object> aligned = rollupService.query("metrics", HOUR, HOUR.plusHours(6), null, List.of("cpu"), null);
+        Map<String, Object> unaligned = rollupService.query("metrics", HOUR, HOUR.plusMinutes(90), null, List.of("cpu"), null);
+        Map<String, Object> fineStep = rollupService.query("metrics", HOUR, HOUR.plusHours(6), null, List.of("cpu"), "5m");
+
+        // Then
+        assertThat(aligned).containsEntry("rollupId", 2L).containsEntry("widened", false);
+        assertThat(unaligned).containsEntry("rollupId", 1L).containsEntry("bucket", "1m");
+        assertThat(fineStep).containsEntry("rollupId", 1L);
+    }
+
+    @Test
+    void query_ShouldMergeFieldRowsIntoOneRowPerBucketAndGroup() {
+        // Given
+        when(definitionRepository.findByDatasetNameOrderByBucketSecondsAsc("metrics"))
+                .thenReturn(List.of(definition(2L, 3600, "host", "cpu")));
+        when(bucketRepository.findRange(2L, HOUR, HOUR.plusHours(1))).thenReturn(List.of(
+                RollupBucket.builder().definitionId(2L).bucketStart(HOUR).groupValue("a").fieldName("*").valueCount(3L).build(),
+                RollupBucket.builder().definitionId(2L).bucketStart(HOUR).groupValue("a").fieldName("cpu")
+                        .valueCount(2L).valueSum(40.0).valueMin(10.0).valueMax(30.0).build()));
+
+        // When
+        Map<String, Object> result = rollupService.query("metrics", HOUR.plusMinutes(10), HOUR.plusMinutes(40), "host", null, "1h");
+
+        // Then
+        assertThat(result).containsEntry("widened", true).containsEntry("from", HOUR).containsEntry("count", 1);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> row = ((List<Map<String, Object>>) result.get("rows")).get(0);
+        assertThat(row).containsEntry("group", "a").containsEntry("records", 3L);
+        assertThat((Map<String, Object>) row.get("cpu")).containsEntry("avg", 20.0).containsEntry("max", 30.0);
+    }
+
+    @Test
+    void createDefinition_WithBucketNotDividingADay_ShouldThrowIllegalArgumentException() {
+        // When & Then
+        assertThatThrownBy(() -> rollupService.createDefinition("metrics", "7m", null, List.of("cpu")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> rollupService.query("metrics", HOUR, HOUR.plusHours(1), "host", List.of("cpu"), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("No rollup");
+        verify(definitionRepository, never()).save(any());
+    }
+
+    @Test
+    void onRecordsInserted_ShouldSkipRecordsTheLastRebuildCounted() {
+        // Given
+        RollupDefinition rebuilt = definition(1L, 3600, null, "cpu");
+        rebuilt.setCoveredThroughId(5L);
+        when(definitionRepository.lockByDatasetName("metrics")).thenReturn(List.of(rebuilt));
+
+        // When
+        rollupService.onRecordsInserted(new RecordsInsertedEvent("metrics", List.of(
+                record(4, HOUR, Map.of("cpu", 1)), record(6, HOUR, Map.of("cpu", 2)))));
+
+        // Then
+        verify(bucketRepository).upsert(1L, HOUR, "", "cpu", 1L, 2.0, 2.0, 2.0);
+        verify(bucketRepository).upsert(1L, HOUR, "", "*", 1L, null, null, null);
+        verifyNoMoreInteractions(bucketRepository);
+    }
+
+    @Test
+    void rebuild_WithInsertsCommittedDuringScan_ShouldCatchUpUnderLockBeforeSwapping() {
+        // Given
+        RollupDefinition definition = definition(1L, 3600, null, "cpu");
+        when(definitionRepository.lockById(1L)).thenReturn(Optional.of(definition));
+        when(recordStorage.findByDatasetNameAndIdGreaterThanOrderByIdAsc(eq("metrics"), eq(0L), any()))
+                .thenReturn(List.of(record(1, HOUR, Map.of("cpu", 10)), record(2, HOUR, Map.of("cpu", 20))));
+        // Record 3 committed after the scan, before the swap took the lock
+        when(recordStorage.findByDatasetNameAndIdGreaterThanOrderByIdAsc(eq("metrics"), eq(2L), any()))
+                .thenReturn(List.of(record(3, HOUR.plusMinutes(30), Map.of("cpu", 30))));
+
+        // When
+        rollupService.rebuild(definition);
+
+        // Then
+        InOrder inOrder = inOrder(bucketRepository);
+        inOrder.verify(bucketRepository).deleteByDefinitionId(1L);
+        inOrder.verify(bucketRepository).upsert(1L, HOUR, "", "cpu", 3L, 60.0, 10.0, 30.0);
+        assertThat(definition.getCoveredThroughId()).isEqualTo(3L);
+        assertThat(definition.getRebuildHeartbeatAt()).isNull();
+    }
+
+    @Test
+    void onRecordsDeleted_ShouldRebuildAffectedRollupsOnNextStaleCheck() {
+        // Given
+        RollupDefinition definition = definition(1L, 3600, null, "cpu");
+        when(definitionRepository.findByDatasetNameOrderByBucketSecondsAsc("metrics")).thenReturn(List.of(definition));
+        when(definitionRepository.findById(1L)).thenReturn(Optional.of(definition));
+        when(definitionRepository.lockById(1L)).thenReturn(Optional.of(definition));
+        when(recordStorage.findByDatasetNameAndIdGreaterThanOrderByIdAsc(eq("metrics"), anyLong(), any())).thenReturn(List.of());
+
+        // When
+        rollupService.onRecordsDeleted(new RecordsDeletedEvent("metrics", 1, 10, null, 10));
+        rollupService.onRecordsDeleted(new RecordsDeletedEvent("metrics", 11, 20, null, 10));
+        rollupService.rebuildStaleRollups();
+
+        // Then
+        verify(bucketRepository, timeout(2000)).deleteByDefinitionId(1L);
+        rollupService.rebuildStaleRollups();
+        verify(definitionRepository, times(1)).findById(1L);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SearchTokenizerTest {
+
+    @Test
+    void terms_ShouldSplitOnNonAlphanumericsAndLowercase() {
+        assertThat(SearchTokenizer.terms("New York-City, 2024"))
+                .containsExactly("new", "york", "city", "2024");
+    }
+
+    @Test
+    void indexGrams_ShouldCoverEveryShortSubstringAsPrefix() {
+        // When
+        var grams = SearchTokenizer.indexGrams("Mumbai");
+
+        // Then
+        assertThat(grams).contains("mum", "umb", "mba", "bai", "ai", "i");
+        for (String needle : new String[]{"m", "mu", "ai", "i", "ba"}) {
+            assertThat(grams).anyMatch(gram -> gram.startsWith(needle));
+        }
+    }
+
+    @Test
+    void indexGrams_WithShortValue_ShouldIndexWholeValue() {
+        assertThat(SearchTokenizer.indexGrams("Ab")).containsExactlyInAnyOrder("ab", "b");
+    }
+
+    @Test
+    void queryGrams_ShouldReturnEveryTrigramOfTheQuery() {
+        assertThat(SearchTokenizer.queryGrams("Bombay")).containsExactly("bom", "omb", "mba", "bay");
+        assertThat(SearchTokenizer.queryGrams("ab")).isEmpty();
+    }
+}
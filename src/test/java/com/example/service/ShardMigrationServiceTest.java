@@ -0,0 +1,188 @@
+package com.example.service;
+
+import com.example.config.ShardRouter;
+import com.example.config.ShardRoutingDataSource;
+import com.example.config.ShardingProperties;
+import com.example.entity.DatasetPlacement;
+import com.example.repository.DatasetPlacementRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardMigrationServiceTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    @Mock
+    private DatasetPlacementRepository placementRepository;
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    private ShardRouter router;
+    private JdbcTemplate home;
+    private JdbcTemplate other;
+    private ShardMigrationServiceImpl migrationService;
+
+    @BeforeEach
+    void setUp() {
+        DataSource homeDataSource = shard("home");
+        DataSource otherDataSource = shard("other");
+        home = new JdbcTemplate(homeDataSource);
+        other = new JdbcTemplate(otherDataSource);
+        for (JdbcTemplate shard : List.of(home, other)) {
+            shard.execute("""
+                    CREATE TABLE dataset_records (id BIGINT PRIMARY KEY, dataset_name VARCHAR(100) NOT NULL,
+                        record_data VARCHAR(1000), created_at TIMESTAMP, updated_at TIMESTAMP)""");
+            shard.execute("""
+                    CREATE TABLE dataset_search_tokens (dataset_name VARCHAR(100), field_name VARCHAR(100),
+                        token VARCHAR(100), record_id BIGINT)""");
+            shard.execute("CREATE TABLE dataset_versions (dataset_name VARCHAR(100) PRIMARY KEY, version BIGINT NOT NULL)");
+            shard.execute("""
+                    CREATE TABLE dataset_placements (dataset_name VARCHAR(100) PRIMARY KEY, shard_name VARCHAR(100),
+                        writes_frozen BOOLEAN, updated_at TIMESTAMP)""");
+        }
+
+        router = new ShardRouter(List.of("home", "other"), 16);
+        ShardingProperties properties = new ShardingProperties();
+        properties.setPlacementRefreshMs(10);
+        properties.setMigrationChunkSize(2);
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(
+                Map.of("home", homeDataSource, "other", otherDataSource), "home");
+        migrationService = new ShardMigrationServiceImpl(router, routingDataSource, placementRepository,
+                searchIndexService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        migrationService.shutdown();
+        for (JdbcTemplate shard : List.of(home, other)) {
+            shard.execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    void startMigration_FromHomeShard_ShouldCopySwitchAndPurgeSource() throws Exception {
+        // Given
+        for (long id = 1; id <= 5; id++) {
+            insertRecord(home, id);
+        }
+        home.update("INSERT INTO dataset_versions VALUES ('users', 3)");
+        home.update("INSERT INTO dataset_placements VALUES ('users', 'home', FALSE, CURRENT_TIMESTAMP)");
+        router.pin("users", "home");
+
+        // When
+        migrationService.startMigration("users", "other");
+        Map<String, Object> status = awaitFinished("users");
+
+        // Then
+        assertThat(status).containsEntry("state", "COMPLETED").containsEntry("purgedSourceRecords", 5L);
+        assertThat(ids(other)).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(ids(home)).isEmpty();
+        assertThat(other.queryForObject("SELECT version FROM dataset_versions WHERE dataset_name = 'users'", Long.class))
+                .isGreaterThan(3L);
+        assertThat(home.queryForObject("SELECT shard_name FROM dataset_placements WHERE dataset_name = 'users'",
+                String.class)).isEqualTo("other");
+        assertThat(router.shardFor("users")).isEqualTo("other");
+        assertThat(router.isFrozen("users")).isFalse();
+        verify(searchIndexService).rebuildIndex("users");
+    }
+
+    @Test
+    void startMigration_WithWriteInFlightAtCutover_ShouldWaitForItAndCopyItsLowerId() throws Exception {
+        // Given: a writer took id 15 before id 20 committed, and has bumped the version but not committed
+        insertRecord(other, 10);
+        insertRecord(other, 20);
+        other.update("INSERT INTO dataset_versions VALUES ('users', 2)");
+        router.pin("users", "other");
+        Map<String, Object> whileWriting;
+        try (Connection writer = other.getDataSource().getConnection()) {
+            writer.setAutoCommit(false);
+            try (Statement statement = writer.createStatement()) {
+                statement.executeUpdate("INSERT INTO dataset_records (id, dataset_name, record_data) VALUES (15, 'users', '{}')");
+                statement.executeUpdate("UPDATE dataset_versions SET version = version + 1 WHERE dataset_name = 'users'");
+            }
+
+            // When
+            migrationService.startMigration("users", "home");
+            awaitState("users", "CUTOVER");
+            Thread.sleep(300);
+            whileWriting = migrationService.getMigrationStatus("users");
+            writer.commit();
+        }
+        Map<String, Object> status = awaitFinished("users");
+
+        // Then
+        assertThat(whileWriting).containsEntry("state", "CUTOVER");
+        assertThat(status).containsEntry("state", "COMPLETED").containsEntry("copiedLateCommits", 1L);
+        assertThat(ids(home)).containsExactly(10L, 15L, 20L);
+        assertThat(ids(other)).isEmpty();
+        ArgumentCaptor<DatasetPlacement> placements = ArgumentCaptor.forClass(DatasetPlacement.class);
+        verify(placementRepository, times(2)).save(placements.capture());
+        assertThat(placements.getAllValues()).extracting(DatasetPlacement::getShardName, DatasetPlacement::getWritesFrozen)
+                .containsExactly(tuple("other", true), tuple("home", false));
+    }
+
+    @Test
+    void startMigration_ToCurrentShard_ShouldThrowException() {
+        // Given
+        router.pin("users", "home");
+
+        // When & Then
+        assertThatThrownBy(() -> migrationService.startMigration("users", "home"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("already on shard home");
+    }
+
+    private DataSource shard(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:migration-" + name + "-" + DATABASES.incrementAndGet()
+                + ";MODE=MySQL;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    private void insertRecord(JdbcTemplate shard, long id) {
+        shard.update("INSERT INTO dataset_records (id, dataset_name, record_data, created_at, updated_at) "
+                + "VALUES (?, 'users', '{}', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", id);
+    }
+
+    private List<Long> ids(JdbcTemplate shard) {
+        return shard.queryForList("SELECT id FROM dataset_records WHERE dataset_name = 'users' ORDER BY id", Long.class);
+    }
+
+    private Map<String, Object> awaitState(String dataset, String state) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        Map<String, Object> status = migrationService.getMigrationStatus(dataset);
+        while (!state.equals(status.get("state")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            status = migrationService.getMigrationStatus(dataset);
+        }
+        return status;
+    }
+
+    private Map<String, Object> awaitFinished(String dataset) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        Map<String, Object> status = migrationService.getMigrationStatus(dataset);
+        while (!status.containsKey("finishedAt") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            status = migrationService.getMigrationStatus(dataset);
+        }
+        return status;
+    }
+}
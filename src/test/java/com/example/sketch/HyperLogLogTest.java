@@ -0,0 +1,68 @@
+package com.example.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_WithSmallCardinality_ShouldBeNearlyExact() {
+        // Given
+        HyperLogLog hll = new HyperLogLog();
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            hll.add("value-" + (i % 100));
+        }
+
+        // Then
+        assertThat(hll.estimate()).isBetween(97L, 103L);
+    }
+
+    @Test
+    void estimate_WithLargeCardinality_ShouldBeWithinFivePercent() {
+        // Given
+        HyperLogLog hll = new HyperLogLog();
+
+        // When
+        for (int i = 0; i < 200_000; i++) {
+            hll.add("user-" + i);
+        }
+
+        // Then
+        assertThat(hll.estimate()).isBetween(190_000L, 210_000L);
+    }
+
+    @Test
+    void merge_ShouldEstimateUnionOfBothSketches() {
+        // Given
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 5000; i++) {
+            first.add("id-" + i);
+            second.add("id-" + (i + 2500));
+        }
+
+        // When
+        first.merge(second);
+
+        // Then
+        assertThat(first.estimate()).isBetween(7125L, 7875L);
+    }
+
+    @Test
+    void fromRegisters_ShouldRestoreSameEstimate() {
+        // Given
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < 10_000; i++) {
+            hll.add(String.valueOf(i));
+        }
+
+        // When
+        HyperLogLog restored = HyperLogLog.fromRegisters(hll.toRegisters());
+
+        // Then
+        assertThat(restored.estimate()).isEqualTo(hll.estimate());
+    }
+}
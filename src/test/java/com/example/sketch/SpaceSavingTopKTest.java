@@ -0,0 +1,51 @@
+package com.example.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SpaceSavingTopKTest {
+
+    @Test
+    void top_ShouldReturnHeavyHittersInCountOrder() {
+        // Given
+        SpaceSavingTopK sketch = new SpaceSavingTopK(10);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 2 == 0) {
+                sketch.add("mumbai");
+            } else if (i % 5 == 0) {
+                sketch.add("pune");
+            } else {
+                sketch.add("city-" + i);
+            }
+        }
+
+        // Then
+        List<SpaceSavingTopK.Entry> top = sketch.top(2);
+        assertThat(top).extracting(SpaceSavingTopK.Entry::value).containsExactly("mumbai", "pune");
+        assertThat(top.get(0).count() - top.get(0).error()).isLessThanOrEqualTo(5000);
+        assertThat(top.get(0).count()).isGreaterThanOrEqualTo(5000);
+        assertThat(sketch.getTotal()).isEqualTo(10_000);
+    }
+
+    @Test
+    void add_WhenFull_ShouldReplaceMinimumAndRecordError() {
+        // Given
+        SpaceSavingTopK sketch = new SpaceSavingTopK(2);
+        sketch.add("a");
+        sketch.add("a");
+        sketch.add("b");
+
+        // When
+        sketch.add("c");
+
+        // Then
+        assertThat(sketch.entries()).containsExactly(
+                new SpaceSavingTopK.Entry("a", 2, 0),
+                new SpaceSavingTopK.Entry("c", 2, 1));
+    }
+}
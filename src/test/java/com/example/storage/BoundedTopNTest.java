@@ -0,0 +1,51 @@
+package com.example.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BoundedTopNTest {
+
+    @Test
+    void toSortedList_ShouldMatchFullSortPrefix() {
+        // Given
+        List<Integer> values = new Random(42).ints(10_000, 0, 1_000).boxed().toList();
+        BoundedTopN<Integer> topN = new BoundedTopN<>(100, Comparator.reverseOrder());
+
+        // When
+        values.forEach(topN::offer);
+
+        // Then
+        assertThat(topN.toSortedList())
+                .isEqualTo(values.stream().sorted(Comparator.reverseOrder()).limit(100).toList());
+    }
+
+    @Test
+    void toSortedList_WithTies_ShouldKeepArrivalOrder() {
+        // Given
+        BoundedTopN<String> topN = new BoundedTopN<>(2, Comparator.comparing(String::length));
+
+        // When
+        List.of("bb", "a1", "a2", "ccc").forEach(topN::offer);
+
+        // Then
+        assertThat(topN.toSortedList()).containsExactly("bb", "a1");
+    }
+
+    @Test
+    void toSortedList_WithFewerElementsThanLimit_ShouldReturnAllSorted() {
+        // Given
+        BoundedTopN<Integer> topN = new BoundedTopN<>(10, Comparator.naturalOrder());
+
+        // When
+        IntStream.of(3, 1, 2).forEach(topN::offer);
+
+        // Then
+        assertThat(topN.toSortedList()).containsExactly(1, 2, 3);
+    }
+}
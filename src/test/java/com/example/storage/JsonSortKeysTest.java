@@ -0,0 +1,69 @@
+package com.example.storage;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JsonSortKeysTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void encodeNumber_ShouldSortLikeNumericValue() {
+        // Given
+        Random random = new Random(7);
+        List<BigDecimal> numbers = IntStream.range(0, 2_000)
+                .mapToObj(i -> BigDecimal.valueOf(random.nextGaussian() * Math.pow(10, random.nextInt(12) - 4)))
+                .toList();
+
+        // When
+        List<BigDecimal> byKey = numbers.stream()
+                .sorted((a, b) -> JsonSortKeys.encodeNumber(a).compareTo(JsonSortKeys.encodeNumber(b)))
+                .toList();
+
+        // Then
+        assertThat(byKey).isSortedAccordingTo(BigDecimal::compareTo);
+    }
+
+    @Test
+    void encodeNumber_WithEqualValuesInDifferentScales_ShouldMatch() {
+        // When & Then
+        assertThat(JsonSortKeys.encodeNumber(new BigDecimal("1.50")))
+                .isEqualTo(JsonSortKeys.encodeNumber(new BigDecimal("1.5")));
+        assertThat(JsonSortKeys.encodeNumber(new BigDecimal("-0.0"))).isEqualTo("M");
+    }
+
+    @Test
+    void encode_ShouldOrderTypesLikeMysqlJson() throws Exception {
+        // Given
+        JsonNode values = mapper.readTree("[-3, 0, 2.5, 10, \"\", \"apple\", \"apples\", {\"a\":1}, [1], false, true]");
+
+        // When
+        List<String> keys = IntStream.range(0, values.size())
+                .mapToObj(i -> JsonSortKeys.encode(values.get(i)))
+                .toList();
+
+        // Then
+        assertThat(keys).isSorted();
+        assertThat(JsonSortKeys.encode(mapper.readTree("null"))).isNull();
+    }
+
+    @Test
+    void indexKey_ShouldSortByValueThenIdAndRoundTripId() {
+        // Given
+        String shortValue = JsonSortKeys.indexKey("3a", 99L);
+        String longerValue = JsonSortKeys.indexKey("3ab", 1L);
+        String sameValueHigherId = JsonSortKeys.indexKey("3a", 100L);
+
+        // When & Then
+        assertThat(List.of(shortValue, sameValueHigherId, longerValue)).isSorted();
+        assertThat(JsonSortKeys.idOf(sameValueHigherId)).isEqualTo(100L);
+    }
+}
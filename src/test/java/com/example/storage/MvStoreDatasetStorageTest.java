@@ -0,0 +1,233 @@
+package com.example.storage;
+
+import com.example.entity.DatasetRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MvStoreDatasetStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MvStoreDatasetStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        storage.close();
+    }
+
+    private MvStoreDatasetStorage open() {
+        return new MvStoreDatasetStorage(tempDir.resolve("records.mv.db").toString(), 8, List.of("age", "address.city"));
+    }
+
+    private DatasetRecord record(String dataset, Map<String, Object> data) {
+        return new DatasetRecord(dataset, data);
+    }
+
+    @Test
+    void save_ShouldAssignIncreasingIdsAndSurviveReopen() {
+        // Given
+        DatasetRecord first = storage.save(record("people", Map.of("name", "Ann")));
+        DatasetRecord second = storage.save(record("people", Map.of("name", "Bob")));
+
+        // When
+        storage.close();
+        storage = open();
+
+        // Then
+        assertThat(second.getId()).isGreaterThan(first.getId());
+        assertThat(storage.findByDatasetName("people"))
+                .extracting(DatasetRecord::getId)
+                .containsExactly(first.getId(), second.getId());
+        assertThat(storage.save(record("people", Map.of("name", "Cy"))).getId()).isGreaterThan(second.getId());
+    }
+
+    @Test
+    void sortedReads_OnIndexedAndUnindexedPaths_ShouldSkipMissingAndOrderByValue() {
+        // Given
+        storage.saveAll(List.of(
+                record("people", Map.of("age", 40, "score", 3, "address", Map.of("city", "Oslo"))),
+                record("people", Map.of("age", 9, "score", 1, "address", Map.of("city", "Bergen"))),
+                record("people", Map.of("name", "no age")),
+                record("people", Map.of("age", 100, "score", 2))));
+
+        // When
+        List<DatasetRecord> byAge = storage.findByDatasetNameSortedByJsonFieldAsc("people", "age");
+        List<DatasetRecord> topScore = storage.findTopByDatasetNameSortedByJsonFieldDesc("people", "score", 2);
+        List<DatasetRecord> byCity = storage.findByDatasetNameSortedByJsonFieldAsc("people", "address.city");
+
+        // Then
+        assertThat(byAge).extracting(r -> r.getFieldValue("age")).containsExactly(9, 40, 100);
+        assertThat(topScore).extracting(r -> r.getFieldValue("score")).containsExactly(3, 2);
+        assertThat(byCity).extracting(r -> (Object) ((Map<?, ?>) r.getFieldValue("address")).get("city"))
+                .containsExactly("Bergen", "Oslo");
+    }
+
+    @Test
+    void sortedReads_OnUnindexedNestedPath_ShouldOrderNumbersBeforeStringsAndBreakTiesById() {
+        // Given
+        List<DatasetRecord> saved = storage.saveAll(List.of(
+                record("orders", Map.of("items", List.of(Map.of("qty", 5)))),
+                record("orders", Map.of("items", List.of(Map.of("qty", "many")))),
+                record("orders", Map.of("items", List.of(Map.of("qty", 2.5)))),
+                record("orders", Map.of("items", List.of(Map.of("qty", 5)))),
+                record("orders", Map.of("items", List.of()))));
+
+        // When
+        List<DatasetRecord> ascending = storage.findByDatasetNameSortedByJsonFieldAsc("orders", "items[0].qty");
+        List<DatasetRecord> topTwo = storage.findTopByDatasetNameSortedByJsonFieldDesc("orders", "items[0].qty", 2);
+        List<DatasetRecord> numericTop = storage.findTopByDatasetNameSortedByJsonFieldDesc("orders", "items[0].qty", 4);
+
+        // Then
+        assertThat(ascending).extracting(r -> r.getFieldValue("items[0].qty")).containsExactly(2.5, 5, 5, "many");
+        assertThat(ascending.get(1).getId()).isEqualTo(saved.get(0).getId());
+        assertThat(topTwo).extracting(r -> r.getFieldValue("items[0].qty")).containsExactly("many", 5);
+        assertThat(topTwo.get(1).getId()).isEqualTo(saved.get(3).getId());
+        assertThat(numericTop).extracting(DatasetRecord::getId).containsExactly(
+                saved.get(1).getId(), saved.get(3).getId(), saved.get(0).getId(), saved.get(2).getId());
+    }
+
+    @Test
+    void sortedReads_OnUnindexedNumericPath_ShouldCompareByValue() {
+        // Given
+        storage.saveAll(List.of(
+                record("people", Map.of("stats", Map.of("rank", 10))),
+                record("people", Map.of("stats", Map.of("rank", -0.5))),
+                record("people", Map.of("stats", Map.of("rank", 9)))));
+
+        // When
+        List<DatasetRecord> byRank = storage.findTopByDatasetNameSortedByJsonFieldAsc("people", "stats.rank", 2);
+
+        // Then
+        assertThat(byRank).extracting(r -> r.getFieldValue("stats.rank")).containsExactly(-0.5, 9);
+    }
+
+    @Test
+    void save_WithExistingId_ShouldReplaceIndexEntry() {
+        // Given
+        DatasetRecord saved = storage.save(record("people", Map.of("age", 10)));
+        storage.save(record("people", Map.of("age", 20)));
+
+        // When
+        saved.setRecordDataFromMap(Map.of("age", 30));
+        storage.save(saved);
+
+        // Then
+        assertThat(storage.findByDatasetNameSortedByJsonFieldDesc("people", "age"))
+                .extracting(r -> r.getFieldValue("age"))
+                .containsExactly(30, 20);
+    }
+
+    @Test
+    void deleteIdRange_ShouldRemoveRecordsAndIndexEntries() {
+        // Given
+        List<DatasetRecord> saved = storage.saveAll(List.of(
+                record("people", Map.of("age", 1)),
+                record("people", Map.of("age", 2)),
+                record("people", Map.of("age", 3)),
+                record("other", Map.of("age", 4))));
+
+        // When
+        int deleted = storage.deleteIdRange("people", saved.get(0).getId(), saved.get(1).getId());
+
+        // Then
+        assertThat(deleted).isEqualTo(2);
+        assertThat(storage.findByDatasetNameSortedByJsonFieldAsc("people", "age"))
+                .extracting(r -> r.getFieldValue("age")).containsExactly(3);
+        assertThat(storage.countRecordsPerDataset())
+                .extracting(row -> row[0] + "=" + row[1])
+                .containsExactly("other=1", "people=1");
+    }
+
+    @Test
+    void idRangeScans_ShouldPageInIdOrderAndHonourCutoff() {
+        // Given
+        DatasetRecord old = record("people", Map.of("n", 1));
+        old.setCreatedAt(LocalDateTime.now().minusDays(2));
+        List<DatasetRecord> saved = storage.saveAll(List.of(old,
+                record("people", Map.of("n", 2)),
+                record("people", Map.of("n", 3))));
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(1);
+
+        // When
+        List<DatasetRecord> page = storage.findByDatasetNameAndIdGreaterThanOrderByIdAsc("people", saved.get(0).getId(), Limit.of(1));
+        List<Long> oldIds = storage.findIdChunkCreatedBefore("people", 0L, cutoff, 10);
+
+        // Then
+        assertThat(page).extracting(DatasetRecord::getId).containsExactly(saved.get(1).getId());
+        assertThat(oldIds).containsExactly(saved.get(0).getId());
+        assertThat(storage.countByDatasetNameAndCreatedAtBefore("people", cutoff)).isEqualTo(1);
+    }
+
+    @Test
+    void distinctValues_ShouldPageOverUnquotedText() {
+        // Given
+        storage.saveAll(List.of(
+                record("people", Map.of("city", "Oslo")),
+                record("people", Map.of("city", "Bergen")),
+                record("people", Map.of("city", "Oslo")),
+                record("people", Map.of("city", "Tromso"))));
+
+        // When
+        List<String> first = storage.findDistinctJsonFieldValuesFirstPage("people", "city", 2);
+        List<String> next = storage.findDistinctJsonFieldValuesAfter("people", "city", first.get(1), 2);
+
+        // Then
+        assertThat(first).containsExactly("Bergen", "Oslo");
+        assertThat(next).containsExactly("Tromso");
+    }
+
+    @Test
+    void getVersion_ShouldMoveWithEveryWriteAndSurviveReopen() {
+        // Given
+        List<DatasetRecord> saved = storage.saveAll(List.of(
+                record("people", Map.of("age", 1)), record("people", Map.of("age", 2))));
+        storage.save(record("pets", Map.of("age", 3)));
+
+        // When
+        int deleted = storage.deleteIdRange("people", saved.get(0).getId(), saved.get(0).getId());
+        storage.deleteIdRange("people", 1_000L, 2_000L);
+        storage.close();
+        storage = open();
+
+        // Then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(storage.getVersion("people")).isEqualTo(2L);
+        assertThat(storage.getVersion("pets")).isEqualTo(1L);
+        assertThat(storage.getVersion("unknown")).isZero();
+        assertThat(storage.getTotalVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void datasetNames_ShouldMatchRegardlessOfCase() {
+        // Given
+        DatasetRecord saved = storage.save(record("People", Map.of("name", "Ann", "age", 30)));
+        storage.save(record("other", Map.of("name", "Bob")));
+
+        // When
+        List<DatasetRecord> byLowerCase = storage.findByDatasetName("people");
+        List<DatasetRecord> byIds = storage.findByDatasetNameAndIdIn(" PEOPLE ", List.of(saved.getId(), 999L));
+
+        // Then
+        assertThat(byLowerCase).extracting(DatasetRecord::getId).containsExactly(saved.getId());
+        assertThat(byIds).extracting(DatasetRecord::getId).containsExactly(saved.getId());
+        assertThat(storage.findTopByDatasetNameSortedByJsonFieldAsc("PEOPLE", "age", 10)).hasSize(1);
+        assertThat(storage.getVersion("people")).isEqualTo(storage.getVersion("People")).isEqualTo(1L);
+        assertThat(storage.countRecordsPerDataset()).extracting(row -> row[0]).containsExactly("other", "people");
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.warmup;
+
+import com.example.entity.DatasetAccessStat;
+import com.example.repository.DatasetAccessStatRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccessStatsRecorderTest {
+
+    @Mock
+    private DatasetAccessStatRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void flush_ShouldAddCountedHitsAndInsertNewShapes() {
+        // Given
+        AccessStatsRecorder recorder = new AccessStatsRecorder(repository, transactionManager, 100);
+        recorder.record(QueryShape.sortBy("Orders", "total", "DESC", 10));
+        recorder.record(QueryShape.sortBy("orders", "total", "desc", 10));
+        recorder.record(QueryShape.stats("orders"));
+        when(repository.addHits(eq("orders"), eq(QueryShape.SORT_BY), eq("total"), eq("desc"), eq(10), eq(2L), any()))
+                .thenReturn(1);
+        when(repository.addHits(eq("orders"), eq(QueryShape.STATS), eq(""), eq(""), eq(0), eq(1L), any()))
+                .thenReturn(0);
+
+        // When
+        recorder.flush();
+
+        // Then
+        ArgumentCaptor<DatasetAccessStat> inserted = ArgumentCaptor.forClass(DatasetAccessStat.class);
+        verify(repository).saveAndFlush(inserted.capture());
+        assertThat(inserted.getValue().getOperation()).isEqualTo(QueryShape.STATS);
+        assertThat(inserted.getValue().getHits()).isEqualTo(1L);
+        assertThat(recorder.getPendingShapes()).isZero();
+    }
+
+    @Test
+    void record_BeyondTrackingCap_ShouldOnlyCountKnownShapes() {
+        // Given
+        AccessStatsRecorder recorder = new AccessStatsRecorder(repository, transactionManager, 1);
+        recorder.record(QueryShape.getAll("a"));
+
+        // When
+        recorder.record(QueryShape.getAll("b"));
+        recorder.record(QueryShape.getAll("a"));
+        when(repository.addHits(anyString(), anyString(), anyString(), anyString(), anyInt(), anyLong(), any()))
+                .thenReturn(1);
+        recorder.flush();
+
+        // Then
+        verify(repository).addHits(eq("a"), eq(QueryShape.GET_ALL), eq(""), eq(""), eq(0), eq(2L),
+                any(LocalDateTime.class));
+        verifyNoMoreInteractions(repository);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.warmup;
+
+import com.example.config.WarmupProperties;
+import com.example.service.DatasetSchemaService;
+import com.example.service.DatasetService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+
+    @Mock
+    private AccessStatsRecorder accessStats;
+
+    @Mock
+    private DatasetService datasetService;
+
+    @Mock
+    private DatasetSchemaService schemaService;
+
+    private final WarmupProperties properties = new WarmupProperties();
+    private final AtomicLong clock = new AtomicLong();
+    private CacheWarmer warmer;
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxQueriesPerSecond(0);
+        warmer = new CacheWarmer(accessStats, datasetService, schemaService, properties, clock::get);
+    }
+
+    @Test
+    void run_ShouldRepeatShapesUntilLatencySettlesThenReportUp() {
+        // Given: the sort takes 900, 300 then 280 ms
+        when(accessStats.hottest(any(), anyInt())).thenReturn(List.of(QueryShape.sortBy("orders", "total", "desc", 10)));
+        long[] latenciesMs = {900, 300, 280};
+        int[] calls = {0};
+        when(datasetService.sortRecordsByField("orders", "total", "desc", 10)).thenAnswer(invocation -> {
+            clock.addAndGet(latenciesMs[calls[0]++] * 1_000_000L);
+            return List.of();
+        });
+
+        // When
+        warmer.run(null);
+
+        // Then
+        verify(schemaService).preload("orders");
+        verify(datasetService, times(3)).sortRecordsByField("orders", "total", "desc", 10);
+        assertThat(warmer.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(warmer.health().getDetails()).containsEntry("state", "done").containsEntry("queries", 3);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> shapes = (List<Map<String, Object>>) warmer.health().getDetails().get("shapes");
+        assertThat(shapes).singleElement().satisfies(shape -> assertThat(shape)
+                .containsEntry("coldMs", 900L).containsEntry("warmMs", 280L).containsEntry("passes", 3));
+    }
+
+    @Test
+    void run_WhenBudgetRunsOut_ShouldStopAndStillReportUp() {
+        // Given
+        properties.setMaxDurationMs(1000);
+        when(accessStats.hottest(any(), anyInt())).thenReturn(List.of(
+                QueryShape.stats("orders"), QueryShape.groupBy("orders", "status")));
+        when(datasetService.getDatasetStats("orders")).thenAnswer(invocation -> {
+            clock.addAndGet(1_500_000_000L);
+            return Map.of();
+        });
+
+        // When
+        warmer.run(null);
+
+        // Then
+        verify(datasetService, times(1)).getDatasetStats("orders");
+        verify(datasetService, never()).groupRecordsByField(any(), any());
+        assertThat(warmer.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(warmer.health().getDetails()).containsEntry("state", "budget-exhausted");
+    }
+
+    @Test
+    void run_WhenQueryFails_ShouldMoveOnToNextShape() {
+        // Given
+        when(accessStats.hottest(any(), anyInt())).thenReturn(List.of(
+                QueryShape.groupBy("orders", "status"), QueryShape.getAll("orders")));
+        when(datasetService.groupRecordsByField("orders", "status")).thenThrow(new RuntimeException("boom"));
+
+        // When
+        warmer.run(null);
+
+        // Then
+        verify(datasetService, times(1)).groupRecordsByField("orders", "status");
+        verify(datasetService, atLeastOnce()).getAllRecords("orders");
+        assertThat(warmer.health().getDetails()).containsEntry("failed", 1);
+    }
+
+    @Test
+    void selectShapes_ShouldKeepHottestShapesOfTopDatasetsOnly() {
+        // Given
+        properties.setMaxDatasets(2);
+        properties.setMaxQueries(3);
+        List<QueryShape> candidates = List.of(
+                QueryShape.getAll("a"), QueryShape.getAll("b"), QueryShape.getAll("c"),
+                QueryShape.stats("a"), QueryShape.stats("b"));
+
+        // When
+        List<QueryShape> selected = warmer.selectShapes(candidates);
+
+        // Then
+        assertThat(selected).containsExactly(QueryShape.getAll("a"), QueryShape.getAll("b"), QueryShape.stats("a"));
+    }
+}